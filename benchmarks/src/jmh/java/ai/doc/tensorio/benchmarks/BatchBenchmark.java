@@ -0,0 +1,93 @@
+/*
+ * BatchBenchmark.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.data.Batch;
+
+/**
+ * Filling a batch item by item and reading it back by item and by column, as the batched run
+ * paths do.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BatchBenchmark {
+
+    private static final String[] KEYS = new String[]{"image", "label", "weight"};
+
+    @Param({"8", "64"})
+    public int batchSize;
+
+    private Batch.Item[] items;
+    private Batch batch;
+
+    @Setup
+    public void setUp() {
+        items = new Batch.Item[batchSize];
+
+        for (int i = 0; i < batchSize; i++) {
+            Batch.Item item = new Batch.Item();
+            item.put("image", new float[224 * 224 * 3]);
+            item.put("label", new float[]{i});
+            item.put("weight", new float[]{1});
+            items[i] = item;
+        }
+
+        batch = new Batch(items);
+    }
+
+    @Benchmark
+    public Batch add() {
+        Batch b = new Batch(KEYS);
+
+        for (Batch.Item item : items) {
+            b.add(item);
+        }
+
+        return b;
+    }
+
+    @Benchmark
+    public void getItem(Blackhole blackhole) {
+        for (int i = 0; i < batchSize; i++) {
+            blackhole.consume(batch.get(i));
+        }
+    }
+
+    @Benchmark
+    public void getColumn(Blackhole blackhole) {
+        for (String key : KEYS) {
+            blackhole.consume(batch.get(key));
+        }
+    }
+}
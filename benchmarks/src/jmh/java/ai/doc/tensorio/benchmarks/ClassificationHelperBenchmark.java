@@ -0,0 +1,86 @@
+/*
+ * ClassificationHelperBenchmark.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.utilities.ClassificationHelper;
+
+/**
+ * Selecting and smoothing the top results of a 1000 class classification, as an image classifier
+ * does on every frame.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ClassificationHelperBenchmark {
+
+    private static final int CLASSES = 1000;
+
+    private Map<String, Float> classification;
+    private List<Map.Entry<String, Float>> previous;
+    private List<Map.Entry<String, Float>> current;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        classification = new HashMap<>(CLASSES);
+
+        for (int i = 0; i < CLASSES; i++) {
+            classification.put("class_" + i, random.nextFloat());
+        }
+
+        previous = ClassificationHelper.topN(classification, 5);
+
+        for (int i = 0; i < CLASSES; i++) {
+            classification.put("class_" + i, random.nextFloat());
+        }
+
+        current = ClassificationHelper.topN(classification, 5);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Float>> topN() {
+        return ClassificationHelper.topN(classification, 5);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Float>> topNWithThreshold() {
+        return ClassificationHelper.topN(classification, 5, 0.5f);
+    }
+
+    @Benchmark
+    public List<Map.Entry<String, Float>> smoothClassification() {
+        return ClassificationHelper.smoothClassification(previous, current);
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * JSONParsingBenchmark.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.benchmarks;
+
+import org.json.JSONArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.modelbundle.JSONParsing;
+
+/**
+ * Parsing the inputs and outputs of a model.json, which happens whenever a bundle is opened.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JSONParsingBenchmark {
+
+    private static final String INPUTS = "[" +
+            "{ \"name\": \"image\", \"type\": \"image\", \"shape\": [224,224,3], \"format\": \"RGB\"," +
+            "  \"normalize\": { \"standard\": \"[-1,1]\" } }," +
+            "{ \"name\": \"features\", \"type\": \"array\", \"shape\": [-1,128]," +
+            "  \"quantize\": { \"standard\": \"[0,1]\" } }," +
+            "{ \"name\": \"ids\", \"type\": \"array\", \"shape\": [16], \"dtype\": \"int64\" }" +
+            "]";
+
+    private static final String OUTPUTS = "[" +
+            "{ \"name\": \"scores\", \"type\": \"array\", \"shape\": [1000]," +
+            "  \"dequantize\": { \"scale\": 0.00390625, \"bias\": 0 } }," +
+            "{ \"name\": \"mask\", \"type\": \"image\", \"shape\": [224,224,3], \"format\": \"RGB\"," +
+            "  \"denormalize\": { \"standard\": \"[0,1]\" } }," +
+            "{ \"name\": \"caption\", \"type\": \"string\", \"shape\": [64], \"dtype\": \"uint8\" }" +
+            "]";
+
+    private String inputs;
+    private String outputs;
+
+    @Setup
+    public void setUp() {
+        inputs = INPUTS;
+        outputs = OUTPUTS;
+    }
+
+    @Benchmark
+    public List<LayerInterface> parseInputs() throws Exception {
+        return JSONParsing.parseIO(null, new JSONArray(inputs), LayerInterface.Mode.Input);
+    }
+
+    @Benchmark
+    public List<LayerInterface> parseOutputs() throws Exception {
+        return JSONParsing.parseIO(null, new JSONArray(outputs), LayerInterface.Mode.Output);
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * PixelNormalizerBenchmark.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.data.PixelDenormalizer;
+import ai.doc.tensorio.core.data.PixelNormalizer;
+
+/**
+ * Normalizing and denormalizing a 224x224 ARGB image channel by channel, and normalizing it in
+ * bulk through the lookup table the bitmap converters use.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PixelNormalizerBenchmark {
+
+    private static final int PIXELS = 224 * 224;
+
+    private final PixelNormalizer singleBias = PixelNormalizer.PixelNormalizerNegativeOneToOne();
+    private final PixelNormalizer perChannelBias = PixelNormalizer.PixelNormalizerPerChannelBias(1.0f/255.0f, -0.485f, -0.456f, -0.406f);
+    private final PixelDenormalizer denormalizer = PixelDenormalizer.PixelDenormalizerNegativeOneToOne();
+
+    private final int[] argb = new int[PIXELS];
+    private final float[] rgb = new float[PIXELS * 3];
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(PIXELS * 3 * 4).order(ByteOrder.nativeOrder());
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < PIXELS; i++) {
+            argb[i] = random.nextInt();
+        }
+
+        for (int i = 0; i < rgb.length; i++) {
+            rgb[i] = random.nextFloat() * 2 - 1;
+        }
+    }
+
+    @Benchmark
+    public float[] normalizeSingleBias() {
+        return normalize(singleBias);
+    }
+
+    @Benchmark
+    public float[] normalizePerChannelBias() {
+        return normalize(perChannelBias);
+    }
+
+    @Benchmark
+    public ByteBuffer normalizeLookupTable() {
+        buffer.rewind();
+        perChannelBias.normalize(argb, PIXELS, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer normalizeLookupTablePlanar() {
+        buffer.rewind();
+        perChannelBias.normalizePlanar(argb, PIXELS, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public int[] denormalize() {
+        for (int i = 0, j = 0; i < PIXELS; i++, j += 3) {
+            argb[i] = 0xFF000000
+                    | (denormalizer.denormalize(rgb[j], 0) << 16)
+                    | (denormalizer.denormalize(rgb[j + 1], 1) << 8)
+                    | denormalizer.denormalize(rgb[j + 2], 2);
+        }
+
+        return argb;
+    }
+
+    private float[] normalize(PixelNormalizer normalizer) {
+        for (int i = 0, j = 0; i < PIXELS; i++, j += 3) {
+            int pixel = argb[i];
+            rgb[j] = normalizer.normalize((pixel >> 16) & 0xFF, 0);
+            rgb[j + 1] = normalizer.normalize((pixel >> 8) & 0xFF, 1);
+            rgb[j + 2] = normalizer.normalize(pixel & 0xFF, 2);
+        }
+
+        return rgb;
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * PixelSamplerBenchmark.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.data.PixelNormalizer;
+import ai.doc.tensorio.core.data.PixelSampler;
+import ai.doc.tensorio.core.data.PixelSource;
+import ai.doc.tensorio.core.data.YuvPixelSource;
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
+import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
+
+/**
+ * Resizing and normalizing a 1920x1080 camera frame into a 224x224 or 512x512 float layer in a
+ * single pass, as the bitmap converters do, serially and in parallel stripes. The `yuv` variant
+ * reads the frame from NV21 planes and rotates it upright as it samples.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PixelSamplerBenchmark {
+
+    private static final int SOURCE_WIDTH = 1920;
+    private static final int SOURCE_HEIGHT = 1080;
+    @Param({"224", "512"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    @Param({"Stretch", "CenterCrop", "Letterbox"})
+    public ResizeMode resizeMode;
+
+    @Param({"Bilinear", "Nearest"})
+    public Interpolation interpolation;
+
+    private final PixelSampler sampler = new PixelSampler();
+    private ByteBuffer buffer;
+
+    private PixelSource source;
+    private PixelSource yuvSource;
+    private PixelBufferLayerDescription description;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+        int[] pixels = new int[SOURCE_WIDTH * SOURCE_HEIGHT];
+
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+
+        byte[] nv21 = new byte[SOURCE_WIDTH * SOURCE_HEIGHT * 3 / 2];
+        random.nextBytes(nv21);
+
+        source = PixelSource.PixelSourceForPixels(pixels, SOURCE_WIDTH, SOURCE_HEIGHT);
+        yuvSource = YuvPixelSource.YuvPixelSourceForNV21(nv21, SOURCE_WIDTH, SOURCE_HEIGHT, 90);
+        buffer = ByteBuffer.allocateDirect(size * size * 3 * 4).order(ByteOrder.nativeOrder());
+        sampler.setParallel(parallel);
+
+        description = new PixelBufferLayerDescription(
+                PixelFormat.RGB,
+                new ImageVolume(size, size, 3),
+                false,
+                PixelNormalizer.PixelNormalizerNegativeOneToOne(),
+                null,
+                false,
+                resizeMode,
+                interpolation);
+    }
+
+    @Benchmark
+    public ByteBuffer interleaved() {
+        buffer.rewind();
+        sampler.sample(source, description, buffer, TensorLayout.NHWC);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer planar() {
+        buffer.rewind();
+        sampler.sample(source, description, buffer, TensorLayout.NCHW);
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer yuv() {
+        buffer.rewind();
+        sampler.sample(yuvSource, description, buffer, TensorLayout.NHWC);
+        return buffer;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * QuantizerBenchmark.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.data.Dequantizer;
+import ai.doc.tensorio.core.data.Quantizer;
+
+/**
+ * Quantizing and dequantizing a vector one value at a time and in bulk, reported per value.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class QuantizerBenchmark {
+
+    private static final int LENGTH = 4096;
+
+    private final Quantizer quantizer = Quantizer.DataQuantizerZeroToOne();
+    private final Dequantizer dequantizer = Dequantizer.DataDequantizerZeroToOne();
+
+    private final float[] floats = new float[LENGTH];
+    private final int[] ints = new int[LENGTH];
+    private final byte[] bytes = new byte[LENGTH];
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(LENGTH);
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < LENGTH; i++) {
+            floats[i] = random.nextFloat();
+            ints[i] = random.nextInt(256);
+            buffer.put(i, (byte) ints[i]);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public byte[] quantize() {
+        for (int i = 0; i < LENGTH; i++) {
+            bytes[i] = (byte) quantizer.quantize(floats[i]);
+        }
+
+        return bytes;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public float[] dequantize() {
+        for (int i = 0; i < LENGTH; i++) {
+            floats[i] = dequantizer.dequantize(ints[i]);
+        }
+
+        return floats;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public ByteBuffer quantizeBulk() {
+        buffer.rewind();
+        quantizer.quantize(floats, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public float[] dequantizeBulk() {
+        buffer.rewind();
+        dequantizer.dequantize(buffer, floats);
+        return floats;
+    }
+}
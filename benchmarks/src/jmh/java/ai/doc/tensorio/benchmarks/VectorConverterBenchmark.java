@@ -0,0 +1,143 @@
+/*
+ * VectorConverterBenchmark.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.data.Dequantizer;
+import ai.doc.tensorio.core.data.Quantizer;
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+
+/**
+ * Converting vectors to and from the buffers the TF Lite and TensorFlow backends run on, with and
+ * without quantization. The `cached` variants reuse a buffer as the backends do when buffer
+ * caching is on, and the `into` variants read into a preallocated destination.
+ */
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VectorConverterBenchmark {
+
+    @Param({"1000", "150528"})
+    public int length;
+
+    @Param({"false", "true"})
+    public boolean quantized;
+
+    private final ai.doc.tensorio.tflite.data.VectorConverter tfliteConverter = new ai.doc.tensorio.tflite.data.VectorConverter();
+    private final ai.doc.tensorio.tensorflow.data.VectorConverter tensorflowConverter = new ai.doc.tensorio.tensorflow.data.VectorConverter();
+
+    private VectorLayerDescription description;
+
+    private float[] floats;
+    private float[] destination;
+
+    private ByteBuffer tfliteBuffer;
+    private ByteBuffer tensorflowBuffer;
+
+    @Setup
+    public void setUp() {
+        description = new VectorLayerDescription(
+                new int[]{length},
+                false,
+                null,
+                quantized,
+                quantized ? Quantizer.DataQuantizerZeroToOne() : null,
+                quantized ? Dequantizer.DataDequantizerZeroToOne() : null,
+                quantized ? DataType.UInt8 : DataType.Float32);
+
+        Random random = new Random(0);
+        floats = new float[length];
+        destination = new float[length];
+
+        for (int i = 0; i < length; i++) {
+            floats[i] = random.nextFloat();
+        }
+
+        tfliteBuffer = tfliteConverter.createBackingBuffer(description);
+        tensorflowBuffer = tensorflowConverter.createBackingBuffer(description, 1);
+
+        tfliteConverter.toByteBuffer(floats, description, tfliteBuffer);
+        tensorflowConverter.toByteBuffer(floats, description, tensorflowBuffer);
+    }
+
+    //region TF Lite
+
+    @Benchmark
+    public ByteBuffer tfliteToByteBuffer() {
+        return tfliteConverter.toByteBuffer(floats, description, null);
+    }
+
+    @Benchmark
+    public ByteBuffer tfliteToByteBufferCached() {
+        return tfliteConverter.toByteBuffer(floats, description, tfliteBuffer);
+    }
+
+    @Benchmark
+    public Object tfliteFromByteBuffer() {
+        return tfliteConverter.fromByteBuffer(tfliteBuffer, description);
+    }
+
+    @Benchmark
+    public float[] tfliteFromByteBufferInto() {
+        tfliteConverter.fromByteBufferInto(tfliteBuffer, description, destination);
+        return destination;
+    }
+
+    //endRegion
+
+    //region TensorFlow
+
+    @Benchmark
+    public ByteBuffer tensorflowToByteBuffer() {
+        return tensorflowConverter.toByteBuffer(floats, description, null);
+    }
+
+    @Benchmark
+    public ByteBuffer tensorflowToByteBufferCached() {
+        return tensorflowConverter.toByteBuffer(floats, description, tensorflowBuffer);
+    }
+
+    @Benchmark
+    public Object tensorflowFromByteBuffer() {
+        return tensorflowConverter.fromByteBuffer(tensorflowBuffer, description);
+    }
+
+    @Benchmark
+    public float[] tensorflowFromByteBufferInto() {
+        tensorflowConverter.fromByteBufferInto(tensorflowBuffer, description, destination);
+        return destination;
+    }
+
+    //endRegion
+}
@@ -0,0 +1,172 @@
+/*
+ * ConverterAllocationTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.benchmarks;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import ai.doc.tensorio.core.data.Dequantizer;
+import ai.doc.tensorio.core.data.PixelSource;
+import ai.doc.tensorio.core.data.Quantizer;
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
+import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.utilities.AllocationCounter;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Guards the TF Lite and TensorFlow converters' steady state against allocation regressions:
+ * writing into a cached buffer and reading into a preallocated destination must not allocate.
+ */
+
+public class ConverterAllocationTest {
+
+    private static final int WARMUPS = 10_000;
+    private static final int ITERATIONS = 10_000;
+    private static final int LENGTH = 64;
+
+    private final ai.doc.tensorio.tflite.data.VectorConverter tfliteVectors = new ai.doc.tensorio.tflite.data.VectorConverter();
+    private final ai.doc.tensorio.tflite.data.BitmapConverter tflitePixels = new ai.doc.tensorio.tflite.data.BitmapConverter();
+    private final ai.doc.tensorio.tensorflow.data.VectorConverter tensorflowVectors = new ai.doc.tensorio.tensorflow.data.VectorConverter();
+    private final ai.doc.tensorio.tensorflow.data.BitmapConverter tensorflowPixels = new ai.doc.tensorio.tensorflow.data.BitmapConverter();
+
+    private float[] floats;
+    private float[] destination;
+
+    @Before
+    public void setUp() {
+        assumeTrue(AllocationCounter.isSupported());
+
+        floats = new float[LENGTH];
+        destination = new float[LENGTH];
+
+        for (int i = 0; i < LENGTH; i++) {
+            floats[i] = i / (float) LENGTH;
+        }
+    }
+
+    private static VectorLayerDescription vector(DataType dtype, boolean quantized) {
+        return new VectorLayerDescription(
+                new int[]{LENGTH},
+                false,
+                null,
+                quantized,
+                quantized ? Quantizer.DataQuantizerZeroToOne() : null,
+                quantized ? Dequantizer.DataDequantizerZeroToOne() : null,
+                dtype);
+    }
+
+    private static void assertDoesNotAllocate(AllocationCounter.Call call) throws Exception {
+        assertEquals(0, AllocationCounter.bytesPerCall(WARMUPS, ITERATIONS, call), 1);
+    }
+
+    @Test
+    public void testTFLiteFloatVectors() throws Exception {
+        for (boolean quantized : new boolean[]{false, true}) {
+            VectorLayerDescription description = vector(quantized ? DataType.UInt8 : DataType.Float32, quantized);
+            ByteBuffer cache = tfliteVectors.createBackingBuffer(description);
+
+            assertDoesNotAllocate(() -> tfliteVectors.toByteBuffer(floats, description, cache));
+            assertDoesNotAllocate(() -> tfliteVectors.fromByteBufferInto(cache, description, destination));
+            assertArrayEquals(floats, destination, quantized ? 1 / 255f : 0);
+        }
+    }
+
+    @Test
+    public void testTFLiteHalfAndIntegralVectors() throws Exception {
+        VectorLayerDescription half = vector(DataType.Float16, false);
+        ByteBuffer halfCache = tfliteVectors.createBackingBuffer(half);
+
+        assertDoesNotAllocate(() -> tfliteVectors.toByteBuffer(floats, half, halfCache));
+        assertDoesNotAllocate(() -> tfliteVectors.fromByteBufferInto(halfCache, half, destination));
+
+        int[] ints = new int[LENGTH];
+        int[] intDestination = new int[LENGTH];
+        VectorLayerDescription int32 = vector(DataType.Int32, false);
+        ByteBuffer intCache = tfliteVectors.createBackingBuffer(int32);
+
+        assertDoesNotAllocate(() -> tfliteVectors.toByteBuffer(ints, int32, intCache));
+        assertDoesNotAllocate(() -> tfliteVectors.fromByteBufferInto(intCache, int32, intDestination));
+
+        long[] longs = new long[LENGTH];
+        long[] longDestination = new long[LENGTH];
+        VectorLayerDescription int64 = vector(DataType.Int64, false);
+        ByteBuffer longCache = tfliteVectors.createBackingBuffer(int64);
+
+        assertDoesNotAllocate(() -> tfliteVectors.toByteBuffer(longs, int64, longCache));
+        assertDoesNotAllocate(() -> tfliteVectors.fromByteBufferInto(longCache, int64, longDestination));
+    }
+
+    @Test
+    public void testTensorFlowFloatVectors() throws Exception {
+        for (boolean quantized : new boolean[]{false, true}) {
+            VectorLayerDescription description = vector(quantized ? DataType.UInt8 : DataType.Float32, quantized);
+            ByteBuffer cache = tensorflowVectors.createBackingBuffer(description, 1);
+
+            assertDoesNotAllocate(() -> tensorflowVectors.toByteBuffer(floats, description, cache));
+            assertDoesNotAllocate(() -> tensorflowVectors.fromByteBufferInto(cache, description, destination));
+            assertArrayEquals(floats, destination, quantized ? 1 / 255f : 0);
+        }
+    }
+
+    @Test
+    public void testTensorFlowIntegralVectors() throws Exception {
+        int[] ints = new int[LENGTH];
+        int[] intDestination = new int[LENGTH];
+        VectorLayerDescription int32 = vector(DataType.Int32, false);
+        ByteBuffer intCache = tensorflowVectors.createBackingBuffer(int32, 1);
+
+        assertDoesNotAllocate(() -> tensorflowVectors.toByteBuffer(ints, int32, intCache));
+        assertDoesNotAllocate(() -> tensorflowVectors.fromByteBufferInto(intCache, int32, intDestination));
+
+        long[] longs = new long[LENGTH];
+        long[] longDestination = new long[LENGTH];
+        VectorLayerDescription int64 = vector(DataType.Int64, false);
+        ByteBuffer longCache = tensorflowVectors.createBackingBuffer(int64, 1);
+
+        assertDoesNotAllocate(() -> tensorflowVectors.toByteBuffer(longs, int64, longCache));
+        assertDoesNotAllocate(() -> tensorflowVectors.fromByteBufferInto(longCache, int64, longDestination));
+    }
+
+    @Test
+    public void testPixelSources() throws Exception {
+        int width = 32;
+        int height = 32;
+        PixelSource source = PixelSource.PixelSourceForPixels(new int[width * height], width, height);
+
+        for (boolean quantized : new boolean[]{false, true}) {
+            PixelBufferLayerDescription description = new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(height, width, 3), false, null, null, quantized, ResizeMode.Stretch, Interpolation.Nearest);
+
+            ByteBuffer tfliteCache = tflitePixels.createBackingBuffer(description);
+            ByteBuffer tensorflowCache = tensorflowPixels.createBackingBuffer(description, 1);
+
+            assertDoesNotAllocate(() -> tflitePixels.toByteBuffer(source, description, tfliteCache));
+            assertDoesNotAllocate(() -> tensorflowPixels.toByteBuffer(source, description, tensorflowCache));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * EncodedImageDecoderIntegrationTests.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.PixelFormat;
+
+import static org.junit.Assert.*;
+
+public class EncodedImageDecoderIntegrationTests {
+
+    private final EncodedImageDecoder decoder = new EncodedImageDecoder();
+    private final PixelBufferLayerDescription description = new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(32, 32, 3), false, null, null, false);
+
+    private EncodedImage image;
+
+    @Before
+    public void setUp() {
+        Bitmap bitmap = Bitmap.createBitmap(128, 128, Bitmap.Config.ARGB_8888);
+        bitmap.eraseColor(0xFF336699);
+
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream);
+        image = EncodedImage.EncodedImageForBytes(stream.toByteArray());
+    }
+
+    @Test
+    public void testDecodesAtReducedSize() {
+        try (EncodedImageDecoder.Decoded decoded = decoder.decode(image, description)) {
+            assertEquals(32, decoded.getPixels().getWidth());
+            assertEquals(32, decoded.getPixels().getHeight());
+        }
+    }
+
+    @Test
+    public void testReusesClosedBuffers() {
+        EncodedImageDecoder.Decoded first = decoder.decode(image, description);
+        EncodedImageDecoder.Decoded concurrent = decoder.decode(image, description);
+        assertNotSame(first, concurrent);
+
+        first.close();
+        concurrent.close();
+
+        // Only one set of buffers is kept
+
+        EncodedImageDecoder.Decoded next = decoder.decode(image, description);
+        assertSame(first, next);
+        next.close();
+
+        decoder.clear();
+
+        EncodedImageDecoder.Decoded cleared = decoder.decode(image, description);
+        assertNotSame(first, cleared);
+        cleared.close();
+    }
+}
@@ -22,13 +22,29 @@
 
 package ai.doc.tensorio.core.data;
 
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
 /**
  * A `DataDequantizer` dequantizes quantized values, converting them from
  * int representations to floating point representations.
+ *
+ * Because quantized values are unsigned bytes there are only 256 of them, and a dequantizer can
+ * be expressed as a lookup table. The bulk `dequantize(ByteBuffer, float[])` reads a whole vector
+ * through that table and is what the vector converters use.
  */
 
 public abstract class Dequantizer {
 
+    /** The number of entries in the lookup table */
+
+    public static final int TABLE_SIZE = 256;
+
+    /** The lookup table, built on first use */
+
+    private volatile float[] lookupTable;
+
     /**
      * @param value The int value that will be dequantized
      * @return A floating point representation of the value
@@ -36,6 +52,53 @@ public abstract class Dequantizer {
 
     public abstract float dequantize(int value);
 
+    //region Lookup Table
+
+    /**
+     * Returns the dequantized value of every quantized value in `[0,255]`, built on first use by
+     * calling `dequantize(value)`. The value for `v` is at index `v`.
+     *
+     * The table is shared by every caller and must not be modified. Subclasses must return the same
+     * value for the same argument to `dequantize(value)` for the table to be valid.
+     */
+
+    @NonNull
+    public float[] getLookupTable() {
+        float[] table = lookupTable;
+
+        if (table == null) {
+            table = new float[TABLE_SIZE];
+
+            for (int value = 0; value < TABLE_SIZE; value++) {
+                table[value] = dequantize(value);
+            }
+
+            lookupTable = table;
+        }
+
+        return table;
+    }
+
+    /**
+     * Reads one unsigned byte per value in the destination from the buffer, starting at the
+     * buffer's position and advancing it, and dequantizes each through the lookup table.
+     *
+     * @param in The buffer to read from, which must have at least `out.length` bytes remaining
+     * @param out The array to write the dequantized values to
+     */
+
+    public void dequantize(@NonNull ByteBuffer in, @NonNull float[] out) {
+        final float[] table = getLookupTable();
+
+        for (int i = 0; i < out.length; i++) {
+            out[i] = table[in.get() & 0xFF];
+        }
+    }
+
+    //endRegion
+
+    //region Factories
+
     /**
      * A DataDequantizer that applies the provided scale and bias according to the following formula:
      *
@@ -81,4 +144,5 @@ public abstract class Dequantizer {
         return DataDequantizerWithDequantization(scale, bias);
     }
 
+    //endRegion
 }
@@ -0,0 +1,126 @@
+/*
+ * EncodedImage.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.File;
+
+/**
+ * An image in an encoded format such as JPEG or PNG, held as bytes or as a file, that is decoded
+ * only when it is converted for a pixel buffer layer.
+ *
+ * Passing an EncodedImage to a model rather than a decoded Bitmap lets the converter decode it
+ * at the smallest power of two reduction that still covers the layer's shape, see
+ * `EncodedImageDecoder`, so that a 12 megapixel photo headed for a 224x224 layer is never decoded
+ * at full resolution.
+ */
+
+public class EncodedImage {
+
+    private final @Nullable byte[] bytes;
+    private final int offset;
+    private final int length;
+    private final @Nullable File file;
+
+    private EncodedImage(@Nullable byte[] bytes, int offset, int length, @Nullable File file) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+        this.file = file;
+    }
+
+    /**
+     * @return The encoded bytes, or null if the image is read from a file
+     */
+
+    public @Nullable byte[] getBytes() {
+        return bytes;
+    }
+
+    /**
+     * @return The offset of the image in its bytes
+     */
+
+    public int getOffset() {
+        return offset;
+    }
+
+    /**
+     * @return The length of the image in its bytes
+     */
+
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * @return The file the image is read from, or null if the image is held as bytes
+     */
+
+    public @Nullable File getFile() {
+        return file;
+    }
+
+    //region Factories
+
+    /**
+     * An EncodedImage held in an array of bytes. The bytes are not copied and must not be
+     * modified until conversion completes.
+     */
+
+    public static EncodedImage EncodedImageForBytes(@NonNull byte[] bytes) {
+        return new EncodedImage(bytes, 0, bytes.length, null);
+    }
+
+    /**
+     * An EncodedImage held in part of an array of bytes. The bytes are not copied and must not be
+     * modified until conversion completes.
+     *
+     * @throws IllegalArgumentException if the range lies outside the array
+     */
+
+    public static EncodedImage EncodedImageForBytes(@NonNull byte[] bytes, int offset, int length) throws IllegalArgumentException {
+        if (offset < 0 || length <= 0 || offset + length > bytes.length) {
+            throw BadRangeException(bytes.length, offset, length);
+        }
+
+        return new EncodedImage(bytes, offset, length, null);
+    }
+
+    /**
+     * An EncodedImage read from a file when it is decoded.
+     */
+
+    public static EncodedImage EncodedImageForFile(@NonNull File file) {
+        return new EncodedImage(null, 0, 0, file);
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadRangeException(int capacity, int offset, int length) {
+        return new IllegalArgumentException("Expected an image range within " + capacity + " bytes, found " + length + " bytes at offset " + offset);
+    }
+
+    //endRegion
+}
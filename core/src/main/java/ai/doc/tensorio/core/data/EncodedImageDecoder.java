@@ -0,0 +1,238 @@
+/*
+ * EncodedImageDecoder.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.ResizeMode;
+
+/**
+ * Decodes an `EncodedImage` for a pixel buffer layer at the largest power of two reduction whose
+ * pixels still cover the layer's shape under its resize mode, so the decoder does most of the
+ * downscaling and the `PixelSampler` only finishes it.
+ *
+ * Decode buffers are reused: a decoder keeps at most one spare set of the temporary storage
+ * BitmapFactory reads through and the bitmap of the last decode, which the next decode writes into
+ * when it is large enough. Concurrent decodes beyond the first allocate their own buffers, which
+ * are dropped when closed while a spare is held. Call `clear` to drop the spare, for example when
+ * the model that owns the decoder unloads.
+ */
+
+public class EncodedImageDecoder {
+
+    /** Size of the temporary storage BitmapFactory decodes through */
+
+    private static final int TEMP_STORAGE_SIZE = 16 * 1024;
+
+    /** Decode options and buffers that are not in use, or null */
+
+    private final AtomicReference<Decoded> spare = new AtomicReference<>();
+
+    /**
+     * Decodes an image at the smallest size that covers a layer. Close the result once its pixels
+     * have been read so that its buffers are reused by the next decode:
+     *
+     * <pre>
+     * try (EncodedImageDecoder.Decoded decoded = decoder.decode(image, description)) {
+     *     sampler.sample(decoded.getPixels(), ...);
+     * }
+     * </pre>
+     *
+     * @param image The image to decode
+     * @param description The description of the layer the image will be sampled into
+     * @return The decoded image, whose pixels are valid until it is closed
+     * @throws IllegalArgumentException if the image cannot be read or decoded
+     */
+
+    public Decoded decode(@NonNull EncodedImage image, @NonNull PixelBufferLayerDescription description) throws IllegalArgumentException {
+        Decoded decoded = spare.getAndSet(null);
+
+        if (decoded == null) {
+            decoded = new Decoded(this);
+        }
+
+        try {
+            decoded.pixels = decode(decoded, image, description);
+            return decoded;
+        } catch (RuntimeException e) {
+            spare.compareAndSet(null, decoded);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops the spare decode buffers, releasing the bitmap of the last decode.
+     */
+
+    public void clear() {
+        spare.set(null);
+    }
+
+    private static PixelSource decode(@NonNull Decoded decoded, @NonNull EncodedImage image, @NonNull PixelBufferLayerDescription description) throws IllegalArgumentException {
+        BitmapFactory.Options options = decoded.options;
+
+        // Read the image's dimensions without decoding its pixels
+
+        options.inJustDecodeBounds = true;
+        options.inSampleSize = 1;
+        options.inBitmap = null;
+
+        decode(image, options);
+
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            throw UndecodableImageException(image);
+        }
+
+        // Decode at the largest reduction that covers the layer, into the last decode's bitmap
+        // if it is large enough
+
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSizeFor(options.outWidth, options.outHeight, description.getShape(), description.getResizeMode());
+        options.inBitmap = decoded.bitmap;
+
+        Bitmap bitmap;
+
+        try {
+            bitmap = decode(image, options);
+        } catch (IllegalArgumentException e) {
+            // The last bitmap cannot hold this image
+            options.inBitmap = null;
+            bitmap = decode(image, options);
+        }
+
+        options.inBitmap = null;
+
+        if (bitmap == null) {
+            throw UndecodableImageException(image);
+        }
+
+        decoded.bitmap = bitmap;
+
+        return PixelSource.PixelSourceForBitmap(bitmap);
+    }
+
+    //region Utilities
+
+    /**
+     * Returns the largest power of two by which an image may be reduced while still covering a
+     * layer's shape: fully for stretched and center cropped layers, and along the side that limits
+     * the fit for letterboxed layers, which fit the whole image within the shape.
+     *
+     * @param width The width of the encoded image
+     * @param height The height of the encoded image
+     * @param shape The shape of the layer
+     * @param resizeMode How the image is fit to the layer
+     */
+
+    static int sampleSizeFor(int width, int height, @NonNull ImageVolume shape, @NonNull ResizeMode resizeMode) {
+        // A letterboxed image is scaled to the layer along the side that limits its fit
+
+        boolean widthLimited = (long) shape.width * height <= (long) shape.height * width;
+        int sampleSize = 1;
+
+        while (true) {
+            int next = sampleSize * 2;
+            boolean coversWidth = width / next >= shape.width;
+            boolean coversHeight = height / next >= shape.height;
+
+            boolean covers = resizeMode == ResizeMode.Letterbox
+                    ? (widthLimited ? coversWidth : coversHeight)
+                    : coversWidth && coversHeight;
+
+            if (!covers) {
+                return sampleSize;
+            }
+
+            sampleSize = next;
+        }
+    }
+
+    private static Bitmap decode(@NonNull EncodedImage image, @NonNull BitmapFactory.Options options) {
+        if (image.getFile() != null) {
+            return BitmapFactory.decodeFile(image.getFile().getPath(), options);
+        } else {
+            return BitmapFactory.decodeByteArray(image.getBytes(), image.getOffset(), image.getLength(), options);
+        }
+    }
+
+    //endRegion
+
+    /**
+     * A decoded image along with the decode options, temporary storage, and bitmap it was decoded
+     * with, which are returned to the decoder for reuse when it is closed.
+     */
+
+    public static class Decoded implements AutoCloseable {
+        private final EncodedImageDecoder decoder;
+        private final BitmapFactory.Options options = new BitmapFactory.Options();
+        private Bitmap bitmap;
+        private PixelSource pixels;
+
+        private Decoded(@NonNull EncodedImageDecoder decoder) {
+            this.decoder = decoder;
+
+            options.inMutable = true;
+            options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+            options.inTempStorage = new byte[TEMP_STORAGE_SIZE];
+        }
+
+        /**
+         * @return The decoded pixels, which must not be read after the image is closed
+         */
+
+        public PixelSource getPixels() {
+            return pixels;
+        }
+
+        /**
+         * Returns the buffers to the decoder, which keeps them if it holds no spare already. Closing
+         * an image more than once has no effect.
+         */
+
+        @Override
+        public void close() {
+            if (pixels == null) {
+                return;
+            }
+
+            pixels = null;
+            decoder.spare.compareAndSet(null, this);
+        }
+    }
+
+    //region Exceptions
+
+    private static IllegalArgumentException UndecodableImageException(@NonNull EncodedImage image) {
+        if (image.getFile() != null) {
+            return new IllegalArgumentException("Unable to decode the image at " + image.getFile().getPath());
+        } else {
+            return new IllegalArgumentException("Unable to decode the image in " + image.getLength() + " bytes");
+        }
+    }
+
+    //endRegion
+}
@@ -20,6 +20,10 @@
 
 package ai.doc.tensorio.core.data;
 
+import androidx.annotation.NonNull;
+
+import java.nio.FloatBuffer;
+
 /**
  * Describes a denormalization, or how pixel values in some arbitrary range will be
  * denormalized back to pixel values in the range of `[0,255]`
@@ -43,6 +47,39 @@ public abstract class PixelDenormalizer {
 
     public abstract int denormalize(float value, int channel);
 
+    /**
+     * Denormalizes one channel of a run of pixels in bulk, packing each byte value into its place
+     * in an ARGB pixel by OR-ing `(value & 0xFF) << shift` into the pixel.
+     *
+     * The default implementation calls `denormalize` for every value. The scale and bias
+     * denormalizers override it with a loop that does not dispatch per value.
+     *
+     * @param in The buffer to read from, with absolute gets
+     * @param index The index of the first value
+     * @param step The distance between consecutive values
+     * @param pixels The ARGB pixels to pack the values into
+     * @param offset The index in the array of the first pixel
+     * @param count The number of values to denormalize
+     * @param channel The RGB channel of the values
+     * @param shift The bit position of the channel in an ARGB pixel
+     */
+
+    public void denormalize(@NonNull FloatBuffer in, int index, int step, @NonNull int[] pixels, int offset, int count, int channel, int shift) {
+        for (int i = offset, end = offset + count; i < end; i++, index += step) {
+            pixels[i] |= (denormalize(in.get(index), channel) & 0xFF) << shift;
+        }
+    }
+
+    /**
+     * Applies a scale and bias to a run of values, see `denormalize(FloatBuffer, ...)`.
+     */
+
+    private static void denormalize(@NonNull FloatBuffer in, int index, int step, @NonNull int[] pixels, int offset, int count, float scale, float bias, int shift) {
+        for (int i = offset, end = offset + count; i < end; i++, index += step) {
+            pixels[i] |= (((int) ((in.get(index) + bias) * scale)) & 0xFF) << shift;
+        }
+    }
+
     /**
      * A PixelDenormalizer that applies a scaling factor and equal bias to each pixel channel.
      */
@@ -53,6 +90,11 @@ public abstract class PixelDenormalizer {
             public int denormalize(float value, int channel) {
                 return (int) ((value + bias) * scale);
             }
+
+            @Override
+            public void denormalize(@NonNull FloatBuffer in, int index, int step, @NonNull int[] pixels, int offset, int count, int channel, int shift) {
+                PixelDenormalizer.denormalize(in, index, step, pixels, offset, count, scale, bias, shift);
+            }
         };
     }
 
@@ -73,6 +115,12 @@ public abstract class PixelDenormalizer {
                         return (int) ((value + blueBias) * scale);
                 }
             }
+
+            @Override
+            public void denormalize(@NonNull FloatBuffer in, int index, int step, @NonNull int[] pixels, int offset, int count, int channel, int shift) {
+                float bias = channel == 0 ? redBias : (channel == 1 ? greenBias : blueBias);
+                PixelDenormalizer.denormalize(in, index, step, pixels, offset, count, scale, bias, shift);
+            }
         };
     }
 
@@ -0,0 +1,345 @@
+/*
+ * PixelLayout.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import ai.doc.tensorio.core.model.PixelFormat;
+
+/**
+ * The order and number of channels a pixel buffer layer stores for each pixel, with kernels that
+ * write rows of ARGB pixels into a layer's buffer and read them back out.
+ *
+ * A layout is selected once per layer from its pixel format and channel count, see
+ * `PixelLayoutFor`, so that converters run a single tight loop per row instead of deciding the
+ * order of every channel of every pixel.
+ *
+ * Kernels address the buffer with absolute puts and gets through a pixel step, the distance
+ * between neighboring pixels, and a channel step, the distance between the channels of a pixel.
+ * Interleaved buffers use a pixel step of the channel count and a channel step of one value,
+ * planar buffers a pixel step of one value and a channel step of the size of a plane.
+ *
+ * Gray values are computed from and expanded back to red, green, and blue with BT.601 luma
+ * weights. Gray and alpha values are normalized and denormalized as red values are.
+ */
+
+public enum PixelLayout {
+    RGB(3, 16, 8, 0, 0),
+    BGR(3, 0, 8, 16, 0),
+    RGBA(4, 16, 8, 0, 24),
+    BGRA(4, 0, 8, 16, 24),
+    Gray(1, 0, 0, 0, 0);
+
+    /** Lookup table used in place of a normalizer's when the layer has none */
+
+    private static final float[] IDENTITY_TABLE = new float[PixelNormalizer.TABLE_SIZE * 3];
+
+    /** Denormalizer used when the layer has none, which truncates values */
+
+    private static final PixelDenormalizer IDENTITY_DENORMALIZER = PixelDenormalizer.PixelDenormalizerSingleBias(1.0f, 0.0f);
+
+    static {
+        for (int i = 0; i < IDENTITY_TABLE.length; i++) {
+            IDENTITY_TABLE[i] = i % PixelNormalizer.TABLE_SIZE;
+        }
+    }
+
+    private final int channels;
+
+    /** The bit positions in an ARGB pixel of the values stored in each channel */
+
+    private final int shift0;
+    private final int shift1;
+    private final int shift2;
+    private final int shift3;
+
+    PixelLayout(int channels, int shift0, int shift1, int shift2, int shift3) {
+        this.channels = channels;
+        this.shift0 = shift0;
+        this.shift1 = shift1;
+        this.shift2 = shift2;
+        this.shift3 = shift3;
+    }
+
+    /**
+     * @return The number of channels stored for each pixel
+     */
+
+    public int getChannels() {
+        return channels;
+    }
+
+    /**
+     * Writes ARGB pixels as unnormalized bytes.
+     *
+     * @param pixels The pixels to write
+     * @param count The number of pixels to write
+     * @param out The buffer to write to
+     * @param index The byte index of the first channel of the first pixel
+     * @param pixelStep The distance in bytes between neighboring pixels
+     * @param channelStep The distance in bytes between the channels of a pixel
+     */
+
+    public void write(@NonNull int[] pixels, int count, @NonNull ByteBuffer out, int index, int pixelStep, int channelStep) {
+        final int s0 = shift0, s1 = shift1, s2 = shift2, s3 = shift3;
+        final int c1 = channelStep, c2 = 2 * channelStep, c3 = 3 * channelStep;
+
+        switch (channels) {
+            case 1:
+                for (int i = 0; i < count; i++, index += pixelStep) {
+                    out.put(index, (byte) luma(pixels[i]));
+                }
+                break;
+            case 3:
+                for (int i = 0; i < count; i++, index += pixelStep) {
+                    int pixel = pixels[i];
+                    out.put(index, (byte) (pixel >> s0));
+                    out.put(index + c1, (byte) (pixel >> s1));
+                    out.put(index + c2, (byte) (pixel >> s2));
+                }
+                break;
+            case 4:
+                for (int i = 0; i < count; i++, index += pixelStep) {
+                    int pixel = pixels[i];
+                    out.put(index, (byte) (pixel >> s0));
+                    out.put(index + c1, (byte) (pixel >> s1));
+                    out.put(index + c2, (byte) (pixel >> s2));
+                    out.put(index + c3, (byte) (pixel >>> s3));
+                }
+                break;
+        }
+    }
+
+    /**
+     * Writes ARGB pixels as floats normalized through a `PixelNormalizer` lookup table.
+     *
+     * @param pixels The pixels to write
+     * @param count The number of pixels to write
+     * @param out The buffer to write to
+     * @param index The byte index of the first channel of the first pixel
+     * @param pixelStep The distance in bytes between neighboring pixels
+     * @param channelStep The distance in bytes between the channels of a pixel
+     * @param table The normalizer's lookup table, or null to write channel values unchanged
+     */
+
+    public void write(@NonNull int[] pixels, int count, @NonNull ByteBuffer out, int index, int pixelStep, int channelStep, @Nullable float[] table) {
+        if (table == null) {
+            table = IDENTITY_TABLE;
+        }
+
+        final int s0 = shift0, s1 = shift1, s2 = shift2, s3 = shift3;
+        final int t0 = tableOffset(s0), t1 = tableOffset(s1), t2 = tableOffset(s2);
+        final int c1 = channelStep, c2 = 2 * channelStep, c3 = 3 * channelStep;
+
+        switch (channels) {
+            case 1:
+                for (int i = 0; i < count; i++, index += pixelStep) {
+                    out.putFloat(index, table[luma(pixels[i])]);
+                }
+                break;
+            case 3:
+                for (int i = 0; i < count; i++, index += pixelStep) {
+                    int pixel = pixels[i];
+                    out.putFloat(index, table[t0 + ((pixel >> s0) & 0xFF)]);
+                    out.putFloat(index + c1, table[t1 + ((pixel >> s1) & 0xFF)]);
+                    out.putFloat(index + c2, table[t2 + ((pixel >> s2) & 0xFF)]);
+                }
+                break;
+            case 4:
+                for (int i = 0; i < count; i++, index += pixelStep) {
+                    int pixel = pixels[i];
+                    out.putFloat(index, table[t0 + ((pixel >> s0) & 0xFF)]);
+                    out.putFloat(index + c1, table[t1 + ((pixel >> s1) & 0xFF)]);
+                    out.putFloat(index + c2, table[t2 + ((pixel >> s2) & 0xFF)]);
+                    out.putFloat(index + c3, table[pixel >>> s3]);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Reads unnormalized bytes into ARGB pixels. Pixels are opaque unless the layout has an alpha
+     * channel.
+     *
+     * @param in The buffer to read from
+     * @param index The byte index of the first channel of the first pixel
+     * @param pixelStep The distance in bytes between neighboring pixels
+     * @param channelStep The distance in bytes between the channels of a pixel
+     * @param pixels The array to read the pixels into
+     * @param offset The index in the array of the first pixel
+     * @param count The number of pixels to read
+     */
+
+    public void read(@NonNull ByteBuffer in, int index, int pixelStep, int channelStep, @NonNull int[] pixels, int offset, int count) {
+        final int s0 = shift0, s1 = shift1, s2 = shift2, s3 = shift3;
+        final int c1 = channelStep, c2 = 2 * channelStep, c3 = 3 * channelStep;
+        final int end = offset + count;
+
+        switch (channels) {
+            case 1:
+                for (int i = offset; i < end; i++, index += pixelStep) {
+                    pixels[i] = gray(in.get(index) & 0xFF);
+                }
+                break;
+            case 3:
+                for (int i = offset; i < end; i++, index += pixelStep) {
+                    pixels[i] = 0xFF000000
+                            | ((in.get(index) & 0xFF) << s0)
+                            | ((in.get(index + c1) & 0xFF) << s1)
+                            | ((in.get(index + c2) & 0xFF) << s2);
+                }
+                break;
+            case 4:
+                for (int i = offset; i < end; i++, index += pixelStep) {
+                    pixels[i] = ((in.get(index) & 0xFF) << s0)
+                            | ((in.get(index + c1) & 0xFF) << s1)
+                            | ((in.get(index + c2) & 0xFF) << s2)
+                            | ((in.get(index + c3) & 0xFF) << s3);
+                }
+                break;
+        }
+    }
+
+    /**
+     * Reads floats into ARGB pixels, denormalizing them if a denormalizer is provided. Pixels are
+     * opaque unless the layout has an alpha channel.
+     *
+     * Values are denormalized a channel at a time in bulk, see
+     * `PixelDenormalizer.denormalize(FloatBuffer, ...)`.
+     *
+     * @param in The buffer to read from
+     * @param index The float index of the first channel of the first pixel
+     * @param pixelStep The distance in floats between neighboring pixels
+     * @param channelStep The distance in floats between the channels of a pixel
+     * @param pixels The array to read the pixels into
+     * @param offset The index in the array of the first pixel
+     * @param count The number of pixels to read
+     * @param denormalizer Converts floating point channel values to bytes, may be null, in which
+     *                     case values are truncated
+     */
+
+    public void read(@NonNull FloatBuffer in, int index, int pixelStep, int channelStep, @NonNull int[] pixels, int offset, int count, @Nullable PixelDenormalizer denormalizer) {
+        if (denormalizer == null) {
+            denormalizer = IDENTITY_DENORMALIZER;
+        }
+
+        final int end = offset + count;
+
+        switch (channels) {
+            case 1:
+                Arrays.fill(pixels, offset, end, 0);
+                denormalizer.denormalize(in, index, pixelStep, pixels, offset, count, 0, 0);
+                for (int i = offset; i < end; i++) {
+                    pixels[i] = gray(pixels[i]);
+                }
+                break;
+            case 3:
+                Arrays.fill(pixels, offset, end, 0xFF000000);
+                denormalizer.denormalize(in, index, pixelStep, pixels, offset, count, colorChannel(shift0), shift0);
+                denormalizer.denormalize(in, index + channelStep, pixelStep, pixels, offset, count, colorChannel(shift1), shift1);
+                denormalizer.denormalize(in, index + 2 * channelStep, pixelStep, pixels, offset, count, colorChannel(shift2), shift2);
+                break;
+            case 4:
+                Arrays.fill(pixels, offset, end, 0);
+                denormalizer.denormalize(in, index, pixelStep, pixels, offset, count, colorChannel(shift0), shift0);
+                denormalizer.denormalize(in, index + channelStep, pixelStep, pixels, offset, count, colorChannel(shift1), shift1);
+                denormalizer.denormalize(in, index + 2 * channelStep, pixelStep, pixels, offset, count, colorChannel(shift2), shift2);
+                denormalizer.denormalize(in, index + 3 * channelStep, pixelStep, pixels, offset, count, 0, shift3);
+                break;
+        }
+    }
+
+    //region Utilities
+
+    /**
+     * The offset into a normalizer's lookup table of the channel stored at a bit position.
+     */
+
+    private static int tableOffset(int shift) {
+        switch (shift) {
+            case 16: return 0;
+            case 8: return PixelNormalizer.TABLE_SIZE;
+            default: return 2 * PixelNormalizer.TABLE_SIZE;
+        }
+    }
+
+    /**
+     * The RGB channel, as normalizers and denormalizers number them, stored at a bit position.
+     */
+
+    private static int colorChannel(int shift) {
+        switch (shift) {
+            case 16: return 0;
+            case 8: return 1;
+            default: return 2;
+        }
+    }
+
+    /**
+     * The BT.601 luma of an ARGB pixel in 8 bit fixed point.
+     */
+
+    static int luma(int pixel) {
+        return (77 * ((pixel >> 16) & 0xFF) + 150 * ((pixel >> 8) & 0xFF) + 29 * (pixel & 0xFF) + 128) >> 8;
+    }
+
+    private static int gray(int value) {
+        return 0xFF000000 | (value << 16) | (value << 8) | value;
+    }
+
+    //endRegion
+
+    //region Factories
+
+    /**
+     * Selects the layout for a pixel format and channel count: a single channel is gray, three are
+     * RGB or BGR, and four are RGBA or BGRA.
+     *
+     * @throws IllegalArgumentException if the channel count is not 1, 3, or 4
+     */
+
+    public static PixelLayout PixelLayoutFor(@NonNull PixelFormat format, int channels) throws IllegalArgumentException {
+        switch (channels) {
+            case 1:
+                return Gray;
+            case 3:
+                return format == PixelFormat.BGR ? BGR : RGB;
+            case 4:
+                return format == PixelFormat.BGR ? BGRA : RGBA;
+            default:
+                throw BadChannelsException(channels);
+        }
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadChannelsException(int channels) {
+        return new IllegalArgumentException("Expected a pixel buffer with 1, 3, or 4 channels, found " + channels);
+    }
+
+    //endRegion
+}
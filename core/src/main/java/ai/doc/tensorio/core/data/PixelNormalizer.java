@@ -20,6 +20,11 @@
 
 package ai.doc.tensorio.core.data;
 
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
 /**
  * Describes how pixel values in the range of `[0,255]` will be normalized for
  * non-quantized, float32 models.
@@ -28,9 +33,23 @@ package ai.doc.tensorio.core.data;
  * although separate biases may be applied to each of the RGB channels.
  *
  * Pixel normalization is like quantization but in the opposite direction.
+ *
+ * Because pixel channel values are always in the range `[0,255]`, a normalizer can be expressed as
+ * a lookup table of 256 values per channel. The bulk `normalize` methods convert a whole image of
+ * ARGB pixels through that table rather than calling `normalize(value, channel)` three times per
+ * pixel, and are what the bitmap converters use.
  */
 
 public abstract class PixelNormalizer {
+
+    /** The number of entries per channel in the lookup table */
+
+    public static final int TABLE_SIZE = 256;
+
+    /** The lookup table, built on first use */
+
+    private volatile float[] lookupTable;
+
     /**
      * A `PixelNormalizer` transforms a pixel value in the range `[0,255]`
      * to some other range, where the transformation may be channel dependent.
@@ -42,6 +61,105 @@ public abstract class PixelNormalizer {
 
     public abstract float normalize(int value, int channel);
 
+    //region Lookup Table
+
+    /**
+     * Returns the normalized value of every pixel channel value, built on first use by calling
+     * `normalize(value, channel)` for each of the red, green, and blue channels and each value in
+     * `[0,255]`. The value for a channel is at `channel * TABLE_SIZE + value`.
+     *
+     * The table is shared by every caller and must not be modified. Subclasses must return the same
+     * value for the same arguments to `normalize(value, channel)` for the table to be valid.
+     */
+
+    @NonNull
+    public float[] getLookupTable() {
+        float[] table = lookupTable;
+
+        if (table == null) {
+            table = new float[3 * TABLE_SIZE];
+
+            for (int channel = 0; channel < 3; channel++) {
+                for (int value = 0; value < TABLE_SIZE; value++) {
+                    table[channel * TABLE_SIZE + value] = normalize(value, channel);
+                }
+            }
+
+            lookupTable = table;
+        }
+
+        return table;
+    }
+
+    /**
+     * Normalizes every pixel in an array of ARGB pixels into interleaved RGB floats, writing three
+     * floats per pixel starting at the buffer's position and advancing it. Alpha is ignored.
+     *
+     * @param argb Pixels in the format returned by `Bitmap.getPixels`
+     * @param out The buffer to write to, which must have room for three floats per pixel
+     */
+
+    public void normalize(@NonNull int[] argb, @NonNull FloatBuffer out) {
+        final float[] table = getLookupTable();
+
+        for (int i = 0; i < argb.length; i++) {
+            final int pixel = argb[i];
+            out.put(table[(pixel >> 16) & 0xFF]);
+            out.put(table[TABLE_SIZE + ((pixel >> 8) & 0xFF)]);
+            out.put(table[2 * TABLE_SIZE + (pixel & 0xFF)]);
+        }
+    }
+
+    /**
+     * Normalizes the first `count` pixels in an array of ARGB pixels into interleaved RGB floats,
+     * writing three floats per pixel starting at the buffer's position and advancing it, in the
+     * buffer's byte order. Alpha is ignored.
+     *
+     * @param argb Pixels in the format returned by `Bitmap.getPixels`
+     * @param count The number of pixels to normalize
+     * @param out The buffer to write to, which must have room for three floats per pixel
+     */
+
+    public void normalize(@NonNull int[] argb, int count, @NonNull ByteBuffer out) {
+        final float[] table = getLookupTable();
+
+        for (int i = 0; i < count; i++) {
+            final int pixel = argb[i];
+            out.putFloat(table[(pixel >> 16) & 0xFF]);
+            out.putFloat(table[TABLE_SIZE + ((pixel >> 8) & 0xFF)]);
+            out.putFloat(table[2 * TABLE_SIZE + (pixel & 0xFF)]);
+        }
+    }
+
+    /**
+     * Normalizes the first `count` pixels in an array of ARGB pixels into planar RGB floats, all of
+     * the red values followed by all of the green and then all of the blue, starting at the buffer's
+     * position. The buffer's position is not changed. Alpha is ignored.
+     *
+     * @param argb Pixels in the format returned by `Bitmap.getPixels`
+     * @param count The number of pixels to normalize
+     * @param out The buffer to write to, which must have room for three floats per pixel
+     */
+
+    public void normalizePlanar(@NonNull int[] argb, int count, @NonNull ByteBuffer out) {
+        final float[] table = getLookupTable();
+        final int red = out.position();
+        final int green = red + count * 4;
+        final int blue = green + count * 4;
+
+        for (int i = 0; i < count; i++) {
+            final int pixel = argb[i];
+            final int offset = i * 4;
+            out.putFloat(red + offset, table[(pixel >> 16) & 0xFF]);
+            out.putFloat(green + offset, table[TABLE_SIZE + ((pixel >> 8) & 0xFF)]);
+            out.putFloat(blue + offset, table[2 * TABLE_SIZE + (pixel & 0xFF)]);
+        }
+    }
+
+    //endRegion
+
+    //region Factories
+
     /**
      * A PixelNormalizer that applies a scaling factor and equal bias to each pixel channel.
      */
@@ -97,4 +215,6 @@ public abstract class PixelNormalizer {
         float bias = -1f;
         return PixelNormalizerSingleBias(scale, bias);
     }
+
+    //endRegion
 }
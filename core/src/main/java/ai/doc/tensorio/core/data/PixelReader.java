@@ -0,0 +1,129 @@
+/*
+ * PixelReader.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.TensorLayout;
+import ai.doc.tensorio.core.utilities.Stripes;
+
+/**
+ * Reads the pixels of a pixel buffer layer's buffer back into packed ARGB pixels, the reverse of
+ * `PixelSampler`, for NHWC and NCHW tensors alike.
+ *
+ * Pixels are read in blocks of `BLOCK_PIXELS`, each block a channel at a time with the kernel of
+ * the layer's `PixelLayout`, so that the values and pixels of a block stay in cache across its
+ * channel passes rather than every pass sweeping the whole image. Every value is read with an
+ * absolute get, so large layers may optionally be read in parallel stripes of rows.
+ */
+
+public class PixelReader {
+
+    /** The number of pixels read together, one channel at a time */
+
+    public static final int BLOCK_PIXELS = 1024;
+
+    /** true to read large layers in parallel stripes */
+
+    private volatile boolean parallel = false;
+
+    /**
+     * Sets whether layers of at least `PixelSampler.PARALLEL_MIN_PIXELS` pixels are read in
+     * parallel stripes of rows on the shared `Stripes` pool, default is false.
+     */
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Reads every pixel of a layer from a buffer, denormalizing float values with the layer's
+     * denormalizer. Values are read with absolute gets from the start of the buffer, which must be
+     * rewound, and its position is left unchanged.
+     *
+     * @param buffer The buffer to read from, bytes for a quantized layer and bytes or floats
+     *               otherwise
+     * @param description The description of the layer the buffer backs
+     * @param tensorLayout How the pixels are arranged in the buffer
+     * @param pixels The array to read the pixels into, which must hold the layer's pixels
+     */
+
+    public void read(@NonNull Buffer buffer, @NonNull PixelBufferLayerDescription description, @NonNull TensorLayout tensorLayout, @NonNull int[] pixels) {
+        ImageVolume shape = description.getShape();
+        final int width = shape.width;
+        final int count = width * shape.height;
+
+        // Quantized layers are read as bytes and float layers as floats
+
+        final ByteBuffer bytes;
+        final FloatBuffer floats;
+
+        if (description.isQuantized()) {
+            bytes = (ByteBuffer) buffer;
+            floats = null;
+        } else if (buffer instanceof ByteBuffer) {
+            bytes = null;
+            floats = ((ByteBuffer) buffer).asFloatBuffer();
+        } else {
+            bytes = null;
+            floats = (FloatBuffer) buffer;
+        }
+
+        if (parallel && count >= PixelSampler.PARALLEL_MIN_PIXELS) {
+            Stripes.run(shape.height, (start, end) -> read(bytes, floats, description, tensorLayout, count, pixels, start * width, (end - start) * width));
+        } else {
+            read(bytes, floats, description, tensorLayout, count, pixels, 0, count);
+        }
+    }
+
+    /**
+     * Reads a range of pixels a block at a time with absolute gets, so that ranges may be read
+     * concurrently.
+     */
+
+    private static void read(ByteBuffer bytes, FloatBuffer floats, @NonNull PixelBufferLayerDescription description, @NonNull TensorLayout tensorLayout, int pixelCount, @NonNull int[] pixels, int offset, int count) {
+        PixelLayout layout = description.getLayout();
+        PixelDenormalizer denormalizer = description.getDenormalizer();
+        int channels = layout.getChannels();
+        int pixelStep = tensorLayout.pixelStep(channels, pixelCount);
+        int channelStep = tensorLayout.channelStep(channels, pixelCount);
+
+        for (int block = offset, end = offset + count; block < end; block += BLOCK_PIXELS) {
+            int length = Math.min(BLOCK_PIXELS, end - block);
+            int index = block * pixelStep;
+
+            if (bytes != null) {
+                layout.read(bytes, index, pixelStep, channelStep, pixels, block, length);
+            } else {
+                layout.read(floats, index, pixelStep, channelStep, pixels, block, length, denormalizer);
+            }
+        }
+    }
+}
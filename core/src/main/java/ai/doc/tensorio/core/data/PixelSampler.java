@@ -0,0 +1,383 @@
+/*
+ * PixelSampler.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
+import ai.doc.tensorio.core.model.TensorLayout;
+import ai.doc.tensorio.core.utilities.Stripes;
+
+/**
+ * Resizes, crops, and normalizes an image into a pixel buffer layer's buffer in a single pass.
+ *
+ * The sampler reads only the source rows it needs, resamples each destination row with the
+ * layer's interpolation and resize mode, and writes the row straight into the buffer as quantized
+ * bytes or as floats normalized through the layer's `PixelNormalizer` lookup table. No
+ * intermediate Bitmap is created, and the row scratch space is kept per thread so converting a
+ * frame does not allocate.
+ *
+ * Pixels may be written interleaved (NHWC), every channel of a pixel together, or planar (NCHW),
+ * all of the values of the first channel followed by all of the values of the next, in the order
+ * and number of channels of the layer's `PixelLayout`. Rows are written a channel at a time, so
+ * each pass is a short contiguous or evenly strided run. Every pixel is written with an absolute
+ * put, so large layers may optionally be sampled in parallel stripes of rows.
+ *
+ * `PixelReader` converts the other way, from a layer's buffer back to ARGB pixels.
+ */
+
+public class PixelSampler {
+
+    /** Fixed point precision of the bilinear weights */
+
+    private static final int WEIGHT_BITS = 8;
+    private static final int WEIGHT_ONE = 1 << WEIGHT_BITS;
+    private static final int WEIGHT_ROUNDING = 1 << (2 * WEIGHT_BITS - 1);
+
+    /** Opaque black, the value written to letterbox padding */
+
+    private static final int PADDING = 0xFF000000;
+
+    /** The fewest pixels a layer must have before it is sampled in parallel */
+
+    public static final int PARALLEL_MIN_PIXELS = 256 * 256;
+
+    /** Per thread row and column scratch space */
+
+    private final ThreadLocal<Scratch> scratch = new ThreadLocal<>();
+
+    /** true to sample large layers in parallel stripes */
+
+    private volatile boolean parallel = false;
+
+    /**
+     * Sets whether layers of at least `PARALLEL_MIN_PIXELS` pixels are sampled in parallel stripes
+     * of rows on the shared `Stripes` pool, default is false.
+     */
+
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    /**
+     * Samples an image into a buffer with the shape, resize mode, interpolation, normalization,
+     * and quantization of a pixel buffer layer.
+     *
+     * NHWC pixels are written starting at the buffer's position, which is advanced past them.
+     * NCHW pixels are written starting at the buffer's position, which is not changed.
+     *
+     * @param source The image to sample
+     * @param description The description of the layer the buffer backs
+     * @param out The buffer to write to, which must have room for the layer's pixels
+     * @param tensorLayout How the pixels are arranged in the buffer
+     */
+
+    public void sample(@NonNull PixelSource source, @NonNull PixelBufferLayerDescription description, @NonNull ByteBuffer out, @NonNull TensorLayout tensorLayout) {
+        sample(source, 0, 0, source.getWidth(), source.getHeight(), description, out, tensorLayout);
+    }
+
+    private void sample(@NonNull PixelSource source, int srcX, int srcY, int srcWidth, int srcHeight, @NonNull PixelBufferLayerDescription description, @NonNull ByteBuffer out, @NonNull TensorLayout tensorLayout) {
+        ImageVolume shape = description.getShape();
+        int width = shape.width;
+        int height = shape.height;
+
+        // Fit the source and destination rectangles to one another
+
+        int dstX = 0;
+        int dstY = 0;
+        int dstWidth = width;
+        int dstHeight = height;
+
+        switch (description.getResizeMode()) {
+            case CenterCrop: {
+                float scale = Math.max((float) width / srcWidth, (float) height / srcHeight);
+                int cropWidth = clamp(Math.round(width / scale), 1, srcWidth);
+                int cropHeight = clamp(Math.round(height / scale), 1, srcHeight);
+                srcX += (srcWidth - cropWidth) / 2;
+                srcY += (srcHeight - cropHeight) / 2;
+                srcWidth = cropWidth;
+                srcHeight = cropHeight;
+                break;
+            }
+            case Letterbox: {
+                float scale = Math.min((float) width / srcWidth, (float) height / srcHeight);
+                dstWidth = clamp(Math.round(srcWidth * scale), 1, width);
+                dstHeight = clamp(Math.round(srcHeight * scale), 1, height);
+                dstX = (width - dstWidth) / 2;
+                dstY = (height - dstHeight) / 2;
+                break;
+            }
+            case Stretch:
+                break;
+        }
+
+        // Sample the rows, in parallel stripes for large layers if enabled
+
+        // The calling thread's geometry is reused, stripes on other threads only read it
+
+        final Geometry geometry = scratch().geometry;
+        geometry.set(srcX, srcY, srcWidth, srcHeight, dstX, dstY, dstWidth, dstHeight, width, height);
+        final int base = out.position();
+
+        if (parallel && width * height >= PARALLEL_MIN_PIXELS) {
+            Stripes.run(height, (start, end) -> sampleRows(source, geometry, description, out, base, tensorLayout, start, end));
+        } else {
+            sampleRows(source, geometry, description, out, base, tensorLayout, 0, height);
+        }
+
+        // Interleaved pixels are written with absolute puts but advance the buffer like relative ones
+
+        if (tensorLayout == TensorLayout.NHWC) {
+            int size = description.isQuantized() ? 1 : 4;
+            out.position(base + width * height * description.getLayout().getChannels() * size);
+        }
+    }
+
+    /**
+     * Samples and writes a range of destination rows with absolute puts, so that ranges may be
+     * sampled concurrently.
+     */
+
+    private void sampleRows(@NonNull PixelSource source, @NonNull Geometry g, @NonNull PixelBufferLayerDescription description, @NonNull ByteBuffer out, int base, @NonNull TensorLayout tensorLayout, int start, int end) {
+        boolean nearest = description.getInterpolation() == Interpolation.Nearest;
+        boolean alpha = description.getLayout().getChannels() == 4;
+        Scratch s = scratch(g.srcWidth, g.width);
+
+        // Map every destination column to its source columns and weight once
+
+        float xScale = (float) g.srcWidth / g.dstWidth;
+
+        for (int x = 0; x < g.dstWidth; x++) {
+            if (nearest) {
+                s.left[x] = clamp((int) ((x + 0.5f) * xScale), 0, g.srcWidth - 1);
+                s.right[x] = s.left[x];
+                s.xWeight[x] = 0;
+            } else {
+                float sx = Math.max((x + 0.5f) * xScale - 0.5f, 0);
+                int x0 = Math.min((int) sx, g.srcWidth - 1);
+                s.left[x] = x0;
+                s.right[x] = Math.min(x0 + 1, g.srcWidth - 1);
+                s.xWeight[x] = (int) ((sx - x0) * WEIGHT_ONE);
+            }
+        }
+
+        // Sample and write the image a row at a time
+
+        Arrays.fill(s.row, 0, g.width, PADDING);
+
+        float yScale = (float) g.srcHeight / g.dstHeight;
+
+        for (int y = start; y < end; y++) {
+            int dy = y - g.dstY;
+
+            if (dy < 0 || dy >= g.dstHeight) {
+                Arrays.fill(s.row, 0, g.width, PADDING);
+            } else if (nearest) {
+                int sy = clamp((int) ((dy + 0.5f) * yScale), 0, g.srcHeight - 1);
+                int[] top = s.sourceRow(source, g.srcX, g.srcY + sy, g.srcWidth, -1);
+
+                for (int x = 0; x < g.dstWidth; x++) {
+                    s.row[g.dstX + x] = top[s.left[x]];
+                }
+            } else {
+                float sy = Math.max((dy + 0.5f) * yScale - 0.5f, 0);
+                int y0 = Math.min((int) sy, g.srcHeight - 1);
+                int y1 = Math.min(y0 + 1, g.srcHeight - 1);
+                int yWeight = (int) ((sy - y0) * WEIGHT_ONE);
+
+                int[] top = s.sourceRow(source, g.srcX, g.srcY + y0, g.srcWidth, g.srcY + y1);
+                int[] bottom = s.sourceRow(source, g.srcX, g.srcY + y1, g.srcWidth, g.srcY + y0);
+
+                for (int x = 0; x < g.dstWidth; x++) {
+                    s.row[g.dstX + x] = blend(top[s.left[x]], top[s.right[x]], bottom[s.left[x]], bottom[s.right[x]], s.xWeight[x], yWeight, alpha);
+                }
+            }
+
+            writeRow(s.row, y, g.width, g.height, base, description, out, tensorLayout);
+        }
+    }
+
+    //region Utilities
+
+    /**
+     * Returns this thread's scratch space, growing it if it cannot hold the rows.
+     */
+
+    private Scratch scratch(int srcWidth, int width) {
+        Scratch s = scratch();
+        s.reserve(srcWidth, width);
+        return s;
+    }
+
+    private Scratch scratch() {
+        Scratch s = scratch.get();
+
+        if (s == null) {
+            s = new Scratch();
+            scratch.set(s);
+        }
+
+        return s;
+    }
+
+    /**
+     * Bilinearly blends four ARGB pixels with fixed point weights, returning an opaque pixel
+     * unless alpha is also blended.
+     */
+
+    private static int blend(int p00, int p01, int p10, int p11, int xWeight, int yWeight, boolean alpha) {
+        int a = alpha ? blendChannel(p00 >>> 24, p01 >>> 24, p10 >>> 24, p11 >>> 24, xWeight, yWeight) : 0xFF;
+        int r = blendChannel((p00 >> 16) & 0xFF, (p01 >> 16) & 0xFF, (p10 >> 16) & 0xFF, (p11 >> 16) & 0xFF, xWeight, yWeight);
+        int g = blendChannel((p00 >> 8) & 0xFF, (p01 >> 8) & 0xFF, (p10 >> 8) & 0xFF, (p11 >> 8) & 0xFF, xWeight, yWeight);
+        int b = blendChannel(p00 & 0xFF, p01 & 0xFF, p10 & 0xFF, p11 & 0xFF, xWeight, yWeight);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+
+    private static int blendChannel(int c00, int c01, int c10, int c11, int xWeight, int yWeight) {
+        int top = c00 * (WEIGHT_ONE - xWeight) + c01 * xWeight;
+        int bottom = c10 * (WEIGHT_ONE - xWeight) + c11 * xWeight;
+        return (top * (WEIGHT_ONE - yWeight) + bottom * yWeight + WEIGHT_ROUNDING) >> (2 * WEIGHT_BITS);
+    }
+
+    /**
+     * Writes a row of pixels into its place in the buffer with absolute puts, using the kernel of
+     * the layer's pixel layout.
+     */
+
+    private static void writeRow(@NonNull int[] row, int y, int width, int height, int base, @NonNull PixelBufferLayerDescription description, @NonNull ByteBuffer out, @NonNull TensorLayout tensorLayout) {
+        PixelLayout layout = description.getLayout();
+        PixelNormalizer normalizer = description.getNormalizer();
+        boolean quantized = description.isQuantized();
+        int size = quantized ? 1 : 4;
+
+        int channels = layout.getChannels();
+        int pixelStep = tensorLayout.pixelStep(channels, width * height) * size;
+        int channelStep = tensorLayout.channelStep(channels, width * height) * size;
+        int index = base + y * width * pixelStep;
+
+        if (quantized) {
+            layout.write(row, width, out, index, pixelStep, channelStep);
+        } else {
+            layout.write(row, width, out, index, pixelStep, channelStep, normalizer != null ? normalizer.getLookupTable() : null);
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return value < min ? min : (value > max ? max : value);
+    }
+
+    //endRegion
+
+    /**
+     * The source rectangle an image is sampled from and the destination rectangle it is sampled
+     * into, within a destination of the layer's width and height.
+     */
+
+    private static class Geometry {
+        int srcX;
+        int srcY;
+        int srcWidth;
+        int srcHeight;
+        int dstX;
+        int dstY;
+        int dstWidth;
+        int dstHeight;
+        int width;
+        int height;
+
+        void set(int srcX, int srcY, int srcWidth, int srcHeight, int dstX, int dstY, int dstWidth, int dstHeight, int width, int height) {
+            this.srcX = srcX;
+            this.srcY = srcY;
+            this.srcWidth = srcWidth;
+            this.srcHeight = srcHeight;
+            this.dstX = dstX;
+            this.dstY = dstY;
+            this.dstWidth = dstWidth;
+            this.dstHeight = dstHeight;
+            this.width = width;
+            this.height = height;
+        }
+    }
+
+    /**
+     * Row and column scratch space for a single thread. Holds the two most recently read source
+     * rows so that neighboring destination rows which sample the same source rows read them once.
+     */
+
+    private static class Scratch {
+        final Geometry geometry = new Geometry();
+
+        int[] row = new int[0];
+        int[] left = new int[0];
+        int[] right = new int[0];
+        int[] xWeight = new int[0];
+
+        int[] rowA = new int[0];
+        int[] rowB = new int[0];
+        int rowAY;
+        int rowBY;
+
+        void reserve(int srcWidth, int width) {
+            if (rowA.length < srcWidth) {
+                rowA = new int[srcWidth];
+                rowB = new int[srcWidth];
+            }
+            if (row.length < width) {
+                row = new int[width];
+                left = new int[width];
+                right = new int[width];
+                xWeight = new int[width];
+            }
+
+            rowAY = -1;
+            rowBY = -1;
+        }
+
+        /**
+         * Returns source row `y`, reading it unless it is already held, and without evicting row
+         * `keep` if that row is held.
+         */
+
+        int[] sourceRow(@NonNull PixelSource source, int x, int y, int width, int keep) {
+            if (rowAY == y) {
+                return rowA;
+            } else if (rowBY == y) {
+                return rowB;
+            } else if (rowAY != keep) {
+                source.readRow(y, x, width, rowA);
+                rowAY = y;
+                return rowA;
+            } else {
+                source.readRow(y, x, width, rowB);
+                rowBY = y;
+                return rowB;
+            }
+        }
+    }
+}
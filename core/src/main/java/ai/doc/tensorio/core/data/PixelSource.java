@@ -0,0 +1,124 @@
+/*
+ * PixelSource.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A source of ARGB pixels that is read a row at a time, so that an image can be resized and
+ * normalized into a layer's buffer without first copying all of its pixels or scaling it into
+ * an intermediate Bitmap.
+ */
+
+public abstract class PixelSource {
+
+    /**
+     * @return The width of the source in pixels
+     */
+
+    public abstract int getWidth();
+
+    /**
+     * @return The height of the source in pixels
+     */
+
+    public abstract int getHeight();
+
+    /**
+     * Reads part of a row of pixels in ARGB format, the format returned by `Bitmap.getPixels`.
+     *
+     * @param y The row to read
+     * @param x The first column to read
+     * @param width The number of columns to read
+     * @param dst The array to read the pixels into, starting at index 0
+     */
+
+    public abstract void readRow(int y, int x, int width, @NonNull int[] dst);
+
+    //region Factories
+
+    /**
+     * A PixelSource that reads from a Bitmap.
+     */
+
+    public static PixelSource PixelSourceForBitmap(@NonNull Bitmap bitmap) {
+        return new PixelSource() {
+            @Override
+            public int getWidth() {
+                return bitmap.getWidth();
+            }
+
+            @Override
+            public int getHeight() {
+                return bitmap.getHeight();
+            }
+
+            @Override
+            public void readRow(int y, int x, int width, @NonNull int[] dst) {
+                bitmap.getPixels(dst, 0, width, x, y, width, 1);
+            }
+        };
+    }
+
+    /**
+     * A PixelSource that reads from an array of ARGB pixels stored row by row.
+     *
+     * @param pixels The pixels, at least `width * height` of them
+     * @param width The width of the image
+     * @param height The height of the image
+     */
+
+    public static PixelSource PixelSourceForPixels(@NonNull int[] pixels, int width, int height) {
+        if (width <= 0 || height <= 0 || pixels.length < width * height) {
+            throw BadPixelsException(pixels.length, width, height);
+        }
+
+        final int stride = width;
+
+        return new PixelSource() {
+            @Override
+            public int getWidth() {
+                return stride;
+            }
+
+            @Override
+            public int getHeight() {
+                return height;
+            }
+
+            @Override
+            public void readRow(int y, int x, int width, @NonNull int[] dst) {
+                System.arraycopy(pixels, y * stride + x, dst, 0, width);
+            }
+        };
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadPixelsException(int length, int width, int height) {
+        return new IllegalArgumentException("Expected at least " + width + "x" + height + " pixels with a positive width and height, found " + length + " pixels");
+    }
+
+    //endRegion
+}
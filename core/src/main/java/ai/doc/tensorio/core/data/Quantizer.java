@@ -22,9 +22,17 @@
 
 package ai.doc.tensorio.core.data;
 
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+
 /**
  * A `DataQuantizer` quantizes unquantized values, converting them from
  * floating point representations to int representations.
+ *
+ * The bulk `quantize(float[], ByteBuffer)` quantizes a whole vector into the uint8 bytes a
+ * quantized model reads and is what the vector converters use. The standard quantizers override
+ * it with the scale and bias applied inline so that there is no call per value.
  */
 
 public abstract class Quantizer {
@@ -36,6 +44,31 @@ public abstract class Quantizer {
 
     public abstract int quantize(float value);
 
+    /**
+     * Quantizes every value in an array and writes it to the buffer as an unsigned byte, starting at
+     * the buffer's position and advancing it. Values are truncated as `quantize(value)` truncates
+     * them and then saturated to `[0,255]` rather than wrapping.
+     *
+     * @param values The float values that will be quantized
+     * @param out The buffer to write to, which must have room for one byte per value
+     */
+
+    public void quantize(@NonNull float[] values, @NonNull ByteBuffer out) {
+        for (float value : values) {
+            out.put(saturate(quantize(value)));
+        }
+    }
+
+    /**
+     * Clamps a quantized value to `[0,255]` and returns it as an unsigned byte.
+     */
+
+    protected static byte saturate(int value) {
+        return (byte) (value < 0 ? 0 : (value > 255 ? 255 : value));
+    }
+
+    //region Factories
+
     /**
      * A DataQuantizer that applies the provided scale and bias according to the following formula:
      *
@@ -54,6 +87,13 @@ public abstract class Quantizer {
             public int quantize(float value) {
                 return (int)((value+bias) * scale);
             }
+
+            @Override
+            public void quantize(@NonNull float[] values, @NonNull ByteBuffer out) {
+                for (float value : values) {
+                    out.put(saturate((int)((value+bias) * scale)));
+                }
+            }
         };
     }
 
@@ -67,6 +107,13 @@ public abstract class Quantizer {
             public int quantize(float value) {
                 return (int)(value * 255.0f);
             }
+
+            @Override
+            public void quantize(@NonNull float[] values, @NonNull ByteBuffer out) {
+                for (float value : values) {
+                    out.put(saturate((int)(value * 255.0f)));
+                }
+            }
         };
     }
 
@@ -79,4 +126,6 @@ public abstract class Quantizer {
         float bias = 1f;
         return DataQuantizerWithQuantization(scale, bias);
     }
+
+    //endRegion
 }
@@ -0,0 +1,138 @@
+/*
+ * RegionInput.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import android.graphics.Bitmap;
+import android.graphics.Rect;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A rectangular region of another PixelSource, such as a box found by a detection model, that is
+ * sampled into a pixel buffer layer directly from its source without cropping it into a new
+ * Bitmap. Only the rows and columns of the region are ever read from the source.
+ *
+ * Regions are clipped to their source. Because a region is itself a PixelSource it may be passed
+ * anywhere a PixelSource is accepted, including the items of a Batch, see `Model.runOnRegions`
+ * to run a model once on every region of a frame.
+ */
+
+public class RegionInput extends PixelSource {
+
+    private final PixelSource source;
+    private final int left;
+    private final int top;
+    private final int width;
+    private final int height;
+
+    /**
+     * @param source The source the region lies in
+     * @param left The left edge of the region in the source
+     * @param top The top edge of the region in the source
+     * @param width The width of the region
+     * @param height The height of the region
+     * @throws IllegalArgumentException if the region does not overlap the source
+     */
+
+    public RegionInput(@NonNull PixelSource source, int left, int top, int width, int height) throws IllegalArgumentException {
+        int clippedLeft = Math.max(left, 0);
+        int clippedTop = Math.max(top, 0);
+        int clippedRight = Math.min(left + width, source.getWidth());
+        int clippedBottom = Math.min(top + height, source.getHeight());
+
+        if (clippedRight <= clippedLeft || clippedBottom <= clippedTop) {
+            throw EmptyRegionException(source, left, top, width, height);
+        }
+
+        this.source = source;
+        this.left = clippedLeft;
+        this.top = clippedTop;
+        this.width = clippedRight - clippedLeft;
+        this.height = clippedBottom - clippedTop;
+    }
+
+    /**
+     * @return The source the region lies in
+     */
+
+    public PixelSource getSource() {
+        return source;
+    }
+
+    /**
+     * @return The left edge of the region in the source, after clipping
+     */
+
+    public int getLeft() {
+        return left;
+    }
+
+    /**
+     * @return The top edge of the region in the source, after clipping
+     */
+
+    public int getTop() {
+        return top;
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public void readRow(int y, int x, int width, @NonNull int[] dst) {
+        source.readRow(top + y, left + x, width, dst);
+    }
+
+    //region Factories
+
+    /**
+     * A RegionInput for a Rect in a PixelSource.
+     */
+
+    public static RegionInput RegionInputForRect(@NonNull PixelSource source, @NonNull Rect rect) throws IllegalArgumentException {
+        return new RegionInput(source, rect.left, rect.top, rect.right - rect.left, rect.bottom - rect.top);
+    }
+
+    /**
+     * A RegionInput for a Rect in a Bitmap.
+     */
+
+    public static RegionInput RegionInputForRect(@NonNull Bitmap bitmap, @NonNull Rect rect) throws IllegalArgumentException {
+        return RegionInputForRect(PixelSource.PixelSourceForBitmap(bitmap), rect);
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException EmptyRegionException(@NonNull PixelSource source, int left, int top, int width, int height) {
+        return new IllegalArgumentException("Expected a region overlapping the " + source.getWidth() + "x" + source.getHeight()
+                + " source, found " + width + "x" + height + " at (" + left + ", " + top + ")");
+    }
+
+    //endRegion
+}
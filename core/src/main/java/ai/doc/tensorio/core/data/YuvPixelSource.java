@@ -0,0 +1,229 @@
+/*
+ * YuvPixelSource.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import java.nio.ByteBuffer;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A PixelSource that reads a camera frame directly from its Y, U, and V planes, converting
+ * pixels to RGB and rotating them upright as each row is read. Passing one to a pixel buffer
+ * layer converts, rotates, resizes, and normalizes the frame in a single pass without first
+ * building an ARGB Bitmap.
+ *
+ * Frames in the YUV_420_888 format, for example from an `android.media.Image`, are read with
+ * the plane constructor:
+ *
+ * <pre>
+ * Image.Plane[] planes = image.getPlanes();
+ * PixelSource source = new YuvPixelSource(
+ *         planes[0].getBuffer(), planes[0].getRowStride(),
+ *         planes[1].getBuffer(), planes[2].getBuffer(),
+ *         planes[1].getRowStride(), planes[1].getPixelStride(),
+ *         image.getWidth(), image.getHeight(), rotationDegrees);
+ * </pre>
+ *
+ * and NV21 frames from the legacy camera API with `YuvPixelSourceForNV21`. Colors are converted
+ * with the BT.601 video range coefficients cameras produce.
+ *
+ * The planes are only ever read with absolute gets, so a source may be sampled from several
+ * threads at once, but the planes must not be modified or released until conversion completes.
+ */
+
+public class YuvPixelSource extends PixelSource {
+
+    private final ByteBuffer y;
+    private final ByteBuffer u;
+    private final ByteBuffer v;
+
+    private final int yOffset;
+    private final int uOffset;
+    private final int vOffset;
+
+    private final int yRowStride;
+    private final int uvRowStride;
+    private final int uvPixelStride;
+
+    private final int frameWidth;
+    private final int frameHeight;
+    private final int rotation;
+
+    /**
+     * @param y The luma plane, starting at its current position
+     * @param yRowStride The distance in bytes between the start of each row in the luma plane
+     * @param u The U chroma plane, starting at its current position
+     * @param v The V chroma plane, starting at its current position
+     * @param uvRowStride The distance in bytes between the start of each row in the chroma planes
+     * @param uvPixelStride The distance in bytes between adjacent pixels in the chroma planes, 1
+     *                      for planar and 2 for semi-planar frames
+     * @param width The width of the frame as captured, before rotation
+     * @param height The height of the frame as captured, before rotation
+     * @param rotation The clockwise rotation in degrees that makes the frame upright, one of 0,
+     *                 90, 180, or 270
+     * @throws IllegalArgumentException if the rotation is not a multiple of 90 or the dimensions
+     *                                  and strides are invalid
+     */
+
+    public YuvPixelSource(@NonNull ByteBuffer y, int yRowStride, @NonNull ByteBuffer u, @NonNull ByteBuffer v, int uvRowStride, int uvPixelStride, int width, int height, int rotation) throws IllegalArgumentException {
+        if (rotation % 90 != 0) {
+            throw BadRotationException(rotation);
+        }
+        if (width <= 0 || height <= 0 || yRowStride < width || uvPixelStride < 1 || uvRowStride < ((width + 1) / 2) * uvPixelStride) {
+            throw BadStridesException(width, height, yRowStride, uvRowStride, uvPixelStride);
+        }
+
+        this.y = y;
+        this.u = u;
+        this.v = v;
+
+        this.yOffset = y.position();
+        this.uOffset = u.position();
+        this.vOffset = v.position();
+
+        this.yRowStride = yRowStride;
+        this.uvRowStride = uvRowStride;
+        this.uvPixelStride = uvPixelStride;
+
+        this.frameWidth = width;
+        this.frameHeight = height;
+        this.rotation = ((rotation % 360) + 360) % 360;
+    }
+
+    /**
+     * @return The clockwise rotation in degrees applied to the frame, one of 0, 90, 180, or 270
+     */
+
+    public int getRotation() {
+        return rotation;
+    }
+
+    @Override
+    public int getWidth() {
+        return (rotation == 90 || rotation == 270) ? frameHeight : frameWidth;
+    }
+
+    @Override
+    public int getHeight() {
+        return (rotation == 90 || rotation == 270) ? frameWidth : frameHeight;
+    }
+
+    @Override
+    public void readRow(int row, int x, int width, @NonNull int[] dst) {
+
+        // Walk the unrotated frame from the pixel under (x, row) in the direction the rotated
+        // row runs through it
+
+        int sx, sy, dx, dy;
+
+        switch (rotation) {
+            case 90:
+                sx = row; sy = frameHeight - 1 - x; dx = 0; dy = -1;
+                break;
+            case 180:
+                sx = frameWidth - 1 - x; sy = frameHeight - 1 - row; dx = -1; dy = 0;
+                break;
+            case 270:
+                sx = frameWidth - 1 - row; sy = x; dx = 0; dy = 1;
+                break;
+            default:
+                sx = x; sy = row; dx = 1; dy = 0;
+                break;
+        }
+
+        for (int i = 0; i < width; i++, sx += dx, sy += dy) {
+            int uv = (sy >> 1) * uvRowStride + (sx >> 1) * uvPixelStride;
+
+            dst[i] = argb(
+                    y.get(yOffset + sy * yRowStride + sx) & 0xFF,
+                    u.get(uOffset + uv) & 0xFF,
+                    v.get(vOffset + uv) & 0xFF);
+        }
+    }
+
+    /**
+     * Converts a BT.601 video range YUV pixel to opaque ARGB in 10 bit fixed point.
+     */
+
+    static int argb(int y, int u, int v) {
+        int luma = Math.max(0, y - 16) * 1192;
+        u -= 128;
+        v -= 128;
+
+        int r = (luma + 1634 * v) >> 10;
+        int g = (luma - 833 * v - 400 * u) >> 10;
+        int b = (luma + 2066 * u) >> 10;
+
+        return 0xFF000000 | (clamp(r) << 16) | (clamp(g) << 8) | clamp(b);
+    }
+
+    private static int clamp(int value) {
+        return value < 0 ? 0 : (value > 255 ? 255 : value);
+    }
+
+    //region Factories
+
+    /**
+     * A YuvPixelSource that reads an NV21 frame, the default preview format of the legacy camera
+     * API, in which the luma plane is followed by interleaved V and U samples.
+     *
+     * @param nv21 The frame
+     * @param width The width of the frame as captured, before rotation
+     * @param height The height of the frame as captured, before rotation
+     * @param rotation The clockwise rotation in degrees that makes the frame upright
+     * @throws IllegalArgumentException if the frame is too small for its dimensions or the rotation
+     *                                  is not a multiple of 90
+     */
+
+    public static YuvPixelSource YuvPixelSourceForNV21(@NonNull byte[] nv21, int width, int height, int rotation) throws IllegalArgumentException {
+        int uvRowStride = ((width + 1) / 2) * 2;
+        int lumaLength = width * height;
+        int chromaLength = uvRowStride * ((height + 1) / 2);
+
+        if (width <= 0 || height <= 0 || nv21.length < lumaLength + chromaLength) {
+            throw BadNV21Exception(nv21.length, width, height);
+        }
+
+        ByteBuffer y = ByteBuffer.wrap(nv21, 0, lumaLength).slice();
+        ByteBuffer v = ByteBuffer.wrap(nv21, lumaLength, chromaLength).slice();
+        ByteBuffer u = ByteBuffer.wrap(nv21, lumaLength + 1, chromaLength - 1).slice();
+
+        return new YuvPixelSource(y, width, u, v, uvRowStride, 2, width, height, rotation);
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadRotationException(int rotation) {
+        return new IllegalArgumentException("Expected a rotation of 0, 90, 180, or 270 degrees, found " + rotation);
+    }
+
+    private static IllegalArgumentException BadStridesException(int width, int height, int yRowStride, int uvRowStride, int uvPixelStride) {
+        return new IllegalArgumentException("Invalid YUV frame of " + width + "x" + height + " with a luma row stride of " + yRowStride
+                + ", a chroma row stride of " + uvRowStride + ", and a chroma pixel stride of " + uvPixelStride);
+    }
+
+    private static IllegalArgumentException BadNV21Exception(int length, int width, int height) {
+        return new IllegalArgumentException("Expected an NV21 frame of at least " + width + "x" + height + " pixels with a positive width and height, found " + length + " bytes");
+    }
+
+    //endRegion
+}
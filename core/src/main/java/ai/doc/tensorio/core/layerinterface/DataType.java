@@ -24,5 +24,6 @@ public enum DataType {
     UInt8,       // "uint8"
     Float32,     // "float32"
     Int32,       // "int32"
-    Int64        // "int64"
+    Int64,       // "int64"
+    Float16      // "float16"
 }
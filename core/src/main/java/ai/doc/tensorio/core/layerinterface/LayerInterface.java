@@ -154,6 +154,20 @@ public class LayerInterface {
         return layerDescription.getDtype();
     }
 
+    public boolean isBatched() {
+        return layerDescription.isBatched();
+    }
+
+    /**
+     * The underlying layer description. Prefer `doCase`, but code on the inference hot path may
+     * switch on `getType()` and cast the description instead, which avoids allocating capturing
+     * lambdas on every call.
+     */
+
+    public LayerDescription getLayerDescription() {
+        return layerDescription;
+    }
+
     //endregion
 
     /**
@@ -21,9 +21,15 @@
 package ai.doc.tensorio.core.layerinterface;
 
 import ai.doc.tensorio.core.data.PixelDenormalizer;
+import ai.doc.tensorio.core.data.PixelLayout;
 import ai.doc.tensorio.core.data.PixelNormalizer;
 import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
 import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
+
+import androidx.annotation.Nullable;
 
 /**
  * The description of a pixel buffer input or output layer.
@@ -38,7 +44,8 @@ public class PixelBufferLayerDescription extends LayerDescription {
     private boolean quantized;
 
     /**
-     * The pixel format of the image data, must be PixelFormat.RGB or PixelFormat.BGR
+     * The pixel format of the image data, must be PixelFormat.RGB or PixelFormat.BGR. Single
+     * channel layers are gray in either format
      */
 
     private PixelFormat pixelFormat;
@@ -49,6 +56,13 @@ public class PixelBufferLayerDescription extends LayerDescription {
 
     private ImageVolume shape;
 
+    /**
+     * The order and number of channels stored for each pixel, selected from the pixel format and
+     * the shape's channel count
+     */
+
+    private PixelLayout layout;
+
     /**
      * A function that normalizes pixel values from a byte range of `[0,255]` to some other
      * floating point range, may be `nil`.
@@ -63,6 +77,25 @@ public class PixelBufferLayerDescription extends LayerDescription {
 
     private PixelDenormalizer denormalizer;
 
+    /**
+     * How an input image is fit to the layer's width and height when their sizes differ
+     */
+
+    private ResizeMode resizeMode;
+
+    /**
+     * How pixel values are sampled when an input image is resized
+     */
+
+    private Interpolation interpolation;
+
+    /**
+     * How the pixels are arranged in the layer's tensor, or null if the backend's own layout is
+     * used
+     */
+
+    private @Nullable TensorLayout tensorLayout;
+
     /**
      * Creates a pixel buffer description from the properties parsed in a model.json file.
      *
@@ -75,15 +108,57 @@ public class PixelBufferLayerDescription extends LayerDescription {
      */
 
     public PixelBufferLayerDescription(PixelFormat pixelFormat, ImageVolume shape, boolean batched, PixelNormalizer normalizer, PixelDenormalizer denormalizer, boolean quantized) {
+        this(pixelFormat, shape, batched, normalizer, denormalizer, quantized, ResizeMode.Stretch, Interpolation.Bilinear);
+    }
+
+    /**
+     * Creates a pixel buffer description from the properties parsed in a model.json file.
+     *
+     * @param pixelFormat   The expected format of the pixels
+     * @param shape         The shape of the input image
+     * @param batched       True if the layer supports batched execution, false otherwise
+     * @param normalizer    A function which normalizes the pixel values for an input layer, may be null.
+     * @param denormalizer  A function which denormalizes pixel values for an output layer, may be null
+     * @param quantized     true if this layer expects quantized values, false otherwise
+     * @param resizeMode    How an input image is fit to the layer when their sizes differ
+     * @param interpolation How pixel values are sampled when an input image is resized
+     * @throws IllegalArgumentException if the shape does not have 1, 3, or 4 channels
+     */
+
+    public PixelBufferLayerDescription(PixelFormat pixelFormat, ImageVolume shape, boolean batched, PixelNormalizer normalizer, PixelDenormalizer denormalizer, boolean quantized, ResizeMode resizeMode, Interpolation interpolation) {
+        this(pixelFormat, shape, batched, normalizer, denormalizer, quantized, resizeMode, interpolation, null);
+    }
+
+    /**
+     * Creates a pixel buffer description from the properties parsed in a model.json file.
+     *
+     * @param pixelFormat   The expected format of the pixels
+     * @param shape         The shape of the input image
+     * @param batched       True if the layer supports batched execution, false otherwise
+     * @param normalizer    A function which normalizes the pixel values for an input layer, may be null.
+     * @param denormalizer  A function which denormalizes pixel values for an output layer, may be null
+     * @param quantized     true if this layer expects quantized values, false otherwise
+     * @param resizeMode    How an input image is fit to the layer when their sizes differ
+     * @param interpolation How pixel values are sampled when an input image is resized
+     * @param tensorLayout  How the pixels are arranged in the layer's tensor, or null to use the
+     *                      backend's own layout
+     * @throws IllegalArgumentException if the shape does not have 1, 3, or 4 channels
+     */
+
+    public PixelBufferLayerDescription(PixelFormat pixelFormat, ImageVolume shape, boolean batched, PixelNormalizer normalizer, PixelDenormalizer denormalizer, boolean quantized, ResizeMode resizeMode, Interpolation interpolation, @Nullable TensorLayout tensorLayout) {
         // The data type will always be UInt8 if the layer is quantized and Float32 otherwise
         this.dtype = quantized ? DataType.UInt8 : DataType.Float32;
 
         this.pixelFormat = pixelFormat;
         this.shape = shape;
+        this.layout = PixelLayout.PixelLayoutFor(pixelFormat, shape.channels);
         this.batched = batched;
         this.normalizer = normalizer;
         this.denormalizer = denormalizer;
         this.quantized = quantized;
+        this.resizeMode = resizeMode;
+        this.interpolation = interpolation;
+        this.tensorLayout = tensorLayout;
     }
 
     //region Getters and Setters
@@ -101,6 +176,10 @@ public class PixelBufferLayerDescription extends LayerDescription {
         return shape;
     }
 
+    public PixelLayout getLayout() {
+        return layout;
+    }
+
     public PixelNormalizer getNormalizer() {
         return normalizer;
     }
@@ -109,8 +188,37 @@ public class PixelBufferLayerDescription extends LayerDescription {
         return denormalizer;
     }
 
+    public ResizeMode getResizeMode() {
+        return resizeMode;
+    }
+
+    public Interpolation getInterpolation() {
+        return interpolation;
+    }
+
+    public @Nullable TensorLayout getTensorLayout() {
+        return tensorLayout;
+    }
+
+    /**
+     * @param backendLayout The layout of the backend the layer belongs to
+     * @return The layout the layer declares, or the backend's if it declares none
+     */
+
+    public TensorLayout getTensorLayout(TensorLayout backendLayout) {
+        return tensorLayout != null ? tensorLayout : backendLayout;
+    }
+
     @Override
     public int[] getTensorShape() {
+        if (tensorLayout == TensorLayout.NCHW) {
+            if (isBatched()) {
+                return new int[]{-1, shape.channels, shape.height, shape.width};
+            } else {
+                return new int[]{shape.channels, shape.height, shape.width};
+            }
+        }
+
         if (isBatched()) {
             return new int[]{-1, shape.height, shape.width, shape.channels};
         } else {
@@ -56,6 +56,11 @@ import static java.lang.Math.abs;
  * Because output layers are also exposed as an array of bytes, a `TFLiteModel` will always return
  * a vector in one dimension. If is up to you to reshape it if required.
  *
+ * A -1 anywhere but the first dimension of the shape marks a dynamic dimension, for example the
+ * sequence length of a layer with shape `(-1,-1,128)`. The dimension is resolved from the number
+ * of values in each input with `resolveShape`, and a layer may have only one. Backends that do
+ * not support dynamic shapes treat the dimension as 1.
+ *
  * @warning
  * A `VectorLayerDescription`'s length is different than the byte length of a `Data` object.
  * For example a quantized `Vector` (uint8_t) of length 4 will occupy 4 bytes of memory but an
@@ -76,6 +81,12 @@ public class VectorLayerDescription extends LayerDescription {
 
     private int length;
 
+    /**
+     * The index of the layer's dynamic dimension, or -1 if the layer's shape is fixed.
+     */
+
+    private int dynamicDimension;
+
     /**
      * true if there are labels associated with this layer, false otherwise.
      */
@@ -124,6 +135,15 @@ public class VectorLayerDescription extends LayerDescription {
             length *= abs(i);
         }
 
+        // Dynamic Dimension, after any batch dimension
+        this.dynamicDimension = -1;
+        for (int i = 1; i < shape.length; i++) {
+            if (shape[i] == -1) {
+                dynamicDimension = i;
+                break;
+            }
+        }
+
         this.batched = batched;
         this.labels = labels;
         this.labeled = labels != null && labels.length > 0;
@@ -139,10 +159,31 @@ public class VectorLayerDescription extends LayerDescription {
         return shape;
     }
 
+    /**
+     * The number of values in the layer, or for a dynamic layer, the number of values per unit of
+     * its dynamic dimension.
+     */
+
     public int getLength() {
         return length;
     }
 
+    /**
+     * @return true if the layer has a dynamic dimension, false otherwise
+     */
+
+    public boolean isDynamic() {
+        return dynamicDimension != -1;
+    }
+
+    /**
+     * @return The index in the layer's shape of its dynamic dimension, or -1 if it has none
+     */
+
+    public int getDynamicDimension() {
+        return dynamicDimension;
+    }
+
     public String[] getLabels() {
         return labels;
     }
@@ -166,6 +207,43 @@ public class VectorLayerDescription extends LayerDescription {
 
     //endRegion
 
+    //region Dynamic Shapes
+
+    /**
+     * Resolves the dynamic dimension of the layer's shape for an input of `count` values. A leading
+     * batch dimension is left as -1.
+     *
+     * @param count The number of values in an input, a whole multiple of `getLength()`
+     * @return The shape with its dynamic dimension resolved, or the layer's shape if it is fixed
+     * @throws IllegalArgumentException if the count does not fill a whole number of the dynamic
+     *                                  dimension's units
+     */
+
+    public int[] resolveShape(int count) throws IllegalArgumentException {
+        if (!isDynamic()) {
+            return shape;
+        }
+        if (count <= 0 || count % length != 0) {
+            throw BadDynamicLengthException(count, length);
+        }
+
+        int[] resolved = shape.clone();
+        resolved[dynamicDimension] = count / length;
+
+        return resolved;
+    }
+
+    /**
+     * Returns a copy of this description with another shape, used to describe a dynamic layer for
+     * the shape it has been resolved to.
+     */
+
+    public VectorLayerDescription withShape(int[] shape) {
+        return new VectorLayerDescription(shape, batched, labels, quantized, quantizer, dequantizer, dtype);
+    }
+
+    //endRegion
+
     /**
      * Given the output vector of a tensor, returns labeled outputs using `labels`.
      *
@@ -188,4 +266,11 @@ public class VectorLayerDescription extends LayerDescription {
         return result;
     }
 
+    //region Exceptions
+
+    private static IllegalArgumentException BadDynamicLengthException(int count, int length) {
+        return new IllegalArgumentException("The dynamic layer expects a whole multiple of " + length + " values but the input has " + count);
+    }
+
+    //endRegion
 }
@@ -0,0 +1,277 @@
+/*
+ * BatchingScheduler.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.data.Batch;
+
+/**
+ * Collects concurrent single item inference requests into batches that are run with a single call
+ * to `Model.runOn(Batch)`, amortizing the per call cost of inference across many producers.
+ *
+ * A batch is dispatched when it holds `maxBatchSize` items or when `maxLatency` microseconds have
+ * passed since its first item arrived, whichever comes first. Results are scattered back to each
+ * caller's future. If the batch fails, every future in it completes exceptionally with the failure.
+ *
+ * The model's input and output layers must all have a leading batch dimension, which is declared
+ * with a -1 in the first position of a layer's shape. Placeholders are not supported.
+ *
+ * Inference runs on a single dispatch thread owned by the scheduler, so the model is never used
+ * concurrently by the scheduler itself.
+ */
+
+public class BatchingScheduler {
+
+    /** A single item request waiting to be batched */
+
+    private static class Request {
+        final Map<String, Object> input;
+        final InferenceFuture<Map<String, Object>> future = new InferenceFuture<>();
+
+        Request(@NonNull Map<String, Object> input) {
+            this.input = input;
+        }
+    }
+
+    private final Model model;
+    private final int maxBatchSize;
+    private final long maxLatencyNanos;
+    private final String[] inputKeys;
+    private final Set<String> inputKeyset;
+
+    private final LinkedBlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+    private final Thread dispatcher;
+    private volatile boolean shutdown = false;
+
+    /**
+     * @param model The model to run batches on
+     * @param maxBatchSize The maximum number of items in a batch
+     * @param maxLatency The maximum time in microseconds a request waits for other requests to join its batch
+     * @throws IllegalArgumentException If the model's layers are not batched or the parameters are invalid
+     */
+
+    public BatchingScheduler(@NonNull Model model, int maxBatchSize, long maxLatency) throws IllegalArgumentException {
+        if (maxBatchSize < 1) {
+            throw new IllegalArgumentException("The maximum batch size must be at least 1");
+        }
+        if (maxLatency < 0) {
+            throw new IllegalArgumentException("The maximum latency may not be negative");
+        }
+        if (!model.hasBatchedInterface()) {
+            throw UnbatchedModelException();
+        }
+        if (model.getIO().getPlaceholders().size() != 0) {
+            throw new IllegalArgumentException("Batching scheduler does not support models with placeholders");
+        }
+
+        this.model = model;
+        this.maxBatchSize = maxBatchSize;
+        this.maxLatencyNanos = TimeUnit.MICROSECONDS.toNanos(maxLatency);
+        this.inputKeyset = model.getIO().getInputs().keys();
+        this.inputKeys = inputKeyset.toArray(new String[0]);
+
+        this.dispatcher = new Thread(this::dispatch, "TensorIO-" + model.getIdentifier() + "-batching");
+        this.dispatcher.setDaemon(true);
+        this.dispatcher.start();
+    }
+
+    //region Getters and Setters
+
+    public Model getModel() {
+        return model;
+    }
+
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    /** The maximum latency in microseconds */
+
+    public long getMaxLatency() {
+        return TimeUnit.NANOSECONDS.toMicros(maxLatencyNanos);
+    }
+
+    /** The number of requests waiting to be batched */
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    //endRegion
+
+    /**
+     * Queues a single item for batched inference.
+     *
+     * @param input A mapping of input layer names to arbitrary objects
+     * @return A future that completes with the item's results mapped from the output layer names
+     * to the values, or exceptionally if the input is invalid, the batch fails, or the scheduler
+     * has been shut down
+     */
+
+    public InferenceFuture<Map<String, Object>> submit(@NonNull Map<String, Object> input) {
+        Request request = new Request(input);
+
+        if (!inputKeyset.equals(input.keySet())) {
+            request.future.completeExceptionally(InputKeysMismatchException());
+            return request.future;
+        }
+
+        if (shutdown) {
+            request.future.completeExceptionally(ShutdownException());
+            return request.future;
+        }
+
+        queue.add(request);
+
+        // Catch requests that raced with shutdown after the dispatcher drained the queue
+
+        if (shutdown) {
+            rejectPending();
+        }
+
+        return request.future;
+    }
+
+    /**
+     * Stops the dispatch thread. A batch that is already running completes, and requests that are
+     * still waiting complete exceptionally with a `RejectedExecutionException`.
+     */
+
+    public void shutdown() {
+        shutdown = true;
+        dispatcher.interrupt();
+        rejectPending();
+    }
+
+    //region Dispatch
+
+    private void dispatch() {
+        List<Request> requests = new ArrayList<>(maxBatchSize);
+
+        while (!shutdown) {
+            try {
+                collect(requests);
+            } catch (InterruptedException e) {
+                for (Request request : requests) {
+                    request.future.completeExceptionally(ShutdownException());
+                }
+                break;
+            }
+
+            if (!requests.isEmpty()) {
+                run(requests);
+            }
+
+            requests.clear();
+        }
+
+        rejectPending();
+    }
+
+    /**
+     * Blocks for the first request, then collects requests until the batch is full or the first
+     * request has waited for the maximum latency. Cancelled requests are skipped.
+     */
+
+    private void collect(@NonNull List<Request> requests) throws InterruptedException {
+        Request first = queue.take();
+
+        if (!first.future.isDone()) {
+            requests.add(first);
+        }
+
+        long deadline = System.nanoTime() + maxLatencyNanos;
+
+        while (requests.size() < maxBatchSize) {
+            long remaining = deadline - System.nanoTime();
+            Request next = remaining > 0
+                    ? queue.poll(remaining, TimeUnit.NANOSECONDS)
+                    : queue.poll();
+
+            if (next == null) {
+                break;
+            }
+            if (!next.future.isDone()) {
+                requests.add(next);
+            }
+        }
+    }
+
+    /** Runs the collected requests as a single batch and scatters the results */
+
+    private void run(@NonNull List<Request> requests) {
+        Batch results;
+
+        try {
+            Batch batch = new Batch(inputKeys);
+
+            for (Request request : requests) {
+                Batch.Item item = new Batch.Item();
+                item.putAll(request.input);
+                batch.add(item);
+            }
+
+            results = model.runOn(batch);
+        } catch (Throwable t) {
+            for (Request request : requests) {
+                request.future.completeExceptionally(t);
+            }
+            return;
+        }
+
+        for (int i = 0; i < requests.size(); i++) {
+            requests.get(i).future.complete(results.get(i));
+        }
+    }
+
+    private void rejectPending() {
+        Request request;
+        while ((request = queue.poll()) != null) {
+            request.future.completeExceptionally(ShutdownException());
+        }
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException UnbatchedModelException() {
+        return new IllegalArgumentException("Batching scheduler requires a model whose input and output layers have a batch dimension");
+    }
+
+    private static IllegalArgumentException InputKeysMismatchException() {
+        return new IllegalArgumentException("The input keys do not match the model's input layers");
+    }
+
+    private static RejectedExecutionException ShutdownException() {
+        return new RejectedExecutionException("The batching scheduler has been shut down");
+    }
+
+    //endRegion
+}
@@ -0,0 +1,132 @@
+/*
+ * HistogramMetricsListener.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import ai.doc.tensorio.core.utilities.RollingHistogram;
+
+/**
+ * A metrics listener that keeps rolling histograms of the duration of each stage and of whole
+ * calls, along with running totals of the bytes copied and buffer cache lookups.
+ *
+ * Recording is lock free and does not allocate, so a single listener may be shared by models
+ * running on many threads. Warm-up runs are not recorded. For example, to report the 95th
+ * percentile of invocation time:
+ *
+ * @code
+ * HistogramMetricsListener histograms = new HistogramMetricsListener(1000);
+ * model.setMetricsListener(histograms);
+ * ...
+ * long p95 = histograms.getHistogram(InferenceMetrics.Stage.Invoke).p95();
+ * @endcode
+ */
+
+public class HistogramMetricsListener implements InferenceMetricsListener {
+
+    private static final InferenceMetrics.Stage[] STAGES = InferenceMetrics.Stage.values();
+
+    private final RollingHistogram[] stages = new RollingHistogram[STAGES.length];
+    private final RollingHistogram total;
+
+    private final AtomicLong bytesCopied = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong cacheMisses = new AtomicLong();
+
+    /**
+     * @param capacity The number of most recent calls each histogram keeps
+     */
+
+    public HistogramMetricsListener(int capacity) {
+        for (int i = 0; i < stages.length; i++) {
+            stages[i] = new RollingHistogram(capacity);
+        }
+
+        total = new RollingHistogram(capacity);
+    }
+
+    @Override
+    public void onInference(@NonNull Model model, @NonNull InferenceMetrics metrics) {
+        if (metrics.isWarmUp()) {
+            return;
+        }
+
+        for (InferenceMetrics.Stage stage : STAGES) {
+            stages[stage.ordinal()].record(metrics.getDuration(stage));
+        }
+
+        total.record(metrics.getTotalDuration());
+
+        bytesCopied.addAndGet(metrics.getBytesCopied());
+        cacheHits.addAndGet(metrics.getCacheHits());
+        cacheMisses.addAndGet(metrics.getCacheMisses());
+    }
+
+    //region Getters
+
+    /** Durations in nanoseconds of the given stage */
+
+    public RollingHistogram getHistogram(@NonNull InferenceMetrics.Stage stage) {
+        return stages[stage.ordinal()];
+    }
+
+    /** Durations in nanoseconds of whole calls */
+
+    public RollingHistogram getTotalHistogram() {
+        return total;
+    }
+
+    /** The number of calls reported to the listener */
+
+    public long getCount() {
+        return total.getCount();
+    }
+
+    public long getBytesCopied() {
+        return bytesCopied.get();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.get();
+    }
+
+    public long getCacheMisses() {
+        return cacheMisses.get();
+    }
+
+    //endRegion
+
+    /**
+     * Discards every sample and zeroes the totals.
+     */
+
+    public void reset() {
+        for (RollingHistogram histogram : stages) {
+            histogram.reset();
+        }
+
+        total.reset();
+        bytesCopied.set(0);
+        cacheHits.set(0);
+        cacheMisses.set(0);
+    }
+}
@@ -85,7 +85,7 @@ public class IO {
          * exception if no interface is available at the index.
          */
 
-        public LayerInterface get(Integer index) {
+        public LayerInterface get(int index) {
             return this.indexedInterfaces.get(index);
         }
 
@@ -0,0 +1,220 @@
+/*
+ * InferenceExecutor.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded executor that runs inference off the calling thread and reports results with an
+ * `InferenceFuture`.
+ *
+ * Work is queued up to a fixed capacity. When the queue is full new work is handled according to
+ * a `RejectionPolicy`, so that overload is reported to the caller rather than accumulating threads
+ * or an unbounded backlog. Idle threads are released after a short timeout.
+ */
+
+public class InferenceExecutor {
+
+    /**
+     * What to do with work submitted to an executor whose queue is full.
+     */
+
+    public enum RejectionPolicy {
+
+        /** Complete the new work's future exceptionally with a `RejectedExecutionException` */
+        Abort,
+
+        /** Run the new work on the submitting thread */
+        CallerRuns,
+
+        /** Complete the oldest queued work's future exceptionally and queue the new work */
+        DiscardOldest
+    }
+
+    /** How long an idle thread waits for work before it is released */
+
+    private static final long KEEP_ALIVE_SECONDS = 30;
+
+    private final ThreadPoolExecutor executor;
+    private final RejectionPolicy rejectionPolicy;
+
+    /**
+     * @param name A name used for the executor's threads
+     * @param threadCount The maximum number of threads that run work concurrently
+     * @param queueCapacity The maximum number of queued items waiting for a thread
+     * @param rejectionPolicy What to do with work submitted when the queue is full
+     */
+
+    public InferenceExecutor(@NonNull String name, int threadCount, int queueCapacity, @NonNull RejectionPolicy rejectionPolicy) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("The thread count must be at least 1");
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("The queue capacity must be at least 1");
+        }
+
+        this.rejectionPolicy = rejectionPolicy;
+        this.executor = new ThreadPoolExecutor(
+                threadCount,
+                threadCount,
+                KEEP_ALIVE_SECONDS,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new NamedThreadFactory(name),
+                new RejectionHandler());
+
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    //region Getters and Setters
+
+    public RejectionPolicy getRejectionPolicy() {
+        return rejectionPolicy;
+    }
+
+    /** The number of items waiting for a thread */
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /** The number of items waiting for a thread that can be queued before work is rejected */
+
+    public int getRemainingCapacity() {
+        return executor.getQueue().remainingCapacity();
+    }
+
+    /** The approximate number of threads currently running work */
+
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    //endRegion
+
+    /**
+     * Queues work for execution.
+     *
+     * @param work The work to perform
+     * @return A future that completes with the result of the work or exceptionally with the exception
+     * it throws. Futures for rejected work complete exceptionally with a `RejectedExecutionException`.
+     * Cancelling a future before its work starts prevents the work from running.
+     */
+
+    public <T> InferenceFuture<T> submit(@NonNull Callable<T> work) {
+        Task<T> task = new Task<>(work);
+        executor.execute(task);
+        return task.future;
+    }
+
+    /**
+     * Stops accepting new work. Work that is already queued still runs.
+     */
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    //region Tasks
+
+    /** Connects queued work to the future that reports its result */
+
+    private static class Task<T> implements Runnable {
+        final Callable<T> work;
+        final InferenceFuture<T> future = new InferenceFuture<>();
+
+        Task(@NonNull Callable<T> work) {
+            this.work = work;
+        }
+
+        void reject(@NonNull String reason) {
+            future.completeExceptionally(new RejectedExecutionException(reason));
+        }
+
+        @Override
+        public void run() {
+            if (future.isDone()) {
+                return;
+            }
+
+            try {
+                future.complete(work.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }
+    }
+
+    private class RejectionHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+            Task<?> task = (Task<?>) r;
+
+            if (e.isShutdown()) {
+                task.reject("The executor has been shut down");
+                return;
+            }
+
+            switch (rejectionPolicy) {
+                case Abort:
+                    task.reject("The inference queue is full");
+                    break;
+                case CallerRuns:
+                    task.run();
+                    break;
+                case DiscardOldest:
+                    Runnable oldest = e.getQueue().poll();
+                    if (oldest != null) {
+                        ((Task<?>) oldest).reject("Discarded from a full inference queue");
+                    }
+                    e.execute(task);
+                    break;
+            }
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        NamedThreadFactory(@NonNull String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(@NonNull Runnable r) {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    //endRegion
+}
@@ -0,0 +1,215 @@
+/*
+ * InferenceFuture.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The pending result of asynchronous inference.
+ *
+ * Wait for the result with `get` or register a `Callback` with `whenComplete`, optionally with an
+ * executor that delivers it to another thread, such as the main thread. Only depends on classes
+ * available at every supported API level, unlike `CompletableFuture`, which requires API 24.
+ */
+
+public class InferenceFuture<T> implements Future<T> {
+
+    /**
+     * Receives the outcome of a future. Exactly one of the result and the error is set, unless the
+     * work completed with a null result. The error of a cancelled future is a
+     * `CancellationException`, and otherwise is the exception thrown by the work.
+     */
+
+    public interface Callback<T> {
+        void onComplete(@Nullable T result, @Nullable Throwable error);
+    }
+
+    private T result;
+    private Throwable error;
+    private boolean done = false;
+    private boolean cancelled = false;
+    private List<Runnable> callbacks;
+
+    InferenceFuture() {
+    }
+
+    //region Completion
+
+    /**
+     * Completes the future with a result if it is not already done.
+     *
+     * @return true if this call completed the future
+     */
+
+    boolean complete(@Nullable T value) {
+        return finish(value, null, false);
+    }
+
+    /**
+     * Completes the future with an exception if it is not already done.
+     *
+     * @return true if this call completed the future
+     */
+
+    boolean completeExceptionally(@NonNull Throwable t) {
+        return finish(null, t, false);
+    }
+
+    /**
+     * Cancels the future if it is not already done. Work that has not started is not run, but work
+     * that is already running is never interrupted.
+     *
+     * @param mayInterruptIfRunning Ignored
+     * @return true if this call cancelled the future
+     */
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        return finish(null, new CancellationException(), true);
+    }
+
+    private boolean finish(@Nullable T value, @Nullable Throwable t, boolean cancel) {
+        List<Runnable> pending;
+
+        synchronized (this) {
+            if (done) {
+                return false;
+            }
+
+            result = value;
+            error = t;
+            cancelled = cancel;
+            done = true;
+
+            pending = callbacks;
+            callbacks = null;
+            notifyAll();
+        }
+
+        if (pending != null) {
+            for (Runnable callback : pending) {
+                callback.run();
+            }
+        }
+
+        return true;
+    }
+
+    //endRegion
+
+    //region Results
+
+    @Override
+    public synchronized boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public synchronized boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public synchronized T get() throws InterruptedException, ExecutionException {
+        while (!done) {
+            wait();
+        }
+
+        return outcome();
+    }
+
+    @Override
+    public synchronized T get(long timeout, @NonNull TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        while (!done) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                throw new TimeoutException();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+
+        return outcome();
+    }
+
+    /** Called holding the future's monitor once it is done */
+
+    private T outcome() throws ExecutionException {
+        if (cancelled) {
+            throw (CancellationException) error;
+        }
+        if (error != null) {
+            throw new ExecutionException(error);
+        }
+
+        return result;
+    }
+
+    //endRegion
+
+    //region Callbacks
+
+    /**
+     * Registers a callback that is invoked once the future is done, on the thread that completes it,
+     * or immediately on the calling thread if it is already done. Keep the callback short, since it
+     * runs on an inference thread.
+     */
+
+    public void whenComplete(@NonNull Callback<? super T> callback) {
+        whenComplete(Runnable::run, callback);
+    }
+
+    /**
+     * Registers a callback that is invoked on an executor once the future is done.
+     *
+     * @param executor The executor the callback is run on, for example one that posts to the main
+     * thread's handler
+     * @param callback The callback to invoke
+     */
+
+    public void whenComplete(@NonNull Executor executor, @NonNull Callback<? super T> callback) {
+        Runnable notify = () -> executor.execute(() -> callback.onComplete(result, error));
+
+        synchronized (this) {
+            if (!done) {
+                if (callbacks == null) {
+                    callbacks = new ArrayList<>(1);
+                }
+                callbacks.add(notify);
+                return;
+            }
+        }
+
+        notify.run();
+    }
+
+    //endRegion
+}
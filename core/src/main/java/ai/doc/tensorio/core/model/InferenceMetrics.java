@@ -0,0 +1,205 @@
+/*
+ * InferenceMetrics.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Timings and counters for a single call to a model, reported to an `InferenceMetricsListener`.
+ *
+ * A backend starts the metrics when a run begins and marks the end of each stage with `lap`, which
+ * attributes the time since the previous mark to that stage. Stages that do not apply to a call,
+ * for example validation on a prepared `Runner`, report a duration of zero.
+ *
+ * Each thread reuses a single instance so that collecting metrics does not allocate. A listener
+ * must copy any values it wants to keep rather than retaining the instance. When a model has no
+ * listener the backends record into a disabled instance, which ignores every call.
+ */
+
+public class InferenceMetrics {
+
+    /**
+     * The stages of a call to a model.
+     */
+
+    public enum Stage {
+
+        /** Validating inputs and loading the model if it is not already loaded */
+        Validation,
+
+        /** Checking out backend resources and converting inputs into the buffers or tensors they run on */
+        InputConversion,
+
+        /** Running the underlying model */
+        Invoke,
+
+        /** Converting the backend's outputs into results */
+        OutputCapture
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+
+    /** A shared instance that records nothing, used when a model has no listener */
+
+    static final InferenceMetrics DISABLED = new InferenceMetrics(false);
+
+    private final boolean enabled;
+    private final long[] durations = new long[STAGES.length];
+
+    private long mark;
+    private int batchSize;
+    private long bytesCopied;
+    private int cacheHits;
+    private int cacheMisses;
+    private boolean warmUp;
+
+    InferenceMetrics() {
+        this(true);
+    }
+
+    private InferenceMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    //region Recording
+
+    /**
+     * Resets the metrics and begins timing the first stage.
+     *
+     * @param warmUp true if the call is one of the model's warm-up runs
+     */
+
+    void start(boolean warmUp) {
+        for (int i = 0; i < durations.length; i++) {
+            durations[i] = 0;
+        }
+
+        batchSize = 1;
+        bytesCopied = 0;
+        cacheHits = 0;
+        cacheMisses = 0;
+        this.warmUp = warmUp;
+        mark = System.nanoTime();
+    }
+
+    /**
+     * Attributes the time since the previous mark to a stage and begins timing the next one.
+     */
+
+    public void lap(@NonNull Stage stage) {
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        durations[stage.ordinal()] += now - mark;
+        mark = now;
+    }
+
+    /**
+     * Records the number of items a call was run on, one unless a batch is run in a single pass.
+     */
+
+    public void setBatchSize(int batchSize) {
+        if (!enabled) {
+            return;
+        }
+
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Records bytes copied between user land objects and the backend's buffers or tensors.
+     */
+
+    public void addBytesCopied(long bytes) {
+        if (!enabled) {
+            return;
+        }
+
+        bytesCopied += bytes;
+    }
+
+    /**
+     * Records whether a layer's buffer was found in the buffer cache or had to be allocated.
+     */
+
+    public void addCacheLookup(boolean hit) {
+        if (!enabled) {
+            return;
+        }
+
+        if (hit) {
+            cacheHits++;
+        } else {
+            cacheMisses++;
+        }
+    }
+
+    //endRegion
+
+    //region Getters
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** The time in nanoseconds spent in a stage */
+
+    public long getDuration(@NonNull Stage stage) {
+        return durations[stage.ordinal()];
+    }
+
+    /** The time in nanoseconds spent in every stage */
+
+    public long getTotalDuration() {
+        long total = 0;
+
+        for (long duration : durations) {
+            total += duration;
+        }
+
+        return total;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getBytesCopied() {
+        return bytesCopied;
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    public int getCacheMisses() {
+        return cacheMisses;
+    }
+
+    /** true if the call was one of the runs made to warm up the model as it loaded */
+
+    public boolean isWarmUp() {
+        return warmUp;
+    }
+
+    //endRegion
+}
@@ -0,0 +1,45 @@
+/*
+ * InferenceMetricsListener.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Receives per call timings and counters from a model. Set a listener with
+ * `Model.setMetricsListener`.
+ *
+ * The listener is called on the thread that ran the model, after the results have been captured,
+ * once for every call that completes. Calls that fail are not reported. Keep the listener cheap,
+ * it runs on the inference path.
+ *
+ * @see HistogramMetricsListener
+ */
+
+public interface InferenceMetricsListener {
+
+    /**
+     * Called after a model completes a call.
+     *
+     * @param model The model that was run
+     * @param metrics The call's metrics, which are only valid for the duration of this method
+     */
+
+    void onInference(@NonNull Model model, @NonNull InferenceMetrics metrics);
+}
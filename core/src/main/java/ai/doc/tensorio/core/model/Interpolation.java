@@ -0,0 +1,35 @@
+/*
+ * Interpolation.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+/**
+ * How pixel values are sampled when an image is resized to fit a pixel buffer layer.
+ */
+
+public enum Interpolation {
+
+    /** Blend the four nearest source pixels */
+
+    Bilinear,
+
+    /** Take the single nearest source pixel */
+
+    Nearest
+}
@@ -21,16 +21,25 @@
 package ai.doc.tensorio.core.model;
 
 import android.graphics.Bitmap;
+import android.graphics.Rect;
 
 import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.PixelSource;
 import ai.doc.tensorio.core.data.Placeholders;
+import ai.doc.tensorio.core.data.RegionInput;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
+import ai.doc.tensorio.core.utilities.BitmapPool;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+import java.lang.reflect.Array;
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import ai.doc.tensorio.core.layerinterface.DataType;
 import ai.doc.tensorio.core.layerinterface.LayerInterface;
 
 /**
@@ -50,8 +59,9 @@ import ai.doc.tensorio.core.layerinterface.LayerInterface;
  * Note that, currently, only TensorFlow Lite (TFLite) models are supported.
  *
  * @warning
- * Models are not thread safe. Models may be used on separate threads, so that you can perform
- * inference off the main thread, but you should not use the same model from multiple threads.
+ * Models are not thread safe unless a backend states otherwise. Models may be used on separate
+ * threads, so that you can perform inference off the main thread, but you should not use the same
+ * model from multiple threads. `TFLiteModel` is an exception and may be shared between threads.
  */
 
 public abstract class Model {
@@ -144,7 +154,7 @@ public abstract class Model {
      * as some models contain hundreds of megabytes of paramters.
      */
 
-    protected boolean loaded;
+    protected volatile boolean loaded;
 
     /**
      * Contains the descriptions of the model's inputs, outputs, and placeholders
@@ -163,6 +173,87 @@ public abstract class Model {
 
     private IO io;
 
+    /**
+     * The number of threads used by the async executor. Defaults to one, as most backends are not
+     * thread safe.
+     */
+
+    private int asyncThreadCount = 1;
+
+    /**
+     * The number of inference requests the async executor queues before applying its rejection policy.
+     */
+
+    private int asyncQueueCapacity = 16;
+
+    /**
+     * What the async executor does with requests submitted when its queue is full.
+     */
+
+    private InferenceExecutor.RejectionPolicy asyncRejectionPolicy = InferenceExecutor.RejectionPolicy.Abort;
+
+    /**
+     * The executor that runs `runOnAsync` requests, created lazily on first use.
+     */
+
+    private volatile InferenceExecutor asyncExecutor;
+
+    /**
+     * Guards the async executor and its settings. It is separate from the model's own monitor,
+     * which backends hold while loading, so that async requests never wait for a load.
+     */
+
+    private final Object asyncLock = new Object();
+
+    /**
+     * Receives per call metrics when set, see `setMetricsListener`.
+     */
+
+    private volatile InferenceMetricsListener metricsListener;
+
+    /**
+     * Per thread metrics, reused across calls so that collecting metrics does not allocate.
+     */
+
+    private final ThreadLocal<InferenceMetrics> metrics = new ThreadLocal<>();
+
+    /**
+     * Whether large pixel buffer layers are converted in parallel, see `setParallelPixelConversion`.
+     */
+
+    private volatile boolean parallelPixelConversion = false;
+
+    /**
+     * Pool pixel buffer outputs are captured into, see `setOutputBitmapPool`.
+     */
+
+    private volatile BitmapPool outputBitmapPool;
+
+    /**
+     * The number of runs made on synthesized inputs when the model loads, see `setWarmUpRuns`.
+     */
+
+    private volatile int warmUpRuns = 0;
+
+    /**
+     * The thread running the model's warm-up, whose calls report warm-up metrics, or null.
+     */
+
+    private volatile Thread warmUpThread;
+
+    /**
+     * Metrics for the warm-up runs, kept apart from the warm-up thread's own metrics so that a
+     * warm-up triggered by a lazy load inside a call does not reset the metrics of that call.
+     */
+
+    private InferenceMetrics warmUpMetrics;
+
+    /**
+     * The duration in nanoseconds of the most recent warm-up.
+     */
+
+    private volatile long warmUpDuration = 0;
+
     /**
      * The designated initializer for conforming classes.
      *
@@ -241,6 +332,148 @@ public abstract class Model {
         return io;
     }
 
+    public int getAsyncThreadCount() {
+        synchronized (asyncLock) {
+            return asyncThreadCount;
+        }
+    }
+
+    /**
+     * Sets the number of threads used to run `runOnAsync` requests. Only use more than one thread
+     * with backends that are thread safe, and then no more threads than the backend can run inference
+     * on concurrently, for example a `TFLiteModel`'s interpreter pool size.
+     */
+
+    public void setAsyncThreadCount(int asyncThreadCount) {
+        if (asyncThreadCount < 1) {
+            throw new IllegalArgumentException("The async thread count must be at least 1");
+        }
+        synchronized (asyncLock) {
+            this.asyncThreadCount = asyncThreadCount;
+            shutdownAsyncExecutor();
+        }
+    }
+
+    public int getAsyncQueueCapacity() {
+        synchronized (asyncLock) {
+            return asyncQueueCapacity;
+        }
+    }
+
+    /**
+     * Sets the number of `runOnAsync` requests that may wait for a thread before the rejection
+     * policy is applied.
+     */
+
+    public void setAsyncQueueCapacity(int asyncQueueCapacity) {
+        if (asyncQueueCapacity < 1) {
+            throw new IllegalArgumentException("The async queue capacity must be at least 1");
+        }
+        synchronized (asyncLock) {
+            this.asyncQueueCapacity = asyncQueueCapacity;
+            shutdownAsyncExecutor();
+        }
+    }
+
+    public InferenceExecutor.RejectionPolicy getAsyncRejectionPolicy() {
+        synchronized (asyncLock) {
+            return asyncRejectionPolicy;
+        }
+    }
+
+    /**
+     * Sets what happens to `runOnAsync` requests submitted when the queue is full.
+     */
+
+    public void setAsyncRejectionPolicy(@NonNull InferenceExecutor.RejectionPolicy asyncRejectionPolicy) {
+        synchronized (asyncLock) {
+            this.asyncRejectionPolicy = asyncRejectionPolicy;
+            shutdownAsyncExecutor();
+        }
+    }
+
+    /**
+     * The number of `runOnAsync` requests waiting for a thread.
+     */
+
+    public int getAsyncQueueDepth() {
+        InferenceExecutor executor = asyncExecutor;
+        return executor == null ? 0 : executor.getQueueDepth();
+    }
+
+    @Nullable
+    public InferenceMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
+    /**
+     * Sets a listener that receives per stage timings and counters for every completed call to
+     * the model, or null to stop collecting metrics. Metrics are not collected when no listener
+     * is set.
+     */
+
+    public void setMetricsListener(@Nullable InferenceMetricsListener metricsListener) {
+        this.metricsListener = metricsListener;
+    }
+
+    public boolean isParallelPixelConversion() {
+        return parallelPixelConversion;
+    }
+
+    /**
+     * Sets whether large pixel buffer layers, such as the inputs and outputs of segmentation and
+     * style transfer models, are converted to and from the backend's buffers in parallel stripes
+     * of rows on a shared fork/join pool. Defaults to false. Backends that support parallel
+     * conversion override this method and call super.
+     */
+
+    public void setParallelPixelConversion(boolean parallelPixelConversion) {
+        this.parallelPixelConversion = parallelPixelConversion;
+    }
+
+    public @Nullable BitmapPool getOutputBitmapPool() {
+        return outputBitmapPool;
+    }
+
+    /**
+     * Sets a pool of bitmaps that pixel buffer outputs are captured into instead of newly allocated
+     * bitmaps. Release output bitmaps back to the pool once they are no longer needed. Defaults to
+     * null. Backends that support pooled outputs override this method and call super.
+     */
+
+    public void setOutputBitmapPool(@Nullable BitmapPool outputBitmapPool) {
+        this.outputBitmapPool = outputBitmapPool;
+    }
+
+    public int getWarmUpRuns() {
+        return warmUpRuns;
+    }
+
+    /**
+     * Sets the number of times the model is run on zero valued inputs each time it loads or
+     * reloads, so that the first real call does not pay for the backend's one time setup, for
+     * example arena allocation, delegate compilation, or JIT profiling. Defaults to 0, no warm-up.
+     *
+     * Warm-up calls are reported to the metrics listener with `InferenceMetrics.isWarmUp` set, and
+     * the time the whole warm-up took is available from `getWarmUpDuration`.
+     */
+
+    public void setWarmUpRuns(int warmUpRuns) {
+        if (warmUpRuns < 0) {
+            throw new IllegalArgumentException("The number of warm-up runs must not be negative");
+        }
+        this.warmUpRuns = warmUpRuns;
+    }
+
+    /**
+     * The duration in nanoseconds of the most recent warm-up, or 0 if the model has not been
+     * warmed up.
+     */
+
+    public long getWarmUpDuration() {
+        return warmUpDuration;
+    }
+
     //endRegion
 
     //region Lifecycle
@@ -260,6 +493,7 @@ public abstract class Model {
 
     public void load() throws ModelException {
         loaded = true;
+        warmUp();
     }
 
     /**
@@ -274,6 +508,7 @@ public abstract class Model {
 
     public void reload() throws ModelException {
         loaded = true;
+        warmUp();
     }
 
     /**
@@ -290,6 +525,84 @@ public abstract class Model {
         loaded = false;
     }
 
+    /**
+     * Runs the model `warmUpRuns` times on zero valued inputs synthesized from its input layers,
+     * timing the whole warm-up. A model that cannot be warmed up is unloaded.
+     *
+     * @throws ModelException If a warm-up run fails
+     */
+
+    private void warmUp() throws ModelException {
+        int runs = warmUpRuns;
+
+        if (runs <= 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        warmUpMetrics = new InferenceMetrics();
+        warmUpThread = Thread.currentThread();
+
+        try {
+            warmUp(warmUpInputs(), runs);
+        } catch (ModelException | RuntimeException e) {
+            unload();
+            throw new ModelException("The model could not be warmed up", e);
+        } finally {
+            warmUpThread = null;
+            warmUpMetrics = null;
+        }
+
+        warmUpDuration = System.nanoTime() - start;
+    }
+
+    /**
+     * Performs the warm-up runs. Backends that hold more than one instance of the underlying model
+     * may override this method so that every instance is warmed.
+     *
+     * @param inputs Zero valued inputs for every input layer
+     * @param runs The number of runs to make
+     * @throws ModelException If a run fails
+     */
+
+    protected void warmUp(@NonNull Map<String, Object> inputs, int runs) throws ModelException {
+        for (int i = 0; i < runs; i++) {
+            runOn(inputs);
+        }
+    }
+
+    /**
+     * Synthesizes a zero valued input for every input layer: a typed array for a vector layer, a
+     * black pixel source for a pixel buffer layer, and a zeroed buffer for a string layer.
+     */
+
+    private Map<String, Object> warmUpInputs() {
+        Map<String, Object> inputs = new HashMap<>();
+
+        for (LayerInterface layer : io.getInputs().all()) {
+            layer.doCase((vectorLayer) -> {
+                int length = vectorLayer.getLength();
+
+                if (vectorLayer.isQuantized() && vectorLayer.getQuantizer() == null) {
+                    inputs.put(layer.getName(), new byte[length]);
+                } else if (vectorLayer.getDtype() == DataType.Int32) {
+                    inputs.put(layer.getName(), new int[length]);
+                } else if (vectorLayer.getDtype() == DataType.Int64) {
+                    inputs.put(layer.getName(), new long[length]);
+                } else {
+                    inputs.put(layer.getName(), new float[length]);
+                }
+            }, (pixelLayer) -> {
+                ImageVolume shape = pixelLayer.getShape();
+                inputs.put(layer.getName(), PixelSource.PixelSourceForPixels(new int[shape.width * shape.height], shape.width, shape.height));
+            }, (stringLayer) -> {
+                inputs.put(layer.getName(), Runner.createDestination(stringLayer));
+            });
+        }
+
+        return inputs;
+    }
+
     //endRegion
 
     //region Run
@@ -348,8 +661,12 @@ public abstract class Model {
 
     /**
      * Perform inference on a ByteBuffer for a single input layer. Not all backends support
-     * ByteBuffer inputs and will throw an exception if this method is not supported. ByteBuffers
-     * should only be used with `string` type inputs.
+     * ByteBuffer inputs and will throw an exception if this method is not supported.
+     *
+     * A direct ByteBuffer in native byte order that holds exactly the layer's bytes from position
+     * zero, for example one produced by a decoder, by another model, or mapped from a file, is
+     * passed to TF Lite and PyTorch models without being copied. The bytes of any other buffer
+     * are copied into the layer's backing buffer.
      *
      * @param input A ByteBuffer that will be sent directly to the model with no additional preprocessing
      * @return results of running the model mapped from the output layer names to the values
@@ -372,6 +689,45 @@ public abstract class Model {
 
     public abstract Map<String, Object> runOn(@NonNull Bitmap input) throws ModelException, IllegalArgumentException;
 
+    /**
+     * Perform inference on a PixelSource for a single input layer, for example a camera frame read
+     * directly from its YUV planes by a YuvPixelSource.
+     *
+     * @param input A PixelSource
+     * @return results of running the model mapped from the output layer names to the values
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected inputs
+     */
+
+    public Map<String, Object> runOn(@NonNull PixelSource input) throws ModelException, IllegalArgumentException {
+        validateInput(input);
+
+        Map<String, Object> inputs = new HashMap<>(1);
+        inputs.put(io.getInputs().get(0).getName(), input);
+
+        return runOn(inputs);
+    }
+
+    /**
+     * Perform inference on an encoded JPEG or PNG image for a single input layer. The image is
+     * decoded at the smallest size that covers the layer rather than at full resolution.
+     *
+     * @param input An EncodedImage
+     * @return results of running the model mapped from the output layer names to the values
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs or the image cannot be decoded
+     */
+
+    public Map<String, Object> runOn(@NonNull EncodedImage input) throws ModelException, IllegalArgumentException {
+        validateInput(input);
+
+        Map<String, Object> inputs = new HashMap<>(1);
+        inputs.put(io.getInputs().get(0).getName(), input);
+
+        return runOn(inputs);
+    }
+
     /**
      * Perform inference on an map of objects
      *
@@ -398,6 +754,356 @@ public abstract class Model {
 
     public abstract Map<String, Object> runOn(@NonNull Map<String, Object> input, @Nullable Placeholders placeholders) throws ModelException, IllegalArgumentException;
 
+    /**
+     * Perform inference on a batch of items, each of which maps layer names to arbitrary objects.
+     *
+     * The default implementation runs the model once per item. Backends that can execute a batch in
+     * a single pass override this method when the model's layers have a batch dimension.
+     *
+     * @param batch A batch of items mapping input layer names to arbitrary objects
+     * @return A batch whose items are the results of running the model on the corresponding input
+     * items, mapped from the output layer names to the values
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected inputs
+     */
+
+    public Batch runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        validateInput(batch);
+        load();
+
+        Batch results = new Batch(getIO().getOutputs().keys().toArray(new String[0]));
+
+        for (Batch.Item item : batch) {
+            Batch.Item result = new Batch.Item();
+            result.putAll(runOn(item));
+            results.add(result);
+        }
+
+        return results;
+    }
+
+    /**
+     * Perform inference on every region of a frame for a single input layer, for example on each
+     * box found by a detection model. Each region is sampled directly from the frame without
+     * cropping it into a new Bitmap, and the regions are packed into a single batch, which backends
+     * execute in a single pass when the model's layers have a batch dimension.
+     *
+     * @param source The frame the regions lie in
+     * @param regions The regions to run the model on, clipped to the frame
+     * @return A batch whose items are the results of running the model on the corresponding regions,
+     * mapped from the output layer names to the values
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs, no regions are provided, or a region lies outside the frame
+     */
+
+    public Batch runOnRegions(@NonNull PixelSource source, @NonNull List<Rect> regions) throws ModelException, IllegalArgumentException {
+        validateInput(source);
+
+        String name = io.getInputs().get(0).getName();
+        Batch batch = new Batch(new String[]{name});
+
+        for (Rect region : regions) {
+            Batch.Item item = new Batch.Item();
+            item.put(name, RegionInput.RegionInputForRect(source, region));
+            batch.add(item);
+        }
+
+        return runOn(batch);
+    }
+
+    /**
+     * Perform inference on every region of a Bitmap for a single input layer.
+     *
+     * @see #runOnRegions(PixelSource, List)
+     */
+
+    public Batch runOnRegions(@NonNull Bitmap bitmap, @NonNull List<Rect> regions) throws ModelException, IllegalArgumentException {
+        return runOnRegions(PixelSource.PixelSourceForBitmap(bitmap), regions);
+    }
+
+    /**
+     * @return true if every input and output layer has a leading batch dimension, so that a batch
+     * of items may be executed in a single pass
+     */
+
+    public boolean hasBatchedInterface() {
+        for (LayerInterface layer : io.getInputs().all()) {
+            if (!layer.isBatched()) {
+                return false;
+            }
+        }
+
+        for (LayerInterface layer : io.getOutputs().all()) {
+            if (!layer.isBatched()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Perform inference on a map of objects and write the results into caller supplied
+     * destinations rather than returning newly allocated objects.
+     *
+     * Each destination must be preallocated with the size of its output layer, for example a
+     * float[] or FloatBuffer for a vector layer or a mutable Bitmap for a pixel buffer layer. The
+     * types a backend can write into depend on its converters. Output layers that are not included
+     * in the outputs map are not captured. Reusing the same destinations across calls lets
+     * steady state inference run without allocating result objects.
+     *
+     * @param inputs A mapping of layer names to arbitrary objects
+     * @param outputs A mapping of output layer names to preallocated destinations
+     * @throws ModelException If the model has not yet been loaded and the attempt to load it fails
+     * @throws IllegalArgumentException If the input to the model does not conform to the expected
+     * inputs, if an output name is unknown, or if a destination is of the wrong type or size
+     */
+
+    public void runOnInto(@NonNull Map<String, Object> inputs, @NonNull Map<String, Object> outputs) throws ModelException, IllegalArgumentException {
+        validateInput(inputs);
+        validateOutputs(outputs);
+        load();
+
+        Object[] indexedInputs = new Object[io.getInputs().size()];
+        Object[] indexedOutputs = new Object[io.getOutputs().size()];
+
+        for (Map.Entry<String, Object> entry : inputs.entrySet()) {
+            indexedInputs[io.getInputs().indexFor(entry.getKey())] = entry.getValue();
+        }
+
+        for (Map.Entry<String, Object> entry : outputs.entrySet()) {
+            indexedOutputs[io.getOutputs().indexFor(entry.getKey())] = entry.getValue();
+        }
+
+        runIndexedInto(indexedInputs, indexedOutputs);
+    }
+
+    /**
+     * Perform inference on inputs ordered by input layer index and write the results into
+     * destinations ordered by output layer index. Inputs and outputs have already been validated
+     * and the model has been loaded. A null destination means the output is not captured.
+     *
+     * The default implementation runs the model with `runOn(Map)` and copies primitive arrays into
+     * their destinations. Backends override it to write directly into the destinations.
+     */
+
+    protected void runIndexedInto(@NonNull Object[] inputs, @NonNull Object[] outputs) throws ModelException, IllegalArgumentException {
+        Map<String, Object> input = new HashMap<>();
+
+        for (int i = 0; i < inputs.length; i++) {
+            input.put(io.getInputs().get(i).getName(), inputs[i]);
+        }
+
+        Map<String, Object> results = runOn(input);
+
+        for (int i = 0; i < outputs.length; i++) {
+            if (outputs[i] != null) {
+                copyInto(results.get(io.getOutputs().get(i).getName()), outputs[i]);
+            }
+        }
+    }
+
+    /**
+     * Loads the model and returns a reusable runner bound to its inputs and outputs, for repeated
+     * inference with inputs and outputs addressed by layer index rather than by name.
+     *
+     * @return A runner with preallocated output destinations
+     * @throws ModelException If the attempt to load the model fails
+     * @see Runner
+     */
+
+    public Runner prepare() throws ModelException {
+        load();
+        return new Runner(this);
+    }
+
+    //endRegion
+
+    //region Run Async
+
+    // The async run methods queue a call to the corresponding run method on the model's executor.
+    // Exceptions thrown by the run method complete the returned future exceptionally, and requests
+    // rejected by a full queue complete it with a RejectedExecutionException.
+
+    /**
+     * Asynchronously perform inference on an array of floats for a single input layer.
+     *
+     * @see #runOn(float[])
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(float[] input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on an array of bytes (uint8) for a single input layer.
+     *
+     * @see #runOn(byte[])
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(byte[] input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on an array of int32s for a single input layer.
+     *
+     * @see #runOn(int[])
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(int[] input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on an array of int64s (longs) for a single input layer.
+     *
+     * @see #runOn(long[])
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(long[] input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a ByteBuffer for a single input layer.
+     *
+     * @see #runOn(ByteBuffer)
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(ByteBuffer input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a Bitmap for a single input layer. The bitmap must not be
+     * modified or recycled until the returned future completes.
+     *
+     * @see #runOn(Bitmap)
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(@NonNull Bitmap input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a PixelSource for a single input layer. The pixels it
+     * reads must not be modified or released until the returned future completes.
+     *
+     * @see #runOn(PixelSource)
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(@NonNull PixelSource input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on an encoded image for a single input layer. Bytes the
+     * image is held in must not be modified until the returned future completes.
+     *
+     * @see #runOn(EncodedImage)
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(@NonNull EncodedImage input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a map of objects.
+     *
+     * @see #runOn(Map)
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(@NonNull Map<String, Object> input) {
+        return getAsyncExecutor().submit(() -> runOn(input));
+    }
+
+    /**
+     * Asynchronously perform inference on a map of objects with placeholders.
+     *
+     * @see #runOn(Map, Placeholders)
+     */
+
+    public InferenceFuture<Map<String, Object>> runOnAsync(@NonNull Map<String, Object> input, @Nullable Placeholders placeholders) {
+        return getAsyncExecutor().submit(() -> runOn(input, placeholders));
+    }
+
+    private InferenceExecutor getAsyncExecutor() {
+        InferenceExecutor executor = asyncExecutor;
+
+        if (executor == null) {
+            synchronized (asyncLock) {
+                executor = asyncExecutor;
+
+                if (executor == null) {
+                    executor = new InferenceExecutor("TensorIO-" + identifier, asyncThreadCount, asyncQueueCapacity, asyncRejectionPolicy);
+                    asyncExecutor = executor;
+                }
+            }
+        }
+
+        return executor;
+    }
+
+    /**
+     * Stops the current executor from accepting requests so that the next async request creates one
+     * with the current settings. Requests that are already queued still run. Called holding
+     * `asyncLock`.
+     */
+
+    private void shutdownAsyncExecutor() {
+        if (asyncExecutor != null) {
+            asyncExecutor.shutdown();
+            asyncExecutor = null;
+        }
+    }
+
+    //endRegion
+
+    //region Metrics
+
+    /**
+     * Begins collecting metrics for a call on the current thread. Backends call this when a run
+     * begins, mark each stage with `InferenceMetrics.lap` and finish with `reportMetrics`.
+     *
+     * @return The current thread's metrics, reset, or a disabled instance that ignores every call
+     * if no listener is set
+     */
+
+    protected InferenceMetrics startMetrics() {
+        if (metricsListener == null) {
+            return InferenceMetrics.DISABLED;
+        }
+
+        if (Thread.currentThread() == warmUpThread) {
+            warmUpMetrics.start(true);
+            return warmUpMetrics;
+        }
+
+        InferenceMetrics m = metrics.get();
+
+        if (m == null) {
+            m = new InferenceMetrics();
+            metrics.set(m);
+        }
+
+        m.start(false);
+        return m;
+    }
+
+    /**
+     * Reports a completed call's metrics to the listener, if metrics are being collected.
+     */
+
+    protected void reportMetrics(@NonNull InferenceMetrics m) {
+        InferenceMetricsListener listener = metricsListener;
+
+        if (m.isEnabled() && listener != null) {
+            listener.onInference(this, m);
+        }
+    }
+
     //endRegion
 
     //region Input Validation
@@ -440,6 +1146,18 @@ public abstract class Model {
         }
     }
 
+    protected void validateInput(@NonNull PixelSource input) throws IllegalArgumentException {
+        if (io.getInputs().size() != 1) {
+            throw InputCountMismatchException(1, io.getInputs().size());
+        }
+    }
+
+    protected void validateInput(@NonNull EncodedImage input) throws IllegalArgumentException {
+        if (io.getInputs().size() != 1) {
+            throw InputCountMismatchException(1, io.getInputs().size());
+        }
+    }
+
     protected void validateInput(@NonNull Map<String, Object> input) throws IllegalArgumentException {
         int expectedSize = io.getInputs().size();
         int receivedSize = input.size();
@@ -458,6 +1176,10 @@ public abstract class Model {
     }
 
     protected void validateInput(@NonNull Batch batch) throws IllegalArgumentException {
+        if (batch.size() == 0) {
+            throw EmptyBatchException();
+        }
+
         int expectedSize = io.getInputs().size();
         int receivedSize = batch.getKeys().length;
 
@@ -474,6 +1196,17 @@ public abstract class Model {
         }
     }
 
+    protected void validateOutputs(@NonNull Map<String, Object> outputs) throws IllegalArgumentException {
+        for (Map.Entry<String, Object> entry : outputs.entrySet()) {
+            if (io.getOutputs().indexFor(entry.getKey()) == null) {
+                throw UnknownOutput(entry.getKey());
+            }
+            if (entry.getValue() == null) {
+                throw MissingDestination(entry.getKey());
+            }
+        }
+    }
+
     protected void validatePlaceholders(@Nullable Placeholders placeholders) throws IllegalArgumentException {
         int expectedSize = io.getPlaceholders().size();
         int receivedSize = placeholders == null ? 0 : placeholders.size();
@@ -518,6 +1251,24 @@ public abstract class Model {
                 '}';
     }
 
+    /**
+     * Copies a result array into a destination array of the same type and length.
+     */
+
+    private static void copyInto(@Nullable Object result, @NonNull Object destination) throws IllegalArgumentException {
+        if (result == null || result.getClass() != destination.getClass() || !result.getClass().isArray()) {
+            throw BadDestinationException();
+        }
+
+        int length = Array.getLength(result);
+
+        if (Array.getLength(destination) != length) {
+            throw BadDestinationException();
+        }
+
+        System.arraycopy(result, 0, destination, 0, length);
+    }
+
     //endRegion
 
     //region Exceptions
@@ -530,6 +1281,22 @@ public abstract class Model {
         return new IllegalArgumentException("The model received no input for layer \"" + name + "\"");
     }
 
+    private static IllegalArgumentException UnknownOutput(@NonNull String name) {
+        return new IllegalArgumentException("The model has no output layer named \"" + name + "\"");
+    }
+
+    private static IllegalArgumentException MissingDestination(@NonNull String name) {
+        return new IllegalArgumentException("The model received no destination for output layer \"" + name + "\"");
+    }
+
+    private static IllegalArgumentException BadDestinationException() {
+        return new IllegalArgumentException("The destination does not match the type or size of the model's output");
+    }
+
+    private static IllegalArgumentException EmptyBatchException() {
+        return new IllegalArgumentException("The model received a batch with no items");
+    }
+
     private static IllegalArgumentException PlaceholdersCountMismatchException(int expected, int received) {
         return new IllegalArgumentException("The model has " + expected + " placeholders but received " + received + " placeholders");
     }
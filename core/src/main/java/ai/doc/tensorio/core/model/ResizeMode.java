@@ -0,0 +1,39 @@
+/*
+ * ResizeMode.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+/**
+ * How an image is fit to the width and height of a pixel buffer layer when their sizes differ.
+ */
+
+public enum ResizeMode {
+
+    /** Scale the image to the layer's size, ignoring its aspect ratio */
+
+    Stretch,
+
+    /** Crop the center of the image to the layer's aspect ratio and scale it to fill the layer */
+
+    CenterCrop,
+
+    /** Scale the whole image to fit inside the layer, preserving its aspect ratio, and pad the rest with black */
+
+    Letterbox
+}
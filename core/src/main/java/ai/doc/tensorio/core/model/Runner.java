@@ -0,0 +1,391 @@
+/*
+ * Runner.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.PixelSource;
+import ai.doc.tensorio.core.layerinterface.DataType;
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.layerinterface.StringLayerDescription;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+
+/**
+ * A reusable, prepared binding to a model's inputs and outputs, returned by `Model.prepare()`.
+ *
+ * A runner resolves the model's layers once. Inputs are set by layer index with typed setters,
+ * the model is run with `run()`, and results are read by layer index with typed getters. Output
+ * destinations are allocated when the runner is prepared and reused on every run, so repeated
+ * inference does not go through maps or name lookups and only checks the length of each input.
+ *
+ * For example:
+ *
+ * <code>
+ *     Runner runner = model.prepare();
+ *     int x = runner.getInputIndex("x");
+ *     int y = runner.getOutputIndex("y");
+ *
+ *     runner.setInput(x, input);
+ *     runner.run();
+ *     float[] result = runner.getFloats(y);
+ * </code>
+ *
+ * Vector outputs are allocated as float[], or as byte[] for quantized layers without a
+ * dequantizer, and int[] or long[] for Int32 and Int64 layers. Pixel buffer outputs are allocated
+ * as mutable Bitmaps, and string (bytes) outputs as ByteBuffers. Call `setOutput` to provide your
+ * own destination, for example a FloatBuffer.
+ *
+ * The arrays returned by the getters are overwritten by the next run. A runner is not thread safe,
+ * use one runner per thread.
+ */
+
+public class Runner {
+
+    private final Model model;
+
+    private final Object[] inputs;
+    private final Object[] outputs;
+
+    /** The type of each input layer */
+
+    private final LayerInterface.Type[] inputTypes;
+
+    /** The number of elements each vector or string input layer expects, -1 otherwise */
+
+    private final int[] inputLengths;
+
+    /**
+     * Creates a runner for a model, use `Model.prepare()` instead.
+     */
+
+    Runner(@NonNull Model model) {
+        IO.IOList inputList = model.getIO().getInputs();
+        IO.IOList outputList = model.getIO().getOutputs();
+
+        this.model = model;
+        this.inputs = new Object[inputList.size()];
+        this.outputs = new Object[outputList.size()];
+        this.inputTypes = new LayerInterface.Type[inputList.size()];
+        this.inputLengths = new int[inputList.size()];
+
+        for (int i = 0; i < inputList.size(); i++) {
+            LayerInterface layer = inputList.get(i);
+            final int index = i;
+
+            inputTypes[i] = layer.getType();
+            inputLengths[i] = -1;
+
+            layer.doCase((vectorLayer) -> {
+                inputLengths[index] = vectorLayer.getLength();
+            }, (pixelLayer) -> {
+                inputLengths[index] = -1;
+            }, (stringLayer) -> {
+                inputLengths[index] = stringLayer.getLength();
+            });
+        }
+
+        for (int i = 0; i < outputList.size(); i++) {
+            LayerInterface layer = outputList.get(i);
+            final int index = i;
+
+            layer.doCase((vectorLayer) -> {
+                outputs[index] = createDestination(vectorLayer);
+            }, (pixelLayer) -> {
+                outputs[index] = createDestination(pixelLayer);
+            }, (stringLayer) -> {
+                outputs[index] = createDestination(stringLayer);
+            });
+        }
+    }
+
+    //region Getters and Setters
+
+    public Model getModel() {
+        return model;
+    }
+
+    /**
+     * Returns the index of the named input layer, resolve indices once and reuse them.
+     * @throws IllegalArgumentException If the model has no input layer with that name
+     */
+
+    public int getInputIndex(@NonNull String name) throws IllegalArgumentException {
+        Integer index = model.getIO().getInputs().indexFor(name);
+
+        if (index == null) {
+            throw UnknownLayerException(name);
+        }
+
+        return index;
+    }
+
+    /**
+     * Returns the index of the named output layer, resolve indices once and reuse them.
+     * @throws IllegalArgumentException If the model has no output layer with that name
+     */
+
+    public int getOutputIndex(@NonNull String name) throws IllegalArgumentException {
+        Integer index = model.getIO().getOutputs().indexFor(name);
+
+        if (index == null) {
+            throw UnknownLayerException(name);
+        }
+
+        return index;
+    }
+
+    //endRegion
+
+    //region Inputs
+
+    // The typed setters check the input's length against a vector or string layer and keep a
+    // reference to the input, which is read when the runner is run.
+
+    public Runner setInput(int index, @NonNull float[] input) throws IllegalArgumentException {
+        checkLength(index, input.length);
+        inputs[index] = input;
+        return this;
+    }
+
+    public Runner setInput(int index, @NonNull byte[] input) throws IllegalArgumentException {
+        checkLength(index, input.length);
+        inputs[index] = input;
+        return this;
+    }
+
+    public Runner setInput(int index, @NonNull int[] input) throws IllegalArgumentException {
+        checkLength(index, input.length);
+        inputs[index] = input;
+        return this;
+    }
+
+    public Runner setInput(int index, @NonNull long[] input) throws IllegalArgumentException {
+        checkLength(index, input.length);
+        inputs[index] = input;
+        return this;
+    }
+
+    public Runner setInput(int index, @NonNull ByteBuffer input) throws IllegalArgumentException {
+        if (inputTypes[index] == LayerInterface.Type.PixelBuffer) {
+            throw BadInputTypeException(index);
+        }
+
+        inputs[index] = input;
+        return this;
+    }
+
+    public Runner setInput(int index, @NonNull Bitmap input) throws IllegalArgumentException {
+        if (inputTypes[index] != LayerInterface.Type.PixelBuffer) {
+            throw BadInputTypeException(index);
+        }
+
+        inputs[index] = input;
+        return this;
+    }
+
+    public Runner setInput(int index, @NonNull PixelSource input) throws IllegalArgumentException {
+        if (inputTypes[index] != LayerInterface.Type.PixelBuffer) {
+            throw BadInputTypeException(index);
+        }
+
+        inputs[index] = input;
+        return this;
+    }
+
+    public Runner setInput(int index, @NonNull EncodedImage input) throws IllegalArgumentException {
+        if (inputTypes[index] != LayerInterface.Type.PixelBuffer) {
+            throw BadInputTypeException(index);
+        }
+
+        inputs[index] = input;
+        return this;
+    }
+
+    //endRegion
+
+    //region Run
+
+    /**
+     * Performs inference on the inputs that have been set, writing the results into the output
+     * destinations.
+     *
+     * @throws ModelException If the model was unloaded and the attempt to load it fails
+     * @throws IllegalArgumentException If an input has not been set or cannot be converted to the
+     * format expected by the model
+     */
+
+    public void run() throws Model.ModelException, IllegalArgumentException {
+        for (int i = 0; i < inputs.length; i++) {
+            if (inputs[i] == null) {
+                throw MissingInputException(i);
+            }
+        }
+
+        model.load();
+        model.runIndexedInto(inputs, outputs);
+    }
+
+    //endRegion
+
+    //region Outputs
+
+    /**
+     * Replaces the destination the output layer at an index is written into.
+     *
+     * @param index The index of the output layer
+     * @param destination A preallocated destination supported by the model's backend, for example
+     *                    a float[] or FloatBuffer for a vector layer or a mutable Bitmap for a
+     *                    pixel buffer layer
+     */
+
+    public Runner setOutput(int index, @NonNull Object destination) {
+        outputs[index] = destination;
+        return this;
+    }
+
+    /** The destination the output layer at an index is written into */
+
+    public Object getOutput(int index) {
+        return outputs[index];
+    }
+
+    public float[] getFloats(int index) throws IllegalArgumentException {
+        return output(index, float[].class);
+    }
+
+    public byte[] getBytes(int index) throws IllegalArgumentException {
+        return output(index, byte[].class);
+    }
+
+    public int[] getInts(int index) throws IllegalArgumentException {
+        return output(index, int[].class);
+    }
+
+    public long[] getLongs(int index) throws IllegalArgumentException {
+        return output(index, long[].class);
+    }
+
+    public Bitmap getBitmap(int index) throws IllegalArgumentException {
+        return output(index, Bitmap.class);
+    }
+
+    public ByteBuffer getByteBuffer(int index) throws IllegalArgumentException {
+        return output(index, ByteBuffer.class);
+    }
+
+    //endRegion
+
+    //region Utilities
+
+    private void checkLength(int index, int length) throws IllegalArgumentException {
+        int expected = inputLengths[index];
+
+        if (inputTypes[index] == LayerInterface.Type.PixelBuffer) {
+            throw BadInputTypeException(index);
+        }
+        if (length != expected) {
+            throw BadLengthException(index, length, expected);
+        }
+    }
+
+    private <T> T output(int index, @NonNull Class<T> type) throws IllegalArgumentException {
+        Object output = outputs[index];
+
+        if (!type.isInstance(output)) {
+            throw BadOutputTypeException(index, type);
+        }
+
+        return type.cast(output);
+    }
+
+    private static Object createDestination(@NonNull VectorLayerDescription description) {
+        int length = description.getLength();
+
+        if (description.isQuantized() && description.getDequantizer() == null) {
+            return new byte[length];
+        } else if (description.getDtype() == DataType.Int32) {
+            return new int[length];
+        } else if (description.getDtype() == DataType.Int64) {
+            return new long[length];
+        } else {
+            return new float[length];
+        }
+    }
+
+    private static Object createDestination(@NonNull PixelBufferLayerDescription description) {
+        ImageVolume shape = description.getShape();
+        return Bitmap.createBitmap(shape.width, shape.height, Bitmap.Config.ARGB_8888);
+    }
+
+    static ByteBuffer createDestination(@NonNull StringLayerDescription description) {
+        int bytesPerElement;
+
+        switch (description.getDtype()) {
+            case Int32:
+            case Float32:
+                bytesPerElement = 4;
+                break;
+            case Int64:
+                bytesPerElement = 8;
+                break;
+            case Float16:
+                bytesPerElement = 2;
+                break;
+            default:
+                bytesPerElement = 1;
+                break;
+        }
+
+        return ByteBuffer.allocateDirect(description.getLength() * bytesPerElement).order(ByteOrder.nativeOrder());
+    }
+
+    //endRegion
+
+    //region Exceptions
+
+    private static IllegalArgumentException UnknownLayerException(@NonNull String name) {
+        return new IllegalArgumentException("The model has no layer named \"" + name + "\"");
+    }
+
+    private static IllegalArgumentException MissingInputException(int index) {
+        return new IllegalArgumentException("No input has been set for the input layer at index " + index);
+    }
+
+    private static IllegalArgumentException BadInputTypeException(int index) {
+        return new IllegalArgumentException("The input is of the wrong type for the input layer at index " + index);
+    }
+
+    private static IllegalArgumentException BadLengthException(int index, int given, int expected) {
+        return new IllegalArgumentException("The input layer at index " + index + " expects " + expected + " values but the input has length " + given);
+    }
+
+    private static IllegalArgumentException BadOutputTypeException(int index, @NonNull Class<?> type) {
+        return new IllegalArgumentException("The output at index " + index + " is not a " + type.getSimpleName());
+    }
+
+    //endRegion
+}
@@ -0,0 +1,58 @@
+/*
+ * TensorLayout.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+/**
+ * How the pixels of a pixel buffer layer are arranged in its tensor.
+ *
+ * TensorFlow and TensorFlow Lite models usually expect interleaved NHWC tensors and PyTorch
+ * models planar NCHW tensors. A layer that does not declare a layout uses its backend's.
+ */
+
+public enum TensorLayout {
+
+    /** Channels last, the channels of each pixel are stored together */
+
+    NHWC,
+
+    /** Channels first, each channel is stored as a separate plane of the image */
+
+    NCHW;
+
+    /**
+     * @param channels The number of channels stored for each pixel
+     * @param pixels The number of pixels in the image
+     * @return The distance in values between consecutive pixels of a channel
+     */
+
+    public int pixelStep(int channels, int pixels) {
+        return this == NHWC ? channels : 1;
+    }
+
+    /**
+     * @param channels The number of channels stored for each pixel
+     * @param pixels The number of pixels in the image
+     * @return The distance in values between consecutive channels of a pixel
+     */
+
+    public int channelStep(int channels, int pixels) {
+        return this == NHWC ? 1 : pixels;
+    }
+}
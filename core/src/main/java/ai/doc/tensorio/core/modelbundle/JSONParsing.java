@@ -23,7 +23,10 @@ package ai.doc.tensorio.core.modelbundle;
 import ai.doc.tensorio.core.layerinterface.DataType;
 import ai.doc.tensorio.core.layerinterface.StringLayerDescription;
 import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
 import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
 import ai.doc.tensorio.core.modelbundle.ModelBundle.ModelBundleException;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -133,6 +136,20 @@ public abstract class JSONParsing {
         boolean batched = shape[0] == -1;
         String name = dict.getString("name");
 
+        // Dynamic Dimensions, at most one after any batch dimension
+
+        int dynamicDimensions = 0;
+
+        for (int i = 1; i < shape.length; i++) {
+            if (shape[i] == -1) {
+                dynamicDimensions++;
+            }
+        }
+
+        if (dynamicDimensions > 1) {
+            throw new ModelBundleException("Expected at most one dynamic dimension in the shape of layer " + name + ", found " + dynamicDimensions);
+        }
+
         // Data Type
 
         DataType dtype = DataTypeForString(dict.optString("dtype"));
@@ -234,6 +251,10 @@ public abstract class JSONParsing {
             throw new ModelBundleException("Expected input.format string in model.json, none found", e);
         }
 
+        if (imageVolume.channels != 1 && imageVolume.channels != 3 && imageVolume.channels != 4) {
+            throw new ModelBundleException("Expected an image shape with 1, 3, or 4 channels in model.json, found " + imageVolume.channels);
+        }
+
         // Normalization
 
         PixelNormalizer normalizer = null;
@@ -249,6 +270,33 @@ public abstract class JSONParsing {
                 break;
         }
 
+        // Resizing
+
+        ResizeMode resizeMode = ResizeMode.Stretch;
+        Interpolation interpolation = Interpolation.Bilinear;
+
+        switch (mode) {
+            case Input:
+            case Placeholder:
+                if ( dict.has("resize") ) {
+                    resizeMode = ResizeModeForString(dict.getString("resize"));
+                }
+                if ( dict.has("interpolation") ) {
+                    interpolation = InterpolationForString(dict.getString("interpolation"));
+                }
+                break;
+            case Output:
+                break;
+        }
+
+        // Tensor Layout
+
+        TensorLayout tensorLayout = null;
+
+        if ( dict.has("layout") ) {
+            tensorLayout = TensorLayoutForString(dict.getString("layout"));
+        }
+
         // Denormalization
 
         PixelDenormalizer denormalizer = null;
@@ -272,7 +320,10 @@ public abstract class JSONParsing {
                 batched,
                 normalizer,
                 denormalizer,
-                quantized)
+                quantized,
+                resizeMode,
+                interpolation,
+                tensorLayout)
         );
     }
 
@@ -315,6 +366,50 @@ public abstract class JSONParsing {
         throw new ModelBundleException("Expected dict.format string to be RGB or BGR in model.json, found " + format);
     }
 
+    /**
+     * Converts a resize string such as `"stretch"`, `"crop"`, or `"letterbox"` to a `ResizeMode`.
+     */
+
+    public static ResizeMode ResizeModeForString(@NonNull String resize) throws ModelBundleException {
+        switch (resize) {
+            case "stretch":
+                return ResizeMode.Stretch;
+            case "crop":
+                return ResizeMode.CenterCrop;
+            case "letterbox":
+                return ResizeMode.Letterbox;
+        }
+        throw new ModelBundleException("Expected dict.resize string to be stretch, crop, or letterbox in model.json, found " + resize);
+    }
+
+    /**
+     * Converts a layout string such as `"nhwc"` or `"nchw"` to a `TensorLayout`.
+     */
+
+    public static TensorLayout TensorLayoutForString(@NonNull String layout) throws ModelBundleException {
+        switch (layout) {
+            case "nhwc":
+                return TensorLayout.NHWC;
+            case "nchw":
+                return TensorLayout.NCHW;
+        }
+        throw new ModelBundleException("Expected dict.layout string to be nhwc or nchw in model.json, found " + layout);
+    }
+
+    /**
+     * Converts an interpolation string such as `"bilinear"` or `"nearest"` to an `Interpolation`.
+     */
+
+    public static Interpolation InterpolationForString(@NonNull String interpolation) throws ModelBundleException {
+        switch (interpolation) {
+            case "bilinear":
+                return Interpolation.Bilinear;
+            case "nearest":
+                return Interpolation.Nearest;
+        }
+        throw new ModelBundleException("Expected dict.interpolation string to be bilinear or nearest in model.json, found " + interpolation);
+    }
+
     /**
      * Parses the `quantization` key of an input description and returns an associated data quantizer.
      */
@@ -503,8 +598,10 @@ public abstract class JSONParsing {
                     return DataType.Int32;
                 case "int64":
                     return DataType.Int64;
+                case "float16":
+                    return DataType.Float16;
                 default:
-                    throw new ModelBundleException("Expected input.dtype to be one of [uint8, float32, int32, int64], found " + type);
+                    throw new ModelBundleException("Expected input.dtype to be one of [uint8, float32, int32, int64, float16], found " + type);
             }
         }
     }
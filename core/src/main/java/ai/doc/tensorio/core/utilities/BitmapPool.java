@@ -0,0 +1,115 @@
+/*
+ * BitmapPool.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import android.graphics.Bitmap;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * A small pool of mutable ARGB_8888 bitmaps that pixel buffer outputs are captured into, so that
+ * image-to-image models run per frame do not allocate a new Bitmap for every output.
+ *
+ * Set a pool on a model with `Model.setOutputBitmapPool` and release each output bitmap back to
+ * the pool once it is no longer needed. Bitmaps that are never released are simply collected.
+ * A bitmap must not be used after it has been released.
+ */
+
+public class BitmapPool {
+
+    private final int capacity;
+    private final ArrayDeque<Bitmap> bitmaps;
+
+    /**
+     * @param capacity The most bitmaps the pool holds, older bitmaps are dropped beyond it
+     */
+
+    public BitmapPool(int capacity) {
+        this.capacity = capacity;
+        this.bitmaps = new ArrayDeque<>(capacity);
+    }
+
+    /**
+     * Returns a pooled mutable bitmap with the given dimensions, or a new one if none is pooled.
+     * The bitmap's pixels are not cleared.
+     */
+
+    public Bitmap acquire(int width, int height) {
+        synchronized (bitmaps) {
+            Iterator<Bitmap> iterator = bitmaps.iterator();
+
+            while (iterator.hasNext()) {
+                Bitmap bitmap = iterator.next();
+
+                if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                    iterator.remove();
+                    return bitmap;
+                }
+            }
+        }
+
+        return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Returns a bitmap to the pool. Immutable and recycled bitmaps are ignored.
+     */
+
+    public void release(@NonNull Bitmap bitmap) {
+        if (!bitmap.isMutable() || bitmap.isRecycled() || bitmap.getConfig() != Bitmap.Config.ARGB_8888) {
+            return;
+        }
+
+        synchronized (bitmaps) {
+            if (bitmaps.contains(bitmap)) {
+                return;
+            }
+            if (bitmaps.size() >= capacity) {
+                bitmaps.removeFirst();
+            }
+            if (capacity > 0) {
+                bitmaps.addLast(bitmap);
+            }
+        }
+    }
+
+    /**
+     * @return The number of bitmaps currently pooled
+     */
+
+    public int size() {
+        synchronized (bitmaps) {
+            return bitmaps.size();
+        }
+    }
+
+    /**
+     * Drops every pooled bitmap.
+     */
+
+    public void clear() {
+        synchronized (bitmaps) {
+            bitmaps.clear();
+        }
+    }
+}
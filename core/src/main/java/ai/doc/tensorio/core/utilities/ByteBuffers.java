@@ -0,0 +1,99 @@
+/*
+ * ByteBuffers.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import androidx.annotation.NonNull;
+
+/**
+ * ByteBuffer utilities shared by the backends, used for example to address a single item in a
+ * buffer that holds a batch of items.
+ */
+
+public class ByteBuffers {
+
+    /**
+     * Returns a view on a region of a buffer. Unlike `ByteBuffer.slice`, the view keeps the byte
+     * order of the buffer, and the buffer's own position and limit are left untouched.
+     *
+     * @param buffer The buffer to take a view on
+     * @param offset The absolute offset in bytes at which the view begins
+     * @param length The length in bytes of the view, which is also its capacity
+     * @return A view sharing the buffer's content whose position 0 is the buffer's offset
+     */
+
+    public static ByteBuffer slice(@NonNull ByteBuffer buffer, int offset, int length) {
+        ByteBuffer view = buffer.duplicate();
+        view.limit(offset + length);
+        view.position(offset);
+
+        return view.slice().order(buffer.order());
+    }
+
+    /**
+     * Returns true if a caller's buffer may be handed to a model in place of a backing buffer of
+     * the given length without being copied: it is direct, in native byte order, and holds exactly
+     * the length from position zero.
+     *
+     * @param buffer The caller's buffer
+     * @param length The length in bytes of the backing buffer it would replace
+     */
+
+    public static boolean isZeroCopy(@NonNull ByteBuffer buffer, int length) {
+        return buffer.isDirect()
+                && buffer.order() == ByteOrder.nativeOrder()
+                && buffer.position() == 0
+                && buffer.limit() == length
+                && buffer.capacity() == length;
+    }
+
+    /**
+     * Copies the remaining bytes of a caller's buffer into the start of a backing buffer. The bytes
+     * are copied as they are and the caller's position is left untouched.
+     *
+     * @param src The caller's buffer, whose remaining bytes must be exactly `length`
+     * @param dst The backing buffer, which is returned rewound
+     * @param length The length in bytes of a single item of the layer
+     * @return The backing buffer
+     * @throws IllegalArgumentException if the caller's buffer does not hold `length` bytes
+     */
+
+    public static ByteBuffer copy(@NonNull ByteBuffer src, @NonNull ByteBuffer dst, int length) throws IllegalArgumentException {
+        if (src.remaining() != length) {
+            throw BadLengthException(src.remaining(), length);
+        }
+
+        dst.rewind();
+        dst.put(src.duplicate());
+        dst.rewind();
+
+        return dst;
+    }
+
+    //region Exceptions
+
+    private static IllegalArgumentException BadLengthException(int given, int expected) {
+        return new IllegalArgumentException("Provided ByteBuffer is of different size than the size expected by the model, expected " + expected + " bytes, buffer has " + given);
+    }
+
+    //endRegion
+}
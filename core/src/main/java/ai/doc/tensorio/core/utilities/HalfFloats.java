@@ -0,0 +1,139 @@
+/*
+ * HalfFloats.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import java.nio.ByteBuffer;
+
+import androidx.annotation.NonNull;
+
+/**
+ * Converts between 32 bit floats and IEEE 754 half precision (float16) values, which backends use
+ * to pack and unpack Float16 layers.
+ *
+ * Conversions work directly on the bits of each value, so that they neither allocate nor depend on
+ * `android.util.Half`, which is only available from API 26. Floats are rounded to the nearest half
+ * with ties to even, values too large for a half become infinities, and NaNs are preserved.
+ */
+
+public class HalfFloats {
+
+    /**
+     * Converts a float to the bits of the nearest half float.
+     */
+
+    public static short toHalf(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = (bits >>> 23) & 0xFF;
+        int mantissa = bits & 0x7FFFFF;
+
+        // Infinities and NaNs, keeping a NaN's mantissa non-zero
+
+        if (exponent == 0xFF) {
+            return (short) (sign | 0x7C00 | (mantissa != 0 ? 0x200 | (mantissa >>> 13) : 0));
+        }
+
+        int halfExponent = exponent - 127 + 15;
+
+        // Too large for a half
+
+        if (halfExponent >= 0x1F) {
+            return (short) (sign | 0x7C00);
+        }
+
+        // Too small for a normal half, round to a subnormal half or to zero
+
+        if (halfExponent <= 0) {
+            if (halfExponent < -10) {
+                return (short) sign;
+            }
+
+            int shift = 14 - halfExponent;
+            int significand = mantissa | 0x800000;
+
+            return (short) (sign | round(significand >>> shift, significand & ((1 << shift) - 1), 1 << (shift - 1)));
+        }
+
+        // A carry out of the mantissa correctly rounds up into the exponent, or to infinity
+
+        return (short) (sign | round((halfExponent << 10) | (mantissa >>> 13), mantissa & 0x1FFF, 0x1000));
+    }
+
+    /**
+     * Converts the bits of a half float to a float, which is always exact.
+     */
+
+    public static float toFloat(short half) {
+        int bits = half & 0xFFFF;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1F;
+        int mantissa = bits & 0x3FF;
+
+        if (exponent == 0x1F) {
+            return Float.intBitsToFloat(sign | 0x7F800000 | (mantissa << 13));
+        }
+
+        if (exponent == 0) {
+            float subnormal = mantissa * 0x1p-24f;
+            return sign != 0 ? -subnormal : subnormal;
+        }
+
+        return Float.intBitsToFloat(sign | ((exponent + 112) << 23) | (mantissa << 13));
+    }
+
+    /**
+     * Writes floats to a buffer as half floats, starting at and advancing the buffer's position.
+     *
+     * @param buffer The buffer to write to, which must have room for two bytes per value
+     * @param values The floats to write
+     */
+
+    public static void put(@NonNull ByteBuffer buffer, @NonNull float[] values) {
+        for (float v : values) {
+            buffer.putShort(toHalf(v));
+        }
+    }
+
+    /**
+     * Reads half floats from a buffer into floats, starting at and advancing the buffer's position.
+     *
+     * @param buffer The buffer to read from, which must hold two bytes per value
+     * @param values The floats to read into
+     */
+
+    public static void get(@NonNull ByteBuffer buffer, @NonNull float[] values) {
+        for (int i = 0; i < values.length; i++) {
+            values[i] = toFloat(buffer.getShort());
+        }
+    }
+
+    /**
+     * Rounds a truncated value to the nearest, ties to even, given the bits that were truncated
+     * and the value of half a unit in the last place.
+     */
+
+    private static int round(int truncated, int remainder, int halfway) {
+        if (remainder > halfway || (remainder == halfway && (truncated & 1) != 0)) {
+            return truncated + 1;
+        }
+
+        return truncated;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * MappedFiles.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+
+import androidx.annotation.NonNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * A process wide, reference counted cache of read only memory mapped model files, so that every
+ * model, interpreter and reload backed by the same file shares a single mapping rather than
+ * mapping the file again.
+ *
+ * Files are keyed by their canonical path, length and modification time, so a file replaced on
+ * disk is mapped afresh, and assets by their path and location in the package. Acquire a mapping
+ * with `acquire` and release it with `release` once nothing reads it any longer. The cache drops a
+ * mapping when its last reference is released, and the mapping is unmapped when it is collected.
+ *
+ * A mapping may optionally be prefaulted on a background thread, which reads it into memory ahead
+ * of the first inference so that the first call does not stall on page faults.
+ */
+
+public final class MappedFiles {
+
+    /** A cached mapping and the number of references to it */
+
+    private static class Entry {
+        final MappedByteBuffer buffer;
+        int references = 0;
+        boolean prefaulted = false;
+
+        Entry(@NonNull MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+
+    private static final Map<String, Entry> entries = new HashMap<>();
+
+    private MappedFiles() {
+    }
+
+    /**
+     * Returns the shared mapping of a file, mapping it if it is not already cached.
+     *
+     * @param file The file to map
+     * @param prefault true to read the mapping into memory on a background thread
+     * @return The read only mapping of the whole file, which must be released with `release`
+     * @throws IOException If the file could not be mapped
+     */
+
+    @NonNull
+    public static synchronized MappedByteBuffer acquire(@NonNull File file, boolean prefault) throws IOException {
+        String key = "file:" + file.getCanonicalPath() + ":" + file.length() + ":" + file.lastModified();
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            try (FileInputStream inputStream = new FileInputStream(file)) {
+                FileChannel fileChannel = inputStream.getChannel();
+                entry = new Entry(fileChannel.map(FileChannel.MapMode.READ_ONLY, 0, fileChannel.size()));
+            }
+            entries.put(key, entry);
+        }
+
+        return acquire(entry, prefault);
+    }
+
+    /**
+     * Returns the shared mapping of an uncompressed asset, mapping it if it is not already cached.
+     *
+     * @param assets The asset manager the asset is read from
+     * @param path The path of the asset in the assets directory
+     * @param prefault true to read the mapping into memory on a background thread
+     * @return The read only mapping of the asset, which must be released with `release`
+     * @throws IOException If the asset could not be opened or mapped
+     */
+
+    @NonNull
+    public static synchronized MappedByteBuffer acquire(@NonNull AssetManager assets, @NonNull String path, boolean prefault) throws IOException {
+        AssetFileDescriptor fileDescriptor = assets.openFd(path);
+
+        try {
+            long startOffset = fileDescriptor.getStartOffset();
+            long length = fileDescriptor.getDeclaredLength();
+
+            String key = "asset:" + path + ":" + startOffset + ":" + length;
+            Entry entry = entries.get(key);
+
+            if (entry == null) {
+                try (FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor())) {
+                    FileChannel fileChannel = inputStream.getChannel();
+                    entry = new Entry(fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, length));
+                }
+                entries.put(key, entry);
+            }
+
+            return acquire(entry, prefault);
+        } finally {
+            fileDescriptor.close();
+        }
+    }
+
+    /**
+     * Releases a mapping returned by `acquire`, dropping it from the cache when it is no longer
+     * referenced. Buffers that are not cached are ignored.
+     */
+
+    public static synchronized void release(@NonNull MappedByteBuffer buffer) {
+        Iterator<Entry> iterator = entries.values().iterator();
+
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+
+            if (entry.buffer == buffer) {
+                if (--entry.references == 0) {
+                    iterator.remove();
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return The number of mappings currently cached
+     */
+
+    public static synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return The number of references to a cached mapping, or 0 if it is not cached
+     */
+
+    static synchronized int references(@NonNull MappedByteBuffer buffer) {
+        for (Entry entry : entries.values()) {
+            if (entry.buffer == buffer) {
+                return entry.references;
+            }
+        }
+
+        return 0;
+    }
+
+    /**
+     * References an entry and prefaults its mapping at most once.
+     */
+
+    private static MappedByteBuffer acquire(@NonNull Entry entry, boolean prefault) {
+        entry.references++;
+
+        if (prefault && !entry.prefaulted) {
+            entry.prefaulted = true;
+
+            Thread thread = new Thread(entry.buffer::load, "MappedFiles-prefault");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        return entry.buffer;
+    }
+}
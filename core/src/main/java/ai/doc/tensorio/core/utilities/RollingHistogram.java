@@ -0,0 +1,123 @@
+/*
+ * RollingHistogram.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Keeps the most recent samples of a value in a fixed size ring and reports percentiles over them.
+ *
+ * Recording is lock free and does not allocate, so many threads may record into the same
+ * histogram from the inference path. Percentiles are computed on demand from a sorted copy of the
+ * window, which is meant for occasional reporting rather than for every call. A percentile computed
+ * while other threads are recording reflects a mix of old and new samples.
+ */
+
+public class RollingHistogram {
+
+    private final AtomicLongArray samples;
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * @param capacity The number of most recent samples the histogram keeps
+     */
+
+    public RollingHistogram(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("The capacity of a histogram must be positive, received " + capacity);
+        }
+
+        this.samples = new AtomicLongArray(capacity);
+    }
+
+    /**
+     * Records a sample, replacing the oldest one once the histogram is full.
+     */
+
+    public void record(long value) {
+        long index = count.getAndIncrement();
+        samples.set((int) (index % samples.length()), value);
+    }
+
+    /** The number of samples the histogram keeps */
+
+    public int getCapacity() {
+        return samples.length();
+    }
+
+    /** The number of samples recorded since the histogram was created or reset */
+
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * Discards every sample.
+     */
+
+    public void reset() {
+        count.set(0);
+    }
+
+    /**
+     * Returns the value below which the given fraction of the samples in the window fall, using the
+     * nearest rank method.
+     *
+     * @param percentile A fraction between 0 and 1, e.g. 0.95 for the 95th percentile
+     * @return The percentile, or 0 if no samples have been recorded
+     */
+
+    public long percentile(double percentile) {
+        if (percentile < 0 || percentile > 1) {
+            throw new IllegalArgumentException("A percentile must be between 0 and 1, received " + percentile);
+        }
+
+        int size = (int) Math.min(count.get(), samples.length());
+
+        if (size == 0) {
+            return 0;
+        }
+
+        long[] sorted = new long[size];
+
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+
+        Arrays.sort(sorted);
+
+        int rank = (int) Math.ceil(percentile * size);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    public long p50() {
+        return percentile(0.50);
+    }
+
+    public long p95() {
+        return percentile(0.95);
+    }
+
+    public long p99() {
+        return percentile(0.99);
+    }
+}
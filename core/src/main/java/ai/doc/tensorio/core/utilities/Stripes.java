@@ -0,0 +1,131 @@
+/*
+ * Stripes.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import androidx.annotation.NonNull;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Runs work over the rows of an image in parallel stripes on a shared fork/join pool.
+ *
+ * Each stripe is a contiguous range of rows. Stripe tasks run concurrently and must write to
+ * disjoint parts of their output with absolute indices, never through a buffer's position.
+ */
+
+public final class Stripes {
+
+    /**
+     * Work over a range of rows.
+     */
+
+    public interface RowTask {
+
+        /**
+         * @param start The first row, inclusive
+         * @param end The last row, exclusive
+         */
+
+        void run(int start, int end);
+    }
+
+    /** The fewest rows a stripe will have, below which forking costs more than it saves */
+
+    private static final int MIN_STRIPE_ROWS = 16;
+
+    /** The shared pool, created on first use */
+
+    private static volatile ForkJoinPool pool;
+
+    private Stripes() {
+    }
+
+    /**
+     * Returns the pool stripes run on, which has a thread for each available processor.
+     */
+
+    @NonNull
+    public static ForkJoinPool getPool() {
+        ForkJoinPool p = pool;
+
+        if (p == null) {
+            synchronized (Stripes.class) {
+                p = pool;
+                if (p == null) {
+                    p = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+                    pool = p;
+                }
+            }
+        }
+
+        return p;
+    }
+
+    /**
+     * Splits rows into stripes and runs the task on each stripe in parallel, returning when every
+     * stripe is done. Too few rows to split are run on the calling thread. An exception thrown by
+     * any stripe is rethrown.
+     *
+     * @param rows The number of rows
+     * @param task The work to run on each stripe
+     */
+
+    public static void run(int rows, @NonNull RowTask task) {
+        ForkJoinPool p = getPool();
+        int stripeRows = Math.max(MIN_STRIPE_ROWS, rows / (p.getParallelism() * 2));
+
+        if (rows <= stripeRows) {
+            task.run(0, rows);
+        } else {
+            p.invoke(new StripeAction(task, 0, rows, stripeRows));
+        }
+    }
+
+    /**
+     * Halves its rows until they fit in a stripe.
+     */
+
+    private static class StripeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final RowTask task;
+        private final int start;
+        private final int end;
+        private final int stripeRows;
+
+        StripeAction(@NonNull RowTask task, int start, int end, int stripeRows) {
+            this.task = task;
+            this.start = start;
+            this.end = end;
+            this.stripeRows = stripeRows;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= stripeRows) {
+                task.run(start, end);
+            } else {
+                int middle = (start + end) >>> 1;
+                invokeAll(new StripeAction(task, start, middle, stripeRows), new StripeAction(task, middle, end, stripeRows));
+            }
+        }
+    }
+}
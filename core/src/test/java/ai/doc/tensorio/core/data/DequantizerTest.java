@@ -24,7 +24,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertSame;
 
 public class DequantizerTest {
 
@@ -65,4 +68,33 @@ public class DequantizerTest {
         assertEquals(1, dequantizer.dequantize(255), epsilon);
         assertEquals(0.5, dequantizer.dequantize(127), epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLookupTableMatchesDequantize() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerWithDequantization(0.5f, -3.0f);
+        float[] table = dequantizer.getLookupTable();
+
+        assertEquals(Dequantizer.TABLE_SIZE, table.length);
+
+        for (int value = 0; value < Dequantizer.TABLE_SIZE; value++) {
+            assertEquals(dequantizer.dequantize(value), table[value], 0);
+        }
+
+        assertSame(table, dequantizer.getLookupTable());
+    }
+
+    @Test
+    public void testBulkDequantize() {
+        Dequantizer dequantizer = Dequantizer.DataDequantizerNegativeOneToOne();
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[]{ 0, (byte) 127, (byte) 128, (byte) 255, 42 });
+        float[] result = new float[4];
+
+        dequantizer.dequantize(buffer, result);
+
+        assertEquals(4, buffer.position());
+        assertEquals(dequantizer.dequantize(0), result[0], 0);
+        assertEquals(dequantizer.dequantize(127), result[1], 0);
+        assertEquals(dequantizer.dequantize(128), result[2], 0);
+        assertEquals(dequantizer.dequantize(255), result[3], 0);
+    }
+}
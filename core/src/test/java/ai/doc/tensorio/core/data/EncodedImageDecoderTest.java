@@ -0,0 +1,62 @@
+/*
+ * EncodedImageDecoderTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.ResizeMode;
+
+import static org.junit.Assert.*;
+
+public class EncodedImageDecoderTest {
+
+    private static final ImageVolume SQUARE = new ImageVolume(224, 224, 3);
+
+    @Test
+    public void testSmallImageIsNotReduced() {
+        assertEquals(1, EncodedImageDecoder.sampleSizeFor(224, 224, SQUARE, ResizeMode.Stretch));
+        assertEquals(1, EncodedImageDecoder.sampleSizeFor(100, 100, SQUARE, ResizeMode.Stretch));
+        assertEquals(1, EncodedImageDecoder.sampleSizeFor(447, 447, SQUARE, ResizeMode.Stretch));
+    }
+
+    @Test
+    public void testReducesByPowersOfTwo() {
+        assertEquals(2, EncodedImageDecoder.sampleSizeFor(448, 448, SQUARE, ResizeMode.Stretch));
+        assertEquals(8, EncodedImageDecoder.sampleSizeFor(2000, 2000, SQUARE, ResizeMode.Stretch));
+    }
+
+    @Test
+    public void testStretchAndCropCoverBothSides() {
+        // 12 MP photo: the short side limits the reduction
+
+        assertEquals(8, EncodedImageDecoder.sampleSizeFor(4000, 3000, SQUARE, ResizeMode.Stretch));
+        assertEquals(8, EncodedImageDecoder.sampleSizeFor(4000, 3000, SQUARE, ResizeMode.CenterCrop));
+        assertEquals(8, EncodedImageDecoder.sampleSizeFor(3000, 4000, SQUARE, ResizeMode.CenterCrop));
+    }
+
+    @Test
+    public void testLetterboxCoversLimitingSide() {
+        // The long side is scaled to the layer, so only it must be covered
+
+        assertEquals(16, EncodedImageDecoder.sampleSizeFor(4000, 3000, SQUARE, ResizeMode.Letterbox));
+        assertEquals(16, EncodedImageDecoder.sampleSizeFor(3000, 4000, SQUARE, ResizeMode.Letterbox));
+        assertEquals(1, EncodedImageDecoder.sampleSizeFor(300, 4000, new ImageVolume(4000, 300, 3), ResizeMode.Letterbox));
+    }
+}
@@ -24,6 +24,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.FloatBuffer;
+
 import static org.junit.Assert.*;
 
 public class PixelDenormalizerTest {
@@ -107,4 +109,43 @@ public class PixelDenormalizerTest {
         assertEquals(denormalizer.denormalize(1.0f + 0.2f, 1), 255, epsilon);
         assertEquals(denormalizer.denormalize(1.0f + 0.3f, 2), 255, epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBulkDenormalizeMatchesPerValue() {
+        PixelDenormalizer[] denormalizers = {
+                PixelDenormalizer.PixelDenormalizerZeroToOne(),
+                PixelDenormalizer.PixelDenormalizerNegativeOneToOne(),
+                PixelDenormalizer.PixelDenormalizerPerChannelBias(255.0f, -0.1f, -0.2f, -0.3f),
+                new PixelDenormalizer() {
+                    @Override
+                    public int denormalize(float value, int channel) {
+                        return (int) (value * 255.0f) + channel;
+                    }
+                }
+        };
+
+        // Three interleaved channels of eight pixels
+
+        FloatBuffer floats = FloatBuffer.allocate(24);
+        for (int i = 0; i < 24; i++) {
+            floats.put(i, (i % 8) / 8.0f);
+        }
+
+        for (PixelDenormalizer denormalizer : denormalizers) {
+            for (int channel = 0; channel < 3; channel++) {
+                int shift = 16 - channel * 8;
+                int[] pixels = new int[10];
+
+                denormalizer.denormalize(floats, channel, 3, pixels, 1, 8, channel, shift);
+
+                assertEquals(0, pixels[0]);
+                assertEquals(0, pixels[9]);
+
+                for (int i = 0; i < 8; i++) {
+                    int expected = (denormalizer.denormalize(floats.get(channel + i * 3), channel) & 0xFF) << shift;
+                    assertEquals(expected, pixels[i + 1]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * PixelLayoutTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
+import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
+
+import static org.junit.Assert.*;
+
+public class PixelLayoutTest {
+
+    private static final float epsilon = 0.01f;
+
+    private static final int[] PIXELS = new int[]{ 0xFF102030, 0x80405060, 0xFFFF0000, 0x00FFFFFF };
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+    }
+
+    @Test
+    public void testLayoutForFormatAndChannels() {
+        assertEquals(PixelLayout.RGB, PixelLayout.PixelLayoutFor(PixelFormat.RGB, 3));
+        assertEquals(PixelLayout.BGR, PixelLayout.PixelLayoutFor(PixelFormat.BGR, 3));
+        assertEquals(PixelLayout.RGBA, PixelLayout.PixelLayoutFor(PixelFormat.RGB, 4));
+        assertEquals(PixelLayout.BGRA, PixelLayout.PixelLayoutFor(PixelFormat.BGR, 4));
+        assertEquals(PixelLayout.Gray, PixelLayout.PixelLayoutFor(PixelFormat.RGB, 1));
+        assertEquals(PixelLayout.Gray, PixelLayout.PixelLayoutFor(PixelFormat.BGR, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnsupportedChannelsThrow() {
+        PixelLayout.PixelLayoutFor(PixelFormat.RGB, 2);
+    }
+
+    @Test
+    public void testWritesBytesInChannelOrder() {
+        ByteBuffer rgb = buffer(3);
+        ByteBuffer bgr = buffer(3);
+        ByteBuffer bgra = buffer(4);
+
+        PixelLayout.RGB.write(new int[]{ 0x80102030 }, 1, rgb, 0, 3, 1);
+        PixelLayout.BGR.write(new int[]{ 0x80102030 }, 1, bgr, 0, 3, 1);
+        PixelLayout.BGRA.write(new int[]{ 0x80102030 }, 1, bgra, 0, 4, 1);
+
+        assertArrayEquals(new byte[]{ 0x10, 0x20, 0x30 }, new byte[]{ rgb.get(0), rgb.get(1), rgb.get(2) });
+        assertArrayEquals(new byte[]{ 0x30, 0x20, 0x10 }, new byte[]{ bgr.get(0), bgr.get(1), bgr.get(2) });
+        assertArrayEquals(new byte[]{ 0x30, 0x20, 0x10, (byte) 0x80 }, new byte[]{ bgra.get(0), bgra.get(1), bgra.get(2), bgra.get(3) });
+    }
+
+    @Test
+    public void testWritesNormalizedFloatsInChannelOrder() {
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerPerChannelBias(1.0f, 1000, 2000, 3000);
+        ByteBuffer bgr = buffer(12);
+
+        PixelLayout.BGR.write(new int[]{ 0xFF010203 }, 1, bgr, 0, 12, 4, normalizer.getLookupTable());
+
+        assertEquals(3003, bgr.getFloat(0), epsilon);
+        assertEquals(2002, bgr.getFloat(4), epsilon);
+        assertEquals(1001, bgr.getFloat(8), epsilon);
+    }
+
+    @Test
+    public void testWritesLuma() {
+        ByteBuffer gray = buffer(4);
+        ByteBuffer floats = buffer(16);
+        int[] pixels = new int[]{ 0xFF000000, 0xFFFFFFFF, 0xFFFF0000, 0xFF808080 };
+
+        PixelLayout.Gray.write(pixels, 4, gray, 0, 1, 1);
+        PixelLayout.Gray.write(pixels, 4, floats, 0, 4, 4, null);
+
+        assertEquals(0, gray.get(0) & 0xFF);
+        assertEquals(255, gray.get(1) & 0xFF);
+        assertEquals(77, gray.get(2) & 0xFF);
+        assertEquals(128, gray.get(3) & 0xFF);
+
+        assertEquals(77, floats.getFloat(8), epsilon);
+    }
+
+    @Test
+    public void testReadsGrayAsOpaque() {
+        ByteBuffer gray = buffer(1);
+        gray.put(0, (byte) 0x40);
+
+        int[] pixels = new int[1];
+        PixelLayout.Gray.read(gray, 0, 1, 1, pixels, 0, 1);
+
+        assertEquals(0xFF404040, pixels[0]);
+    }
+
+    @Test
+    public void testBytesRoundTrip() {
+        for (PixelLayout layout : new PixelLayout[]{ PixelLayout.RGB, PixelLayout.BGR, PixelLayout.RGBA, PixelLayout.BGRA }) {
+            int channels = layout.getChannels();
+            boolean alpha = channels == 4;
+
+            // Interleaved
+
+            ByteBuffer interleaved = buffer(PIXELS.length * channels);
+            int[] read = new int[PIXELS.length];
+
+            layout.write(PIXELS, PIXELS.length, interleaved, 0, channels, 1);
+            layout.read(interleaved, 0, channels, 1, read, 0, PIXELS.length);
+
+            for (int i = 0; i < PIXELS.length; i++) {
+                assertEquals(alpha ? PIXELS[i] : PIXELS[i] | 0xFF000000, read[i]);
+            }
+
+            // Planar
+
+            ByteBuffer planar = buffer(PIXELS.length * channels);
+
+            layout.write(PIXELS, PIXELS.length, planar, 0, 1, PIXELS.length);
+            layout.read(planar, 0, 1, PIXELS.length, read, 0, PIXELS.length);
+
+            for (int i = 0; i < PIXELS.length; i++) {
+                assertEquals(alpha ? PIXELS[i] : PIXELS[i] | 0xFF000000, read[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testUnnormalizedFloatsRoundTrip() {
+        for (PixelLayout layout : new PixelLayout[]{ PixelLayout.RGB, PixelLayout.BGR, PixelLayout.RGBA, PixelLayout.BGRA }) {
+            int channels = layout.getChannels();
+            boolean alpha = channels == 4;
+
+            ByteBuffer buffer = buffer(PIXELS.length * channels * 4);
+            int[] read = new int[PIXELS.length];
+
+            layout.write(PIXELS, PIXELS.length, buffer, 0, channels * 4, 4, null);
+            layout.read(buffer.asFloatBuffer(), 0, channels, 1, read, 0, PIXELS.length, null);
+
+            for (int i = 0; i < PIXELS.length; i++) {
+                assertEquals(alpha ? PIXELS[i] : PIXELS[i] | 0xFF000000, read[i]);
+            }
+        }
+    }
+
+    @Test
+    public void testSamplerWritesLayerLayout() {
+        int[] pixels = new int[]{ 0xFF102030, 0xFF405060 };
+        PixelSource source = PixelSource.PixelSourceForPixels(pixels, 2, 1);
+
+        PixelBufferLayerDescription bgr = new PixelBufferLayerDescription(PixelFormat.BGR, new ImageVolume(1, 2, 3), false, null, null, true, ResizeMode.Stretch, Interpolation.Nearest);
+        PixelBufferLayerDescription gray = new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(1, 2, 1), false, null, null, true, ResizeMode.Stretch, Interpolation.Nearest);
+
+        ByteBuffer bgrBuffer = buffer(6);
+        ByteBuffer grayBuffer = buffer(2);
+
+        new PixelSampler().sample(source, bgr, bgrBuffer, TensorLayout.NHWC);
+        new PixelSampler().sample(source, gray, grayBuffer, TensorLayout.NHWC);
+
+        assertEquals(6, bgrBuffer.position());
+        assertEquals(2, grayBuffer.position());
+
+        assertArrayEquals(new byte[]{ 0x30, 0x20, 0x10, 0x60, 0x50, 0x40 }, new byte[]{ bgrBuffer.get(0), bgrBuffer.get(1), bgrBuffer.get(2), bgrBuffer.get(3), bgrBuffer.get(4), bgrBuffer.get(5) });
+        assertEquals(PixelLayout.luma(0xFF102030), grayBuffer.get(0) & 0xFF);
+        assertEquals(PixelLayout.luma(0xFF405060), grayBuffer.get(1) & 0xFF);
+    }
+}
@@ -24,6 +24,10 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
 import static org.junit.Assert.*;
 
 public class PixelNormalizerTest {
@@ -107,4 +111,74 @@ public class PixelNormalizerTest {
         assertEquals(normalizer.normalize(255, 1), 1.0 + 0.2, epsilon);
         assertEquals(normalizer.normalize(255, 2), 1.0 + 0.3, epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testLookupTableMatchesNormalize() {
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerPerChannelBias(1.0f / 255.0f, 0.1f, 0.2f, 0.3f);
+        float[] table = normalizer.getLookupTable();
+
+        assertEquals(3 * PixelNormalizer.TABLE_SIZE, table.length);
+
+        for (int channel = 0; channel < 3; channel++) {
+            for (int value = 0; value < PixelNormalizer.TABLE_SIZE; value++) {
+                assertEquals(normalizer.normalize(value, channel), table[channel * PixelNormalizer.TABLE_SIZE + value], 0);
+            }
+        }
+
+        assertSame(table, normalizer.getLookupTable());
+    }
+
+    @Test
+    public void testBulkNormalizeToFloatBuffer() {
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerPerChannelBias(1.0f / 255.0f, 0.1f, 0.2f, 0.3f);
+        int[] argb = new int[]{ 0xFF000000, 0x80FF7F00, 0x00010203 };
+        FloatBuffer out = FloatBuffer.allocate(argb.length * 3);
+
+        normalizer.normalize(argb, out);
+
+        assertEquals(argb.length * 3, out.position());
+
+        for (int i = 0; i < argb.length; i++) {
+            assertEquals(normalizer.normalize((argb[i] >> 16) & 0xFF, 0), out.get(i * 3), 0);
+            assertEquals(normalizer.normalize((argb[i] >> 8) & 0xFF, 1), out.get(i * 3 + 1), 0);
+            assertEquals(normalizer.normalize(argb[i] & 0xFF, 2), out.get(i * 3 + 2), 0);
+        }
+    }
+
+    @Test
+    public void testBulkNormalizeToByteBuffer() {
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerNegativeOneToOne();
+        int[] argb = new int[]{ 0xFF000000, 0x80FF7F00, 0x00010203, 0xFFFFFFFF };
+        int count = 3;
+        ByteBuffer out = ByteBuffer.allocateDirect(argb.length * 3 * 4).order(ByteOrder.nativeOrder());
+
+        normalizer.normalize(argb, count, out);
+
+        assertEquals(count * 3 * 4, out.position());
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(normalizer.normalize((argb[i] >> 16) & 0xFF, 0), out.getFloat(i * 12), 0);
+            assertEquals(normalizer.normalize((argb[i] >> 8) & 0xFF, 1), out.getFloat(i * 12 + 4), 0);
+            assertEquals(normalizer.normalize(argb[i] & 0xFF, 2), out.getFloat(i * 12 + 8), 0);
+        }
+    }
+
+    @Test
+    public void testBulkNormalizePlanar() {
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerPerChannelBias(1.0f / 255.0f, 0.1f, 0.2f, 0.3f);
+        int[] argb = new int[]{ 0xFF000000, 0x80FF7F00, 0x00010203 };
+        int count = argb.length;
+        ByteBuffer out = ByteBuffer.allocateDirect(4 + count * 3 * 4).order(ByteOrder.nativeOrder());
+        out.position(4);
+
+        normalizer.normalizePlanar(argb, count, out);
+
+        assertEquals(4, out.position());
+
+        for (int i = 0; i < count; i++) {
+            assertEquals(normalizer.normalize((argb[i] >> 16) & 0xFF, 0), out.getFloat(4 + i * 4), 0);
+            assertEquals(normalizer.normalize((argb[i] >> 8) & 0xFF, 1), out.getFloat(4 + (count + i) * 4), 0);
+            assertEquals(normalizer.normalize(argb[i] & 0xFF, 2), out.getFloat(4 + (2 * count + i) * 4), 0);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * PixelReaderTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
+import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
+
+import static org.junit.Assert.*;
+
+public class PixelReaderTest {
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+    }
+
+    private static PixelBufferLayerDescription description(int width, int height, int channels, boolean quantized) {
+        return new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(height, width, channels), false, null, null, quantized, ResizeMode.Stretch, Interpolation.Nearest);
+    }
+
+    /** Random opaque pixels over more than one block */
+
+    private static int[] pixels(int count) {
+        int[] pixels = new int[count];
+        Random random = new Random(0);
+
+        for (int i = 0; i < count; i++) {
+            pixels[i] = random.nextInt() | 0xFF000000;
+        }
+
+        return pixels;
+    }
+
+    @Test
+    public void testTensorLayoutSteps() {
+        assertEquals(3, TensorLayout.NHWC.pixelStep(3, 100));
+        assertEquals(1, TensorLayout.NHWC.channelStep(3, 100));
+        assertEquals(1, TensorLayout.NCHW.pixelStep(3, 100));
+        assertEquals(100, TensorLayout.NCHW.channelStep(3, 100));
+    }
+
+    @Test
+    public void testSampledPixelsReadBack() {
+        int width = 50;
+        int height = 30;
+        int[] pixels = pixels(width * height);
+        PixelSource source = PixelSource.PixelSourceForPixels(pixels, width, height);
+
+        for (TensorLayout tensorLayout : TensorLayout.values()) {
+            for (boolean quantized : new boolean[]{ true, false }) {
+                PixelBufferLayerDescription description = description(width, height, 3, quantized);
+                ByteBuffer buffer = buffer(width * height * 3 * (quantized ? 1 : 4));
+                int[] read = new int[width * height];
+
+                new PixelSampler().sample(source, description, buffer, tensorLayout);
+                buffer.rewind();
+                new PixelReader().read(buffer, description, tensorLayout, read);
+
+                assertArrayEquals(pixels, read);
+            }
+        }
+    }
+
+    @Test
+    public void testReadsFloatBuffers() {
+        int width = 40;
+        int height = 40;
+        int[] pixels = pixels(width * height);
+        PixelBufferLayerDescription description = description(width, height, 3, false);
+        ByteBuffer buffer = buffer(width * height * 3 * 4);
+        int[] read = new int[width * height];
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, width, height), description, buffer, TensorLayout.NCHW);
+        new PixelReader().read(buffer.asFloatBuffer(), description, TensorLayout.NCHW, read);
+
+        assertArrayEquals(pixels, read);
+    }
+
+    @Test
+    public void testLayoutsHoldTheSameValues() {
+        int width = 3;
+        int height = 2;
+        int[] pixels = pixels(width * height);
+        PixelBufferLayerDescription description = description(width, height, 3, true);
+
+        ByteBuffer nhwc = buffer(width * height * 3);
+        ByteBuffer nchw = buffer(width * height * 3);
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, width, height), description, nhwc, TensorLayout.NHWC);
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, width, height), description, nchw, TensorLayout.NCHW);
+
+        for (int i = 0; i < width * height; i++) {
+            for (int c = 0; c < 3; c++) {
+                assertEquals(nhwc.get(i * 3 + c), nchw.get(c * width * height + i));
+            }
+        }
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        int width = 300;
+        int height = 300;
+        int[] pixels = pixels(width * height);
+
+        for (TensorLayout tensorLayout : TensorLayout.values()) {
+            PixelBufferLayerDescription description = description(width, height, 3, false);
+            ByteBuffer buffer = buffer(width * height * 3 * 4);
+            int[] serial = new int[width * height];
+            int[] parallel = new int[width * height];
+
+            new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, width, height), description, buffer, tensorLayout);
+            buffer.rewind();
+
+            PixelReader reader = new PixelReader();
+            reader.read(buffer, description, tensorLayout, serial);
+
+            reader.setParallel(true);
+            reader.read(buffer, description, tensorLayout, parallel);
+
+            assertArrayEquals(serial, parallel);
+        }
+    }
+
+    @Test
+    public void testDeclaredLayoutOverridesBackendLayout() {
+        PixelBufferLayerDescription undeclared = description(4, 2, 3, false);
+        PixelBufferLayerDescription declared = new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(2, 4, 3), true, null, null, false, ResizeMode.Stretch, Interpolation.Bilinear, TensorLayout.NCHW);
+
+        assertEquals(TensorLayout.NHWC, undeclared.getTensorLayout(TensorLayout.NHWC));
+        assertEquals(TensorLayout.NCHW, undeclared.getTensorLayout(TensorLayout.NCHW));
+        assertEquals(TensorLayout.NCHW, declared.getTensorLayout(TensorLayout.NHWC));
+
+        assertArrayEquals(new int[]{2, 4, 3}, undeclared.getTensorShape());
+        assertArrayEquals(new int[]{-1, 3, 2, 4}, declared.getTensorShape());
+    }
+}
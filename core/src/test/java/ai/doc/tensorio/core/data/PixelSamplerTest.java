@@ -0,0 +1,218 @@
+/*
+ * PixelSamplerTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Random;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
+import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
+
+import static org.junit.Assert.*;
+
+public class PixelSamplerTest {
+
+    private static final int BLACK = 0xFF000000;
+    private static final int RED = 0xFFFF0000;
+    private static final int GREEN = 0xFF00FF00;
+    private static final int BLUE = 0xFF0000FF;
+    private static final int WHITE = 0xFFFFFFFF;
+
+    private static PixelBufferLayerDescription description(int width, int height, PixelNormalizer normalizer, boolean quantized, ResizeMode resizeMode, Interpolation interpolation) {
+        return new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(height, width, 3), false, normalizer, null, quantized, resizeMode, interpolation);
+    }
+
+    private static ByteBuffer buffer(int size) {
+        return ByteBuffer.allocateDirect(size).order(ByteOrder.nativeOrder());
+    }
+
+    private static int quantizedPixel(ByteBuffer buffer, int index) {
+        return 0xFF000000 | ((buffer.get(index * 3) & 0xFF) << 16) | ((buffer.get(index * 3 + 1) & 0xFF) << 8) | (buffer.get(index * 3 + 2) & 0xFF);
+    }
+
+    @Test
+    public void testSameSizeMatchesNormalize() {
+        int[] pixels = new int[]{ RED, GREEN, BLUE, WHITE, 0xFF102030, 0xFF405060 };
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerNegativeOneToOne();
+        PixelBufferLayerDescription description = description(3, 2, normalizer, false, ResizeMode.Stretch, Interpolation.Bilinear);
+
+        ByteBuffer sampled = buffer(pixels.length * 3 * 4);
+        ByteBuffer expected = buffer(pixels.length * 3 * 4);
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, 3, 2), description, sampled, TensorLayout.NHWC);
+        normalizer.normalize(pixels, pixels.length, expected);
+
+        assertEquals(expected.capacity(), sampled.position());
+
+        sampled.rewind();
+        expected.rewind();
+
+        assertEquals(expected, sampled);
+    }
+
+    @Test
+    public void testNearestDownscale() {
+        // A 4x4 image of 2x2 blocks downscaled to 2x2 keeps one pixel from each block
+
+        int[] pixels = new int[]{
+                RED, RED, GREEN, GREEN,
+                RED, RED, GREEN, GREEN,
+                BLUE, BLUE, WHITE, WHITE,
+                BLUE, BLUE, WHITE, WHITE
+        };
+
+        PixelBufferLayerDescription description = description(2, 2, null, true, ResizeMode.Stretch, Interpolation.Nearest);
+        ByteBuffer out = buffer(2 * 2 * 3);
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, 4, 4), description, out, TensorLayout.NHWC);
+
+        assertEquals(RED, quantizedPixel(out, 0));
+        assertEquals(GREEN, quantizedPixel(out, 1));
+        assertEquals(BLUE, quantizedPixel(out, 2));
+        assertEquals(WHITE, quantizedPixel(out, 3));
+    }
+
+    @Test
+    public void testBilinearBlendsNeighbors() {
+        // A 2x1 image of black and white downscaled to 1x1 blends the two equally
+
+        int[] pixels = new int[]{ BLACK, WHITE };
+        PixelBufferLayerDescription description = description(1, 1, null, false, ResizeMode.Stretch, Interpolation.Bilinear);
+        ByteBuffer out = buffer(3 * 4);
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, 2, 1), description, out, TensorLayout.NHWC);
+
+        assertEquals(128, out.getFloat(0), 1);
+        assertEquals(128, out.getFloat(4), 1);
+        assertEquals(128, out.getFloat(8), 1);
+    }
+
+    @Test
+    public void testBilinearUpscaleOfSolidColorIsSolid() {
+        int[] pixels = new int[]{ 0xFF336699, 0xFF336699, 0xFF336699, 0xFF336699 };
+        PixelBufferLayerDescription description = description(7, 5, null, true, ResizeMode.Stretch, Interpolation.Bilinear);
+        ByteBuffer out = buffer(7 * 5 * 3);
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, 2, 2), description, out, TensorLayout.NHWC);
+
+        for (int i = 0; i < 7 * 5; i++) {
+            assertEquals(0xFF336699, quantizedPixel(out, i));
+        }
+    }
+
+    @Test
+    public void testCenterCrop() {
+        // A 4x2 image cropped to 2x2 keeps its two center columns
+
+        int[] pixels = new int[]{
+                RED, GREEN, BLUE, WHITE,
+                RED, GREEN, BLUE, WHITE
+        };
+
+        PixelBufferLayerDescription description = description(2, 2, null, true, ResizeMode.CenterCrop, Interpolation.Nearest);
+        ByteBuffer out = buffer(2 * 2 * 3);
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, 4, 2), description, out, TensorLayout.NHWC);
+
+        assertEquals(GREEN, quantizedPixel(out, 0));
+        assertEquals(BLUE, quantizedPixel(out, 1));
+        assertEquals(GREEN, quantizedPixel(out, 2));
+        assertEquals(BLUE, quantizedPixel(out, 3));
+    }
+
+    @Test
+    public void testLetterbox() {
+        // A 2x1 image fit to 2x3 fills the middle row and pads the top and bottom with black
+
+        int[] pixels = new int[]{ RED, GREEN };
+        PixelBufferLayerDescription description = description(2, 3, null, true, ResizeMode.Letterbox, Interpolation.Nearest);
+        ByteBuffer out = buffer(2 * 3 * 3);
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, 2, 1), description, out, TensorLayout.NHWC);
+
+        assertEquals(BLACK, quantizedPixel(out, 0));
+        assertEquals(BLACK, quantizedPixel(out, 1));
+        assertEquals(RED, quantizedPixel(out, 2));
+        assertEquals(GREEN, quantizedPixel(out, 3));
+        assertEquals(BLACK, quantizedPixel(out, 4));
+        assertEquals(BLACK, quantizedPixel(out, 5));
+    }
+
+    @Test
+    public void testPlanarMatchesNormalizePlanar() {
+        int[] pixels = new int[]{ RED, GREEN, BLUE, WHITE, 0xFF102030, 0xFF405060 };
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerPerChannelBias(1.0f / 255.0f, 0.1f, 0.2f, 0.3f);
+        PixelBufferLayerDescription description = description(2, 3, normalizer, false, ResizeMode.Stretch, Interpolation.Bilinear);
+
+        ByteBuffer sampled = buffer(pixels.length * 3 * 4);
+        ByteBuffer expected = buffer(pixels.length * 3 * 4);
+
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(pixels, 2, 3), description, sampled, TensorLayout.NCHW);
+        normalizer.normalizePlanar(pixels, pixels.length, expected);
+
+        assertEquals(0, sampled.position());
+        assertEquals(expected, sampled);
+    }
+
+    @Test
+    public void testParallelMatchesSerial() {
+        int width = 640;
+        int height = 480;
+        int[] pixels = new int[width * height];
+        Random random = new Random(0);
+
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = random.nextInt();
+        }
+
+        PixelSource source = PixelSource.PixelSourceForPixels(pixels, width, height);
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerZeroToOne();
+
+        for (TensorLayout tensorLayout : TensorLayout.values()) {
+            PixelBufferLayerDescription description = description(512, 512, normalizer, false, ResizeMode.Letterbox, Interpolation.Bilinear);
+            ByteBuffer serial = buffer(512 * 512 * 3 * 4);
+            ByteBuffer parallel = buffer(512 * 512 * 3 * 4);
+
+            PixelSampler sampler = new PixelSampler();
+            sampler.sample(source, description, serial, tensorLayout);
+
+            sampler.setParallel(true);
+            sampler.sample(source, description, parallel, tensorLayout);
+
+            assertEquals(serial.position(), parallel.position());
+
+            serial.rewind();
+            parallel.rewind();
+
+            assertEquals(serial, parallel);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTooFewPixelsThrows() {
+        PixelSource.PixelSourceForPixels(new int[3], 2, 2);
+    }
+}
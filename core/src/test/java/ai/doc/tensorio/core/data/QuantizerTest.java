@@ -24,6 +24,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.nio.ByteBuffer;
+
 import static junit.framework.TestCase.assertEquals;
 
 public class QuantizerTest {
@@ -65,4 +67,56 @@ public class QuantizerTest {
         assertEquals(255, quantizer.quantize(1), epsilon);
         assertEquals(127, quantizer.quantize(0.5f), epsilon);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testBulkQuantizeMatchesQuantize() {
+        Quantizer[] quantizers = new Quantizer[]{
+                Quantizer.DataQuantizerZeroToOne(),
+                Quantizer.DataQuantizerNegativeOneToOne(),
+                Quantizer.DataQuantizerWithQuantization(100.0f, 0.5f)
+        };
+        float[] values = new float[]{ -1.0f, -0.5f, 0.0f, 0.25f, 0.5f, 0.75f, 1.0f };
+
+        for (Quantizer quantizer : quantizers) {
+            ByteBuffer buffer = ByteBuffer.allocate(values.length);
+            quantizer.quantize(values, buffer);
+
+            assertEquals(values.length, buffer.position());
+
+            for (int i = 0; i < values.length; i++) {
+                int expected = Math.max(0, Math.min(255, quantizer.quantize(values[i])));
+                assertEquals(expected, buffer.get(i) & 0xFF);
+            }
+        }
+    }
+
+    @Test
+    public void testBulkQuantizeSaturates() {
+        Quantizer quantizer = Quantizer.DataQuantizerZeroToOne();
+        ByteBuffer buffer = ByteBuffer.allocate(4);
+
+        quantizer.quantize(new float[]{ -0.5f, 1.5f, 2.0f, 0.5f }, buffer);
+
+        assertEquals(0, buffer.get(0) & 0xFF);
+        assertEquals(255, buffer.get(1) & 0xFF);
+        assertEquals(255, buffer.get(2) & 0xFF);
+        assertEquals(127, buffer.get(3) & 0xFF);
+    }
+
+    @Test
+    public void testBulkQuantizeDefaultImplementation() {
+        Quantizer quantizer = new Quantizer() {
+            @Override
+            public int quantize(float value) {
+                return (int) (value * 1000);
+            }
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(3);
+
+        quantizer.quantize(new float[]{ -1.0f, 0.1f, 1.0f }, buffer);
+
+        assertEquals(0, buffer.get(0) & 0xFF);
+        assertEquals(100, buffer.get(1) & 0xFF);
+        assertEquals(255, buffer.get(2) & 0xFF);
+    }
+}
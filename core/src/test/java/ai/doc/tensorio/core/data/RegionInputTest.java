@@ -0,0 +1,95 @@
+/*
+ * RegionInputTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
+import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
+
+import static org.junit.Assert.*;
+
+public class RegionInputTest {
+
+    /** A 4x3 image whose pixels are numbered row by row */
+
+    private static PixelSource numbered() {
+        int[] pixels = new int[12];
+
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = 0xFF000000 | i;
+        }
+
+        return PixelSource.PixelSourceForPixels(pixels, 4, 3);
+    }
+
+    @Test
+    public void testReadsRegionRows() {
+        RegionInput region = new RegionInput(numbered(), 1, 1, 2, 2);
+        int[] row = new int[2];
+
+        assertEquals(2, region.getWidth());
+        assertEquals(2, region.getHeight());
+
+        region.readRow(0, 0, 2, row);
+        assertArrayEquals(new int[]{ 0xFF000005, 0xFF000006 }, row);
+
+        region.readRow(1, 1, 1, row);
+        assertEquals(0xFF00000A, row[0]);
+    }
+
+    @Test
+    public void testClipsToSource() {
+        RegionInput region = new RegionInput(numbered(), -1, 2, 10, 10);
+
+        assertEquals(0, region.getLeft());
+        assertEquals(2, region.getTop());
+        assertEquals(4, region.getWidth());
+        assertEquals(1, region.getHeight());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRegionOutsideSourceThrows() {
+        new RegionInput(numbered(), 4, 0, 2, 2);
+    }
+
+    @Test
+    public void testSamplesLikeCroppedImage() {
+        int[] cropped = new int[]{ 0xFF000005, 0xFF000006, 0xFF000009, 0xFF00000A };
+        PixelBufferLayerDescription description = new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(3, 3, 3), false, null, null, true, ResizeMode.Stretch, Interpolation.Bilinear);
+
+        ByteBuffer sampled = ByteBuffer.allocateDirect(27).order(ByteOrder.nativeOrder());
+        ByteBuffer expected = ByteBuffer.allocateDirect(27).order(ByteOrder.nativeOrder());
+
+        new PixelSampler().sample(new RegionInput(numbered(), 1, 1, 2, 2), description, sampled, TensorLayout.NHWC);
+        new PixelSampler().sample(PixelSource.PixelSourceForPixels(cropped, 2, 2), description, expected, TensorLayout.NHWC);
+
+        sampled.rewind();
+        expected.rewind();
+
+        assertEquals(expected, sampled);
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * YuvPixelSourceTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package ai.doc.tensorio.core.data;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
+import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
+
+import static org.junit.Assert.*;
+
+public class YuvPixelSourceTest {
+
+    private static final int BLACK = 0xFF000000;
+    private static final int WHITE = 0xFFFFFFFF;
+
+    /** A gray NV21 frame whose luma values are given row by row, with neutral chroma */
+
+    private static byte[] grayNV21(int width, int height, int... luma) {
+        byte[] nv21 = new byte[width * height + ((width + 1) / 2) * 2 * ((height + 1) / 2)];
+
+        for (int i = 0; i < nv21.length; i++) {
+            nv21[i] = (byte) (i < luma.length ? luma[i] : 128);
+        }
+
+        return nv21;
+    }
+
+    private static int[] readAll(PixelSource source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] pixels = new int[width * height];
+        int[] row = new int[width];
+
+        for (int y = 0; y < height; y++) {
+            source.readRow(y, 0, width, row);
+            System.arraycopy(row, 0, pixels, y * width, width);
+        }
+
+        return pixels;
+    }
+
+    private static int gray(int luma) {
+        return YuvPixelSource.argb(luma, 128, 128);
+    }
+
+    private static void assertChannelsEqual(int expected, int actual, int tolerance) {
+        for (int shift = 0; shift <= 16; shift += 8) {
+            assertEquals((expected >> shift) & 0xFF, (actual >> shift) & 0xFF, tolerance);
+        }
+    }
+
+    @Test
+    public void testConvertsVideoRangeGray() {
+        assertEquals(BLACK, YuvPixelSource.argb(16, 128, 128));
+        assertEquals(BLACK, YuvPixelSource.argb(0, 128, 128));
+        assertEquals(WHITE, YuvPixelSource.argb(255, 128, 128));
+
+        int gray = YuvPixelSource.argb(126, 128, 128);
+        assertEquals(128, gray & 0xFF);
+        assertEquals(gray & 0xFF, (gray >> 8) & 0xFF);
+        assertEquals(gray & 0xFF, (gray >> 16) & 0xFF);
+    }
+
+    @Test
+    public void testConvertsPrimaries() {
+        assertChannelsEqual(0xFFFF0000, YuvPixelSource.argb(81, 90, 240), 2);
+        assertChannelsEqual(0xFF00FF00, YuvPixelSource.argb(145, 54, 34), 2);
+        assertChannelsEqual(0xFF0000FF, YuvPixelSource.argb(41, 240, 110), 2);
+    }
+
+    @Test
+    public void testReadsNV21Chroma() {
+        // A 2x2 frame shares a single red chroma sample, stored V then U
+
+        byte[] nv21 = new byte[]{ 81, 81, 81, 81, (byte) 240, 90 };
+        YuvPixelSource source = YuvPixelSource.YuvPixelSourceForNV21(nv21, 2, 2, 0);
+
+        for (int pixel : readAll(source)) {
+            assertChannelsEqual(0xFFFF0000, pixel, 2);
+        }
+    }
+
+    @Test
+    public void testRotation() {
+        // A 3x2 frame:
+        // a b c
+        // d e f
+
+        int a = 20, b = 40, c = 60, d = 80, e = 100, f = 120;
+        byte[] nv21 = grayNV21(3, 2, a, b, c, d, e, f);
+
+        YuvPixelSource upright = YuvPixelSource.YuvPixelSourceForNV21(nv21, 3, 2, 0);
+        assertEquals(3, upright.getWidth());
+        assertEquals(2, upright.getHeight());
+        assertArrayEquals(new int[]{ gray(a), gray(b), gray(c), gray(d), gray(e), gray(f) }, readAll(upright));
+
+        YuvPixelSource clockwise = YuvPixelSource.YuvPixelSourceForNV21(nv21, 3, 2, 90);
+        assertEquals(2, clockwise.getWidth());
+        assertEquals(3, clockwise.getHeight());
+        assertArrayEquals(new int[]{ gray(d), gray(a), gray(e), gray(b), gray(f), gray(c) }, readAll(clockwise));
+
+        YuvPixelSource upsideDown = YuvPixelSource.YuvPixelSourceForNV21(nv21, 3, 2, 180);
+        assertEquals(3, upsideDown.getWidth());
+        assertEquals(2, upsideDown.getHeight());
+        assertArrayEquals(new int[]{ gray(f), gray(e), gray(d), gray(c), gray(b), gray(a) }, readAll(upsideDown));
+
+        YuvPixelSource counterClockwise = YuvPixelSource.YuvPixelSourceForNV21(nv21, 3, 2, 270);
+        assertEquals(2, counterClockwise.getWidth());
+        assertEquals(3, counterClockwise.getHeight());
+        assertArrayEquals(new int[]{ gray(c), gray(f), gray(b), gray(e), gray(a), gray(d) }, readAll(counterClockwise));
+
+        assertEquals(270, YuvPixelSource.YuvPixelSourceForNV21(nv21, 3, 2, -90).getRotation());
+    }
+
+    @Test
+    public void testReadsPartialRows() {
+        byte[] nv21 = grayNV21(3, 2, 20, 40, 60, 80, 100, 120);
+        YuvPixelSource source = YuvPixelSource.YuvPixelSourceForNV21(nv21, 3, 2, 90);
+        int[] row = new int[1];
+
+        source.readRow(2, 1, 1, row);
+        assertEquals(gray(60), row[0]);
+    }
+
+    @Test
+    public void testPaddedPlanarFrameMatchesNV21() {
+        // The same 4x2 frame as NV21 and as padded I420 planes with a chroma pixel stride of 1
+
+        byte[] nv21 = new byte[]{
+                30, 60, 90, 120,
+                (byte) 150, (byte) 180, (byte) 210, (byte) 240,
+                (byte) 200, 70, 100, (byte) 160 };
+
+        ByteBuffer y = ByteBuffer.wrap(new byte[]{
+                30, 60, 90, 120, 0, 0,
+                (byte) 150, (byte) 180, (byte) 210, (byte) 240, 0, 0 });
+        ByteBuffer u = ByteBuffer.wrap(new byte[]{ 9, 70, (byte) 160, 0 });
+        ByteBuffer v = ByteBuffer.wrap(new byte[]{ (byte) 200, 100, 0, 0 });
+        u.position(1);
+
+        PixelSource semiPlanar = YuvPixelSource.YuvPixelSourceForNV21(nv21, 4, 2, 0);
+        PixelSource planar = new YuvPixelSource(y, 6, u, v, 4, 1, 4, 2, 0);
+
+        assertArrayEquals(readAll(semiPlanar), readAll(planar));
+    }
+
+    @Test
+    public void testSamplesIntoLayer() {
+        byte[] nv21 = grayNV21(4, 2, 20, 40, 60, 80, 100, 120, 140, 160);
+        YuvPixelSource source = YuvPixelSource.YuvPixelSourceForNV21(nv21, 4, 2, 90);
+
+        PixelNormalizer normalizer = PixelNormalizer.PixelNormalizerZeroToOne();
+        PixelBufferLayerDescription description = new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(4, 2, 3), false, normalizer, null, false, ResizeMode.Stretch, Interpolation.Bilinear);
+
+        ByteBuffer sampled = ByteBuffer.allocateDirect(2 * 4 * 3 * 4).order(ByteOrder.nativeOrder());
+        ByteBuffer expected = ByteBuffer.allocateDirect(2 * 4 * 3 * 4).order(ByteOrder.nativeOrder());
+
+        int[] pixels = readAll(source);
+        new PixelSampler().sample(source, description, sampled, TensorLayout.NHWC);
+        normalizer.normalize(pixels, pixels.length, expected);
+
+        sampled.rewind();
+        expected.rewind();
+
+        assertEquals(expected, sampled);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadRotationThrows() {
+        YuvPixelSource.YuvPixelSourceForNV21(grayNV21(2, 2), 2, 2, 45);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testShortNV21Throws() {
+        YuvPixelSource.YuvPixelSourceForNV21(new byte[5], 2, 2, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadStridesThrow() {
+        ByteBuffer plane = ByteBuffer.allocate(16);
+        new YuvPixelSource(plane, 2, plane, plane, 2, 2, 4, 2, 0);
+    }
+}
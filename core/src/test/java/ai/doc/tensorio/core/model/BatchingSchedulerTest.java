@@ -0,0 +1,173 @@
+/*
+ * BatchingSchedulerTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.modelbundle.ModelBundle;
+
+import static org.junit.Assert.*;
+
+public class BatchingSchedulerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private FakeModel model;
+    private BatchingScheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        model = model("-1,2");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+    }
+
+    /** Doubles its input and records the size of every batch it is run on */
+
+    private FakeModel model(String shape) throws Exception {
+        ModelBundle bundle = FakeModel.bundle(folder, FakeModel.vector("x", shape, null), FakeModel.vector("y", shape, null));
+
+        return new FakeModel(bundle, (m, input) -> {
+            float[] x = (float[]) input.get("x");
+            Map<String, Object> output = new HashMap<>();
+            output.put("y", new float[]{x[0] * 2, x[1] * 2});
+            return output;
+        }) {
+            @Override
+            public Batch runOn(Batch batch) throws ModelException, IllegalArgumentException {
+                batchSizes.add(batch.size());
+                return super.runOn(batch);
+            }
+        };
+    }
+
+    private static Map<String, Object> input(float a, float b) {
+        Map<String, Object> input = new HashMap<>();
+        input.put("x", new float[]{a, b});
+        return input;
+    }
+
+    @Test
+    public void testScattersResultsToEachCaller() throws Exception {
+        scheduler = new BatchingScheduler(model, 4, 1000);
+
+        List<InferenceFuture<Map<String, Object>>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(scheduler.submit(input(i, -i)));
+        }
+
+        for (int i = 0; i < 10; i++) {
+            float[] y = (float[]) futures.get(i).get(5, TimeUnit.SECONDS).get("y");
+            assertArrayEquals(new float[]{i * 2, -i * 2}, y, 0);
+        }
+
+        int total = 0;
+        for (int size : batchSizes) {
+            assertTrue(size <= 4);
+            total += size;
+        }
+        assertEquals(10, total);
+    }
+
+    @Test
+    public void testCollectsRequestsIntoFullBatches() throws Exception {
+        // A long latency guarantees that submitted requests are collected into full batches
+
+        scheduler = new BatchingScheduler(model, 3, TimeUnit.SECONDS.toMicros(10));
+
+        List<InferenceFuture<Map<String, Object>>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(scheduler.submit(input(i, i)));
+        }
+
+        for (InferenceFuture<Map<String, Object>> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertEquals(2, batchSizes.size());
+        assertEquals(3, (int) batchSizes.get(0));
+        assertEquals(3, (int) batchSizes.get(1));
+    }
+
+    @Test
+    public void testDispatchesPartialBatchAfterLatency() throws Exception {
+        scheduler = new BatchingScheduler(model, 8, 1000);
+
+        float[] y = (float[]) scheduler.submit(input(1, 2)).get(5, TimeUnit.SECONDS).get("y");
+
+        assertArrayEquals(new float[]{2, 4}, y, 0);
+        assertEquals(1, (int) batchSizes.get(0));
+    }
+
+    @Test
+    public void testRejectsMismatchedInputKeys() throws Exception {
+        scheduler = new BatchingScheduler(model, 4, 1000);
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("z", new float[]{1, 2});
+
+        try {
+            scheduler.submit(input).get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+    }
+
+    @Test
+    public void testRejectsRequestsAfterShutdown() throws Exception {
+        scheduler = new BatchingScheduler(model, 4, 1000);
+        scheduler.shutdown();
+
+        try {
+            scheduler.submit(input(1, 2)).get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRequiresBatchedModel() throws Exception {
+        new BatchingScheduler(model("1,2"), 4, 1000);
+    }
+}
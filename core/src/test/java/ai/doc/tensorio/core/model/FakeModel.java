@@ -0,0 +1,142 @@
+/*
+ * FakeModel.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import android.graphics.Bitmap;
+
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Map;
+
+import ai.doc.tensorio.core.data.Placeholders;
+import ai.doc.tensorio.core.modelbundle.ModelBundle;
+
+/**
+ * A model for unit tests whose run on a map of inputs is supplied by each test, along with a
+ * builder for the bundles it is created from. The typed `runOn` variants are not supported.
+ */
+
+class FakeModel extends Model {
+
+    /** A model's run on a map of inputs */
+
+    interface Run {
+        Map<String, Object> run(FakeModel model, Map<String, Object> input) throws ModelException;
+    }
+
+    private final Run run;
+
+    /**
+     * A model that cannot be run on a map of inputs, for tests that override how it runs.
+     */
+
+    FakeModel(ModelBundle bundle) {
+        this(bundle, (model, input) -> {
+            throw new UnsupportedOperationException();
+        });
+    }
+
+    FakeModel(ModelBundle bundle, Run run) {
+        super(bundle);
+        this.run = run;
+    }
+
+    /**
+     * Writes a model.json with the given layers to a new folder and returns a bundle for it.
+     *
+     * @param folder The folder the bundle is created in
+     * @param inputs The JSON of the input layers, without the enclosing brackets
+     * @param outputs The JSON of the output layers, without the enclosing brackets
+     */
+
+    static ModelBundle bundle(TemporaryFolder folder, String inputs, String outputs) throws IOException, ModelBundle.ModelBundleException {
+        String json = "{" +
+                "\"name\": \"fake\", \"details\": \"\", \"id\": \"fake\", \"version\": \"1\"," +
+                "\"author\": \"\", \"license\": \"\"," +
+                "\"model\": { \"file\": \"model\", \"quantized\": false, \"class\": \"FakeModel\" }," +
+                "\"inputs\": [ " + inputs + " ]," +
+                "\"outputs\": [ " + outputs + " ]" +
+                "}";
+
+        File dir = folder.newFolder();
+        try (FileWriter writer = new FileWriter(new File(dir, "model.json"))) {
+            writer.write(json);
+        }
+
+        return ModelBundle.bundleWithFile(dir);
+    }
+
+    /**
+     * The JSON of a vector layer.
+     *
+     * @param name The layer's name
+     * @param shape The layer's shape, without the enclosing brackets
+     * @param dtype The layer's dtype, or null for the default
+     */
+
+    static String vector(String name, String shape, String dtype) {
+        return "{ \"name\": \"" + name + "\", \"type\": \"array\", \"shape\": [" + shape + "]" +
+                (dtype == null ? "" : ", \"dtype\": \"" + dtype + "\"") + " }";
+    }
+
+    @Override
+    public Map<String, Object> runOn(Map<String, Object> input) throws ModelException {
+        return run.run(this, input);
+    }
+
+    @Override
+    public Map<String, Object> runOn(Map<String, Object> input, Placeholders placeholders) throws ModelException {
+        return runOn(input);
+    }
+
+    @Override
+    public Map<String, Object> runOn(float[] input) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Object> runOn(byte[] input) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Object> runOn(int[] input) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Object> runOn(long[] input) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Object> runOn(ByteBuffer input) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Map<String, Object> runOn(Bitmap input) {
+        throw new UnsupportedOperationException();
+    }
+}
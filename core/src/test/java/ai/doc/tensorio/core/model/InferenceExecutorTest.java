@@ -0,0 +1,184 @@
+/*
+ * InferenceExecutorTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class InferenceExecutorTest {
+
+    private CountDownLatch started;
+    private CountDownLatch blocker;
+
+    @Before
+    public void setUp() throws Exception {
+        started = new CountDownLatch(1);
+        blocker = new CountDownLatch(1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        blocker.countDown();
+    }
+
+    /** Occupies the executor's single thread until the blocker is released */
+
+    private InferenceFuture<Integer> occupy(InferenceExecutor executor) throws InterruptedException {
+        InferenceFuture<Integer> future = executor.submit(() -> {
+            started.countDown();
+            blocker.await();
+            return 0;
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return future;
+    }
+
+    private static Throwable causeOf(InferenceFuture<?> future) throws InterruptedException {
+        try {
+            future.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (Exception e) {
+            fail();
+        }
+        fail();
+        return null;
+    }
+
+    @Test
+    public void testCompletesWithResult() throws Exception {
+        InferenceExecutor executor = new InferenceExecutor("test", 2, 4, InferenceExecutor.RejectionPolicy.Abort);
+        assertEquals((Integer) 42, executor.submit(() -> 42).get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCompletesExceptionallyWithThrownException() throws Exception {
+        InferenceExecutor executor = new InferenceExecutor("test", 1, 4, InferenceExecutor.RejectionPolicy.Abort);
+
+        InferenceFuture<Object> future = executor.submit(() -> {
+            throw new Model.ModelException("failed");
+        });
+
+        assertTrue(causeOf(future) instanceof Model.ModelException);
+        executor.shutdown();
+    }
+
+    @Test
+    public void testReportsQueueDepth() throws Exception {
+        InferenceExecutor executor = new InferenceExecutor("test", 1, 4, InferenceExecutor.RejectionPolicy.Abort);
+        occupy(executor);
+
+        executor.submit(() -> 1);
+        executor.submit(() -> 2);
+
+        assertEquals(2, executor.getQueueDepth());
+        assertEquals(2, executor.getRemainingCapacity());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testAbortRejectsNewWork() throws Exception {
+        InferenceExecutor executor = new InferenceExecutor("test", 1, 1, InferenceExecutor.RejectionPolicy.Abort);
+        occupy(executor);
+
+        InferenceFuture<Integer> queued = executor.submit(() -> 1);
+        InferenceFuture<Integer> rejected = executor.submit(() -> 2);
+
+        assertTrue(causeOf(rejected) instanceof RejectedExecutionException);
+
+        blocker.countDown();
+        assertEquals((Integer) 1, queued.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCallerRunsRunsOnSubmittingThread() throws Exception {
+        InferenceExecutor executor = new InferenceExecutor("test", 1, 1, InferenceExecutor.RejectionPolicy.CallerRuns);
+        occupy(executor);
+
+        executor.submit(() -> 1);
+        Thread caller = Thread.currentThread();
+        InferenceFuture<Thread> ranOn = executor.submit(Thread::currentThread);
+
+        assertTrue(ranOn.isDone());
+        assertSame(caller, ranOn.get());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testDiscardOldestRejectsOldestQueuedWork() throws Exception {
+        InferenceExecutor executor = new InferenceExecutor("test", 1, 1, InferenceExecutor.RejectionPolicy.DiscardOldest);
+        occupy(executor);
+
+        InferenceFuture<Integer> oldest = executor.submit(() -> 1);
+        InferenceFuture<Integer> newest = executor.submit(() -> 2);
+
+        assertTrue(causeOf(oldest) instanceof RejectedExecutionException);
+
+        blocker.countDown();
+        assertEquals((Integer) 2, newest.get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+    }
+
+    @Test
+    public void testCancelledWorkDoesNotRun() throws Exception {
+        InferenceExecutor executor = new InferenceExecutor("test", 1, 2, InferenceExecutor.RejectionPolicy.Abort);
+        occupy(executor);
+
+        CountDownLatch ran = new CountDownLatch(1);
+        InferenceFuture<Integer> cancelled = executor.submit(() -> {
+            ran.countDown();
+            return 1;
+        });
+        cancelled.cancel(false);
+
+        blocker.countDown();
+        assertEquals((Integer) 2, executor.submit(() -> 2).get(5, TimeUnit.SECONDS));
+        assertEquals(1, ran.getCount());
+        executor.shutdown();
+    }
+
+    @Test
+    public void testShutdownRejectsNewWork() throws Exception {
+        InferenceExecutor executor = new InferenceExecutor("test", 1, 1, InferenceExecutor.RejectionPolicy.CallerRuns);
+        executor.shutdown();
+
+        assertTrue(causeOf(executor.submit(() -> 1)) instanceof RejectedExecutionException);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroThreads() {
+        new InferenceExecutor("test", 0, 1, InferenceExecutor.RejectionPolicy.Abort);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsZeroCapacity() {
+        new InferenceExecutor("test", 1, 0, InferenceExecutor.RejectionPolicy.Abort);
+    }
+}
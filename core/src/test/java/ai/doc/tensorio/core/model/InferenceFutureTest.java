@@ -0,0 +1,130 @@
+/*
+ * InferenceFutureTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class InferenceFutureTest {
+
+    @Test
+    public void testCompletesOnce() throws Exception {
+        InferenceFuture<Integer> future = new InferenceFuture<>();
+
+        assertFalse(future.isDone());
+        assertTrue(future.complete(1));
+        assertFalse(future.complete(2));
+        assertFalse(future.completeExceptionally(new IllegalStateException()));
+        assertFalse(future.cancel(false));
+
+        assertTrue(future.isDone());
+        assertEquals(1, (int) future.get());
+    }
+
+    @Test
+    public void testGetThrowsTheWorksException() throws Exception {
+        InferenceFuture<Integer> future = new InferenceFuture<>();
+        IllegalStateException error = new IllegalStateException();
+        future.completeExceptionally(error);
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(error, e.getCause());
+        }
+    }
+
+    @Test(expected = CancellationException.class)
+    public void testGetThrowsWhenCancelled() throws Exception {
+        InferenceFuture<Integer> future = new InferenceFuture<>();
+
+        assertTrue(future.cancel(false));
+        assertTrue(future.isCancelled());
+        assertFalse(future.complete(1));
+
+        future.get();
+    }
+
+    @Test(expected = TimeoutException.class)
+    public void testGetTimesOut() throws Exception {
+        new InferenceFuture<Integer>().get(10, TimeUnit.MILLISECONDS);
+    }
+
+    @Test(timeout = 5000)
+    public void testGetWaitsForCompletion() throws Exception {
+        InferenceFuture<Integer> future = new InferenceFuture<>();
+
+        Thread completer = new Thread(() -> {
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException ignored) {
+            }
+            future.complete(1);
+        });
+
+        completer.start();
+        assertEquals(1, (int) future.get());
+        completer.join();
+    }
+
+    @Test
+    public void testCallbacks() {
+        List<Object> outcomes = new ArrayList<>();
+        InferenceFuture<Integer> future = new InferenceFuture<>();
+
+        future.whenComplete((result, error) -> outcomes.add(result));
+        assertTrue(outcomes.isEmpty());
+
+        future.complete(1);
+        assertEquals(1, outcomes.size());
+        assertEquals(1, outcomes.get(0));
+
+        // Registered after completion
+
+        future.whenComplete((result, error) -> outcomes.add(result));
+        assertEquals(2, outcomes.size());
+    }
+
+    @Test
+    public void testCallbacksRunOnExecutor() {
+        List<Runnable> posted = new ArrayList<>();
+        List<Throwable> errors = new ArrayList<>();
+        InferenceFuture<Integer> future = new InferenceFuture<>();
+
+        future.whenComplete(posted::add, (result, error) -> errors.add(error));
+        future.cancel(false);
+
+        assertEquals(1, posted.size());
+        assertTrue(errors.isEmpty());
+
+        posted.get(0).run();
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof CancellationException);
+    }
+}
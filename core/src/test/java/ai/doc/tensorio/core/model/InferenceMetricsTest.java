@@ -0,0 +1,155 @@
+/*
+ * InferenceMetricsTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class InferenceMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeModel model;
+    private Map<String, Object> input;
+
+    /** Instruments its run the way the backends do, spending a known time in the invoke stage */
+
+    private static Map<String, Object> run(FakeModel model, Map<String, Object> input) throws Model.ModelException {
+        InferenceMetrics metrics = model.startMetrics();
+
+        model.validateInput(input);
+        model.load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+
+        float[] x = (float[]) input.get("x");
+        metrics.addCacheLookup(true);
+        metrics.addBytesCopied(x.length * 4);
+        metrics.lap(InferenceMetrics.Stage.InputConversion);
+
+        try {
+            Thread.sleep(5);
+        } catch (InterruptedException e) {
+            throw new Model.ModelException("Interrupted", e);
+        }
+        metrics.lap(InferenceMetrics.Stage.Invoke);
+
+        Map<String, Object> output = new HashMap<>();
+        output.put("y", x.clone());
+        metrics.addBytesCopied(x.length * 4);
+        metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+        model.reportMetrics(metrics);
+        return output;
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        model = new FakeModel(FakeModel.bundle(folder, FakeModel.vector("x", "4", null), FakeModel.vector("y", "4", null)), InferenceMetricsTest::run);
+        input = new HashMap<>();
+        input.put("x", new float[]{1, 2, 3, 4});
+    }
+
+    @Test
+    public void testNoMetricsWithoutListener() {
+        assertNull(model.getMetricsListener());
+        assertFalse(model.startMetrics().isEnabled());
+    }
+
+    @Test
+    public void testReportsStagesToListener() throws Exception {
+        List<Long> invokeDurations = new ArrayList<>();
+        List<Long> bytesCopied = new ArrayList<>();
+
+        model.setMetricsListener((m, metrics) -> {
+            assertSame(model, m);
+            invokeDurations.add(metrics.getDuration(InferenceMetrics.Stage.Invoke));
+            bytesCopied.add(metrics.getBytesCopied());
+
+            assertEquals(1, metrics.getCacheHits());
+            assertEquals(0, metrics.getCacheMisses());
+            assertEquals(1, metrics.getBatchSize());
+            assertTrue(metrics.getTotalDuration() >= metrics.getDuration(InferenceMetrics.Stage.Invoke));
+        });
+
+        model.runOn(input);
+        model.runOn(input);
+
+        assertEquals(2, invokeDurations.size());
+        assertTrue(invokeDurations.get(1) >= 5_000_000L);
+        assertEquals(32L, (long) bytesCopied.get(1));
+    }
+
+    @Test
+    public void testReusesMetricsPerThread() {
+        model.setMetricsListener((m, metrics) -> {});
+
+        InferenceMetrics first = model.startMetrics();
+        first.addBytesCopied(10);
+
+        InferenceMetrics second = model.startMetrics();
+
+        assertSame(first, second);
+        assertEquals(0, second.getBytesCopied());
+    }
+
+    @Test
+    public void testHistogramListener() throws Exception {
+        HistogramMetricsListener histograms = new HistogramMetricsListener(16);
+        model.setMetricsListener(histograms);
+
+        for (int i = 0; i < 3; i++) {
+            model.runOn(input);
+        }
+
+        assertEquals(3, histograms.getCount());
+        assertEquals(96, histograms.getBytesCopied());
+        assertEquals(3, histograms.getCacheHits());
+        assertEquals(0, histograms.getCacheMisses());
+        assertTrue(histograms.getHistogram(InferenceMetrics.Stage.Invoke).p50() >= 5_000_000L);
+        assertTrue(histograms.getTotalHistogram().p99() >= histograms.getHistogram(InferenceMetrics.Stage.Invoke).p99());
+
+        histograms.reset();
+
+        assertEquals(0, histograms.getCount());
+        assertEquals(0, histograms.getBytesCopied());
+    }
+
+    @Test
+    public void testStopsReportingWhenListenerRemoved() throws Exception {
+        HistogramMetricsListener histograms = new HistogramMetricsListener(16);
+        model.setMetricsListener(histograms);
+        model.runOn(input);
+
+        model.setMetricsListener(null);
+        model.runOn(input);
+
+        assertEquals(1, histograms.getCount());
+    }
+}
@@ -20,7 +20,16 @@
 
 package ai.doc.tensorio.core.model;
 
+import org.json.JSONObject;
 import org.junit.After;
+import org.junit.Test;
+
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+import ai.doc.tensorio.core.modelbundle.JSONParsing;
+import ai.doc.tensorio.core.modelbundle.ModelBundle.ModelBundleException;
+
+import static org.junit.Assert.*;
 
 // TODO: Write tests (#15)
 
@@ -29,4 +38,34 @@ public class JSONParsingTest {
     @After
     public void tearDown() throws Exception {
     }
+
+    private static VectorLayerDescription parseVector(String json) throws Exception {
+        LayerInterface layer = JSONParsing.parseVectorDescription(null, new JSONObject(json), LayerInterface.Mode.Input, false);
+        return (VectorLayerDescription) layer.getLayerDescription();
+    }
+
+    @Test
+    public void testParsesDynamicDimension() throws Exception {
+        VectorLayerDescription fixed = parseVector("{ \"name\": \"a\", \"shape\": [-1, 16] }");
+        VectorLayerDescription dynamic = parseVector("{ \"name\": \"a\", \"shape\": [-1, -1, 4], \"dtype\": \"int32\" }");
+
+        assertFalse(fixed.isDynamic());
+        assertTrue(fixed.isBatched());
+
+        assertTrue(dynamic.isDynamic());
+        assertEquals(1, dynamic.getDynamicDimension());
+        assertEquals(4, dynamic.getLength());
+        assertArrayEquals(new int[]{-1, 3, 4}, dynamic.resolveShape(12));
+        assertEquals(12, dynamic.withShape(dynamic.resolveShape(12)).getLength());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDynamicShapeRejectsPartialUnits() throws Exception {
+        parseVector("{ \"name\": \"a\", \"shape\": [1, -1, 4] }").resolveShape(10);
+    }
+
+    @Test(expected = ModelBundleException.class)
+    public void testRejectsMultipleDynamicDimensions() throws Exception {
+        parseVector("{ \"name\": \"a\", \"shape\": [1, -1, -1] }");
+    }
 }
\ No newline at end of file
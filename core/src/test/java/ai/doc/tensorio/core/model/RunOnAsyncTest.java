@@ -0,0 +1,97 @@
+/*
+ * RunOnAsyncTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class RunOnAsyncTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeModel model;
+    private Map<String, Object> input;
+
+    /** Doubles its input */
+
+    @Before
+    public void setUp() throws Exception {
+        model = new FakeModel(FakeModel.bundle(folder, FakeModel.vector("x", "2", null), FakeModel.vector("y", "2", null)), (m, in) -> {
+            float[] x = (float[]) in.get("x");
+            Map<String, Object> output = new HashMap<>();
+            output.put("y", new float[]{x[0] * 2, x[1] * 2});
+            return output;
+        });
+
+        input = new HashMap<>();
+        input.put("x", new float[]{1, 2});
+    }
+
+    @Test
+    public void testRunsOnExecutor() throws Exception {
+        float[] y = (float[]) model.runOnAsync(input).get(5, TimeUnit.SECONDS).get("y");
+
+        assertArrayEquals(new float[]{2, 4}, y, 0);
+        assertEquals(0, model.getAsyncQueueDepth());
+    }
+
+    @Test(timeout = 5000)
+    public void testDoesNotWaitForModelLifecycle() throws Exception {
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Backends hold the model's monitor while loading, which async requests must not wait for
+
+        Thread loader = new Thread(() -> {
+            synchronized (model) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException ignored) {
+                }
+            }
+        });
+
+        loader.start();
+        assertTrue(locked.await(5, TimeUnit.SECONDS));
+
+        try {
+            model.setAsyncThreadCount(1);
+            assertEquals(1, model.getAsyncThreadCount());
+            assertEquals(0, model.getAsyncQueueDepth());
+
+            float[] y = (float[]) model.runOnAsync(input).get(5, TimeUnit.SECONDS).get("y");
+            assertArrayEquals(new float[]{2, 4}, y, 0);
+        } finally {
+            release.countDown();
+            loader.join();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * RunOnIntoTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ai.doc.tensorio.core.modelbundle.ModelBundle;
+
+import static org.junit.Assert.*;
+
+public class RunOnIntoTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeModel model;
+    private Map<String, Object> inputs;
+
+    /** Doubles its input into y and sums it into z */
+
+    @Before
+    public void setUp() throws Exception {
+        ModelBundle bundle = FakeModel.bundle(folder,
+                FakeModel.vector("x", "2", null),
+                FakeModel.vector("y", "2", null) + "," + FakeModel.vector("z", "1", null));
+
+        model = new FakeModel(bundle, (m, input) -> {
+            float[] x = (float[]) input.get("x");
+            Map<String, Object> output = new HashMap<>();
+            output.put("y", new float[]{x[0] * 2, x[1] * 2});
+            output.put("z", new float[]{x[0] + x[1]});
+            return output;
+        });
+
+        inputs = new HashMap<>();
+        inputs.put("x", new float[]{1, 2});
+    }
+
+    @Test
+    public void testWritesIntoDestinations() throws Exception {
+        float[] y = new float[2];
+        float[] z = new float[1];
+
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("y", y);
+        outputs.put("z", z);
+
+        model.runOnInto(inputs, outputs);
+
+        assertArrayEquals(new float[]{2, 4}, y, 0);
+        assertArrayEquals(new float[]{3}, z, 0);
+    }
+
+    @Test
+    public void testCapturesOnlyRequestedOutputs() throws Exception {
+        float[] z = new float[1];
+
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("z", z);
+
+        model.runOnInto(inputs, outputs);
+
+        assertArrayEquals(new float[]{3}, z, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnknownOutput() throws Exception {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("w", new float[2]);
+
+        model.runOnInto(inputs, outputs);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsDestinationOfWrongLength() throws Exception {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("y", new float[3]);
+
+        model.runOnInto(inputs, outputs);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsDestinationOfWrongType() throws Exception {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("y", new int[2]);
+
+        model.runOnInto(inputs, outputs);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsMissingInput() throws Exception {
+        Map<String, Object> outputs = new HashMap<>();
+        outputs.put("y", new float[2]);
+
+        model.runOnInto(new HashMap<>(), outputs);
+    }
+}
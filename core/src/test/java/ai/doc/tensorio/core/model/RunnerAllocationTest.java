@@ -0,0 +1,88 @@
+/*
+ * RunnerAllocationTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import ai.doc.tensorio.core.modelbundle.ModelBundle;
+import ai.doc.tensorio.core.utilities.AllocationCounter;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class RunnerAllocationTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final int WARMUPS = 10_000;
+    private static final int ITERATIONS = 10_000;
+
+    private Runner runner;
+
+    @Before
+    public void setUp() throws Exception {
+        assumeTrue(AllocationCounter.isSupported());
+
+        ModelBundle bundle = FakeModel.bundle(folder, FakeModel.vector("x", "4", null), FakeModel.vector("y", "4", null));
+
+        // Doubles its input directly into the output destination without allocating
+
+        runner = new FakeModel(bundle) {
+            @Override
+            protected void runIndexedInto(Object[] inputs, Object[] outputs) {
+                float[] x = (float[]) inputs[0];
+                float[] y = (float[]) outputs[0];
+
+                for (int i = 0; i < x.length; i++) {
+                    y[i] = x[i] * 2;
+                }
+            }
+        }.prepare();
+    }
+
+    @Test
+    public void testCounterDetectsAllocation() throws Exception {
+        float[][] sink = new float[1][];
+
+        double bytes = AllocationCounter.bytesPerCall(WARMUPS, ITERATIONS, () -> {
+            sink[0] = new float[4];
+        });
+
+        assertTrue(bytes >= 16);
+    }
+
+    @Test
+    public void testRunDoesNotAllocate() throws Exception {
+        float[] input = new float[]{1, 2, 3, 4};
+        int x = runner.getInputIndex("x");
+
+        double bytes = AllocationCounter.bytesPerCall(WARMUPS, ITERATIONS, () -> {
+            runner.setInput(x, input);
+            runner.run();
+        });
+
+        assertEquals(0, bytes, 1);
+        assertArrayEquals(new float[]{2, 4, 6, 8}, runner.getFloats(0), 0);
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * RunnerTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import ai.doc.tensorio.core.modelbundle.ModelBundle;
+
+import static org.junit.Assert.*;
+
+public class RunnerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeModel model;
+    private Runner runner;
+    private long runs = 0;
+
+    /** Adds its inputs and counts the number of times it has been run */
+
+    @Before
+    public void setUp() throws Exception {
+        ModelBundle bundle = FakeModel.bundle(folder,
+                FakeModel.vector("a", "2", null) + "," + FakeModel.vector("b", "2", "int64"),
+                FakeModel.vector("sum", "2", null) + "," + FakeModel.vector("count", "1", "int64"));
+
+        model = new FakeModel(bundle, (m, input) -> {
+            float[] a = (float[]) input.get("a");
+            long[] b = (long[]) input.get("b");
+            Map<String, Object> output = new HashMap<>();
+            output.put("sum", new float[]{a[0] + b[0], a[1] + b[1]});
+            output.put("count", new long[]{++runs});
+            return output;
+        });
+
+        runner = model.prepare();
+    }
+
+    @Test
+    public void testPrepareLoadsModel() {
+        assertTrue(model.isLoaded());
+        assertSame(model, runner.getModel());
+    }
+
+    @Test
+    public void testResolvesLayerIndices() {
+        assertEquals(0, runner.getInputIndex("a"));
+        assertEquals(1, runner.getInputIndex("b"));
+        assertEquals(0, runner.getOutputIndex("sum"));
+        assertEquals(1, runner.getOutputIndex("count"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsUnknownLayerName() {
+        runner.getInputIndex("sum");
+    }
+
+    @Test
+    public void testPreallocatesTypedOutputs() {
+        assertEquals(2, runner.getFloats(0).length);
+        assertEquals(1, runner.getLongs(1).length);
+    }
+
+    @Test
+    public void testRunsAndReusesOutputs() throws Exception {
+        float[] sum = runner.getFloats(0);
+        long[] count = runner.getLongs(1);
+
+        runner.setInput(0, new float[]{1, 2}).setInput(1, new long[]{10, 20}).run();
+
+        assertArrayEquals(new float[]{11, 22}, sum, 0);
+        assertArrayEquals(new long[]{1}, count);
+
+        runner.setInput(0, new float[]{3, 4}).run();
+
+        assertSame(sum, runner.getFloats(0));
+        assertArrayEquals(new float[]{13, 24}, sum, 0);
+        assertArrayEquals(new long[]{2}, count);
+    }
+
+    @Test
+    public void testWritesIntoSuppliedOutput() throws Exception {
+        float[] sum = new float[2];
+
+        runner.setOutput(0, sum);
+        runner.setInput(0, new float[]{1, 2}).setInput(1, new long[]{1, 1}).run();
+
+        assertSame(sum, runner.getOutput(0));
+        assertArrayEquals(new float[]{2, 3}, sum, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInputOfWrongLength() {
+        runner.setInput(0, new float[]{1, 2, 3});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsRunWithMissingInput() throws Exception {
+        runner.setInput(0, new float[]{1, 2}).run();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsGetterOfWrongType() {
+        runner.getInts(0);
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * WarmUpTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.model;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ai.doc.tensorio.core.modelbundle.ModelBundle;
+
+import static org.junit.Assert.*;
+
+public class WarmUpTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private FakeModel model;
+    private final List<Boolean> reported = new ArrayList<>();
+    private final List<Long> validation = new ArrayList<>();
+    private long runs = 0;
+    private boolean fail = false;
+
+    /**
+     * Checks the types of its inputs, counts the number of times it has been run, and reports
+     * metrics, loading itself on its first run like the backends do
+     */
+
+    @Before
+    public void setUp() throws Exception {
+        ModelBundle bundle = FakeModel.bundle(folder,
+                FakeModel.vector("a", "2", null) + "," + FakeModel.vector("b", "3", "int64"),
+                FakeModel.vector("count", "1", "int64"));
+
+        model = new FakeModel(bundle, (m, input) -> {
+            InferenceMetrics metrics = m.startMetrics();
+
+            if (!m.isLoaded()) {
+                m.load();
+            }
+
+            metrics.lap(InferenceMetrics.Stage.Validation);
+
+            if (fail) {
+                throw new Model.ModelException("Failed");
+            }
+
+            assertEquals(2, ((float[]) input.get("a")).length);
+            assertEquals(3, ((long[]) input.get("b")).length);
+
+            Map<String, Object> output = new HashMap<>();
+            output.put("count", new long[]{++runs});
+
+            m.reportMetrics(metrics);
+            return output;
+        });
+
+        model.setMetricsListener((m, metrics) -> {
+            reported.add(metrics.isWarmUp());
+            validation.add(metrics.getDuration(InferenceMetrics.Stage.Validation));
+        });
+    }
+
+    @Test
+    public void testNoWarmUpByDefault() throws Exception {
+        model.load();
+
+        assertEquals(0, model.getWarmUpRuns());
+        assertEquals(0, runs);
+        assertEquals(0, model.getWarmUpDuration());
+    }
+
+    @Test
+    public void testWarmsUpOnLoadAndReload() throws Exception {
+        model.setWarmUpRuns(3);
+        model.load();
+
+        assertTrue(model.isLoaded());
+        assertEquals(3, runs);
+        assertTrue(model.getWarmUpDuration() > 0);
+
+        model.reload();
+        assertEquals(6, runs);
+    }
+
+    @Test
+    public void testReportsWarmUpMetrics() throws Exception {
+        model.setWarmUpRuns(2);
+        model.load();
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("a", new float[2]);
+        input.put("b", new long[3]);
+        model.runOn(input);
+
+        assertEquals(3, reported.size());
+        assertTrue(reported.get(0));
+        assertTrue(reported.get(1));
+        assertFalse(reported.get(2));
+    }
+
+    @Test
+    public void testWarmUpOnFirstRunDoesNotResetItsMetrics() throws Exception {
+        model.setWarmUpRuns(2);
+
+        Map<String, Object> input = new HashMap<>();
+        input.put("a", new float[2]);
+        input.put("b", new long[3]);
+        model.runOn(input);
+
+        assertTrue(model.isLoaded());
+        assertEquals(3, runs);
+
+        // The warm-up runs nested in the first run report first
+
+        assertEquals(3, reported.size());
+        assertTrue(reported.get(0));
+        assertTrue(reported.get(1));
+        assertFalse(reported.get(2));
+
+        // The first run's validation includes the load and its warm-up
+
+        assertTrue(validation.get(2) >= model.getWarmUpDuration());
+    }
+
+    @Test
+    public void testFailedWarmUpUnloads() {
+        model.setWarmUpRuns(1);
+        fail = true;
+
+        try {
+            model.load();
+            fail();
+        } catch (Model.ModelException e) {
+            assertFalse(model.isLoaded());
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsNegativeRuns() {
+        model.setWarmUpRuns(-1);
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * AllocationCounter.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts the Java heap bytes the calling thread allocates while running a piece of code, used by
+ * tests that guard the steady state inference path against allocation regressions.
+ *
+ * Relies on HotSpot's `com.sun.management.ThreadMXBean` and is only available to unit tests that
+ * run on a desktop JVM. Check `isSupported()` before counting, for example with `Assume`.
+ */
+
+public class AllocationCounter {
+
+    /** Code under measurement, which may throw */
+
+    public interface Call {
+        void run() throws Exception;
+    }
+
+    private static final com.sun.management.ThreadMXBean threadBean = threadBean();
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+
+        com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+
+        if (!sunBean.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+
+        sunBean.setThreadAllocatedMemoryEnabled(true);
+        return sunBean;
+    }
+
+    /** True if the JVM can report the bytes allocated by a thread */
+
+    public static boolean isSupported() {
+        return threadBean != null;
+    }
+
+    /**
+     * Runs a call repeatedly to warm it up and then returns the average number of bytes the calling
+     * thread allocated per call, less the cost of measuring. Any allocation on every call results in
+     * an average of at least 16 bytes, while a result below 1 means the call does not allocate in
+     * the steady state.
+     *
+     * @param warmups The number of calls made before measuring, which give caches a chance to fill
+     *                and the JIT a chance to compile the call
+     * @param iterations The number of calls to measure
+     * @param call The code to measure
+     */
+
+    public static double bytesPerCall(int warmups, int iterations, Call call) throws Exception {
+        long threadId = Thread.currentThread().getId();
+
+        for (int i = 0; i < warmups; i++) {
+            call.run();
+        }
+
+        // Measure the cost of measuring, which some JVMs report as a small allocation
+
+        long baselineStart = threadBean.getThreadAllocatedBytes(threadId);
+        long baselineEnd = threadBean.getThreadAllocatedBytes(threadId);
+        long baseline = baselineEnd - baselineStart;
+
+        long start = threadBean.getThreadAllocatedBytes(threadId);
+
+        for (int i = 0; i < iterations; i++) {
+            call.run();
+        }
+
+        long end = threadBean.getThreadAllocatedBytes(threadId);
+
+        return Math.max(0, end - start - baseline) / (double) iterations;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * ByteBuffersTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class ByteBuffersTest {
+
+    @Test
+    public void testSliceAddressesRegion() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4 * 6).order(ByteOrder.nativeOrder());
+        buffer.asFloatBuffer().put(new float[]{0, 1, 2, 3, 4, 5});
+
+        ByteBuffer slice = ByteBuffers.slice(buffer, 8, 12);
+        float[] values = new float[3];
+        slice.asFloatBuffer().get(values);
+
+        assertEquals(12, slice.capacity());
+        assertArrayEquals(new float[]{2, 3, 4}, values, 0);
+    }
+
+    @Test
+    public void testSliceKeepsByteOrder() {
+        ByteBuffer little = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer big = ByteBuffer.allocate(8).order(ByteOrder.BIG_ENDIAN);
+
+        assertEquals(ByteOrder.LITTLE_ENDIAN, ByteBuffers.slice(little, 4, 4).order());
+        assertEquals(ByteOrder.BIG_ENDIAN, ByteBuffers.slice(big, 4, 4).order());
+    }
+
+    @Test
+    public void testSliceSharesContentAndLeavesBufferUntouched() {
+        ByteBuffer buffer = ByteBuffer.allocate(8);
+        buffer.position(3);
+
+        ByteBuffers.slice(buffer, 4, 4).put(0, (byte) 7);
+
+        assertEquals(7, buffer.get(4));
+        assertEquals(3, buffer.position());
+        assertEquals(8, buffer.limit());
+    }
+
+    @Test
+    public void testZeroCopyRequiresDirectNativeExactBuffer() {
+        ByteOrder foreign = ByteOrder.nativeOrder() == ByteOrder.LITTLE_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        ByteBuffer direct = ByteBuffer.allocateDirect(16).order(ByteOrder.nativeOrder());
+
+        assertTrue(ByteBuffers.isZeroCopy(direct, 16));
+        assertTrue(ByteBuffers.isZeroCopy(ByteBuffers.slice(direct, 8, 8), 8));
+
+        assertFalse(ByteBuffers.isZeroCopy(direct, 12));
+        assertFalse(ByteBuffers.isZeroCopy(ByteBuffer.allocate(16).order(ByteOrder.nativeOrder()), 16));
+        assertFalse(ByteBuffers.isZeroCopy(ByteBuffer.allocateDirect(16).order(foreign), 16));
+
+        direct.position(4);
+        assertFalse(ByteBuffers.isZeroCopy(direct, 16));
+    }
+
+    @Test
+    public void testCopyWritesRemainingBytes() {
+        ByteBuffer src = ByteBuffer.wrap(new byte[]{9, 1, 2, 3});
+        src.position(1);
+
+        ByteBuffer dst = ByteBuffer.allocateDirect(3);
+        dst.position(2);
+
+        assertSame(dst, ByteBuffers.copy(src, dst, 3));
+        assertEquals(1, dst.get(0));
+        assertEquals(2, dst.get(1));
+        assertEquals(3, dst.get(2));
+        assertEquals(0, dst.position());
+        assertEquals(1, src.position());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCopyOfWrongLengthThrows() {
+        ByteBuffers.copy(ByteBuffer.allocate(4), ByteBuffer.allocate(8), 8);
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * HalfFloatsTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class HalfFloatsTest {
+
+    @Test
+    public void testKnownValues() {
+        assertEquals((short) 0x0000, HalfFloats.toHalf(0f));
+        assertEquals((short) 0x8000, HalfFloats.toHalf(-0f));
+        assertEquals((short) 0x3C00, HalfFloats.toHalf(1f));
+        assertEquals((short) 0xC000, HalfFloats.toHalf(-2f));
+        assertEquals((short) 0x2E66, HalfFloats.toHalf(0.1f));
+        assertEquals((short) 0x7BFF, HalfFloats.toHalf(65504f));
+        assertEquals((short) 0x0001, HalfFloats.toHalf(0x1p-24f));
+        assertEquals((short) 0x0400, HalfFloats.toHalf(0x1p-14f));
+
+        assertEquals(1f, HalfFloats.toFloat((short) 0x3C00), 0);
+        assertEquals(-2f, HalfFloats.toFloat((short) 0xC000), 0);
+        assertEquals(65504f, HalfFloats.toFloat((short) 0x7BFF), 0);
+        assertEquals(0x1p-24f, HalfFloats.toFloat((short) 0x0001), 0);
+    }
+
+    @Test
+    public void testRoundsToNearestEven() {
+        // Halfway between 1 and the next half, 1 + 2^-10, rounds down to the even 1
+
+        assertEquals((short) 0x3C00, HalfFloats.toHalf(1f + 0x1p-11f));
+        assertEquals((short) 0x3C01, HalfFloats.toHalf(1f + 0x1p-11f + 0x1p-20f));
+
+        // Halfway between 1 + 2^-10 and 1 + 2^-9 rounds up to the even 1 + 2^-9
+
+        assertEquals((short) 0x3C02, HalfFloats.toHalf(1f + 0x1p-10f + 0x1p-11f));
+
+        // Halfway between zero and the smallest subnormal rounds down to zero
+
+        assertEquals((short) 0x0000, HalfFloats.toHalf(0x1p-25f));
+        assertEquals((short) 0x0001, HalfFloats.toHalf(0x1.8p-25f));
+    }
+
+    @Test
+    public void testSpecialValues() {
+        assertEquals((short) 0x7C00, HalfFloats.toHalf(Float.POSITIVE_INFINITY));
+        assertEquals((short) 0xFC00, HalfFloats.toHalf(Float.NEGATIVE_INFINITY));
+        assertEquals((short) 0x7C00, HalfFloats.toHalf(65520f));
+        assertEquals((short) 0x7C00, HalfFloats.toHalf(1e10f));
+        assertEquals((short) 0x0000, HalfFloats.toHalf(1e-10f));
+
+        assertTrue(Float.isNaN(HalfFloats.toFloat(HalfFloats.toHalf(Float.NaN))));
+        assertEquals(Float.POSITIVE_INFINITY, HalfFloats.toFloat((short) 0x7C00), 0);
+    }
+
+    @Test
+    public void testEveryHalfRoundTrips() {
+        for (int bits = 0; bits <= 0xFFFF; bits++) {
+            short half = (short) bits;
+            float value = HalfFloats.toFloat(half);
+
+            if (Float.isNaN(value)) {
+                assertTrue(Float.isNaN(HalfFloats.toFloat(HalfFloats.toHalf(value))));
+            } else {
+                assertEquals(half, HalfFloats.toHalf(value));
+            }
+        }
+    }
+
+    @Test
+    public void testPutAndGet() {
+        float[] values = new float[]{0f, 1f, -0.5f, 3.140625f, 1024f};
+        float[] read = new float[values.length];
+        ByteBuffer buffer = ByteBuffer.allocateDirect(values.length * 2).order(ByteOrder.nativeOrder());
+
+        HalfFloats.put(buffer, values);
+        assertEquals(values.length * 2, buffer.position());
+
+        buffer.rewind();
+        HalfFloats.get(buffer, read);
+
+        assertArrayEquals(values, read, 0);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * MappedFilesTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class MappedFilesTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File write(String name, byte[] bytes) throws IOException {
+        File file = new File(folder.getRoot(), name);
+        try (FileOutputStream outputStream = new FileOutputStream(file)) {
+            outputStream.write(bytes);
+        }
+        return file;
+    }
+
+    @Test
+    public void testMapsFile() throws IOException {
+        File file = write("model", new byte[]{1, 2, 3});
+        MappedByteBuffer buffer = MappedFiles.acquire(file, false);
+
+        assertEquals(3, buffer.capacity());
+        assertEquals(3, buffer.get(2));
+
+        MappedFiles.release(buffer);
+    }
+
+    @Test
+    public void testSharesMappingUntilReleased() throws IOException {
+        File file = write("model", new byte[]{1, 2, 3, 4});
+
+        MappedByteBuffer first = MappedFiles.acquire(file, false);
+        MappedByteBuffer second = MappedFiles.acquire(new File(folder.getRoot(), "./model"), true);
+
+        assertSame(first, second);
+        assertEquals(2, MappedFiles.references(first));
+
+        MappedFiles.release(first);
+        assertEquals(1, MappedFiles.references(first));
+
+        MappedFiles.release(second);
+        assertEquals(0, MappedFiles.references(first));
+
+        MappedByteBuffer third = MappedFiles.acquire(file, false);
+        assertNotSame(first, third);
+
+        MappedFiles.release(third);
+    }
+
+    @Test
+    public void testDropsReleasedMappings() throws IOException {
+        int size = MappedFiles.size();
+        File file = write("model", new byte[]{1, 2});
+
+        MappedByteBuffer buffer = MappedFiles.acquire(file, false);
+        assertEquals(size + 1, MappedFiles.size());
+
+        MappedFiles.release(buffer);
+        assertEquals(size, MappedFiles.size());
+    }
+
+    @Test
+    public void testRemapsChangedFile() throws IOException {
+        File file = write("model", new byte[]{1, 2});
+        MappedByteBuffer first = MappedFiles.acquire(file, false);
+
+        write("model", new byte[]{1, 2, 3});
+        MappedByteBuffer second = MappedFiles.acquire(file, false);
+
+        assertNotSame(first, second);
+        assertEquals(3, second.capacity());
+
+        MappedFiles.release(first);
+        MappedFiles.release(second);
+    }
+
+    @Test
+    public void testIgnoresUncachedBuffer() throws IOException {
+        File file = write("model", new byte[]{1});
+        MappedByteBuffer buffer = MappedFiles.acquire(file, false);
+
+        MappedFiles.release(buffer);
+        MappedFiles.release(buffer);
+
+        assertEquals(0, MappedFiles.references(buffer));
+    }
+}
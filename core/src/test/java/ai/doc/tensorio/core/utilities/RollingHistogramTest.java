@@ -0,0 +1,117 @@
+/*
+ * RollingHistogramTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RollingHistogramTest {
+
+    @Test
+    public void testEmptyHistogramReportsZero() {
+        RollingHistogram histogram = new RollingHistogram(10);
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.p50());
+        assertEquals(0, histogram.p99());
+    }
+
+    @Test
+    public void testPercentiles() {
+        RollingHistogram histogram = new RollingHistogram(100);
+
+        // Record 1 through 100 out of order
+
+        for (int i = 0; i < 100; i++) {
+            histogram.record((i * 37) % 100 + 1);
+        }
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(1, histogram.percentile(0));
+        assertEquals(50, histogram.p50());
+        assertEquals(95, histogram.p95());
+        assertEquals(99, histogram.p99());
+        assertEquals(100, histogram.percentile(1));
+    }
+
+    @Test
+    public void testKeepsMostRecentSamples() {
+        RollingHistogram histogram = new RollingHistogram(4);
+
+        for (int i = 1; i <= 4; i++) {
+            histogram.record(1000);
+        }
+        for (int i = 1; i <= 4; i++) {
+            histogram.record(i);
+        }
+
+        assertEquals(8, histogram.getCount());
+        assertEquals(2, histogram.p50());
+        assertEquals(4, histogram.p99());
+    }
+
+    @Test
+    public void testReset() {
+        RollingHistogram histogram = new RollingHistogram(4);
+        histogram.record(10);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.p50());
+    }
+
+    @Test
+    public void testConcurrentRecording() throws Exception {
+        RollingHistogram histogram = new RollingHistogram(1000);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(7);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(40_000, histogram.getCount());
+        assertEquals(7, histogram.p50());
+        assertEquals(7, histogram.p99());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidPercentile() {
+        new RollingHistogram(4).percentile(1.5);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRejectsInvalidCapacity() {
+        new RollingHistogram(0);
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * StripesTest.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.core.utilities;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.*;
+
+public class StripesTest {
+
+    @Test
+    public void testEveryRowRunsOnce() {
+        int rows = 1000;
+        AtomicIntegerArray counts = new AtomicIntegerArray(rows);
+
+        Stripes.run(rows, (start, end) -> {
+            for (int i = start; i < end; i++) {
+                counts.incrementAndGet(i);
+            }
+        });
+
+        for (int i = 0; i < rows; i++) {
+            assertEquals(1, counts.get(i));
+        }
+    }
+
+    @Test
+    public void testFewRowsRunOnCallingThread() {
+        Thread caller = Thread.currentThread();
+        Thread[] ran = new Thread[1];
+
+        Stripes.run(4, (start, end) -> {
+            assertEquals(0, start);
+            assertEquals(4, end);
+            ran[0] = Thread.currentThread();
+        });
+
+        assertSame(caller, ran[0]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testExceptionIsRethrown() {
+        Stripes.run(1000, (start, end) -> {
+            if (start == 0) {
+                throw new IllegalStateException();
+            }
+        });
+    }
+}
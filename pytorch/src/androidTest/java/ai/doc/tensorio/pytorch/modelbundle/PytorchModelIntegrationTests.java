@@ -33,6 +33,8 @@ import androidx.test.platform.app.InstrumentationRegistry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
+import org.pytorch.DType;
+import org.pytorch.Tensor;
 
 import java.io.File;
 import java.io.IOException;
@@ -43,11 +45,18 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
+import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.Interpolation;
 import ai.doc.tensorio.core.model.Model.ModelException;
+import ai.doc.tensorio.core.model.PixelFormat;
+import ai.doc.tensorio.core.model.ResizeMode;
+import ai.doc.tensorio.core.model.TensorLayout;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle.ModelBundleException;
 import ai.doc.tensorio.core.utilities.AndroidAssets;
 import ai.doc.tensorio.core.utilities.ClassificationHelper;
+import ai.doc.tensorio.pytorch.data.BitmapConverter;
 import ai.doc.tensorio.pytorch.model.PytorchModel;
 
 import static org.junit.Assert.assertArrayEquals;
@@ -728,6 +737,46 @@ public class PytorchModelIntegrationTests {
         }
     }
 
+    @Test
+    public void testPixelBufferLayoutsAndQuantization() {
+        int width = 4;
+        int height = 3;
+
+        Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        bmp.eraseColor(Color.rgb(89, 0, 84));
+
+        BitmapConverter converter = new BitmapConverter();
+
+        for (TensorLayout layout : TensorLayout.values()) {
+            for (boolean quantized : new boolean[]{false, true}) {
+                PixelBufferLayerDescription description = new PixelBufferLayerDescription(PixelFormat.RGB, new ImageVolume(height, width, 3), false, null, null, quantized, ResizeMode.Stretch, Interpolation.Nearest, layout);
+
+                long[] shape = layout == TensorLayout.NHWC
+                        ? new long[]{1, height, width, 3}
+                        : new long[]{1, 3, height, width};
+
+                // A single item and a batch of items
+
+                Tensor single = converter.toTensor(bmp, description, null);
+                Tensor batch = converter.toTensor(new Object[]{bmp, bmp}, description, null);
+
+                assertArrayEquals(shape, single.shape());
+                assertEquals(2, batch.shape()[0]);
+                assertEquals(quantized ? DType.UINT8 : DType.FLOAT32, single.dtype());
+                assertEquals(quantized ? DType.UINT8 : DType.FLOAT32, batch.dtype());
+
+                if (quantized) {
+                    byte[] bytes = single.getDataAsUnsignedByteArray();
+                    int red = 0;
+                    int blue = layout == TensorLayout.NHWC ? 2 : 2 * width * height;
+
+                    assertEquals(89, bytes[red] & 0xFF);
+                    assertEquals(84, bytes[blue] & 0xFF);
+                }
+            }
+        }
+    }
+
     //region MobileNet tests
 
     @Test
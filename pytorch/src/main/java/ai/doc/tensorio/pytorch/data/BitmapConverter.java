@@ -32,40 +32,110 @@ import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.EncodedImageDecoder;
 import ai.doc.tensorio.core.data.PixelDenormalizer;
 import ai.doc.tensorio.core.data.PixelNormalizer;
+import ai.doc.tensorio.core.data.PixelReader;
+import ai.doc.tensorio.core.data.PixelSampler;
+import ai.doc.tensorio.core.data.PixelSource;
 import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
 import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.TensorLayout;
+import ai.doc.tensorio.core.utilities.ByteBuffers;
+import ai.doc.tensorio.core.utilities.BitmapPool;
 
 /**
  * The Pytorch pixel data converter transforms bitmaps into Tensors for use as inputs to
  * Pytorch models and Tensor outputs back into bitmaps.
  *
- * The `toByteBuffer` method will scale the Bitmap you provide if necessary using
- * `createScaledBitmap`, or you may scale the Bitmap before hand.
+ * The `toTensor` method will scale the Bitmap you provide if necessary, sampling it directly
+ * into the buffer with a `PixelSampler`, or you may scale the Bitmap before hand.
  */
 
 public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Converter {
 
+    /** Per thread pixel scratch space, reused so that converting a frame does not allocate */
+
+    private final ThreadLocal<int[]> pixelScratch = new ThreadLocal<>();
+
+    /** Resizes and normalizes bitmaps into buffers without intermediate bitmaps */
+
+    private final PixelSampler sampler = new PixelSampler();
+
+    /** Reads buffers back into pixels */
+
+    private final PixelReader reader = new PixelReader();
+
+    /** Decodes encoded images at the smallest size that covers the layer */
+
+    private final EncodedImageDecoder decoder = new EncodedImageDecoder();
+
+    /** Pool output bitmaps are taken from, or null to allocate a new bitmap per output */
+
+    private volatile @Nullable BitmapPool bitmapPool;
+
+    /**
+     * Sets whether layers of at least `PixelSampler.PARALLEL_MIN_PIXELS` pixels are converted to
+     * and from tensors in parallel stripes of rows, default is false. Worthwhile for large layers
+     * such as those of segmentation and style transfer models.
+     */
+
+    public void setParallel(boolean parallel) {
+        sampler.setParallel(parallel);
+        reader.setParallel(parallel);
+    }
+
+    public boolean isParallel() {
+        return sampler.isParallel();
+    }
+
+    /**
+     * Sets a pool that output bitmaps are taken from instead of being allocated, default is null.
+     */
+
+    public void setBitmapPool(@Nullable BitmapPool bitmapPool) {
+        this.bitmapPool = bitmapPool;
+    }
+
+    public @Nullable BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    /**
+     * Drops the buffers kept for decoding encoded images, see `EncodedImageDecoder.clear`.
+     */
+
+    public void clearDecodeBuffers() {
+        decoder.clear();
+    }
+
     @Override
     public ByteBuffer createBackingBuffer(@NonNull LayerDescription description) {
-        ByteBuffer buffer;
+        return createBackingBuffer(description, 1);
+    }
+
+    @Override
+    public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(byteLength(description) * batchSize);
+        buffer.order(ByteOrder.nativeOrder());
 
+        return buffer;
+    }
+
+    @Override
+    public int byteLength(@NonNull LayerDescription description) {
         boolean quantized = ((PixelBufferLayerDescription)description).isQuantized();
         ImageVolume shape = ((PixelBufferLayerDescription)description).getShape();
 
         if (quantized) {
             // Layer expects bytes
-            buffer = ByteBuffer.allocateDirect(shape.width * shape.height * shape.channels);
+            return shape.width * shape.height * shape.channels;
         } else {
             // Layer expects floats
-            buffer = ByteBuffer.allocateDirect(shape.width * shape.height * shape.channels * 4);
+            return shape.width * shape.height * shape.channels * 4;
         }
-
-        buffer.order(ByteOrder.nativeOrder());
-
-        return buffer;
     }
 
     //@Override
@@ -75,16 +145,47 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
 
     @Override
     public Tensor toTensor(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
-        if (!(o instanceof Bitmap)) {
-            throw BadInputException();
-        } else {
+        if (o instanceof Bitmap) {
             return toTensor((Bitmap)o, description, cache);
+        } else if (o instanceof PixelSource) {
+            return toTensor((PixelSource)o, description, cache);
+        } else if (o instanceof EncodedImage) {
+            try (EncodedImageDecoder.Decoded decoded = decoder.decode((EncodedImage)o, (PixelBufferLayerDescription) description)) {
+                return toTensor(decoded.getPixels(), description, cache);
+            }
+        } else if (o instanceof ByteBuffer) {
+            return toTensor((ByteBuffer)o, description, cache);
+        } else {
+            throw BadInputException();
         }
     }
 
+    /**
+     * Wraps a ByteBuffer of pixels already in the layer's tensor layout in a tensor. A direct
+     * buffer in native byte order holding exactly the layer's bytes is wrapped without being
+     * copied, the bytes of any other buffer are copied into the cache.
+     *
+     * @param input The pixels to wrap
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to copy into if the input cannot be wrapped
+     * @return A Tensor ready for use with a PyTorch model
+     */
+
+    public Tensor toTensor(@NonNull ByteBuffer input, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
+        int byteLength = byteLength(description);
+
+        ByteBuffer buffer = ByteBuffers.isZeroCopy(input, byteLength)
+                ? input
+                : ByteBuffers.copy(input, (cache != null) ? cache : createBackingBuffer(description), byteLength);
+
+        return tensorFor(buffer, pixelBufferLayerDescription, 1);
+    }
+
 
     /**
-     * Converts a Bitmap to a byte buffer. Resizes the Bitmap if necessary using `createScaledBitmap`.
+     * Converts a Bitmap to a byte buffer, resizing it if necessary according to the layer's resize
+     * mode and interpolation without creating an intermediate Bitmap.
      *
      * @param bitmap The bitmap to convert
      * @param description A description of the layer with instructions on how to make the conversion
@@ -94,74 +195,177 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
      */
 
     public Tensor toTensor(@NonNull Bitmap bitmap, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        return toTensor(PixelSource.PixelSourceForBitmap(bitmap), description, cache);
+    }
+
+    /**
+     * Converts any source of pixels, such as a camera frame read through a YuvPixelSource, to a
+     * tensor in the same single pass used for Bitmaps.
+     *
+     * @param source The pixels to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A Tensor ready for use with a PyTorch model
+     */
+
+    public Tensor toTensor(@NonNull PixelSource source, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
         // Create a buffer if no reusable cache is provided
 
         ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
+
+        writePixelsToBuffer(source, description, buffer);
+
+        return tensorFor(buffer, (PixelBufferLayerDescription) description, 1);
+    }
+
+    @Override
+    public Tensor toTensor(@NonNull Object[] column, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, column.length);
+        int itemLength = buffer.capacity() / column.length;
+
+        // Write each image directly into its region of the batch buffer
+
+        for (int i = 0; i < column.length; i++) {
+            ByteBuffer slice = ByteBuffers.slice(buffer, i * itemLength, itemLength);
+
+            if (column[i] instanceof Bitmap) {
+                writePixelsToBuffer(PixelSource.PixelSourceForBitmap((Bitmap)column[i]), description, slice);
+            } else if (column[i] instanceof PixelSource) {
+                writePixelsToBuffer((PixelSource)column[i], description, slice);
+            } else if (column[i] instanceof EncodedImage) {
+                try (EncodedImageDecoder.Decoded decoded = decoder.decode((EncodedImage)column[i], (PixelBufferLayerDescription) description)) {
+                    writePixelsToBuffer(decoded.getPixels(), description, slice);
+                }
+            } else {
+                throw BadInputException();
+            }
+        }
+
+        return tensorFor(buffer, (PixelBufferLayerDescription) description, column.length);
+    }
+
+    /**
+     * Writes pixels to a byte buffer in the layer's tensor layout, channels first unless the layer
+     * declares otherwise, resizing them if necessary according
+     * to the layer's resize mode and interpolation without creating an intermediate Bitmap.
+     *
+     * @param source The pixels to write
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param buffer The buffer to write to, which is rewound before being used
+     */
+
+    private void writePixelsToBuffer(@NonNull PixelSource source, @NonNull LayerDescription description, @NonNull ByteBuffer buffer) {
         buffer.rewind();
 
-        // Acquire needed properties from layer description
+        // Resize, normalize, and write the pixels in a single pass
 
         PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
-        ImageVolume shape = pixelBufferLayerDescription.getShape();
-        boolean quantized = pixelBufferLayerDescription.isQuantized();
-        PixelNormalizer normalizer = pixelBufferLayerDescription.getNormalizer();
+        sampler.sample(source, pixelBufferLayerDescription, buffer, pixelBufferLayerDescription.getTensorLayout(TensorLayout.NCHW));
+    }
 
-        // Resize Bitmap
+    //@Override
+    public Bitmap fromByteBuffer(@NonNull Buffer buffer, @NonNull LayerDescription description) {
 
-        if (bitmap.getWidth() != shape.width || bitmap.getHeight() != shape.height){
-            bitmap = Bitmap.createScaledBitmap(bitmap,shape.width,shape.height,true);
-        }
+        // Acquire needed properties from layer description
 
-        // Read Bitmap into int array
+        ImageVolume shape = ((PixelBufferLayerDescription) description).getShape();
 
-        int[] intValues = new int[shape.width * shape.height]; // 4 bytes per int
+        // Write the buffer into a bitmap
 
-        buffer.rewind();
-        bitmap.getPixels(intValues, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight()); // Returns ARGB pixels
+        Bitmap bmp = createBitmap(shape.width, shape.height);
+        readBufferIntoBitmap(buffer, description, bmp);
 
-        // Write Individual Pixels to Buffer
-        final int pixelsCount = shape.width * shape.height;
-        for (int i = 0; i < pixelsCount; i++) {
-            final int val = intValues[i];
-            writePixelToBuffer(val, i, pixelsCount, buffer, quantized, normalizer);
-        }
+        return bmp;
+    }
 
-        intValues = null;
+    /**
+     * Takes an output bitmap from the pool if one is set, otherwise allocates one.
+     */
 
-        Tensor tensor = Tensor.fromBlob(buffer.asFloatBuffer(), new long[]{1, shape.channels,shape.height,shape.width});
+    private Bitmap createBitmap(int width, int height) {
+        BitmapPool pool = bitmapPool;
 
-        return tensor;
+        if (pool != null) {
+            return pool.acquire(width, height);
+        } else {
+            return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
     }
 
-    //@Override
-    public Bitmap fromByteBuffer(@NonNull Buffer buffer, @NonNull LayerDescription description) {
+    /**
+     * Reads pixels from a buffer into a caller supplied mutable Bitmap whose dimensions match the
+     * layer's shape.
+     */
+
+    private void readBufferIntoBitmap(@NonNull Buffer buffer, @NonNull LayerDescription description, @NonNull Bitmap bmp) {
 
         // Acquire needed properties from layer description
 
         PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
         ImageVolume shape = pixelBufferLayerDescription.getShape();
-        boolean quantized = pixelBufferLayerDescription.isQuantized();
-        PixelDenormalizer denormalizer = pixelBufferLayerDescription.getDenormalizer();
 
-        // Write the buffer into a bitmap
+        if (!bmp.isMutable() || bmp.getWidth() != shape.width || bmp.getHeight() != shape.height) {
+            throw BadDestinationBitmapException(shape);
+        }
+
+        // Write the buffer into the bitmap
 
-        int[] intValues = new int[shape.width * shape.height]; // 4 bytes per int
-        Bitmap bmp = Bitmap.createBitmap(shape.width, shape.height, Bitmap.Config.ARGB_8888);
+        int[] intValues = pixelScratch(shape.width * shape.height);
 
         buffer.rewind();
-        final int pixelsCount = shape.width * shape.height;
-        for (int i = 0; i < shape.width * shape.height; i++) {
-            intValues[i] = readPixelFromBuffer(i,pixelsCount, buffer, quantized, denormalizer);
-        }
+        reader.read(buffer, pixelBufferLayerDescription, pixelBufferLayerDescription.getTensorLayout(TensorLayout.NCHW), intValues);
 
         bmp.setPixels(intValues,0, shape.width, 0, 0, shape.width, shape.height);
+    }
 
-        intValues = null;
+    //region Utilities
 
-        return bmp;
+    /**
+     * Wraps a buffer of pixels in the layer's tensor layout in a tensor, uint8 for quantized layers
+     * and float otherwise, starting at the buffer's first byte.
+     */
+
+    private static Tensor tensorFor(@NonNull ByteBuffer buffer, @NonNull PixelBufferLayerDescription description, int batchSize) {
+        // Writing NHWC pixels advances the buffer's position, and the tensor must start at its first byte
+
+        buffer.rewind();
+
+        if (description.isQuantized()) {
+            return Tensor.fromBlobUnsigned(buffer, tensorShape(description, batchSize));
+        } else {
+            return Tensor.fromBlob(buffer.asFloatBuffer(), tensorShape(description, batchSize));
+        }
     }
 
-    //region Utilities
+    /**
+     * Returns the shape of a batch of images in the layer's tensor layout.
+     */
+
+    private static long[] tensorShape(@NonNull PixelBufferLayerDescription description, int batchSize) {
+        ImageVolume shape = description.getShape();
+
+        if (description.getTensorLayout(TensorLayout.NCHW) == TensorLayout.NCHW) {
+            return new long[]{batchSize, shape.channels, shape.height, shape.width};
+        } else {
+            return new long[]{batchSize, shape.height, shape.width, shape.channels};
+        }
+    }
+
+    /**
+     * Returns this thread's pixel scratch space, growing it if it cannot hold the pixels.
+     */
+
+    private int[] pixelScratch(int pixelCount) {
+        int[] pixels = pixelScratch.get();
+
+        if (pixels == null || pixels.length < pixelCount) {
+            pixels = new int[pixelCount];
+            pixelScratch.set(pixels);
+        }
+
+        return pixels;
+    }
 
     /**
      * Writes a pixel to a buffer, normalizing and converting it as needed.
@@ -206,8 +410,8 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
      * Reads three bytes of a pixel from a buffer, assuming no alpha channel, and denormalizing and
      * converting the values as needed.
      *
-     * Before calling this method the first time in a loop, rewind the buffer. The buffer then
-     * increments its index with every call to get.
+     * Pixels are read with absolute gets relative to the start of the buffer, so that they may be
+     * read concurrently.
      *
      * @param buffer The buffer to read from
      * @param quantized True if the buffer contains quantized (byte) data, false otherwise (float)
@@ -219,9 +423,9 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
     public int readPixelFromBuffer(int pixelIndex, int pixelsCount, @NonNull Buffer buffer, boolean quantized, @Nullable PixelDenormalizer denormalizer) {
         if (quantized) {
             ByteBuffer byteBuffer = (ByteBuffer)buffer;
-            int r = byteBuffer.get();
-            int g = byteBuffer.get();
-            int b = byteBuffer.get();
+            int r = byteBuffer.get(pixelIndex * 3);
+            int g = byteBuffer.get(pixelIndex * 3 + 1);
+            int b = byteBuffer.get(pixelIndex * 3 + 2);
             return ( 0xFF000000 | (r << 16) & 0x00FF0000| (g << 8) & 0x0000FF00 | b & 0x000000FF );
         }
         else {
@@ -251,7 +455,15 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
     //region Exceptions
 
     private static IllegalArgumentException BadInputException() {
-        return new IllegalArgumentException("Expected Bitmap input to the converter");
+        return new IllegalArgumentException("Expected Bitmap, PixelSource, EncodedImage, or ByteBuffer input to the converter");
+    }
+
+    private static IllegalArgumentException BadDestinationException() {
+        return new IllegalArgumentException("Expected Bitmap as a destination for the converter");
+    }
+
+    private static IllegalArgumentException BadDestinationBitmapException(@NonNull ImageVolume shape) {
+        return new IllegalArgumentException("Expected a mutable " + shape.width + "x" + shape.height + " Bitmap as a destination for the converter");
     }
 
 
@@ -273,5 +485,55 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
         return fromByteBuffer(buffer, description);
     }
 
+    @Override
+    public Object[] fromTensor(@NonNull Tensor t, @NonNull LayerDescription description, int batchSize) {
+        boolean quantized = ((PixelBufferLayerDescription)description).isQuantized();
+        Object[] items = new Object[batchSize];
+
+        // Copy the tensor's data out once and read each item from its region of the data
+
+        if (quantized) {
+            // Layer returns bytes
+            byte[] data = t.getDataAsByteArray();
+            int length = data.length / batchSize;
+            for (int i = 0; i < batchSize; i++) {
+                items[i] = fromByteBuffer(ByteBuffer.wrap(data, i * length, length).slice(), description);
+            }
+        } else {
+            // Layer returns floats
+            float[] data = t.getDataAsFloatArray();
+            int length = data.length / batchSize;
+            for (int i = 0; i < batchSize; i++) {
+                items[i] = fromByteBuffer(FloatBuffer.wrap(data, i * length, length).slice(), description);
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Reads a tensor into a caller supplied mutable Bitmap whose dimensions match the layer's shape.
+     */
+
+    @Override
+    public void fromTensorInto(@NonNull Tensor t, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException {
+        if (!(destination instanceof Bitmap)) {
+            throw BadDestinationException();
+        }
+
+        boolean quantized = ((PixelBufferLayerDescription)description).isQuantized();
+        Buffer buffer;
+
+        if (quantized) {
+            // Layer returns bytes
+            buffer = ByteBuffer.wrap(t.getDataAsByteArray());
+        } else {
+            // Layer returns floats
+            buffer = FloatBuffer.wrap(t.getDataAsFloatArray());
+        }
+
+        readBufferIntoBitmap(buffer, description, (Bitmap) destination);
+    }
+
     //endRegion
 }
@@ -23,6 +23,25 @@ public interface Converter {
      */
     public ByteBuffer createBackingBuffer(@NonNull LayerDescription description);
 
+    /**
+     * Creates a ByteBuffer to hold a batch of data for input or output to a Pytorch model using the
+     * parameters in the layer description.
+     *
+     * @param description A description of the layer to create a byte buffer for
+     * @param batchSize The number of items the buffer will hold
+     * @return ByteBuffer ready to be filled with input or output data.
+     */
+    public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize);
+
+    /**
+     * Returns the length in bytes of a single item of a layer in the ByteBuffers that back it, used
+     * to decide whether a caller's ByteBuffer can be passed to the model without being copied.
+     *
+     * @param description A description of the layer
+     * @return The length in bytes of a single item
+     */
+    public int byteLength(@NonNull LayerDescription description);
+
     /**
      * Converts an Object to a Tensor, used to prepare data for a writing into a model.
      *
@@ -36,6 +55,20 @@ public interface Converter {
      */
     public Tensor toTensor(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException;
 
+    /**
+     * Converts a column of batched Objects to a single Tensor with a leading batch dimension, used
+     * to prepare a batch of data for writing into a model.
+     *
+     * @param column      Objects of one of a number of types that can be converted into a Tensor
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache       A pre-existing byte buffer to use, which will be used if not null. A cache
+     *                    must be exactly large enough to hold every item in the column.
+     * @return Tensor ready for use with a Pytorch model
+     * @throws IllegalArgumentException Raised if any object in the column is not of one of the
+     *                                  supported types or is the wrong length
+     */
+    public Tensor toTensor(@NonNull Object[] column, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException;
+
     /**
      * Converts a Tensor to an object, used to read data from a model.
      *
@@ -44,4 +77,30 @@ public interface Converter {
      * @return One of a number of native types such as an array of floats or a Bitmap
      */
     public Object fromTensor(@NonNull Tensor t, @NonNull LayerDescription description);
+
+    /**
+     * Converts a Tensor with a leading batch dimension to one object per item, used to read a batch
+     * of data from a model.
+     *
+     * @param t           A Tensor
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param batchSize   The number of items in the batch
+     * @return One native object per item, such as an array of floats or a Bitmap
+     */
+    public Object[] fromTensor(@NonNull Tensor t, @NonNull LayerDescription description, int batchSize);
+
+    /**
+     * Converts a Tensor into a caller supplied destination, used to read data from a model without
+     * allocating a new object for the result. Pytorch only exposes a tensor's data as a copy, so
+     * the conversion still makes that one copy before writing into the destination.
+     *
+     * @param t           A Tensor
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A preallocated object of one of a number of native types to write into,
+     *                    such as an array of floats or a mutable Bitmap
+     * @throws IllegalArgumentException Raised if the destination is not of one of the supported
+     *                                  types or is the wrong size
+     */
+
+    public void fromTensorInto(@NonNull Tensor t, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException;
 }
@@ -24,4 +24,29 @@ public class StringConverter implements Converter {
     public ByteBuffer createBackingBuffer(LayerDescription stringLayer) {
         return null;
     }
+
+    @Override
+    public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize) {
+        return null;
+    }
+
+    @Override
+    public int byteLength(@NonNull LayerDescription description) {
+        return 0;
+    }
+
+    @Override
+    public Tensor toTensor(@NonNull Object[] column, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        return null;
+    }
+
+    @Override
+    public Object[] fromTensor(@NonNull Tensor t, @NonNull LayerDescription description, int batchSize) {
+        return null;
+    }
+
+    @Override
+    public void fromTensorInto(@NonNull Tensor t, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException {
+        throw new IllegalArgumentException("String outputs are not supported by Pytorch models");
+    }
 }
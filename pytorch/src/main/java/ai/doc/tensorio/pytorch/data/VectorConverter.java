@@ -17,11 +17,25 @@ import ai.doc.tensorio.core.data.Quantizer;
 import ai.doc.tensorio.core.layerinterface.DataType;
 import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+import ai.doc.tensorio.core.utilities.ByteBuffers;
 
 public class VectorConverter implements Converter {
 
     @Override
     public ByteBuffer createBackingBuffer(LayerDescription description) {
+        return createBackingBuffer(description, 1);
+    }
+
+    @Override
+    public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(byteLength(description) * batchSize);
+        buffer.order(ByteOrder.nativeOrder());
+
+        return buffer;
+    }
+
+    @Override
+    public int byteLength(@NonNull LayerDescription description) {
         boolean quantized = ((VectorLayerDescription)description).isQuantized();
         int length = ((VectorLayerDescription)description).getLength();
         DataType dtype = description.getDtype();
@@ -50,14 +64,7 @@ public class VectorConverter implements Converter {
             bufferLength = length;
         }
 
-        // Create buffer
-
-        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferLength);
-        buffer.order(ByteOrder.nativeOrder());
-
-        return buffer;
-
-
+        return bufferLength;
     }
 
     @Override
@@ -86,6 +93,13 @@ public class VectorConverter implements Converter {
             buffer =  toByteBuffer((long[])o, description, cache);
             t = Tensor.fromBlob(buffer.asLongBuffer(), longShape);
         }
+        else if (o instanceof ByteBuffer) {
+            // A direct buffer matching the layer is wrapped without being copied
+            buffer = ByteBuffers.isZeroCopy((ByteBuffer)o, byteLength(description))
+                    ? (ByteBuffer)o
+                    : ByteBuffers.copy((ByteBuffer)o, (cache != null) ? cache : createBackingBuffer(description), byteLength(description));
+            t = tensorFor(buffer, description, longShape);
+        }
         else {
             throw BadInputException();
         }
@@ -94,6 +108,82 @@ public class VectorConverter implements Converter {
         return t;
     }
 
+    @Override
+    public Tensor toTensor(@NonNull Object[] column, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, column.length);
+        int itemLength = buffer.capacity() / column.length;
+
+        // Write each item directly into its region of the batch buffer
+
+        for (int i = 0; i < column.length; i++) {
+            toByteBuffer(column[i], description, ByteBuffers.slice(buffer, i * itemLength, itemLength));
+        }
+
+        buffer.rewind();
+
+        // Stack the items along a leading batch dimension
+
+        VectorLayerDescription vectorLayerDescription = (VectorLayerDescription) description;
+        long[] longShape = Arrays.stream(vectorLayerDescription.getShape()).asLongStream().toArray();
+
+        if (vectorLayerDescription.isBatched()) {
+            longShape[0] = column.length;
+        } else {
+            long[] batchShape = new long[longShape.length + 1];
+            System.arraycopy(longShape, 0, batchShape, 1, longShape.length);
+            batchShape[0] = column.length;
+            longShape = batchShape;
+        }
+
+        return tensorFor(buffer, description, longShape);
+    }
+
+    /**
+     * Wraps a buffer in a Tensor of the layer's data type.
+     */
+
+    private static Tensor tensorFor(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull long[] longShape) {
+        if (description.isQuantized() || description.getDtype() == DataType.UInt8) {
+            return Tensor.fromBlob(buffer, longShape);
+        }
+
+        switch (description.getDtype()) {
+            case Int32:
+                return Tensor.fromBlob(buffer.asIntBuffer(), longShape);
+            case Int64:
+                return Tensor.fromBlob(buffer.asLongBuffer(), longShape);
+            default:
+                return Tensor.fromBlob(buffer.asFloatBuffer(), longShape);
+        }
+    }
+
+    /**
+     * Writes an array of one of the supported types to a ByteBuffer and returns it, using the cache
+     * if one is provided.
+     *
+     * @param o One of byte[], int[], float[], long[], or ByteBuffer
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return ByteBuffer ready for use with a Pytorch model
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        if (o instanceof byte[]) {
+            return toByteBuffer((byte[])o, description, cache);
+        } else if (o instanceof int[]) {
+            return toByteBuffer((int[])o, description, cache);
+        } else if (o instanceof float[]) {
+            return toByteBuffer((float[])o, description, cache);
+        } else if (o instanceof long[]) {
+            return toByteBuffer((long[])o, description, cache);
+        } else if (o instanceof ByteBuffer) {
+            return ByteBuffers.copy((ByteBuffer)o, (cache != null) ? cache : createBackingBuffer(description), byteLength(description));
+        } else {
+            throw BadInputException();
+        }
+    }
+
     /**
      * Writes an array of bytes to a ByteBuffer and returns it, using the cache if one is provided.
      *
@@ -198,9 +288,7 @@ public class VectorConverter implements Converter {
         if (quantized && quantizer == null) {
             throw MissingQuantizeException();
         } else if (quantized) {
-            for (float v: floats) {
-                buffer.put((byte)quantizer.quantize(v));
-            }
+            quantizer.quantize(floats, buffer);
         } else {
             FloatBuffer f = buffer.asFloatBuffer();
             f.put(floats);
@@ -263,8 +351,9 @@ public class VectorConverter implements Converter {
         } else if (quantized) {
             float[] result = new float[length];
             byte[] buffer = t.getDataAsByteArray();
+            float[] table = dequantizer.getLookupTable();
             for (int i = 0; i < length; i++) {
-                result[i] = dequantizer.dequantize((int) ( buffer[i] & 0xFF ) );
+                result[i] = table[buffer[i] & 0xFF];
             }
             return result;
         } else if (dtype == DataType.Int32) {
@@ -277,6 +366,129 @@ public class VectorConverter implements Converter {
 
     }
 
+    @Override
+    public Object[] fromTensor(@NonNull Tensor t, @NonNull LayerDescription description, int batchSize) {
+        // Acquire needed properties from layer description
+
+        VectorLayerDescription vectorLayerDescription = (VectorLayerDescription) description;
+        Dequantizer dequantizer = vectorLayerDescription.getDequantizer();
+        boolean quantized = vectorLayerDescription.isQuantized();
+        int length = vectorLayerDescription.getLength();
+
+        DataType dtype = description.getDtype();
+
+        // Copy the tensor's data out once and split it along the batch dimension
+
+        Object[] items = new Object[batchSize];
+
+        if (quantized && dequantizer == null) {
+            byte[] data = t.getDataAsByteArray();
+            for (int i = 0; i < batchSize; i++) {
+                items[i] = Arrays.copyOfRange(data, i * length, (i + 1) * length);
+            }
+        } else if (quantized) {
+            byte[] data = t.getDataAsByteArray();
+            float[] table = dequantizer.getLookupTable();
+            for (int i = 0; i < batchSize; i++) {
+                float[] result = new float[length];
+                for (int j = 0; j < length; j++) {
+                    result[j] = table[data[i * length + j] & 0xFF];
+                }
+                items[i] = result;
+            }
+        } else if (dtype == DataType.Int32) {
+            int[] data = t.getDataAsIntArray();
+            for (int i = 0; i < batchSize; i++) {
+                items[i] = Arrays.copyOfRange(data, i * length, (i + 1) * length);
+            }
+        } else if (dtype == DataType.Int64) {
+            long[] data = t.getDataAsLongArray();
+            for (int i = 0; i < batchSize; i++) {
+                items[i] = Arrays.copyOfRange(data, i * length, (i + 1) * length);
+            }
+        } else {
+            float[] data = t.getDataAsFloatArray();
+            for (int i = 0; i < batchSize; i++) {
+                items[i] = Arrays.copyOfRange(data, i * length, (i + 1) * length);
+            }
+        }
+
+        return items;
+    }
+
+    /**
+     * Reads a vector into a float[] or FloatBuffer, a byte[] for quantized layers, or an int[] or
+     * long[] for Int32 and Int64 layers. Quantized values are dequantized when reading into floats.
+     * A FloatBuffer is rewound before and after it is written to.
+     */
+
+    @Override
+    public void fromTensorInto(@NonNull Tensor t, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException {
+        // Acquire needed properties from layer description
+
+        VectorLayerDescription vectorLayerDescription = (VectorLayerDescription) description;
+        Dequantizer dequantizer = vectorLayerDescription.getDequantizer();
+        boolean quantized = vectorLayerDescription.isQuantized();
+        int length = vectorLayerDescription.getLength();
+
+        DataType dtype = description.getDtype();
+        boolean integral = dtype == DataType.Int32 || dtype == DataType.Int64;
+
+        // Fork on destination type, quantized, and dtype
+
+        if (destination instanceof byte[] && quantized) {
+            byte[] bytes = (byte[]) destination;
+            checkLength(bytes.length, length);
+            System.arraycopy(t.getDataAsByteArray(), 0, bytes, 0, length);
+        } else if (destination instanceof int[] && dtype == DataType.Int32) {
+            int[] ints = (int[]) destination;
+            checkLength(ints.length, length);
+            System.arraycopy(t.getDataAsIntArray(), 0, ints, 0, length);
+        } else if (destination instanceof long[] && dtype == DataType.Int64) {
+            long[] longs = (long[]) destination;
+            checkLength(longs.length, length);
+            System.arraycopy(t.getDataAsLongArray(), 0, longs, 0, length);
+        } else if (destination instanceof float[] && !quantized && !integral) {
+            float[] floats = (float[]) destination;
+            checkLength(floats.length, length);
+            System.arraycopy(t.getDataAsFloatArray(), 0, floats, 0, length);
+        } else if (destination instanceof float[] && quantized && dequantizer != null) {
+            float[] floats = (float[]) destination;
+            checkLength(floats.length, length);
+            byte[] data = t.getDataAsByteArray();
+            float[] table = dequantizer.getLookupTable();
+            for (int i = 0; i < length; i++) {
+                floats[i] = table[data[i] & 0xFF];
+            }
+        } else if (destination instanceof FloatBuffer && !quantized && !integral) {
+            FloatBuffer floats = (FloatBuffer) destination;
+            checkLength(floats.capacity(), length);
+            floats.rewind();
+            floats.put(t.getDataAsFloatArray(), 0, length);
+            floats.rewind();
+        } else if (destination instanceof FloatBuffer && quantized && dequantizer != null) {
+            FloatBuffer floats = (FloatBuffer) destination;
+            checkLength(floats.capacity(), length);
+            byte[] data = t.getDataAsByteArray();
+            float[] table = dequantizer.getLookupTable();
+            for (int i = 0; i < length; i++) {
+                floats.put(i, table[data[i] & 0xFF]);
+            }
+        } else {
+            throw BadDestinationException();
+        }
+    }
+
+    private static void checkLength(int given, int expected) throws IllegalArgumentException {
+        if (given != expected) {
+            throw BadLengthException(given, expected);
+        }
+    }
+
+    private static IllegalArgumentException BadDestinationException() {
+        return new IllegalArgumentException("The destination does not match the layer, expected float[] or FloatBuffer for float or dequantized layers, byte[] for quantized layers, or int[] or long[] for Int32 or Int64 layers");
+    }
+
     private static IllegalArgumentException BadInputException() {
         return new IllegalArgumentException("Expected float[] or byte[] as input to the converter");
     }
@@ -26,14 +26,19 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
+import ai.doc.tensorio.core.data.Batch;
 import ai.doc.tensorio.core.data.Placeholders;
 import ai.doc.tensorio.core.layerinterface.LayerInterface;
 import ai.doc.tensorio.core.model.IO;
+import ai.doc.tensorio.core.model.InferenceMetrics;
 import ai.doc.tensorio.core.model.Model;
 import ai.doc.tensorio.core.modelbundle.AssetModelBundle;
 import ai.doc.tensorio.core.modelbundle.FileModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
+import ai.doc.tensorio.core.utilities.BitmapPool;
+import ai.doc.tensorio.core.utilities.ByteBuffers;
 import ai.doc.tensorio.pytorch.data.BitmapConverter;
+import ai.doc.tensorio.pytorch.data.Converter;
 import ai.doc.tensorio.pytorch.data.StringConverter;
 import ai.doc.tensorio.pytorch.data.VectorConverter;
 
@@ -47,6 +52,8 @@ public class PytorchModel extends Model {
 
     private boolean cacheBuffers = true;
     private Map<LayerInterface, ByteBuffer> bufferCache = null;
+    private Map<LayerInterface, ByteBuffer> batchBufferCache = null;
+    private int batchBufferCapacity = 0;
 
     // Data Converters
 
@@ -54,6 +61,18 @@ public class PytorchModel extends Model {
     final private VectorConverter vectorConverter = new VectorConverter();
     final private StringConverter stringConverter = new StringConverter();
 
+    @Override
+    public void setParallelPixelConversion(boolean parallelPixelConversion) {
+        super.setParallelPixelConversion(parallelPixelConversion);
+        bitmapConverter.setParallel(parallelPixelConversion);
+    }
+
+    @Override
+    public void setOutputBitmapPool(@Nullable BitmapPool outputBitmapPool) {
+        super.setOutputBitmapPool(outputBitmapPool);
+        bitmapConverter.setBitmapPool(outputBitmapPool);
+    }
+
 
     /**
      * The designated initializer for conforming classes.
@@ -94,12 +113,24 @@ public class PytorchModel extends Model {
 
     @Override
     public void reload() throws ModelException {
+        if (!isLoaded()) {
+            load();
+            return;
+        }
+
         if (pytorchModule != null) {
             pytorchModule.destroy();
             pytorchModule = null;
         }
 
-        load();
+        // load() returns early on a loaded model, so the module is reloaded here before warming up
+
+        try {
+            pytorchModule = loadModelFile();
+        } catch (IOException e) {
+            throw new ModelException("Error loading model file", e);
+        }
+
         super.reload();
     }
 
@@ -114,6 +145,8 @@ public class PytorchModel extends Model {
             pytorchModule = null;
         }
 
+        bitmapConverter.clearDecodeBuffers();
+
         super.unload();
     }
 
@@ -145,79 +178,114 @@ public class PytorchModel extends Model {
 
     @Override
     public Map<String, Object> runOn(float[] input) throws ModelException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(byte[] input) throws ModelException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(int[] input) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(long[] input) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(ByteBuffer input) throws ModelException, IllegalArgumentException {
-        throw new IllegalArgumentException("ByteBuffer inputs are not supported by Pytorch");
+        InferenceMetrics metrics = startMetrics();
+
+        validateInput(input);
+        load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(@NonNull Bitmap input) throws ModelException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(@NonNull Map<String, Object> input) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(input);
-        } else {
-            return runSingleInputSingleOutput(unmappedInput(input));
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(input, metrics)
+                : runSingleInputSingleOutput(unmappedInput(input), metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
@@ -271,40 +339,46 @@ public class PytorchModel extends Model {
      * Actually performs inference on a single input with a single output
      *
      * @param input An input in one of the supported types, e.g. byte[], float[], or Bitmap
+     * @param metrics Metrics for the call, lapped at the end of each stage
      * @return The model's single output mapped by the output layers name
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private Map<String, Object> runSingleInputSingleOutput(@NonNull Object input) throws IllegalArgumentException {
+    private Map<String, Object> runSingleInputSingleOutput(@NonNull Object input, @NonNull InferenceMetrics metrics) throws IllegalArgumentException {
 
         // Fetch the input layer descriptions from the model
 
         LayerInterface inputLayer = getIO().getInputs().get(0);
 
         // Prepare input tensor
-        Tensor inputTensor = prepareInputTensor(input, inputLayer);
-
+        Tensor inputTensor = prepareInputTensor(input, inputLayer, metrics);
+        metrics.lap(InferenceMetrics.Stage.InputConversion);
 
         IValue outputTensor = pytorchModule.forward(IValue.from(inputTensor));
+        metrics.lap(InferenceMetrics.Stage.Invoke);
 
         // Convert output buffers to user land objects
         Map<Integer, IValue> outputs = new HashMap<>(getIO().getOutputs().size()); // Always size 1
         outputs.put(0, outputTensor);
 
-        return captureOutputs(outputs);
+        Map<String, Object> results = captureOutputs(outputs, metrics);
+        metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+        return results;
     }
 
     /**
      * Actually performs inference on multiple inputs or multiple outputs
      *
      * @param inputs A mapping from input layer names to input values
+     * @param metrics Metrics for the call, lapped at the end of each stage
      * @return The model's outputs mapped by the output layer names
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private Map<String, Object> runMultipleInputMultipleOutput(@NonNull Map<String, Object> inputs) throws IllegalArgumentException {
+    private Map<String, Object> runMultipleInputMultipleOutput(@NonNull Map<String, Object> inputs, @NonNull InferenceMetrics metrics) throws IllegalArgumentException {
         // Fetch the input and output layer descriptions from the model
 
         IO.IOList inputList = getIO().getInputs();
@@ -317,13 +391,34 @@ public class PytorchModel extends Model {
         for (int i = 0; i < inputList.size(); i++){
             LayerInterface inputLayer = inputList.get(i);
             Object input = inputs.get(inputLayer.getName());
-            Tensor inputTensor = prepareInputTensor(input, inputLayer);
+            Tensor inputTensor = prepareInputTensor(input, inputLayer, metrics);
 
             inputTensors[i] = IValue.from(inputTensor);
             inputMap.put(inputLayer.getName(), inputTensors[i]);
         }
 
+        metrics.lap(InferenceMetrics.Stage.InputConversion);
+
         IValue temp = pytorchModule.forward(inputTensors);
+        metrics.lap(InferenceMetrics.Stage.Invoke);
+
+        Map<Integer, IValue> outputMap = indexedOutputs(temp);
+        Map<String, Object> results = captureOutputs(outputMap, metrics);
+        metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+        return results;
+    }
+
+    /**
+     * Maps a module's output, which may be a single tensor, a tuple, or a dictionary, to the index
+     * of each output layer.
+     *
+     * @param temp The value returned by the module's forward method
+     * @return The outputs mapped by the index of their output layers
+     */
+
+    private Map<Integer, IValue> indexedOutputs(@NonNull IValue temp) {
+        IO.IOList outputList = getIO().getOutputs();
         Map<Integer, IValue> outputMap = new HashMap<>(outputList.size());
 
         if (temp.isTuple()){
@@ -342,47 +437,264 @@ public class PytorchModel extends Model {
             outputMap.put(0, temp);
         }
 
+        return outputMap;
+    }
+
+    /**
+     * Performs inference and reads each output tensor into its destination. Pytorch only exposes a
+     * tensor's data as a copy, so each captured output is copied once before it is written into
+     * its destination. Labeled vector outputs are written as raw values, in the order of the
+     * layer's labels.
+     *
+     * Inputs have already been validated, so the validation stage is reported as zero.
+     */
+
+    @Override
+    protected void runIndexedInto(@NonNull Object[] inputs, @NonNull Object[] outputs) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
+        IO.IOList inputList = getIO().getInputs();
+        IO.IOList outputList = getIO().getOutputs();
+
+        // Prepare input tensors
+
+        IValue[] inputTensors = new IValue[inputList.size()];
+
+        for (int i = 0; i < inputList.size(); i++){
+            inputTensors[i] = IValue.from(prepareInputTensor(inputs[i], inputList.get(i), metrics));
+        }
+
+        metrics.lap(InferenceMetrics.Stage.InputConversion);
+
+        // Run the model and read the outputs into the caller's destinations
+
+        IValue temp = pytorchModule.forward(inputTensors);
+        metrics.lap(InferenceMetrics.Stage.Invoke);
+
+        Map<Integer, IValue> outputMap = indexedOutputs(temp);
+
+        for (int i = 0; i < outputList.size(); i++) {
+            if (outputs[i] != null) {
+                captureOutputInto(outputMap.get(i), outputList.get(i), outputs[i], metrics);
+            }
+        }
+
+        metrics.lap(InferenceMetrics.Stage.OutputCapture);
+        reportMetrics(metrics);
+    }
+
+    /**
+     * Perform inference on a batch of items in a single pass by stacking each input along a leading
+     * batch dimension. Each input and output layer must have a batch dimension, otherwise the model
+     * is run once per item.
+     */
+
+    @Override
+    public Batch runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        if (!hasBatchedInterface()) {
+            return super.runOn(batch);
+        }
+
+        InferenceMetrics metrics = startMetrics();
+
+        validateInput(batch);
+        load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+
+        // Fetch the input layer descriptions from the model
+
+        IO.IOList inputList = getIO().getInputs();
+        int batchSize = batch.size();
+        metrics.setBatchSize(batchSize);
+
+        if (cacheBuffers) {
+            prepareBatchBufferCache(batchSize);
+        }
+
+        // Prepare stacked input tensors
+
+        IValue[] inputTensors = new IValue[inputList.size()];
+
+        for (int i = 0; i < inputList.size(); i++){
+            LayerInterface inputLayer = inputList.get(i);
+            Object[] column = batch.get(inputLayer.getName());
+            Tensor inputTensor = prepareBatchInputTensor(column, inputLayer, metrics);
+
+            inputTensors[i] = IValue.from(inputTensor);
+        }
+
+        metrics.lap(InferenceMetrics.Stage.InputConversion);
 
+        // Run the model and split each output along the batch dimension
 
-        return captureOutputs(outputMap);
+        IValue temp = pytorchModule.forward(inputTensors);
+        metrics.lap(InferenceMetrics.Stage.Invoke);
+
+        Map<Integer, IValue> outputMap = indexedOutputs(temp);
+        Batch results = captureBatchedOutputs(outputMap, batchSize, metrics);
+        metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     /**
      * Prepares a Tensor that will be used for input to a model. If buffer caching is used
-     * then buffers that have been associated with each layer will be reused.
+     * then buffers that have been associated with each layer will be reused. A direct ByteBuffer
+     * input matching the layer is wrapped without being copied.
      *
      * @param input The input to convert to a Tensor
      * @param inputLayer The interface to the layer that this buffer will be used with
+     * @param metrics Records the bytes copied and whether a cached buffer was used
      * @return ByteBuffer ready for input to a model
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
-    private Tensor prepareInputTensor(Object input, LayerInterface inputLayer) throws IllegalArgumentException {
-        final AtomicReference<Tensor> inputBuffer = new AtomicReference<>();
+    private Tensor prepareInputTensor(Object input, LayerInterface inputLayer, @NonNull InferenceMetrics metrics) throws IllegalArgumentException {
+        final Converter converter = converterFor(inputLayer);
         final ByteBuffer cachedBuffer = cacheBuffers ? bufferCache.get(inputLayer) : null;
+        final Tensor tensor = converter.toTensor(input, inputLayer.getLayerDescription(), cachedBuffer);
+
+        // A direct buffer matching the layer is wrapped by the converter without being copied
+
+        boolean zeroCopy = input instanceof ByteBuffer && ByteBuffers.isZeroCopy((ByteBuffer) input, converter.byteLength(inputLayer.getLayerDescription()));
+
+        metrics.addCacheLookup(cachedBuffer != null);
+        metrics.addBytesCopied(zeroCopy ? 0 : tensorBytes(tensor));
+
+        return tensor;
+    }
+
+    /**
+     * Grows the batch buffers if they cannot hold the batch. Buffers are only ever grown so that
+     * repeated batches of varying size do not reallocate them.
+     */
+
+    private void prepareBatchBufferCache(int batchSize) {
+        if (batchBufferCapacity >= batchSize) {
+            return;
+        }
+
+        batchBufferCache = new HashMap<>();
+
+        for (LayerInterface layer : getIO().getInputs().all()) {
+            layer.doCase((vectorLayer) -> {
+                batchBufferCache.put(layer, vectorConverter.createBackingBuffer(vectorLayer, batchSize));
+            }, (pixelLayer) -> {
+                batchBufferCache.put(layer, bitmapConverter.createBackingBuffer(pixelLayer, batchSize));
+            }, (stringLayer) -> {
+                batchBufferCache.put(layer, stringConverter.createBackingBuffer(stringLayer, batchSize));
+            });
+        }
+
+        batchBufferCapacity = batchSize;
+    }
+
+    /**
+     * Prepares a Tensor holding a column of batched inputs stacked along a leading batch dimension.
+     * If buffer caching is used the batch buffers associated with each layer will be reused.
+     *
+     * @param column The inputs to convert, one per item in the batch
+     * @param inputLayer The interface to the layer that this tensor will be used with
+     * @param metrics Records the bytes copied and whether a cached buffer was used
+     * @return Tensor ready for input to a model
+     * @throws IllegalArgumentException raised if an input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private Tensor prepareBatchInputTensor(@NonNull Object[] column, @NonNull LayerInterface inputLayer, @NonNull InferenceMetrics metrics) throws IllegalArgumentException {
+        final AtomicReference<Tensor> inputTensor = new AtomicReference<>();
+        ByteBuffer cachedBuffer = null;
+
+        if (cacheBuffers && batchBufferCache != null) {
+            ByteBuffer buffer = batchBufferCache.get(inputLayer);
+            int itemLength = buffer.capacity() / batchBufferCapacity;
+            cachedBuffer = ByteBuffers.slice(buffer, 0, itemLength * column.length);
+        }
+
+        final ByteBuffer cache = cachedBuffer;
 
         inputLayer.doCase((vectorLayer) -> {
-            Tensor tensor = vectorConverter.toTensor(input, vectorLayer, cachedBuffer);
-            inputBuffer.set(tensor);
+            inputTensor.set(vectorConverter.toTensor(column, vectorLayer, cache));
         }, (pixelLayer) -> {
-            Tensor tensor = bitmapConverter.toTensor(input, pixelLayer, cachedBuffer);
-            inputBuffer.set(tensor);
+            inputTensor.set(bitmapConverter.toTensor(column, pixelLayer, cache));
         }, (stringLayer) -> {
-            Tensor tensor = stringConverter.toTensor(input, stringLayer, cachedBuffer);
-            inputBuffer.set(tensor);
+            inputTensor.set(stringConverter.toTensor(column, stringLayer, cache));
         });
 
-        return inputBuffer.get();
+        metrics.addCacheLookup(cache != null);
+        metrics.addBytesCopied(tensorBytes(inputTensor.get()));
+
+        return inputTensor.get();
+    }
+
+    /**
+     * Converts captured Tensors from a batched model's output to a batch of user land objects
+     *
+     * @param outputs The indexed output tensors, each with a leading batch dimension
+     * @param batchSize The number of items in the batch
+     * @param metrics Records the bytes copied
+     * @return A Batch whose items map keys to user land objects capturing the model's outputs
+     */
+
+    private Batch captureBatchedOutputs(@NonNull Map<Integer, IValue> outputs, int batchSize, @NonNull InferenceMetrics metrics) {
+        IO.IOList outputList = getIO().getOutputs();
+        String[] keys = new String[outputList.size()];
+        Batch.Item[] items = new Batch.Item[batchSize];
+
+        for (int j = 0; j < batchSize; j++) {
+            items[j] = new Batch.Item();
+        }
+
+        for (int i = 0; i < outputList.size(); i++) {
+            LayerInterface layer = outputList.get(i);
+            String name = layer.getName();
+            keys[i] = name;
+
+            Tensor tensor = outputs.get(i).toTensor();
+            AtomicReference<Object[]> values = new AtomicReference<>();
+            metrics.addBytesCopied(tensorBytes(tensor));
+
+            layer.doCase((vectorLayer) -> {
+                Object[] o = vectorConverter.fromTensor(tensor, vectorLayer, batchSize);
+
+                // If the vector's output is labeled, return a Map of keys to values rather than raw values
+                if (vectorLayer.isLabeled()) {
+                    for (int j = 0; j < batchSize; j++) {
+                        o[j] = vectorLayer.labeledValues((float[]) o[j]);
+                    }
+                }
+
+                values.set(o);
+            }, (pixelLayer) -> {
+                values.set(bitmapConverter.fromTensor(tensor, pixelLayer, batchSize));
+            }, (stringLayer) -> {
+                values.set(stringConverter.fromTensor(tensor, stringLayer, batchSize));
+            });
+
+            for (int j = 0; j < batchSize; j++) {
+                items[j].put(name, values.get()[j]);
+            }
+        }
+
+        Batch results = new Batch(keys);
+
+        for (Batch.Item item : items) {
+            results.add(item);
+        }
+
+        return results;
     }
 
     /**
      * Converts captured Tensors from a model's output to user land Objects
      *
      * @param outputs The indexed output buffers
+     * @param metrics Records the bytes copied
      * @return A Map of keys to user land objects capturing the model's outputs
      */
 
-    private Map<String, Object> captureOutputs(@NonNull Map<Integer, IValue> outputs) {
+    private Map<String, Object> captureOutputs(@NonNull Map<Integer, IValue> outputs, @NonNull InferenceMetrics metrics) {
         IO.IOList outputList = getIO().getOutputs();
         Map<String, Object> outputMap = new HashMap<>(outputList.size());
 
@@ -391,6 +703,7 @@ public class PytorchModel extends Model {
             String name = layer.getName();
 
             Object o = captureOutput(outputs.get(i), layer);
+            metrics.addBytesCopied(tensorBytes(outputs.get(i).toTensor()));
 
             outputMap.put(name, o);
         }
@@ -436,10 +749,56 @@ public class PytorchModel extends Model {
         return output.get();
     }
 
+    /**
+     * Reads a single output into a caller supplied destination
+     *
+     * @param tensor      The tensor to read
+     * @param layer       The interface to the output
+     * @param destination A preallocated object in accordance with the layer description, usually
+     *                    one of float[], FloatBuffer, byte[], or a mutable Bitmap
+     * @param metrics     Records the bytes copied
+     */
+
+    private void captureOutputInto(@NonNull IValue tensor, @NonNull LayerInterface layer, @NonNull Object destination, @NonNull InferenceMetrics metrics) {
+        converterFor(layer).fromTensorInto(tensor.toTensor(), layer.getLayerDescription(), destination);
+        metrics.addBytesCopied(tensorBytes(tensor.toTensor()));
+    }
+
+    /**
+     * Returns the converter for a layer's type. Used on the inference hot path in place of
+     * `doCase`, whose capturing lambdas would be allocated on every call.
+     */
+
+    private Converter converterFor(@NonNull LayerInterface layer) {
+        switch (layer.getType()) {
+            case PixelBuffer:
+                return bitmapConverter;
+            case String:
+                return stringConverter;
+            default:
+                return vectorConverter;
+        }
+    }
+
     //endRegion
 
     //region Utilities
 
+    /** The size in bytes of a tensor's data */
+
+    private static long tensorBytes(@NonNull Tensor tensor) {
+        switch (tensor.dtype()) {
+            case UINT8:
+            case INT8:
+                return tensor.numel();
+            case INT64:
+            case FLOAT64:
+                return tensor.numel() * 8;
+            default:
+                return tensor.numel() * 4;
+        }
+    }
+
     private Module loadModelFile() throws IOException {
         String filename;
 
@@ -27,22 +27,82 @@ import androidx.annotation.NonNull;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 
-import ai.doc.tensorio.core.data.PixelDenormalizer;
-import ai.doc.tensorio.core.data.PixelNormalizer;
+import ai.doc.tensorio.core.data.EncodedImage;
+import ai.doc.tensorio.core.data.EncodedImageDecoder;
+import ai.doc.tensorio.core.data.PixelReader;
+import ai.doc.tensorio.core.data.PixelSampler;
+import ai.doc.tensorio.core.data.PixelSource;
 import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.PixelBufferLayerDescription;
 import ai.doc.tensorio.core.model.ImageVolume;
+import ai.doc.tensorio.core.model.TensorLayout;
+import ai.doc.tensorio.core.utilities.BitmapPool;
 
 /**
  * The TensorFlow Bitmap converter transforms bitmaps into byte buffers for use as inputs to
  * TensorFlow models and byte buffers outputs back into bitmaps.
  *
- * The `toByteBuffer` method will scale the Bitmap you provide if necessary using
- * `createScaledBitmap`, or you may scale the Bitmap before hand.
+ * The `toByteBuffer` method will scale the Bitmap you provide if necessary, sampling it directly
+ * into the buffer with a `PixelSampler`, or you may scale the Bitmap before hand.
  */
 
 public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Converter {
 
+    /** Per thread pixel scratch space, reused so that converting a frame does not allocate */
+
+    private final ThreadLocal<int[]> pixelScratch = new ThreadLocal<>();
+
+    /** Resizes and normalizes bitmaps into buffers without intermediate bitmaps */
+
+    private final PixelSampler sampler = new PixelSampler();
+
+    /** Reads buffers back into pixels */
+
+    private final PixelReader reader = new PixelReader();
+
+    /** Decodes encoded images at the smallest size that covers the layer */
+
+    private final EncodedImageDecoder decoder = new EncodedImageDecoder();
+
+    /** Pool output bitmaps are taken from, or null to allocate a new bitmap per output */
+
+    private volatile @Nullable BitmapPool bitmapPool;
+
+    /**
+     * Sets whether layers of at least `PixelSampler.PARALLEL_MIN_PIXELS` pixels are converted to
+     * and from buffers in parallel stripes of rows, default is false. Worthwhile for large layers
+     * such as those of segmentation and style transfer models.
+     */
+
+    public void setParallel(boolean parallel) {
+        sampler.setParallel(parallel);
+        reader.setParallel(parallel);
+    }
+
+    public boolean isParallel() {
+        return sampler.isParallel();
+    }
+
+    /**
+     * Sets a pool that output bitmaps are taken from instead of being allocated, default is null.
+     */
+
+    public void setBitmapPool(@Nullable BitmapPool bitmapPool) {
+        this.bitmapPool = bitmapPool;
+    }
+
+    public @Nullable BitmapPool getBitmapPool() {
+        return bitmapPool;
+    }
+
+    /**
+     * Drops the buffers kept for decoding encoded images, see `EncodedImageDecoder.clear`.
+     */
+
+    public void clearDecodeBuffers() {
+        decoder.clear();
+    }
+
     @Override
     public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize) {
         boolean quantized = ((PixelBufferLayerDescription)description).isQuantized();
@@ -84,15 +144,22 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
 
     @Override
     public ByteBuffer toByteBuffer(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
-        if (!(o instanceof Bitmap)) {
-            throw BadInputException();
-        } else {
+        if (o instanceof Bitmap) {
             return toByteBuffer((Bitmap)o, description, cache);
+        } else if (o instanceof PixelSource) {
+            return toByteBuffer((PixelSource)o, description, cache);
+        } else if (o instanceof EncodedImage) {
+            try (EncodedImageDecoder.Decoded decoded = decoder.decode((EncodedImage)o, (PixelBufferLayerDescription) description)) {
+                return toByteBuffer(decoded.getPixels(), description, cache);
+            }
+        } else {
+            throw BadInputException();
         }
     }
 
     /**
-     * Converts a Bitmap to a byte buffer. Resizes the Bitmap if necessary using `createScaledBitmap`.
+     * Converts a Bitmap to a byte buffer, resizing it if necessary according to the layer's resize
+     * mode and interpolation without creating an intermediate Bitmap.
      *
      * @param bitmap The bitmap to convert
      * @param description A description of the layer with instructions on how to make the conversion
@@ -102,145 +169,120 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
      */
 
     public ByteBuffer toByteBuffer(@NonNull Bitmap bitmap, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
+        return toByteBuffer(PixelSource.PixelSourceForBitmap(bitmap), description, cache);
+    }
+
+    /**
+     * Converts any source of pixels, such as a camera frame read through a YuvPixelSource, to a
+     * byte buffer in the same single pass used for Bitmaps.
+     *
+     * @param source The pixels to convert
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return A ByteBuffer ready for use with a TensorFlow model
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull PixelSource source, @NonNull LayerDescription description, @Nullable ByteBuffer cache) {
         // Create a buffer if no reusable cache is provided
 
         ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, 1);
         buffer.rewind();
 
+        // Resize, normalize, and write the pixels in a single pass
+
+        PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
+        sampler.sample(source, pixelBufferLayerDescription, buffer, pixelBufferLayerDescription.getTensorLayout(TensorLayout.NHWC));
+
+        return buffer;
+    }
+
+    @Override
+    public Bitmap fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description) {
+
         // Acquire needed properties from layer description
 
         PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
         ImageVolume shape = pixelBufferLayerDescription.getShape();
-        boolean quantized = pixelBufferLayerDescription.isQuantized();
-        PixelNormalizer normalizer = pixelBufferLayerDescription.getNormalizer();
 
-        // Resize Bitmap
+        // Write the buffer into a bitmap
 
-        if (bitmap.getWidth() != shape.width || bitmap.getHeight() != shape.height){
-            bitmap = Bitmap.createScaledBitmap(bitmap,shape.width,shape.height,true);
-        }
+        int[] intValues = pixelScratch(shape.width * shape.height);
+        Bitmap bmp = createBitmap(shape.width, shape.height);
 
-        // Read Bitmap into int array
+        buffer.rewind();
+        reader.read(buffer, pixelBufferLayerDescription, pixelBufferLayerDescription.getTensorLayout(TensorLayout.NHWC), intValues);
 
-        int[] intValues = new int[shape.width * shape.height]; // 4 bytes per int
-        bitmap.getPixels(intValues, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight()); // Returns ARGB pixels
+        bmp.setPixels(intValues,0, shape.width, 0, 0, shape.width, shape.height);
 
-        // Write Individual Pixels to Buffer
+        return bmp;
+    }
 
-        int pixel = 0;
-        for (int y = 0; y < bitmap.getHeight(); y++) {
-            for (int x = 0; x < bitmap.getWidth(); x++) {
-                final int val = intValues[pixel++];
-                writePixelToBuffer(val, buffer, quantized, normalizer);
-            }
-        }
+    /**
+     * Takes an output bitmap from the pool if one is set, otherwise allocates one.
+     */
 
-        intValues = null;
+    private Bitmap createBitmap(int width, int height) {
+        BitmapPool pool = bitmapPool;
 
-        return buffer;
+        if (pool != null) {
+            return pool.acquire(width, height);
+        } else {
+            return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
     }
 
+    /**
+     * Reads pixels from a buffer into a caller supplied mutable Bitmap whose dimensions match the
+     * layer's shape.
+     */
+
     @Override
-    public Bitmap fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description) {
+    public void fromByteBufferInto(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException {
 
         // Acquire needed properties from layer description
 
         PixelBufferLayerDescription pixelBufferLayerDescription = (PixelBufferLayerDescription) description;
         ImageVolume shape = pixelBufferLayerDescription.getShape();
-        boolean quantized = pixelBufferLayerDescription.isQuantized();
-        PixelDenormalizer denormalizer = pixelBufferLayerDescription.getDenormalizer();
 
-        // Write the buffer into a bitmap
+        // Validate destination
 
-        int[] intValues = new int[shape.width * shape.height]; // 4 bytes per int
-        Bitmap bmp = Bitmap.createBitmap(shape.width, shape.height, Bitmap.Config.ARGB_8888);
+        if (!(destination instanceof Bitmap)) {
+            throw BadDestinationException();
+        }
 
-        buffer.rewind();
+        Bitmap bmp = (Bitmap) destination;
 
-        for (int i = 0; i < shape.width * shape.height; i++) {
-            intValues[i] = readPixelFromBuffer(buffer, quantized, denormalizer);
+        if (!bmp.isMutable() || bmp.getWidth() != shape.width || bmp.getHeight() != shape.height) {
+            throw BadDestinationBitmapException(shape);
         }
 
-        bmp.setPixels(intValues,0, shape.width, 0, 0, shape.width, shape.height);
+        // Write the buffer into the bitmap
 
-        intValues = null;
+        int pixelCount = shape.width * shape.height;
+        int[] intValues = pixelScratch(pixelCount);
 
-        return bmp;
+        buffer.rewind();
+        reader.read(buffer, pixelBufferLayerDescription, pixelBufferLayerDescription.getTensorLayout(TensorLayout.NHWC), intValues);
+
+        bmp.setPixels(intValues,0, shape.width, 0, 0, shape.width, shape.height);
     }
 
     //region Utilities
 
     /**
-     * Writes a pixel to a buffer, normalizing and converting it as needed.
-     *
-     * Before calling this method the first time in a loop, rewind the buffer. The buffer then
-     * increments its index with every call to put.
-     *
-     * @param pixelValue 4 byte pixel value to write with ARGB or BGRA format wit
-     * @param buffer The buffer to write to
-     * @param quantized true if the buffer expects quantized (byte) data, false otherwise (float)
-     * @param normalizer The normalizer than converts a single byte pixel-channel value to a
-     *                   floating point value
+     * Returns this thread's pixel scratch space, growing it if it cannot hold the pixels.
      */
 
-    private void writePixelToBuffer(int pixelValue, @NonNull ByteBuffer buffer, boolean quantized, @Nullable PixelNormalizer normalizer) {
-        if (quantized) {
-            buffer.put((byte) ((pixelValue >> 16) & 0xFF));
-            buffer.put((byte) ((pixelValue >> 8) & 0xFF));
-            buffer.put((byte) (pixelValue & 0xFF));
-        } else {
-            if (normalizer != null) {
-                buffer.putFloat(normalizer.normalize((pixelValue >> 16) & 0xFF, 0));
-                buffer.putFloat(normalizer.normalize((pixelValue >> 8) & 0xFF, 1));
-                buffer.putFloat(normalizer.normalize(pixelValue & 0xFF, 2));
-            } else {
-                buffer.putFloat((pixelValue >> 16) & 0xFF);
-                buffer.putFloat((pixelValue >> 8) & 0xFF);
-                buffer.putFloat(pixelValue & 0xFF);
-            }
-        }
-    }
-
-    /**
-     * Reads three bytes of a pixel from a buffer, assuming no alpha channel, and denormalizing and
-     * converting the values as needed.
-     *
-     * Before calling this method the first time in a loop, rewind the buffer. The buffer then
-     * increments its index with every call to get.
-     *
-     * @param buffer The buffer to read from
-     * @param quantized True if the buffer contains quantized (byte) data, false otherwise (float)
-     * @param denormalizer The denormalizer than converts a floating point pixel-channel value to a
-     *                     byte value
-     * @return The 4 byte representation of the pixel.
-     */
+    private int[] pixelScratch(int pixelCount) {
+        int[] pixels = pixelScratch.get();
 
-    private int readPixelFromBuffer(@NonNull ByteBuffer buffer, boolean quantized, @Nullable PixelDenormalizer denormalizer) {
-        if (quantized) {
-            int r = buffer.get();
-            int g = buffer.get();
-            int b = buffer.get();
-            return ( 0xFF000000 | (r << 16) & 0x00FF0000| (g << 8) & 0x0000FF00 | b & 0x000000FF );
+        if (pixels == null || pixels.length < pixelCount) {
+            pixels = new int[pixelCount];
+            pixelScratch.set(pixels);
         }
-        else {
-            float r = buffer.getFloat();
-            float g = buffer.getFloat();
-            float b = buffer.getFloat();
-
-            int rr, gg, bb;
-
-            if (denormalizer != null) {
-                rr = denormalizer.denormalize(r, 0);
-                gg = denormalizer.denormalize(g, 1);
-                bb = denormalizer.denormalize(b, 2);
-            } else {
-                rr = (int)r;
-                gg = (int)g;
-                bb = (int)b;
-            }
 
-            return 0xFF000000 | (rr << 16) & 0x00FF0000| (gg << 8) & 0x0000FF00 | bb & 0x000000FF;
-        }
+        return pixels;
     }
 
     // endRegion
@@ -248,7 +290,15 @@ public class BitmapConverter implements ai.doc.tensorio.core.data.Converter, Con
     //region Exceptions
 
     private static IllegalArgumentException BadInputException() {
-        return new IllegalArgumentException("Expected Bitmap input to the converter");
+        return new IllegalArgumentException("Expected Bitmap, PixelSource, or EncodedImage input to the converter");
+    }
+
+    private static IllegalArgumentException BadDestinationException() {
+        return new IllegalArgumentException("Expected Bitmap as a destination for the converter");
+    }
+
+    private static IllegalArgumentException BadDestinationBitmapException(@NonNull ImageVolume shape) {
+        return new IllegalArgumentException("Expected a mutable " + shape.width + "x" + shape.height + " Bitmap as a destination for the converter");
     }
 
     //endRegion
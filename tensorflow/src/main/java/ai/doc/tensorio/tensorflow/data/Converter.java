@@ -88,4 +88,18 @@ public interface Converter {
      */
 
     public Object fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description);
+
+    /**
+     * Converts a ByteBuffer into a caller supplied destination, used to read data from a model
+     * without allocating a new object for it.
+     *
+     * @param buffer      A ByteBuffer read from a TensorFlow model
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A preallocated object of one of a number of native types to write into,
+     *                    such as an array of floats or a mutable Bitmap
+     * @throws IllegalArgumentException Raised if the destination is not of one of the supported
+     *                                  types or is the wrong size
+     */
+
+    public void fromByteBufferInto(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException;
 }
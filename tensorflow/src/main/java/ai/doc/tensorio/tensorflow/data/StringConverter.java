@@ -291,6 +291,33 @@ public class StringConverter implements Converter {
         return view;
     }
 
+    /**
+     * Copies the raw bytes of a string (bytes) layer into a caller supplied ByteBuffer with enough
+     * capacity. The destination is rewound before and after it is written to.
+     */
+
+    @Override
+    public void fromByteBufferInto(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException {
+        if (!(destination instanceof ByteBuffer)) {
+            throw BadDestinationException();
+        }
+
+        ByteBuffer bytes = (ByteBuffer) destination;
+
+        if (bytes.capacity() < buffer.capacity()) {
+            throw BadDestinationException();
+        }
+
+        buffer.rewind();
+        bytes.rewind();
+        bytes.put(buffer);
+        bytes.rewind();
+    }
+
+    private static IllegalArgumentException BadDestinationException() {
+        return new IllegalArgumentException("Expected a ByteBuffer with enough capacity as a destination for the converter");
+    }
+
     private static IllegalArgumentException BadInputException() {
         return new IllegalArgumentException("Expected float[], byte[], int[], long[] or equivalent ByteBuffer as input to the converter");
     }
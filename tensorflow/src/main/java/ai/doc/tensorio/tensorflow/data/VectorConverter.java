@@ -26,8 +26,6 @@ import androidx.annotation.NonNull;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
-import java.nio.LongBuffer;
 
 import ai.doc.tensorio.core.data.Dequantizer;
 import ai.doc.tensorio.core.data.Quantizer;
@@ -173,12 +171,12 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
         if (quantized && quantizer == null) {
             throw MissingQuantizeException();
         } else if (quantized) {
-            for (float v: floats) {
-                buffer.put((byte)quantizer.quantize(v));
-            }
+            quantizer.quantize(floats, buffer);
         } else {
-            FloatBuffer f = buffer.asFloatBuffer();
-            f.put(floats);
+            // Write floats in place rather than through an asFloatBuffer view, which allocates
+            for (int i = 0; i < length; i++) {
+                buffer.putFloat(i * 4, floats[i]);
+            }
         }
 
         return buffer;
@@ -211,10 +209,11 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
             throw BadLengthException(ints.length, length);
         }
 
-        // Write the ints
+        // Write the ints in place rather than through an asIntBuffer view, which allocates
 
-        IntBuffer i = buffer.asIntBuffer();
-        i.put(ints);
+        for (int i = 0; i < length; i++) {
+            buffer.putInt(i * 4, ints[i]);
+        }
 
         return buffer;
     }
@@ -246,10 +245,11 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
             throw BadLengthException(longs.length, length);
         }
 
-        // Write the longs
+        // Write the longs in place rather than through an asLongBuffer view, which allocates
 
-        LongBuffer i = buffer.asLongBuffer();
-        i.put(longs);
+        for (int i = 0; i < length; i++) {
+            buffer.putLong(i * 8, longs[i]);
+        }
 
         return buffer;
     }
@@ -275,14 +275,17 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
         // Fork on quantized and dtype, could probably use to clean this logic up
 
         if (quantized && dequantizer == null) {
-            // DataType.UInt8
-            return buffer.array();
+            // DataType.UInt8, returning the backing array directly unless the buffer is a view on a larger one
+            if (buffer.hasArray() && buffer.arrayOffset() == 0 && buffer.array().length == length) {
+                return buffer.array();
+            }
+            byte[] result = new byte[length];
+            buffer.get(result);
+            return result;
         } else if (quantized) {
             // DataType.UInt8 but dequantized to floats
             float[] result = new float[length];
-            for (int i = 0; i < length; i++) {
-                result[i] = dequantizer.dequantize((int) ( buffer.get() & 0xFF ) );
-            }
+            dequantizer.dequantize(buffer, result);
             return result;
         } else if (dtype == DataType.Int32) {
             int[] result = new int[length];
@@ -300,8 +303,89 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
         }
     }
 
+    /**
+     * Reads a vector into a float[] or FloatBuffer, a byte[] for quantized layers, or an int[] or
+     * long[] for Int32 and Int64 layers. Quantized values are dequantized when reading into floats.
+     * A FloatBuffer is rewound before and after it is written to.
+     */
+
+    @Override
+    public void fromByteBufferInto(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException {
+
+        // Acquire needed properties from layer description
+
+        VectorLayerDescription vectorLayerDescription = (VectorLayerDescription) description;
+        Dequantizer dequantizer = vectorLayerDescription.getDequantizer();
+        boolean quantized = vectorLayerDescription.isQuantized();
+        int length = vectorLayerDescription.getLength();
+        DataType dtype = description.getDtype();
+
+        // Prepare buffer for reading
+
+        buffer.rewind();
+
+        // Fork on destination type, quantized, and dtype
+
+        if (destination instanceof byte[] && quantized) {
+            byte[] bytes = (byte[]) destination;
+            checkLength(bytes.length, length);
+            buffer.get(bytes);
+        } else if (destination instanceof int[] && dtype == DataType.Int32) {
+            int[] ints = (int[]) destination;
+            checkLength(ints.length, length);
+            for (int i = 0; i < length; i++) {
+                ints[i] = buffer.getInt(i * 4);
+            }
+        } else if (destination instanceof long[] && dtype == DataType.Int64) {
+            long[] longs = (long[]) destination;
+            checkLength(longs.length, length);
+            for (int i = 0; i < length; i++) {
+                longs[i] = buffer.getLong(i * 8);
+            }
+        } else if (destination instanceof float[] && !quantized && dtype != DataType.Int32 && dtype != DataType.Int64) {
+            float[] floats = (float[]) destination;
+            checkLength(floats.length, length);
+            for (int i = 0; i < length; i++) {
+                floats[i] = buffer.getFloat(i * 4);
+            }
+        } else if (destination instanceof float[] && quantized && dequantizer != null) {
+            float[] floats = (float[]) destination;
+            checkLength(floats.length, length);
+            dequantizer.dequantize(buffer, floats);
+        } else if (destination instanceof FloatBuffer && !quantized && dtype != DataType.Int32 && dtype != DataType.Int64) {
+            FloatBuffer floats = (FloatBuffer) destination;
+            checkLength(floats.capacity(), length);
+            floats.rewind();
+            floats.put(buffer.asFloatBuffer());
+            floats.rewind();
+        } else if (destination instanceof FloatBuffer && quantized && dequantizer != null) {
+            FloatBuffer floats = (FloatBuffer) destination;
+            checkLength(floats.capacity(), length);
+            float[] table = dequantizer.getLookupTable();
+            for (int i = 0; i < length; i++) {
+                floats.put(i, table[buffer.get(i) & 0xFF]);
+            }
+        } else {
+            throw BadDestinationException();
+        }
+    }
+
+    //region Utilities
+
+    private static void checkLength(int given, int expected) throws IllegalArgumentException {
+        if (given != expected) {
+            throw BadLengthException(given, expected);
+        }
+    }
+
+    //endRegion
+
     //region Exceptions
 
+    private static IllegalArgumentException BadDestinationException() {
+        return new IllegalArgumentException("The destination does not match the layer, expected float[] or FloatBuffer for float or dequantized layers, byte[] for quantized layers, or int[] or long[] for Int32 or Int64 layers");
+    }
+
     private static IllegalArgumentException BadInputException() {
         return new IllegalArgumentException("Expected float[], byte[], int[], or long[] as input to the converter");
     }
@@ -37,8 +37,11 @@ import java.util.concurrent.atomic.AtomicReference;
 
 import ai.doc.tensorio.core.layerinterface.LayerInterface;
 import ai.doc.tensorio.core.model.IO;
+import ai.doc.tensorio.core.model.InferenceMetrics;
 
 import ai.doc.tensorio.core.training.TrainableModel;
+import ai.doc.tensorio.core.utilities.BitmapPool;
+import ai.doc.tensorio.core.utilities.ByteBuffers;
 import ai.doc.tensorio.core.modelbundle.FileModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
 import androidx.annotation.NonNull;
@@ -51,6 +54,7 @@ import ai.doc.tensorflow.Tensor;
 
 import ai.doc.tensorio.tensorflow.BuildConfig;
 import ai.doc.tensorio.tensorflow.data.BitmapConverter;
+import ai.doc.tensorio.tensorflow.data.Converter;
 import ai.doc.tensorio.tensorflow.data.StringConverter;
 import ai.doc.tensorio.tensorflow.data.VectorConverter;
 
@@ -71,6 +75,18 @@ public class TensorFlowModel extends Model implements TrainableModel {
     final private BitmapConverter bitmapConverter = new BitmapConverter();
     final private StringConverter stringConverter = new StringConverter();
 
+    @Override
+    public void setParallelPixelConversion(boolean parallelPixelConversion) {
+        super.setParallelPixelConversion(parallelPixelConversion);
+        bitmapConverter.setParallel(parallelPixelConversion);
+    }
+
+    @Override
+    public void setOutputBitmapPool(@Nullable BitmapPool outputBitmapPool) {
+        super.setOutputBitmapPool(outputBitmapPool);
+        bitmapConverter.setBitmapPool(outputBitmapPool);
+    }
+
     public TensorFlowModel(@NonNull ModelBundle bundle) {
         super(bundle);
     }
@@ -113,6 +129,8 @@ public class TensorFlowModel extends Model implements TrainableModel {
             interpreter = null;
         }
 
+        bitmapConverter.clearDecodeBuffers();
+
         super.unload();
     }
 
@@ -200,9 +218,72 @@ public class TensorFlowModel extends Model implements TrainableModel {
 
     @Override
     public Map<String, Object> runOn(@NonNull Map<String, Object> inputs, @Nullable Placeholders placeholders) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
         validatePlaceholders(placeholders);
         validateInput(inputs);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+
+        Tensor[] outputTensors = runTensors(inputs, placeholders, metrics);
+
+        // Convert output buffers to user land objects
+
+        Map<String, Object> results = captureOutputs(outputTensors);
+        recordOutputBytes(outputTensors, metrics);
+        metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+        reportMetrics(metrics);
+        return results;
+    }
+
+    /**
+     * Performs inference and reads each output tensor's buffer directly into its destination.
+     * Labeled vector outputs are written as raw values, in the order of the layer's labels.
+     *
+     * Inputs have already been validated, so the validation stage is reported as zero.
+     */
+
+    @Override
+    protected void runIndexedInto(@NonNull Object[] inputs, @NonNull Object[] outputs) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
+        IO.IOList inputList = getIO().getInputs();
+        IO.IOList outputList = getIO().getOutputs();
+
+        Map<String, Object> mappedInputs = new HashMap<>(inputList.size());
+
+        for (int i = 0; i < inputList.size(); i++) {
+            mappedInputs.put(inputList.get(i).getName(), inputs[i]);
+        }
+
+        Tensor[] outputTensors = runTensors(mappedInputs, null, metrics);
+
+        // Read the output buffers into the caller's destinations
+
+        for (int i = 0; i < outputList.size(); i++) {
+            if (outputs[i] != null) {
+                ByteBuffer buffer = outputTensors[i].getBytes();
+                captureOutputInto(buffer, outputList.get(i), outputs[i]);
+                metrics.addBytesCopied(buffer.capacity());
+            }
+        }
+
+        metrics.lap(InferenceMetrics.Stage.OutputCapture);
+        reportMetrics(metrics);
+    }
+
+    /**
+     * Actually performs inference on validated inputs and placeholders
+     * @param inputs A mapping from input layer names to input values
+     * @param placeholders A mapping from placeholder layer names to values, may be null
+     * @param metrics Metrics for the call, lapped at the end of input conversion and invocation
+     * @return The output tensors ordered by output layer index
+     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private Tensor[] runTensors(@NonNull Map<String, Object> inputs, @Nullable Placeholders placeholders, @NonNull InferenceMetrics metrics) throws IllegalArgumentException {
 
         // Fetch the input and output layer descriptions from the model
 
@@ -231,6 +312,9 @@ public class TensorFlowModel extends Model implements TrainableModel {
             Tensor tensor = new Tensor(dtype, shape, name);
             tensor.setBytes(inputBuffer);
             inputTensors[i] = tensor;
+
+            metrics.addCacheLookup(cacheBuffers);
+            metrics.addBytesCopied(inputBuffer.capacity());
         }
 
         // Prepare placeholders, which are just added to the input tensors
@@ -252,6 +336,9 @@ public class TensorFlowModel extends Model implements TrainableModel {
             Tensor tensor = new Tensor(dtype, shape, name);
             tensor.setBytes(placeholderBuffer);
             inputTensors[inputList.size()+i] = tensor;
+
+            metrics.addCacheLookup(cacheBuffers);
+            metrics.addBytesCopied(placeholderBuffer.capacity());
         }
 
         // Prepare output tensors
@@ -274,13 +361,133 @@ public class TensorFlowModel extends Model implements TrainableModel {
             outputTensors[i] = tensor;
         }
 
+        metrics.lap(InferenceMetrics.Stage.InputConversion);
+
         // Run the model on the input tensors, store the output in the output tensors
 
         interpreter.run(inputTensors, outputTensors);
+        metrics.lap(InferenceMetrics.Stage.Invoke);
 
-        // Convert output buffers to user land objects
+        return outputTensors;
+    }
 
-        return captureOutputs(outputTensors);
+    /**
+     * Perform inference on a batch of items in a single pass. Each input and output layer must have
+     * a batch dimension, otherwise the model is run once per item.
+     */
+
+    @Override
+    public Batch runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        if (!hasBatchedInterface()) {
+            return super.runOn(batch);
+        }
+
+        InferenceMetrics metrics = startMetrics();
+
+        validateInput(batch);
+        load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+        metrics.setBatchSize(batch.size());
+
+        // Fetch the input and output layer descriptions from the model
+
+        IO.IOList inputList = getIO().getInputs();
+        IO.IOList outputList = getIO().getOutputs();
+
+        // Prepare input tensors with a batch dimension equal to the batch size
+
+        Tensor[] inputTensors = new Tensor[inputList.size()];
+
+        for (int i = 0; i < inputList.size(); i++){
+            LayerInterface inputLayer = inputList.get(i);
+
+            String name = inputLayer.getName();
+            int[] shape = inputLayer.getTensorShape().clone();
+            DataType dtype = tensorDataType(inputLayer.getDtype());
+
+            shape[0] = batch.size();
+
+            Object[] column = Objects.requireNonNull(batch.get(name));
+            ByteBuffer inputBuffer = prepareInputBuffer(column, inputLayer);
+            Tensor tensor = new Tensor(dtype, shape, name);
+            tensor.setBytes(inputBuffer);
+            inputTensors[i] = tensor;
+
+            metrics.addCacheLookup(false);
+            metrics.addBytesCopied(inputBuffer.capacity());
+        }
+
+        // Prepare output tensors with a batch dimension equal to the batch size
+
+        Tensor[] outputTensors = new Tensor[outputList.size()];
+
+        for (int i = 0; i < outputList.size(); i++) {
+            LayerInterface outputLayer = outputList.get(i);
+
+            String name = outputLayer.getName();
+            int[] shape = outputLayer.getTensorShape().clone();
+            DataType dtype = tensorDataType(outputLayer.getDtype());
+
+            shape[0] = batch.size();
+
+            Tensor tensor = new Tensor(dtype, shape, name);
+            outputTensors[i] = tensor;
+        }
+
+        metrics.lap(InferenceMetrics.Stage.InputConversion);
+
+        // Run the model on the input tensors, store the output in the output tensors
+
+        interpreter.run(inputTensors, outputTensors);
+        metrics.lap(InferenceMetrics.Stage.Invoke);
+
+        // Split each output along the batch dimension and convert to user land objects
+
+        Batch results = captureBatchedOutputs(outputTensors, batch.size());
+        recordOutputBytes(outputTensors, metrics);
+        metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+        reportMetrics(metrics);
+        return results;
+    }
+
+    /**
+     * Converts captured ByteBuffers from a batched model's output to a batch of user land objects
+     * @param tensors The output tensors containing the output byte buffers
+     * @param batchSize The number of items in the batch
+     * @return A Batch whose items map keys to user land objects capturing the model's outputs
+     */
+
+    private Batch captureBatchedOutputs(@NonNull Tensor[] tensors, int batchSize) {
+        IO.IOList outputList = getIO().getOutputs();
+        String[] keys = new String[outputList.size()];
+        Batch.Item[] items = new Batch.Item[batchSize];
+
+        for (int j = 0; j < batchSize; j++) {
+            items[j] = new Batch.Item();
+        }
+
+        for (int i = 0; i < outputList.size(); i++){
+            LayerInterface layer = outputList.get(i);
+            String name = layer.getName();
+            keys[i] = name;
+
+            ByteBuffer buffer = tensors[i].getBytes();
+            int itemBytes = buffer.capacity() / batchSize;
+
+            for (int j = 0; j < batchSize; j++) {
+                ByteBuffer slice = ByteBuffers.slice(buffer, j * itemBytes, itemBytes);
+                items[j].put(name, captureOutput(slice, layer));
+            }
+        }
+
+        Batch results = new Batch(keys);
+
+        for (Batch.Item item : items) {
+            results.add(item);
+        }
+
+        return results;
     }
 
     /**
@@ -311,21 +518,8 @@ public class TensorFlowModel extends Model implements TrainableModel {
      */
 
     private ByteBuffer prepareInputBuffer(@NonNull Object input, @NonNull LayerInterface inputLayer) throws IllegalArgumentException {
-        final AtomicReference<ByteBuffer> inputBuffer = new AtomicReference<>();
         final ByteBuffer cachedBuffer = cacheBuffers ? bufferCache.get(inputLayer) : null;
-
-        inputLayer.doCase((vectorLayer) -> {
-            ByteBuffer buffer = vectorConverter.toByteBuffer(input, vectorLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (pixelLayer) -> {
-            ByteBuffer buffer = bitmapConverter.toByteBuffer(input, pixelLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (stringLayer) -> {
-            ByteBuffer buffer = stringConverter.toByteBuffer(input, stringLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        });
-
-        return inputBuffer.get();
+        return converterFor(inputLayer).toByteBuffer(input, inputLayer.getLayerDescription(), cachedBuffer);
     }
 
     /**
@@ -370,6 +564,48 @@ public class TensorFlowModel extends Model implements TrainableModel {
         return outputMap;
     }
 
+    /**
+     * Records the size of each output tensor's buffer as bytes copied, if metrics are being collected
+     */
+
+    private void recordOutputBytes(@NonNull Tensor[] tensors, @NonNull InferenceMetrics metrics) {
+        if (!metrics.isEnabled()) {
+            return;
+        }
+
+        for (Tensor tensor : tensors) {
+            metrics.addBytesCopied(tensor.getBytes().capacity());
+        }
+    }
+
+    /**
+     * Reads a single ByteBuffer into a caller supplied destination
+     * @param buffer The buffer to read
+     * @param layer The interface to the output
+     * @param destination A preallocated object in accordance with the layer description, usually
+     *                    one of float[], FloatBuffer, byte[], int[], long[], or a mutable Bitmap
+     */
+
+    private void captureOutputInto(@NonNull ByteBuffer buffer, @NonNull LayerInterface layer, @NonNull Object destination) {
+        converterFor(layer).fromByteBufferInto(buffer, layer.getLayerDescription(), destination);
+    }
+
+    /**
+     * Returns the converter for a layer's type. Used on the inference hot path in place of
+     * `doCase`, whose capturing lambdas would be allocated on every call.
+     */
+
+    private Converter converterFor(@NonNull LayerInterface layer) {
+        switch (layer.getType()) {
+            case PixelBuffer:
+                return bitmapConverter;
+            case String:
+                return stringConverter;
+            default:
+                return vectorConverter;
+        }
+    }
+
     /**
      * Converts a single ByteBuffer to a user land object
      * @param buffer The buffer to capture and convert
@@ -35,22 +35,37 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.io.File;
+import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.FloatBuffer;
 import java.nio.file.FileSystemException;
 import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import ai.doc.tensorio.core.data.Batch;
+import ai.doc.tensorio.core.modelbundle.FileModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle.ModelBundleException;
+import ai.doc.tensorio.core.model.HistogramMetricsListener;
+import ai.doc.tensorio.core.model.InferenceMetrics;
 import ai.doc.tensorio.core.model.Model.ModelException;
+import ai.doc.tensorio.core.model.Runner;
 import ai.doc.tensorio.tflite.model.TFLiteModel;
 import ai.doc.tensorio.core.utilities.ClassificationHelper;
+import ai.doc.tensorio.core.utilities.FileIO;
+import ai.doc.tensorio.core.utilities.MappedFiles;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -233,6 +248,371 @@ public class TFLiteModelIntegrationTests {
         }
     }
 
+    @Test
+    public void testInterpreterPoolConcurrentInference() {
+        try {
+            ModelBundle bundle = ModelBundle.bundleWithAsset(testContext, "1_in_1_out_vectors_test.tiobundle");
+            assertNotNull(bundle);
+
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+            model.setInterpreterPoolSize(4);
+            model.load();
+
+            assertEquals(4, model.getInterpreterPoolSize());
+
+            // Compute expected outputs serially
+
+            int inputCount = 16;
+            float[][] inputs = new float[inputCount][];
+            float[][] expected = new float[inputCount][];
+
+            for (int i = 0; i < inputCount; i++) {
+                inputs[i] = new float[]{i, i+1, i+2, i+3};
+                expected[i] = ((float[]) model.runOn(inputs[i]).get("output")).clone();
+            }
+
+            // Run the same inputs concurrently, outputs must not be mixed up across threads
+
+            ExecutorService executor = Executors.newFixedThreadPool(8);
+            List<Future<float[]>> futures = new ArrayList<>();
+
+            for (int repeat = 0; repeat < 50; repeat++) {
+                for (int i = 0; i < inputCount; i++) {
+                    final float[] input = inputs[i];
+                    futures.add(executor.submit(() -> (float[]) model.runOn(input).get("output")));
+                }
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                assertArrayEquals(expected[i % inputCount], futures.get(i).get(), 0.0f);
+            }
+
+            executor.shutdown();
+            model.unload();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    public void testUnbatchedModelRunsBatchOncePerItem() {
+        try {
+            ModelBundle bundle = ModelBundle.bundleWithAsset(testContext, "1_in_1_out_vectors_test.tiobundle");
+            assertNotNull(bundle);
+
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+            model.load();
+
+            assertFalse(model.hasBatchedInterface());
+
+            Batch batch = new Batch(new String[]{"input"});
+
+            for (int i = 0; i < 3; i++) {
+                Batch.Item item = new Batch.Item();
+                item.put("input", new float[]{i, i+1, i+2, i+3});
+                batch.add(item);
+            }
+
+            Batch results = model.runOn(batch);
+            assertEquals(3, results.size());
+
+            for (int i = 0; i < 3; i++) {
+                float[] expected = (float[]) model.runOn(new float[]{i, i+1, i+2, i+3}).get("output");
+                assertArrayEquals(expected, (float[]) results.get(i).get("output"), 0.0f);
+            }
+
+            model.unload();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    public void testFailedLoadReleasesModelFile() {
+        try {
+            // Corrupt the vectors test model so that its interpreter cannot be created
+
+            ModelBundle bundle = bundleForFile("1_in_1_out_vectors_test.tiobundle");
+            File file = new File(((FileModelBundle) bundle).getFile(), "model.tflite");
+
+            try (FileWriter writer = new FileWriter(file)) {
+                writer.write("not a model");
+            }
+
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+
+            int mappings = MappedFiles.size();
+
+            for (int i = 0; i < 2; i++) {
+                try {
+                    model.load();
+                    fail();
+                } catch (IllegalArgumentException e) {
+                    assertFalse(model.isLoaded());
+                    assertEquals(mappings, MappedFiles.size());
+                }
+            }
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    public void testBatchedModelRunsBatchInSinglePass() {
+        try {
+            // Declare a batch dimension on the vectors test model
+
+            ModelBundle unbatchedBundle = bundleForFile("1_in_1_out_vectors_test.tiobundle");
+            File json = new File(((FileModelBundle) unbatchedBundle).getFile(), "model.json");
+            String contents = FileIO.readTextFile(json).replace("[4]", "[-1,4]");
+
+            try (FileWriter writer = new FileWriter(json)) {
+                writer.write(contents);
+            }
+
+            ModelBundle bundle = ModelBundle.bundleWithFile(((FileModelBundle) unbatchedBundle).getFile());
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+            model.load();
+
+            assertTrue(model.hasBatchedInterface());
+
+            // Compute expected outputs one item at a time
+
+            float[][] expected = new float[5][];
+
+            for (int i = 0; i < 5; i++) {
+                expected[i] = (float[]) model.runOn(new float[]{i, i+1, i+2, i+3}).get("output");
+            }
+
+            // Run batches of varying size, then a single item, which must resize the interpreter back
+
+            for (int size : new int[]{3, 5, 2}) {
+                Batch batch = new Batch(new String[]{"input"});
+
+                for (int i = 0; i < size; i++) {
+                    Batch.Item item = new Batch.Item();
+                    item.put("input", new float[]{i, i+1, i+2, i+3});
+                    batch.add(item);
+                }
+
+                Batch results = model.runOn(batch);
+                assertEquals(size, results.size());
+
+                for (int i = 0; i < size; i++) {
+                    assertArrayEquals(expected[i], (float[]) results.get(i).get("output"), 0.0f);
+                }
+            }
+
+            float[] result = (float[]) model.runOn(new float[]{1, 2, 3, 4}).get("output");
+            assertArrayEquals(expected[1], result, 0.0f);
+
+            model.unload();
+
+        } catch (Exception e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    public void testRunOnIntoWritesIntoDestinations() {
+        try {
+            ModelBundle bundle = ModelBundle.bundleWithAsset(testContext, "1_in_1_out_vectors_test.tiobundle");
+            assertNotNull(bundle);
+
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+            model.load();
+
+            Map<String, Object> inputs = new HashMap<>();
+            Map<String, Object> outputs = new HashMap<>();
+
+            // Run the model into a float array, reusing it across calls
+
+            float[] result = new float[4];
+            inputs.put("input", new float[]{1, 2, 3, 4});
+            outputs.put("output", result);
+
+            model.runOnInto(inputs, outputs);
+            assertArrayEquals(new float[]{2, 2, 4, 4}, result, 0.0f);
+
+            model.runOnInto(inputs, outputs);
+            assertArrayEquals(new float[]{2, 2, 4, 4}, result, 0.0f);
+
+            // Run the model into a float buffer
+
+            FloatBuffer buffer = FloatBuffer.allocate(4);
+            outputs.put("output", buffer);
+
+            model.runOnInto(inputs, outputs);
+            assertArrayEquals(new float[]{2, 2, 4, 4}, buffer.array(), 0.0f);
+
+            // Destinations of the wrong size or for unknown layers are rejected
+
+            try {
+                outputs.put("output", new float[5]);
+                model.runOnInto(inputs, outputs);
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(true);
+            }
+
+            try {
+                outputs.clear();
+                outputs.put("foo", new float[4]);
+                model.runOnInto(inputs, outputs);
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(true);
+            }
+
+        } catch (ModelBundleException | ModelException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    public void testPreparedRunner() {
+        try {
+            ModelBundle bundle = ModelBundle.bundleWithAsset(testContext, "1_in_1_out_vectors_test.tiobundle");
+            assertNotNull(bundle);
+
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+
+            Runner runner = model.prepare();
+            int input = runner.getInputIndex("input");
+            int output = runner.getOutputIndex("output");
+
+            float[] result = runner.getFloats(output);
+
+            runner.setInput(input, new float[]{1, 2, 3, 4});
+            runner.run();
+            assertArrayEquals(new float[]{2, 2, 4, 4}, result, 0.0f);
+
+            // The same output array is reused on every run
+
+            runner.setInput(input, new float[]{1, 2, 3, 4});
+            runner.run();
+            assertSame(result, runner.getFloats(output));
+            assertArrayEquals(new float[]{2, 2, 4, 4}, result, 0.0f);
+
+            // try setting an input of the wrong length, should throw IllegalArgumentException
+
+            try {
+                runner.setInput(input, new float[]{1, 2, 3, 4, 5});
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(true);
+            }
+
+        } catch (ModelBundleException | ModelException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    public void testMetricsListener() {
+        try {
+            ModelBundle bundle = ModelBundle.bundleWithAsset(testContext, "1_in_1_out_vectors_test.tiobundle");
+            assertNotNull(bundle);
+
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+
+            HistogramMetricsListener histograms = new HistogramMetricsListener(16);
+            model.setMetricsListener(histograms);
+
+            float[] input = new float[]{1, 2, 3, 4};
+
+            model.runOn(input);
+            model.runOn(input);
+
+            // Each run copies a four float input and a four float output through cached buffers
+
+            assertEquals(2, histograms.getCount());
+            assertEquals(64, histograms.getBytesCopied());
+            assertEquals(4, histograms.getCacheHits());
+            assertEquals(0, histograms.getCacheMisses());
+            assertTrue(histograms.getHistogram(InferenceMetrics.Stage.Invoke).p50() > 0);
+
+            // Removing the listener stops collection
+
+            model.setMetricsListener(null);
+            model.runOn(input);
+            assertEquals(2, histograms.getCount());
+
+        } catch (ModelBundleException | ModelException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
+    @Test
+    public void testRunOnIntoWritesIntoBitmap() {
+        try {
+            ModelBundle bundle = ModelBundle.bundleWithAsset(testContext, "1_in_1_out_pixelbuffer_identity_test.tiobundle");
+            assertNotNull(bundle);
+
+            TFLiteModel model = (TFLiteModel) bundle.newModel();
+            assertNotNull(model);
+            model.load();
+
+            int width = 224;
+            int height = 224;
+
+            Bitmap bmp = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            Canvas canvas = new Canvas(bmp);
+            Paint paint = new Paint();
+
+            paint.setColor(Color.rgb(89, 0, 84));
+            canvas.drawRect(0F, 0F, width, height, paint);
+
+            Bitmap outputBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+
+            Map<String, Object> inputs = new HashMap<>();
+            inputs.put("image", bmp);
+            Map<String, Object> outputs = new HashMap<>();
+            outputs.put("image", outputBitmap);
+
+            model.runOnInto(inputs, outputs);
+
+            for (int y = 0; y < height; y++) {
+                for (int x = 0; x < width; x++) {
+                    assertEquals((bmp.getPixel(x, y)) & 0xFF, (outputBitmap.getPixel(x, y)) & 0xFF, epsilon = 1);
+                    assertEquals((bmp.getPixel(x, y) >> 8) & 0xFF, (outputBitmap.getPixel(x, y) >> 8) & 0xFF, epsilon = 1);
+                    assertEquals((bmp.getPixel(x, y) >> 16) & 0xFF, (outputBitmap.getPixel(x, y) >> 16) & 0xFF, epsilon = 1);
+                }
+            }
+
+            // A bitmap of the wrong size is rejected
+
+            try {
+                outputs.put("image", Bitmap.createBitmap(width / 2, height / 2, Bitmap.Config.ARGB_8888));
+                model.runOnInto(inputs, outputs);
+                fail();
+            } catch (IllegalArgumentException e) {
+                assertTrue(true);
+            }
+
+        } catch (ModelBundleException | ModelException e) {
+            e.printStackTrace();
+            fail();
+        }
+    }
+
     @Test
     public void test2x2VectorsModel() {
         try {
@@ -44,6 +44,27 @@ public interface Converter {
 
     public ByteBuffer createBackingBuffer(@NonNull LayerDescription description);
 
+    /**
+     * Creates a ByteBuffer to hold a batch of data for input or output to a TFLite model using the
+     * parameters in the layer description.
+     *
+     * @param description A description of the layer to create a byte buffer for
+     * @param batchSize The number of items the buffer will hold
+     * @return ByteBuffer ready to be filled with input or output data.
+     */
+
+    public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize);
+
+    /**
+     * Returns the length in bytes of a single item of a layer in the ByteBuffers that back it, used
+     * to decide whether a caller's ByteBuffer can be passed to the model without being copied.
+     *
+     * @param description A description of the layer
+     * @return The length in bytes of a single item
+     */
+
+    public int byteLength(@NonNull LayerDescription description);
+
     /**
      * Converts an Object to a ByteBuffer, used to prepare data for a writing into a model.
      *
@@ -58,6 +79,21 @@ public interface Converter {
 
     public ByteBuffer toByteBuffer(@NonNull Object o, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException;
 
+    /**
+     * Converts a column of batched Objects to a single ByteBuffer, used to prepare a batch of data
+     * for writing into a model. Each item is written directly into its region of the buffer.
+     *
+     * @param column      Objects of one of a number of types that can be converted into a ByteBuffer
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param cache       A pre-existing byte buffer to use, which will be returned if not null. A cache
+     *                    must be exactly large enough to hold every item in the column.
+     * @return ByteBuffer ready for use with a TFLite model
+     * @throws IllegalArgumentException Raised if any object in the column is not of one of the
+     *                                  supported types or is the wrong length
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull Object[] column, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException;
+
     /**
      * Converts a ByteBuffer to an object, used to read data from a model.
      *
@@ -67,4 +103,18 @@ public interface Converter {
      */
 
     public Object fromByteBuffer(@NonNull ByteBuffer buffer, @NonNull LayerDescription description);
+
+    /**
+     * Converts a ByteBuffer into a caller supplied destination, used to read data from a model
+     * without allocating a new object for it.
+     *
+     * @param buffer      A ByteBuffer read from a TFLite model
+     * @param description A description of the layer with instructions on how to make the conversion
+     * @param destination A preallocated object of one of a number of native types to write into,
+     *                    such as an array of floats or a mutable Bitmap
+     * @throws IllegalArgumentException Raised if the destination is not of one of the supported
+     *                                  types or is the wrong size
+     */
+
+    public void fromByteBufferInto(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException;
 }
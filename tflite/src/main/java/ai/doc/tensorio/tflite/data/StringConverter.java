@@ -28,6 +28,7 @@ import java.nio.FloatBuffer;
 import ai.doc.tensorio.core.layerinterface.DataType;
 import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.StringLayerDescription;
+import ai.doc.tensorio.core.utilities.ByteBuffers;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
@@ -35,6 +36,19 @@ public class StringConverter implements Converter {
 
     @Override
     public ByteBuffer createBackingBuffer(@NonNull LayerDescription description) {
+        return createBackingBuffer(description, 1);
+    }
+
+    @Override
+    public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(byteLength(description) * batchSize);
+        buffer.order(ByteOrder.nativeOrder());
+
+        return buffer;
+    }
+
+    @Override
+    public int byteLength(@NonNull LayerDescription description) {
 
         // Acquire needed properties from layer description
 
@@ -58,14 +72,12 @@ public class StringConverter implements Converter {
             case Float32:
                 bufferLength = length * 4;
                 break;
+            case Float16:
+                bufferLength = length * 2;
+                break;
         }
 
-        // Create buffer
-
-        ByteBuffer buffer = ByteBuffer.allocateDirect(bufferLength);
-        buffer.order(ByteOrder.nativeOrder());
-
-        return buffer;
+        return bufferLength;
     }
 
     /**
@@ -97,6 +109,20 @@ public class StringConverter implements Converter {
         }
     }
 
+    @Override
+    public ByteBuffer toByteBuffer(@NonNull Object[] column, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, column.length);
+        int itemLength = buffer.capacity() / column.length;
+
+        for (int i = 0; i < column.length; i++) {
+            toByteBuffer(column[i], description, ByteBuffers.slice(buffer, i * itemLength, itemLength));
+        }
+
+        buffer.rewind();
+
+        return buffer;
+    }
+
     public ByteBuffer toByteBuffer(@NonNull byte[] bytes, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
         // Create a buffer if no reusable cache is provided
 
@@ -186,11 +212,41 @@ public class StringConverter implements Converter {
             case Float32:
                 view = buffer.asFloatBuffer();
                 break;
+            case Float16:
+                view = buffer.asShortBuffer();
+                break;
         }
 
         return view;
     }
 
+    /**
+     * Copies the raw bytes of a string (bytes) layer into a caller supplied ByteBuffer with enough
+     * capacity. The destination is rewound before and after it is written to.
+     */
+
+    @Override
+    public void fromByteBufferInto(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException {
+        if (!(destination instanceof ByteBuffer)) {
+            throw BadDestinationException();
+        }
+
+        ByteBuffer bytes = (ByteBuffer) destination;
+
+        if (bytes.capacity() < buffer.capacity()) {
+            throw BadDestinationException();
+        }
+
+        buffer.rewind();
+        bytes.rewind();
+        bytes.put(buffer);
+        bytes.rewind();
+    }
+
+    private static IllegalArgumentException BadDestinationException() {
+        return new IllegalArgumentException("Expected a ByteBuffer with enough capacity as a destination for the converter");
+    }
+
     private static IllegalArgumentException BadInputException() {
         return new IllegalArgumentException("Expected float[] or byte[] as input to the converter");
     }
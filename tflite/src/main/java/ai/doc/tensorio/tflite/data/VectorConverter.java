@@ -29,29 +29,48 @@ import java.nio.FloatBuffer;
 
 import ai.doc.tensorio.core.data.Dequantizer;
 import ai.doc.tensorio.core.data.Quantizer;
+import ai.doc.tensorio.core.layerinterface.DataType;
 import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
+import ai.doc.tensorio.core.utilities.ByteBuffers;
+import ai.doc.tensorio.core.utilities.HalfFloats;
 
 public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Converter {
 
     @Override
     public ByteBuffer createBackingBuffer(@NonNull LayerDescription description) {
-        ByteBuffer buffer;
+        return createBackingBuffer(description, 1);
+    }
 
+    @Override
+    public ByteBuffer createBackingBuffer(@NonNull LayerDescription description, int batchSize) {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(byteLength(description) * batchSize);
+        buffer.order(ByteOrder.nativeOrder());
+
+        return buffer;
+    }
+
+    @Override
+    public int byteLength(@NonNull LayerDescription description) {
         boolean quantized = ((VectorLayerDescription)description).isQuantized();
         int length = ((VectorLayerDescription)description).getLength();
 
         if (quantized) {
             // Layer expects bytes
-            buffer = ByteBuffer.allocateDirect(length);
-        } else {
-            // Layer expects floats
-            buffer = ByteBuffer.allocateDirect(length*4);
+            return length;
         }
 
-        buffer.order(ByteOrder.nativeOrder());
-
-        return buffer;
+        switch (description.getDtype()) {
+            case Float16:
+                // Layer expects half floats
+                return length * 2;
+            case Int64:
+                // Layer expects int64s
+                return length * 8;
+            default:
+                // Layer expects int32s or floats
+                return length * 4;
+        }
     }
 
     @Override
@@ -60,11 +79,31 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
             return toByteBuffer((byte[])o, description, cache);
         } else if (o instanceof float[]) {
             return toByteBuffer((float[])o, description, cache);
+        } else if (o instanceof int[]) {
+            return toByteBuffer((int[])o, description, cache);
+        } else if (o instanceof long[]) {
+            return toByteBuffer((long[])o, description, cache);
+        } else if (o instanceof ByteBuffer) {
+            return ByteBuffers.copy((ByteBuffer)o, (cache != null) ? cache : createBackingBuffer(description), byteLength(description));
         } else {
             throw BadInputException();
         }
     }
 
+    @Override
+    public ByteBuffer toByteBuffer(@NonNull Object[] column, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description, column.length);
+        int itemLength = buffer.capacity() / column.length;
+
+        for (int i = 0; i < column.length; i++) {
+            toByteBuffer(column[i], description, ByteBuffers.slice(buffer, i * itemLength, itemLength));
+        }
+
+        buffer.rewind();
+
+        return buffer;
+    }
+
     /**
      * Writes an array of bytes to a ByteBuffer and returns it, using the cache if one is provided.
      *
@@ -100,8 +139,8 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
     }
 
     /**
-     * Writes an array of floats to a ByteBuffer and returns it, quantizing the values if necessary,
-     * and using the cache if one is provided.
+     * Writes an array of floats to a ByteBuffer and returns it, quantizing the values if necessary
+     * or packing them as half floats for Float16 layers, and using the cache if one is provided.
      *
      * @param floats array of floats to write to ByteBuffer
      * @param description A description of the layer with instructions on how to make the conversion
@@ -134,12 +173,94 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
         if (quantized && quantizer == null) {
             throw MissingQuantizeException();
         } else if (quantized) {
+            quantizer.quantize(floats, buffer);
+        } else if (vectorLayerDescription.getDtype() == DataType.Float16) {
+            HalfFloats.put(buffer, floats);
+        } else if (isIntegral(vectorLayerDescription)) {
+            throw BadDtypeException(vectorLayerDescription.getDtype());
+        } else {
+            // Write floats in place rather than through an asFloatBuffer view, which allocates
             for (float v: floats) {
-                buffer.put((byte)quantizer.quantize(v));
+                buffer.putFloat(v);
             }
-        } else {
-            FloatBuffer f = buffer.asFloatBuffer();
-            f.put(floats);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Writes an array of int32s to a ByteBuffer and returns it, using the cache if one is provided.
+     *
+     * @param ints array of int32s to write to ByteBuffer
+     * @param description A description of an Int32 layer
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return ByteBuffer ready for use with a TFLite model
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull int[] ints, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        // Create a buffer if no reusable cache is provided
+
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
+        buffer.rewind();
+
+        // Acquire needed properties from layer description
+
+        VectorLayerDescription vectorLayerDescription = (VectorLayerDescription) description;
+        int length = vectorLayerDescription.getLength();
+
+        // Validate input
+
+        if (vectorLayerDescription.getDtype() != DataType.Int32) {
+            throw BadDtypeException(vectorLayerDescription.getDtype());
+        }
+        if (ints.length != length) {
+            throw BadLengthException(ints.length, length);
+        }
+
+        // Write the ints
+
+        for (int v: ints) {
+            buffer.putInt(v);
+        }
+
+        return buffer;
+    }
+
+    /**
+     * Writes an array of int64s (long) to a ByteBuffer and returns it, using the cache if one is provided.
+     *
+     * @param longs array of int64s to write to ByteBuffer
+     * @param description A description of an Int64 layer
+     * @param cache A pre-existing byte buffer to use, which will be returned if not null. If a cache
+     *              is provided it will be rewound before being used.
+     * @return ByteBuffer ready for use with a TFLite model
+     */
+
+    public ByteBuffer toByteBuffer(@NonNull long[] longs, @NonNull LayerDescription description, @Nullable ByteBuffer cache) throws IllegalArgumentException {
+        // Create a buffer if no reusable cache is provided
+
+        ByteBuffer buffer = (cache != null) ? cache : createBackingBuffer(description);
+        buffer.rewind();
+
+        // Acquire needed properties from layer description
+
+        VectorLayerDescription vectorLayerDescription = (VectorLayerDescription) description;
+        int length = vectorLayerDescription.getLength();
+
+        // Validate input
+
+        if (vectorLayerDescription.getDtype() != DataType.Int64) {
+            throw BadDtypeException(vectorLayerDescription.getDtype());
+        }
+        if (longs.length != length) {
+            throw BadLengthException(longs.length, length);
+        }
+
+        // Write the longs
+
+        for (long v: longs) {
+            buffer.putLong(v);
         }
 
         return buffer;
@@ -165,24 +286,168 @@ public class VectorConverter implements ai.doc.tensorio.core.data.Converter, Con
         // Fork on quantized
 
         if (quantized && dequantizer == null) {
-            return buffer.array();
+            byte[] result = new byte[length];
+            buffer.get(result);
+            return result;
         } else if (quantized) {
             float[] result = new float[length];
+            dequantizer.dequantize(buffer, result);
+            return result;
+        }
+
+        // Fork on dtype
+
+        switch (vectorLayerDescription.getDtype()) {
+            case Int32: {
+                int[] result = new int[length];
+                buffer.asIntBuffer().get(result);
+                return result;
+            }
+            case Int64: {
+                long[] result = new long[length];
+                buffer.asLongBuffer().get(result);
+                return result;
+            }
+            case Float16: {
+                float[] result = new float[length];
+                HalfFloats.get(buffer, result);
+                return result;
+            }
+            default: {
+                float[] result = new float[length];
+                buffer.asFloatBuffer().get(result);
+                return result;
+            }
+        }
+    }
+
+    /**
+     * Reads a vector into a float[] or FloatBuffer, a byte[] for quantized layers, or an int[] or
+     * long[] for Int32 and Int64 layers. Quantized values are dequantized and Float16 values
+     * unpacked when reading into floats. A FloatBuffer is rewound before and after it is written to.
+     */
+
+    @Override
+    public void fromByteBufferInto(@NonNull ByteBuffer buffer, @NonNull LayerDescription description, @NonNull Object destination) throws IllegalArgumentException {
+
+        // Acquire needed properties from layer description
+
+        VectorLayerDescription vectorLayerDescription = (VectorLayerDescription) description;
+        Dequantizer dequantizer = vectorLayerDescription.getDequantizer();
+        boolean quantized = vectorLayerDescription.isQuantized();
+        boolean half = !quantized && vectorLayerDescription.getDtype() == DataType.Float16;
+        int length = vectorLayerDescription.getLength();
+
+        // Prepare buffer for reading
+
+        buffer.rewind();
+
+        // Fork on destination type, quantized, and dtype
+
+        if (destination instanceof int[] && vectorLayerDescription.getDtype() == DataType.Int32) {
+            int[] ints = (int[]) destination;
+
+            if (ints.length != length) {
+                throw BadLengthException(ints.length, length);
+            }
+
             for (int i = 0; i < length; i++) {
-                result[i] = dequantizer.dequantize((int) ( buffer.get() & 0xFF ) );
+                ints[i] = buffer.getInt(i * 4);
             }
-            return result;
+        } else if (destination instanceof long[] && vectorLayerDescription.getDtype() == DataType.Int64) {
+            long[] longs = (long[]) destination;
+
+            if (longs.length != length) {
+                throw BadLengthException(longs.length, length);
+            }
+
+            for (int i = 0; i < length; i++) {
+                longs[i] = buffer.getLong(i * 8);
+            }
+        } else if (!quantized && isIntegral(vectorLayerDescription)) {
+            throw BadDestinationException();
+        } else if (destination instanceof float[]) {
+            float[] floats = (float[]) destination;
+
+            if (floats.length != length) {
+                throw BadLengthException(floats.length, length);
+            }
+
+            if (quantized && dequantizer == null) {
+                throw MissingDequantizeException();
+            } else if (quantized) {
+                dequantizer.dequantize(buffer, floats);
+            } else if (half) {
+                for (int i = 0; i < length; i++) {
+                    floats[i] = HalfFloats.toFloat(buffer.getShort(i * 2));
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    floats[i] = buffer.getFloat(i * 4);
+                }
+            }
+        } else if (destination instanceof FloatBuffer) {
+            FloatBuffer floats = (FloatBuffer) destination;
+
+            if (floats.capacity() != length) {
+                throw BadLengthException(floats.capacity(), length);
+            }
+
+            floats.rewind();
+
+            if (quantized && dequantizer == null) {
+                throw MissingDequantizeException();
+            } else if (quantized) {
+                float[] table = dequantizer.getLookupTable();
+                for (int i = 0; i < length; i++) {
+                    floats.put(i, table[buffer.get(i) & 0xFF]);
+                }
+            } else if (half) {
+                for (int i = 0; i < length; i++) {
+                    floats.put(i, HalfFloats.toFloat(buffer.getShort(i * 2)));
+                }
+            } else {
+                for (int i = 0; i < length; i++) {
+                    floats.put(i, buffer.getFloat(i * 4));
+                }
+            }
+        } else if (destination instanceof byte[] && quantized) {
+            byte[] bytes = (byte[]) destination;
+
+            if (bytes.length != length) {
+                throw BadLengthException(bytes.length, length);
+            }
+
+            buffer.get(bytes);
         } else {
-            float[] result = new float[length];
-            buffer.asFloatBuffer().get(result);
-            return result;
+            throw BadDestinationException();
         }
     }
 
+    //region Utilities
+
+    private static boolean isIntegral(@NonNull VectorLayerDescription description) {
+        return description.getDtype() == DataType.Int32 || description.getDtype() == DataType.Int64;
+    }
+
+    //endRegion
+
     //region Exceptions
 
+    private static IllegalArgumentException BadDestinationException() {
+        return new IllegalArgumentException("The destination does not match the layer, expected float[] or FloatBuffer for float or dequantized layers, byte[] for quantized layers, or int[] or long[] for Int32 or Int64 layers");
+    }
+
+    private static IllegalArgumentException BadDtypeException(@NonNull DataType dtype) {
+        return new IllegalArgumentException("The input does not match the layer's dtype " + dtype + ", expected int[] for Int32 layers, long[] for Int64 layers, and float[] otherwise");
+    }
+
+    private static IllegalArgumentException MissingDequantizeException() {
+        return new IllegalArgumentException("Float destination given for quantized output without dequantizer, expected byte[] or dequantizer != null");
+    }
+
     private static IllegalArgumentException BadInputException() {
-        return new IllegalArgumentException("Expected float[] or byte[] as input to the converter");
+        return new IllegalArgumentException("Expected float[], byte[], int[], long[], or ByteBuffer as input to the converter");
     }
 
     private static IllegalArgumentException BadLengthException(int given, int expected) {
@@ -0,0 +1,132 @@
+/*
+ * InterpreterPool.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.tflite.model;
+
+import androidx.annotation.NonNull;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import ai.doc.tensorio.core.model.Model.ModelException;
+
+/**
+ * A fixed size pool of interpreters backed by the same model. Callers check an interpreter out
+ * with `acquire`, run inference on it, and check it back in with `release`. When every interpreter
+ * is in use `acquire` blocks until one is released.
+ *
+ * Closing the pool waits for interpreters that are checked out to be released before closing them,
+ * so that native resources are never freed while inference is in progress.
+ */
+
+class InterpreterPool {
+
+    private final ArrayDeque<PooledInterpreter> available;
+    private final int size;
+    private int checkedOut = 0;
+    private boolean closed = false;
+
+    InterpreterPool(@NonNull List<PooledInterpreter> interpreters) {
+        this.available = new ArrayDeque<>(interpreters);
+        this.size = interpreters.size();
+    }
+
+    /** The number of interpreters managed by this pool */
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks out an interpreter, blocking until one is available.
+     *
+     * @return An interpreter reserved for the calling thread until it is released
+     * @throws ModelException If the pool is closed or the calling thread is interrupted while waiting
+     */
+
+    synchronized PooledInterpreter acquire() throws ModelException {
+        try {
+            while (!closed && available.isEmpty()) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ModelException("Interrupted while waiting for an interpreter", e);
+        }
+
+        if (closed) {
+            throw new ModelException("The model was unloaded while waiting for an interpreter");
+        }
+
+        checkedOut++;
+        return available.pop();
+    }
+
+    /**
+     * Checks an interpreter back in. If the pool was closed while the interpreter was checked out
+     * it is closed now.
+     */
+
+    synchronized void release(@NonNull PooledInterpreter interpreter) {
+        checkedOut--;
+
+        if (closed) {
+            interpreter.close();
+        } else {
+            available.push(interpreter);
+        }
+
+        notifyAll();
+    }
+
+    /**
+     * Closes every interpreter in the pool, waiting for checked out interpreters to be released.
+     */
+
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+
+        for (PooledInterpreter interpreter : available) {
+            interpreter.close();
+        }
+
+        available.clear();
+        notifyAll();
+
+        // Interpreters released from here on are closed by release()
+
+        boolean interrupted = false;
+
+        while (checkedOut > 0) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * PooledInterpreter.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.tflite.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import org.tensorflow.lite.Interpreter;
+import org.tensorflow.lite.gpu.GpuDelegate;
+import org.tensorflow.lite.nnapi.NnApiDelegate;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.HashMap;
+import java.util.Map;
+
+import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.model.IO;
+
+/**
+ * An interpreter together with the delegates and buffers that belong to it. Only one thread at a
+ * time may use a pooled interpreter, which it checks out of and back into an `InterpreterPool`.
+ *
+ * Every pooled interpreter owns its own buffer cache so that concurrent inference on separate
+ * interpreters never shares input or output buffers.
+ */
+
+class PooledInterpreter {
+
+    final Interpreter interpreter;
+
+    @Nullable
+    final GpuDelegate gpuDelegate;
+
+    @Nullable
+    final NnApiDelegate nnApiDelegate;
+
+    /** Input and output buffers for each layer, null if buffer caching is disabled */
+
+    @Nullable
+    final Map<LayerInterface, ByteBuffer> bufferCache;
+
+    /**
+     * The cached input buffers ordered by input index and the cached output buffers keyed by output
+     * index, in the form the interpreter runs on, built once so that inference does not allocate
+     * them. Null if buffer caching is disabled.
+     */
+
+    @Nullable
+    final Object[] inputBuffers;
+
+    @Nullable
+    final Map<Integer, Object> outputBuffers;
+
+    /** The cached input buffers that `inputBuffers` is restored to after each run */
+
+    @Nullable
+    private final Object[] cachedInputBuffers;
+
+    /** The batch size the interpreter's input tensors are currently sized for */
+
+    int batchSize = 1;
+
+    /** Input and output buffers for batched inference, sized for `batchBufferCapacity` items */
+
+    @Nullable
+    Map<LayerInterface, ByteBuffer> batchBufferCache;
+
+    int batchBufferCapacity = 0;
+
+    /**
+     * Descriptions and buffers for recently used dynamic input shapes, null if the model has none
+     * or if buffer caching is disabled
+     */
+
+    @Nullable
+    final ShapeCache shapeCache;
+
+    /** The dynamic input dimensions the interpreter's input tensors are currently sized for */
+
+    @Nullable
+    int[] dynamicDimensions;
+
+    PooledInterpreter(@NonNull Interpreter interpreter, @Nullable GpuDelegate gpuDelegate, @Nullable NnApiDelegate nnApiDelegate, @NonNull IO io, @Nullable Map<LayerInterface, ByteBuffer> bufferCache, @Nullable ShapeCache shapeCache) {
+        this.interpreter = interpreter;
+        this.gpuDelegate = gpuDelegate;
+        this.nnApiDelegate = nnApiDelegate;
+        this.bufferCache = bufferCache;
+        this.shapeCache = shapeCache;
+
+        if (bufferCache == null) {
+            this.inputBuffers = null;
+            this.outputBuffers = null;
+            this.cachedInputBuffers = null;
+            return;
+        }
+
+        IO.IOList inputList = io.getInputs();
+        IO.IOList outputList = io.getOutputs();
+
+        this.inputBuffers = new Object[inputList.size()];
+        this.outputBuffers = new HashMap<>(outputList.size());
+
+        for (int i = 0; i < inputList.size(); i++) {
+            inputBuffers[i] = bufferCache.get(inputList.get(i));
+        }
+
+        for (int i = 0; i < outputList.size(); i++) {
+            outputBuffers.put(i, bufferCache.get(outputList.get(i)));
+        }
+
+        this.cachedInputBuffers = inputBuffers.clone();
+    }
+
+    /**
+     * Restores the cached input buffers after a run, so that a caller's buffer passed to the
+     * interpreter without being copied is not kept alive until the interpreter's next run.
+     */
+
+    void restoreInputBuffers() {
+        if (inputBuffers != null) {
+            System.arraycopy(cachedInputBuffers, 0, inputBuffers, 0, inputBuffers.length);
+        }
+    }
+
+    /**
+     * Returns a read-only view on one of the interpreter's output tensors in native byte order.
+     * The view reads the interpreter's memory in place and is only valid until its tensors are
+     * next allocated or it is closed.
+     */
+
+    ByteBuffer outputTensorBuffer(int index) {
+        return interpreter.getOutputTensor(index).asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+    }
+
+    /** Releases the native interpreter and its delegates */
+
+    void close() {
+        interpreter.close();
+
+        if (gpuDelegate != null) {
+            gpuDelegate.close();
+        }
+
+        if (nnApiDelegate != null) {
+            nnApiDelegate.close();
+        }
+    }
+}
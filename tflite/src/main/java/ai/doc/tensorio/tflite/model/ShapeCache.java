@@ -0,0 +1,146 @@
+/*
+ * ShapeCache.java
+ * TensorIO
+ *
+ * Copyright (c) 2020 - Present doc.ai (http://doc.ai)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ai.doc.tensorio.tflite.model;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import ai.doc.tensorio.core.layerinterface.LayerDescription;
+
+/**
+ * A small least recently used cache of the layer descriptions and buffers a pooled interpreter
+ * runs on for each combination of dynamic input dimensions, so that a model alternating between a
+ * few input lengths does not reallocate its buffers on every call.
+ *
+ * The cache holds only a handful of entries and is searched linearly, which spares allocating a
+ * key for every lookup. Like the interpreter that owns it, it may only be used by one thread at a
+ * time.
+ */
+
+class ShapeCache {
+
+    /** The descriptions and buffers for one combination of dynamic input dimensions */
+
+    static class Entry {
+
+        /** The size of the dynamic dimension of each dynamic input, in input order */
+
+        final int[] dimensions;
+
+        /** The description of each input and output, resolved for the dimensions */
+
+        final LayerDescription[] inputDescriptions;
+        final LayerDescription[] outputDescriptions;
+
+        /** The buffer for each input and output, sized for the dimensions */
+
+        final ByteBuffer[] inputBufferCache;
+        final ByteBuffer[] outputBufferCache;
+
+        /**
+         * The buffers in the form the interpreter runs on, built once and refilled on every run
+         * because an input buffer may be replaced by a caller's buffer that needs no copy.
+         */
+
+        final Object[] inputBuffers;
+        final Map<Integer, Object> outputBuffers;
+
+        Entry(@NonNull int[] dimensions, @NonNull LayerDescription[] inputDescriptions, @NonNull LayerDescription[] outputDescriptions, @NonNull ByteBuffer[] inputBufferCache, @NonNull ByteBuffer[] outputBufferCache) {
+            this.dimensions = dimensions;
+            this.inputDescriptions = inputDescriptions;
+            this.outputDescriptions = outputDescriptions;
+            this.inputBufferCache = inputBufferCache;
+            this.outputBufferCache = outputBufferCache;
+            this.inputBuffers = new Object[inputBufferCache.length];
+            this.outputBuffers = new HashMap<>(outputBufferCache.length);
+        }
+
+        /**
+         * Clears the input buffers after a run, so that a caller's buffer passed to the interpreter
+         * without being copied is not kept alive until the entry is next used.
+         */
+
+        void clearInputBuffers() {
+            Arrays.fill(inputBuffers, null);
+        }
+    }
+
+    private final int capacity;
+    private final ArrayList<Entry> entries;
+
+    /**
+     * @param capacity The most entries the cache holds, the least recently used are dropped beyond it
+     */
+
+    ShapeCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new ArrayList<>(capacity);
+    }
+
+    /**
+     * Returns the entry for the dimensions and marks it most recently used, or null if none is cached.
+     */
+
+    @Nullable
+    Entry get(@NonNull int[] dimensions) {
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+
+            if (Arrays.equals(entry.dimensions, dimensions)) {
+                if (i != 0) {
+                    entries.remove(i);
+                    entries.add(0, entry);
+                }
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds an entry as the most recently used, dropping the least recently used beyond capacity.
+     */
+
+    void put(@NonNull Entry entry) {
+        if (capacity <= 0) {
+            return;
+        }
+        if (entries.size() >= capacity) {
+            entries.remove(entries.size() - 1);
+        }
+
+        entries.add(0, entry);
+    }
+
+    /**
+     * @return The number of entries currently cached
+     */
+
+    int size() {
+        return entries.size();
+    }
+}
@@ -20,38 +20,55 @@
 
 package ai.doc.tensorio.tflite.model;
 
-import android.content.res.AssetFileDescriptor;
 import android.graphics.Bitmap;
 
 import org.tensorflow.lite.Interpreter;
 import org.tensorflow.lite.gpu.GpuDelegate;
 import org.tensorflow.lite.nnapi.NnApiDelegate;
 
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.MappedByteBuffer;
-import java.nio.channels.FileChannel;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
+import ai.doc.tensorio.core.data.Batch;
 import ai.doc.tensorio.core.data.Placeholders;
+import ai.doc.tensorio.core.layerinterface.LayerDescription;
 import ai.doc.tensorio.core.layerinterface.LayerInterface;
+import ai.doc.tensorio.core.layerinterface.VectorLayerDescription;
 import ai.doc.tensorio.core.model.Model;
 import ai.doc.tensorio.core.modelbundle.AssetModelBundle;
 import ai.doc.tensorio.core.modelbundle.FileModelBundle;
 import ai.doc.tensorio.core.modelbundle.ModelBundle;
 import ai.doc.tensorio.core.model.IO;
+import ai.doc.tensorio.core.model.InferenceMetrics;
+import ai.doc.tensorio.core.utilities.BitmapPool;
+import ai.doc.tensorio.core.utilities.ByteBuffers;
+import ai.doc.tensorio.core.utilities.MappedFiles;
 import ai.doc.tensorio.tflite.data.BitmapConverter;
+import ai.doc.tensorio.tflite.data.Converter;
 import ai.doc.tensorio.tflite.data.StringConverter;
 import ai.doc.tensorio.tflite.data.VectorConverter;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 
+/**
+ * A `Model` backed by TensorFlow Lite.
+ *
+ * A TFLite model may be shared by multiple threads. Each call to `runOn` checks out one of the
+ * model's interpreters for the duration of inference, and each interpreter owns its own input and
+ * output buffers. By default a model has a single interpreter, so that concurrent calls are
+ * serialized. Call `setInterpreterPoolSize` to back the model with additional interpreters that
+ * share the same memory mapped model file, so that inference throughput scales with the number of
+ * available cores.
+ */
+
 public class TFLiteModel extends Model {
 
     public enum HardwareBacking {
@@ -62,21 +79,26 @@ public class TFLiteModel extends Model {
 
     // TFLite Backend
 
-    private Interpreter interpreter;
     private MappedByteBuffer tfLiteModel;
-    private GpuDelegate gpuDelegate = null;
-    private NnApiDelegate nnApiDelegate = null;
+    private volatile InterpreterPool interpreterPool;
+    private volatile long lastInferenceDuration = 0;
 
     // TFLite Backend Options
 
     private HardwareBacking hardwareBacking = HardwareBacking.CPU;
     private boolean use16BitPrecision = false;
     private int numThreads = -1;
+    private int interpreterPoolSize = 1;
+    private int shapeCacheSize = 4;
+    private boolean prefaultModelFile = false;
 
     // Buffer Caching
 
     private boolean cacheBuffers = true;
-    private Map<LayerInterface, ByteBuffer> bufferCache = null;
+
+    // Tensor Binding
+
+    private volatile boolean outputTensorBinding = false;
 
     // Data Converters
 
@@ -84,6 +106,18 @@ public class TFLiteModel extends Model {
     final private BitmapConverter bitmapConverter = new BitmapConverter();
     final private StringConverter stringConverter = new StringConverter();
 
+    @Override
+    public void setParallelPixelConversion(boolean parallelPixelConversion) {
+        super.setParallelPixelConversion(parallelPixelConversion);
+        bitmapConverter.setParallel(parallelPixelConversion);
+    }
+
+    @Override
+    public void setOutputBitmapPool(@Nullable BitmapPool outputBitmapPool) {
+        super.setOutputBitmapPool(outputBitmapPool);
+        bitmapConverter.setBitmapPool(outputBitmapPool);
+    }
+
     // Backend Options Getters and Setters
 
     /** Sets hardware backend. After calling this method you must call reload() for changes to take effect. */
@@ -116,6 +150,85 @@ public class TFLiteModel extends Model {
         return use16BitPrecision;
     }
 
+    /**
+     * Sets the number of interpreters backing this model, default is 1. Each interpreter can run
+     * inference concurrently with the others on a separate thread. The interpreters share the model
+     * file but each allocates its own tensors and buffers, and each uses `numThreads` threads.
+     *
+     * GPU delegates are bound to the thread that created them, so use a single interpreter with
+     * `HardwareBacking.GPU`.
+     *
+     * After calling this method you must call reload() for changes to take effect.
+     */
+
+    public void setInterpreterPoolSize(int interpreterPoolSize) {
+        if (interpreterPoolSize < 1) {
+            throw new IllegalArgumentException("The interpreter pool size must be at least 1");
+        }
+        this.interpreterPoolSize = interpreterPoolSize;
+    }
+
+    public int getInterpreterPoolSize() {
+        return interpreterPoolSize;
+    }
+
+    /**
+     * Sets the number of dynamic input shapes each interpreter keeps buffers for, default is 4.
+     *
+     * A model whose vector inputs have a dynamic dimension is resized to the shape of every input
+     * rather than padded to a maximum, so that short inputs cost proportionally less. The buffers
+     * and output shapes for the most recently used input shapes are kept so that alternating
+     * between a few input lengths does not reallocate them. Nothing is kept when buffer caching is
+     * disabled, in which case the buffers are allocated for every run.
+     *
+     * After calling this method you must call reload() for changes to take effect.
+     */
+
+    public void setShapeCacheSize(int shapeCacheSize) {
+        if (shapeCacheSize < 0) {
+            throw new IllegalArgumentException("The shape cache size must not be negative");
+        }
+        this.shapeCacheSize = shapeCacheSize;
+    }
+
+    public int getShapeCacheSize() {
+        return shapeCacheSize;
+    }
+
+    /**
+     * Sets whether the memory mapped model file is read into memory on a background thread as soon
+     * as it is mapped, default is false, so that the first inference does not stall on page
+     * faults. A file already mapped by another model is prefaulted at most once.
+     *
+     * Takes effect the next time the model file is mapped, when the model is first loaded.
+     */
+
+    public void setPrefaultModelFile(boolean prefaultModelFile) {
+        this.prefaultModelFile = prefaultModelFile;
+    }
+
+    public boolean isPrefaultModelFile() {
+        return prefaultModelFile;
+    }
+
+    /**
+     * Sets whether outputs are read directly from the interpreter's output tensors, default is
+     * false. The interpreter then no longer copies each output tensor into an intermediate buffer
+     * after inference, and the converters read the tensors in place instead. String outputs are
+     * returned as views on their buffers and so are still copied out of the interpreter.
+     *
+     * TensorFlow Lite's Java API does not expose writable input tensors, so inputs are always
+     * written to the interpreter's cached direct buffers, which it copies into its tensors.
+     */
+
+    public void setOutputTensorBinding(boolean outputTensorBinding) {
+        this.outputTensorBinding = outputTensorBinding;
+    }
+
+    public boolean isOutputTensorBinding() {
+        return outputTensorBinding;
+    }
+
     // Constructor
 
     public TFLiteModel(@NonNull ModelBundle bundle) {
@@ -130,79 +243,121 @@ public class TFLiteModel extends Model {
             return;
         }
 
-        // Prepare Buffer Cache
-
-        if (cacheBuffers) {
-            prepareBufferCache();
-        }
+        synchronized (this) {
+            if (isLoaded()) {
+                return;
+            }
 
-        // Load Model
+            // Load Model
 
-        try {
-            tfLiteModel = loadModelFile();
-        } catch (IOException e) {
-            throw new ModelException("Error loading model file", e);
-        }
+            try {
+                tfLiteModel = loadModelFile();
+            } catch (IOException e) {
+                throw new ModelException("Error loading model file", e);
+            }
 
-        // Prepare Interpreter
+            // Prepare Interpreters, releasing the mapping if they cannot be created
 
-        createInterpreter();
+            try {
+                interpreterPool = createInterpreterPool();
+            } catch (RuntimeException e) {
+                MappedFiles.release(tfLiteModel);
+                tfLiteModel = null;
+                throw e;
+            }
 
-        super.load();
+            super.load();
+        }
     }
 
-    /** Recreate the interpreter without reloading the model from disk **/
+    /** Recreate the interpreters without reloading the model from disk **/
 
     @Override
-    public void reload() throws ModelException {
-        if (interpreter != null ) {
-            interpreter.close();
-            interpreter = null;
+    public synchronized void reload() throws ModelException {
+        if (tfLiteModel == null) {
+            load();
+            return;
         }
 
-        if (gpuDelegate != null) {
-            gpuDelegate.close();
-            gpuDelegate = null;
-        }
+        InterpreterPool previousPool = interpreterPool;
+        interpreterPool = createInterpreterPool();
 
-        if (nnApiDelegate != null) {
-            nnApiDelegate.close();
-            nnApiDelegate = null;
+        if (previousPool != null) {
+            previousPool.close();
         }
 
-        createInterpreter();
         super.reload();
     }
 
     @Override
-    public void unload() {
+    public synchronized void unload() {
         if (!isLoaded()) {
             return;
         }
 
-        if (interpreter != null ) {
-            interpreter.close();
-            interpreter = null;
+        if (interpreterPool != null) {
+            interpreterPool.close();
+            interpreterPool = null;
         }
 
-        if (gpuDelegate != null) {
-            gpuDelegate.close();
-            gpuDelegate = null;
+        if (tfLiteModel != null) {
+            MappedFiles.release(tfLiteModel);
+            tfLiteModel = null;
         }
 
-        if (nnApiDelegate != null) {
-            nnApiDelegate.close();
-            nnApiDelegate = null;
+        bitmapConverter.clearDecodeBuffers();
+
+        super.unload();
+    }
+
+    /**
+     * Warms up every interpreter in the pool rather than only the first. Each interpreter is held
+     * once it has been warmed, so that the next runs go to an interpreter that has not been.
+     */
+
+    @Override
+    protected void warmUp(@NonNull Map<String, Object> inputs, int runs) throws ModelException {
+        InterpreterPool pool = acquirePool();
+        List<PooledInterpreter> warmed = new ArrayList<>(interpreterPoolSize);
+
+        try {
+            for (int i = 0; i < interpreterPoolSize; i++) {
+                super.warmUp(inputs, runs);
+
+                if (i < interpreterPoolSize - 1) {
+                    warmed.add(pool.acquire());
+                }
+            }
+        } finally {
+            for (PooledInterpreter pooled : warmed) {
+                pool.release(pooled);
+            }
         }
+    }
+
+    /**
+     * Creates a pool of interpreters that share the memory mapped model file, closing those
+     * already created if one of them cannot be
+     */
 
-        if (bufferCache != null) {
-            bufferCache = null;
+    private InterpreterPool createInterpreterPool() {
+        List<PooledInterpreter> interpreters = new ArrayList<>(interpreterPoolSize);
+
+        try {
+            for (int i = 0; i < interpreterPoolSize; i++) {
+                interpreters.add(createInterpreter());
+            }
+        } catch (RuntimeException e) {
+            for (PooledInterpreter pooled : interpreters) {
+                pooled.close();
+            }
+            throw e;
         }
 
-        super.unload();
+        return new InterpreterPool(interpreters);
     }
 
-    private void createInterpreter() {
+    private PooledInterpreter createInterpreter() {
 
         // Options
 
@@ -214,6 +369,8 @@ public class TFLiteModel extends Model {
 
         // GPU Delegate
 
+        GpuDelegate gpuDelegate = null;
+
         if (hardwareBacking == HardwareBacking.GPU && GpuDelegateHelper.isGpuDelegateAvailable()) {
             gpuDelegate = (GpuDelegate) GpuDelegateHelper.createGpuDelegate();
             options.addDelegate(gpuDelegate);
@@ -221,6 +378,8 @@ public class TFLiteModel extends Model {
 
         // NNAPI Delegate
 
+        NnApiDelegate nnApiDelegate = null;
+
         if (hardwareBacking == HardwareBacking.NNAPI && NnApiDelegateHelper.isNnApiDelegateAvailable()) {
             nnApiDelegate = (NnApiDelegate) NnApiDelegateHelper.createNnApiDelegate();
             options.addDelegate(nnApiDelegate);
@@ -228,13 +387,20 @@ public class TFLiteModel extends Model {
 
         // Interpreter
 
-        interpreter = new Interpreter(tfLiteModel, options);
+        Interpreter interpreter = new Interpreter(tfLiteModel, options);
+
+        // Buffer Cache
+
+        Map<LayerInterface, ByteBuffer> bufferCache = cacheBuffers ? prepareBufferCache() : null;
+        ShapeCache shapeCache = cacheBuffers && hasDynamicInputs() ? new ShapeCache(shapeCacheSize) : null;
+
+        return new PooledInterpreter(interpreter, gpuDelegate, nnApiDelegate, getIO(), bufferCache, shapeCache);
     }
 
     /** Create buffer caches that are used for model inputs and outputs */
 
-    void prepareBufferCache() {
-        bufferCache = new HashMap<>();
+    Map<LayerInterface, ByteBuffer> prepareBufferCache() {
+        Map<LayerInterface, ByteBuffer> bufferCache = new HashMap<>();
 
         List<LayerInterface> layers = new ArrayList<>();
         layers.addAll(getIO().getInputs().all());
@@ -249,6 +415,8 @@ public class TFLiteModel extends Model {
                 bufferCache.put(layer, stringConverter.createBackingBuffer(stringLayer));
             });
         }
+
+        return bufferCache;
     }
 
     //endRegion
@@ -257,19 +425,37 @@ public class TFLiteModel extends Model {
 
     @Override
     public Map<String, Object> runOn(int[] input) throws ModelException, IllegalArgumentException {
-        throw new IllegalArgumentException("Int32 inputs are not supported by TF Lite");
+        InferenceMetrics metrics = startMetrics();
+
+        validateInput(input);
+        load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(long[] input) throws ModelException, IllegalArgumentException {
-        throw new IllegalArgumentException("Int64 inputs are not supported by TF Lite");
-    }
+        InferenceMetrics metrics = startMetrics();
 
-    @Override
-    public Map<String, Object> runOn(ByteBuffer input) throws ModelException, IllegalArgumentException {
-        throw new IllegalArgumentException("ByteBuffer inputs are not supported by TF Lite");
+        validateInput(input);
+        load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
+
     @Override
     public Map<String, Object> runOn(@NonNull Map<String, Object> input, @Nullable Placeholders placeholders) throws ModelException, IllegalArgumentException {
         throw new ModelException("Placeholders not supported by TF Lite models");
@@ -277,49 +463,238 @@ public class TFLiteModel extends Model {
 
     @Override
     public Map<String, Object> runOn(float[] input) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(byte[] input) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
+    }
+
+    @Override
+    public Map<String, Object> runOn(ByteBuffer input) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
+        validateInput(input);
+        load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(@NonNull Bitmap input) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(mappedInput(input));
-        } else {
-            return runSingleInputSingleOutput(input);
-        }
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(mappedInput(input), metrics)
+                : runSingleInputSingleOutput(input, metrics);
+
+        reportMetrics(metrics);
+        return results;
     }
 
     @Override
     public Map<String, Object> runOn(@NonNull Map<String, Object> input) throws ModelException, IllegalArgumentException {
+        InferenceMetrics metrics = startMetrics();
+
         validateInput(input);
         load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
 
-        if (hasMultipleInputsOrOutputs()) {
-            return runMultipleInputMultipleOutput(input);
-        } else {
-            return runSingleInputSingleOutput(unmappedInput(input));
+        Map<String, Object> results = hasMultipleInputsOrOutputs()
+                ? runMultipleInputMultipleOutput(input, metrics)
+                : runSingleInputSingleOutput(unmappedInput(input), metrics);
+
+        reportMetrics(metrics);
+        return results;
+    }
+
+    /**
+     * Perform inference on a batch of items in a single pass by resizing the batch dimension of the
+     * interpreter's inputs. Each input and output layer must have a batch dimension and no input
+     * may have a dynamic dimension, otherwise the model is run once per item.
+     */
+
+    @Override
+    public Batch runOn(@NonNull Batch batch) throws ModelException, IllegalArgumentException {
+        if (!hasBatchedInterface() || hasDynamicInputs()) {
+            return super.runOn(batch);
+        }
+
+        InferenceMetrics metrics = startMetrics();
+
+        validateInput(batch);
+        load();
+        metrics.lap(InferenceMetrics.Stage.Validation);
+
+        // Fetch the input and output layer descriptions from the model
+
+        IO.IOList inputList = getIO().getInputs();
+        IO.IOList outputList = getIO().getOutputs();
+        int batchSize = batch.size();
+        metrics.setBatchSize(batchSize);
+
+        // Check out an interpreter for the duration of inference
+
+        InterpreterPool pool = acquirePool();
+        PooledInterpreter pooled = pool.acquire();
+
+        try {
+
+            // Size the interpreter's inputs for the batch
+
+            resizeBatch(pooled, batchSize);
+            prepareBatchBufferCache(pooled, batchSize);
+
+            // Prepare input buffers, each holding a column of the batch
+
+            Object[] inputBuffers = new Object[inputList.size()];
+
+            for (int i = 0; i < inputList.size(); i++){
+                LayerInterface inputLayer = inputList.get(i);
+                Object[] column = batch.get(inputLayer.getName());
+                ByteBuffer inputBuffer = prepareBatchInputBuffer(column, inputLayer, pooled, metrics);
+
+                inputBuffers[i] = inputBuffer;
+            }
+
+            // Prepare output buffers, leaving out the outputs that are read from bound tensors
+
+            boolean bound = outputTensorBinding;
+            Map<Integer, Object> outputBuffers = new HashMap<>(outputList.size());
+
+            for (int i = 0; i < outputList.size(); i++){
+                LayerInterface outputLayer = outputList.get(i);
+
+                if (bound && isBindable(outputLayer)) {
+                    continue;
+                }
+
+                ByteBuffer outputBuffer = prepareBatchOutputBuffer(outputLayer, batchSize, pooled, metrics);
+                outputBuffers.put(i, outputBuffer);
+            }
+
+            metrics.lap(InferenceMetrics.Stage.InputConversion);
+
+            // Run the model on the input buffers, store the output in the output buffers
+
+            pooled.interpreter.runForMultipleInputsOutputs(inputBuffers, outputBuffers);
+            recordInferenceDuration(pooled);
+            bindOutputTensors(outputBuffers, bound, pooled);
+            metrics.lap(InferenceMetrics.Stage.Invoke);
+
+            // Split each output along the batch dimension and convert to user land objects
+
+            Batch results = captureBatchedOutputs(outputBuffers, batchSize, metrics);
+            metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+            reportMetrics(metrics);
+            return results;
+        } finally {
+            pool.release(pooled);
+        }
+    }
+
+    /**
+     * Performs inference and reads each output buffer directly into its destination. Labeled
+     * vector outputs are written as raw values, in the order of the layer's labels.
+     *
+     * Inputs have already been validated, so the validation stage is reported as zero.
+     */
+
+    @Override
+    protected void runIndexedInto(@NonNull Object[] inputs, @NonNull Object[] outputs) throws ModelException, IllegalArgumentException {
+        if (hasDynamicInputs()) {
+            throw new IllegalArgumentException("Models with dynamic input shapes cannot be run into preallocated outputs");
+        }
+
+        InferenceMetrics metrics = startMetrics();
+
+        // Fetch the input and output layer descriptions from the model
+
+        IO.IOList inputList = getIO().getInputs();
+        IO.IOList outputList = getIO().getOutputs();
+
+        // Check out an interpreter for the duration of inference
+
+        InterpreterPool pool = acquirePool();
+        PooledInterpreter pooled = pool.acquire();
+
+        try {
+
+            // Size the interpreter's inputs for a single item
+
+            resizeBatch(pooled, 1);
+
+            // Prepare input buffers
+
+            Object[] inputBuffers = pooled.inputBuffers != null
+                    ? pooled.inputBuffers
+                    : new Object[inputList.size()];
+
+            for (int i = 0; i < inputList.size(); i++){
+                inputBuffers[i] = prepareInputBuffer(inputs[i], inputList.get(i), pooled, metrics);
+            }
+
+            // Prepare output buffers, leaving out the outputs that are read from bound tensors
+
+            boolean bound = outputTensorBinding;
+            Map<Integer, Object> outputBuffers = prepareOutputBuffers(bound, pooled, metrics);
+
+            metrics.lap(InferenceMetrics.Stage.InputConversion);
+
+            // Run the model on the input buffers, store the output in the output buffers
+
+            pooled.interpreter.runForMultipleInputsOutputs(inputBuffers, outputBuffers);
+            recordInferenceDuration(pooled);
+            bindOutputTensors(outputBuffers, bound, pooled);
+            metrics.lap(InferenceMetrics.Stage.Invoke);
+
+            // Read the output buffers into the caller's destinations
+
+            for (int i = 0; i < outputList.size(); i++){
+                if (outputs[i] != null) {
+                    captureOutputInto((ByteBuffer) outputBuffers.get(i), outputList.get(i), outputs[i], metrics);
+                }
+            }
+
+            metrics.lap(InferenceMetrics.Stage.OutputCapture);
+            reportMetrics(metrics);
+        } finally {
+            pooled.restoreInputBuffers();
+            pool.release(pooled);
         }
     }
 
@@ -365,138 +740,313 @@ public class TFLiteModel extends Model {
     /**
      * Actually performs inference on a single input with a single output
      * @param input An input in one of the supported types, e.g. byte[], float[], or Bitmap
+     * @param metrics Metrics for the call, lapped at the end of each stage
      * @return The model's single output mapped by the output layers name
+     * @throws ModelException raised if no interpreter could be acquired
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private Map<String, Object> runSingleInputSingleOutput(@NonNull Object input) throws IllegalArgumentException {
+    private Map<String, Object> runSingleInputSingleOutput(@NonNull Object input, @NonNull InferenceMetrics metrics) throws ModelException, IllegalArgumentException {
 
         // Fetch the input and output layer descriptions from the model
 
         LayerInterface inputLayer = getIO().getInputs().get(0);
         LayerInterface outputLayer = getIO().getOutputs().get(0);
 
-        // Prepare input buffer
+        // Check out an interpreter for the duration of inference
+
+        InterpreterPool pool = acquirePool();
+        PooledInterpreter pooled = pool.acquire();
+
+        try {
+
+            // Size the interpreter's inputs for a single item
+
+            resizeBatch(pooled, 1);
+
+            // Prepare input buffer
 
-        ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer);
+            ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer, pooled, metrics);
 
-        // Prepare output buffer
+            // Prepare output buffer
 
-        ByteBuffer outputBuffer = prepareOutputBuffer(outputLayer);
+            ByteBuffer outputBuffer = prepareOutputBuffer(outputLayer, pooled, metrics);
+            metrics.lap(InferenceMetrics.Stage.InputConversion);
 
-        // Run the model on the input buffer, store the output in the output buffer
+            // Run the model on the input buffer, store the output in the output buffer
 
-        interpreter.run(inputBuffer, outputBuffer);
+            pooled.interpreter.run(inputBuffer, outputBuffer);
+            recordInferenceDuration(pooled);
+            metrics.lap(InferenceMetrics.Stage.Invoke);
 
-        // Convert output buffers to user land objects
+            // Convert output buffers to user land objects
 
-        Map<Integer, Object> outputs = new HashMap<>(getIO().getOutputs().size()); // Always size 1
-        outputs.put(0, outputBuffer);
+            Map<Integer, Object> outputs = new HashMap<>(getIO().getOutputs().size()); // Always size 1
+            outputs.put(0, outputBuffer);
 
-        return captureOutputs(outputs);
+            Map<String, Object> results = captureOutputs(outputs, metrics);
+            metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+            return results;
+        } finally {
+            pool.release(pooled);
+        }
     }
 
     /**
      * Actually performs inference on multiple inputs or multiple outputs
      * @param inputs A mapping from input layer names to input values
+     * @param metrics Metrics for the call, lapped at the end of each stage
      * @return The model's outputs mapped by the output layer names
+     * @throws ModelException raised if no interpreter could be acquired
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private Map<String, Object> runMultipleInputMultipleOutput(@NonNull Map<String, Object> inputs) throws IllegalArgumentException {
+    private Map<String, Object> runMultipleInputMultipleOutput(@NonNull Map<String, Object> inputs, @NonNull InferenceMetrics metrics) throws ModelException, IllegalArgumentException {
+        if (hasDynamicInputs()) {
+            return runDynamicInputs(inputs, metrics);
+        }
 
-        // Fetch the input and output layer descriptions from the model
+        // Fetch the input layer descriptions from the model
 
         IO.IOList inputList = getIO().getInputs();
-        IO.IOList outputList = getIO().getOutputs();
 
-        // Prepare input buffers
+        // Check out an interpreter for the duration of inference
 
-        Object[] inputBuffers = new Object[inputList.size()];
+        InterpreterPool pool = acquirePool();
+        PooledInterpreter pooled = pool.acquire();
 
-        for (int i = 0; i < inputList.size(); i++){
-            LayerInterface inputLayer = inputList.get(i);
-            Object input = inputs.get(inputLayer.getName());
-            ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer);
+        try {
 
-            inputBuffers[i] = inputBuffer;
-        }
+            // Size the interpreter's inputs for a single item
 
-        // Prepare output buffers
+            resizeBatch(pooled, 1);
 
-        Map<Integer, Object> outputBuffers = new HashMap<>(outputList.size());
+            // Prepare input buffers
 
-        for (int i = 0; i < outputList.size(); i++){
-            LayerInterface outputLayer = outputList.get(i);
-            ByteBuffer outputBuffer = prepareOutputBuffer(outputLayer);
+            Object[] inputBuffers = pooled.inputBuffers != null
+                    ? pooled.inputBuffers
+                    : new Object[inputList.size()];
 
-            outputBuffers.put(i, outputBuffer);
-        }
+            for (int i = 0; i < inputList.size(); i++){
+                LayerInterface inputLayer = inputList.get(i);
+                Object input = inputs.get(inputLayer.getName());
+                ByteBuffer inputBuffer = prepareInputBuffer(input, inputLayer, pooled, metrics);
+
+                inputBuffers[i] = inputBuffer;
+            }
+
+            // Prepare output buffers, leaving out the outputs that are read from bound tensors
+
+            boolean bound = outputTensorBinding;
+            Map<Integer, Object> outputBuffers = prepareOutputBuffers(bound, pooled, metrics);
+
+            metrics.lap(InferenceMetrics.Stage.InputConversion);
 
-        // Run the model on the input buffers, store the output in the output buffers
+            // Run the model on the input buffers, store the output in the output buffers
 
-        interpreter.runForMultipleInputsOutputs(inputBuffers, outputBuffers);
+            pooled.interpreter.runForMultipleInputsOutputs(inputBuffers, outputBuffers);
+            recordInferenceDuration(pooled);
+            bindOutputTensors(outputBuffers, bound, pooled);
+            metrics.lap(InferenceMetrics.Stage.Invoke);
 
-        // Convert output buffers to user land objects
+            // Convert output buffers to user land objects
 
-        return captureOutputs(outputBuffers);
+            Map<String, Object> results = captureOutputs(outputBuffers, metrics);
+            metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+            return results;
+        } finally {
+            pooled.restoreInputBuffers();
+            pool.release(pooled);
+        }
     }
 
     /**
-     * Prepares a ByteBuffer that will be used for input to a model. If buffer caching is used
-     * then buffers that have been associated with each layer will be resued.
+     * Actually performs inference on a model with dynamic input shapes. The interpreter's inputs
+     * are resized to the shape of each input, and the layer descriptions and buffers for those
+     * shapes are taken from the interpreter's shape cache.
      *
-     * @param input The input to convert to a byte buffer
-     * @param inputLayer The interface to the layer that this buffer will be used with
-     * @return ByteBuffer ready for input to a model
+     * @param inputs A mapping from input layer names to input values
+     * @param metrics Metrics for the call, lapped at the end of each stage
+     * @return The model's outputs mapped by the output layer names
+     * @throws ModelException raised if no interpreter could be acquired
      * @throws IllegalArgumentException raised if the input cannot be transformed to the format
      *                                  expected by the model
      */
 
-    private ByteBuffer prepareInputBuffer(@NonNull Object input, @NonNull LayerInterface inputLayer) throws IllegalArgumentException {
-        final AtomicReference<ByteBuffer> inputBuffer = new AtomicReference<>();
-        final ByteBuffer cachedBuffer = cacheBuffers ? bufferCache.get(inputLayer) : null;
+    private Map<String, Object> runDynamicInputs(@NonNull Map<String, Object> inputs, @NonNull InferenceMetrics metrics) throws ModelException, IllegalArgumentException {
 
-        inputLayer.doCase((vectorLayer) -> {
-            ByteBuffer buffer = vectorConverter.toByteBuffer(input, vectorLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (pixelLayer) -> {
-            ByteBuffer buffer = bitmapConverter.toByteBuffer(input, pixelLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        }, (stringLayer) -> {
-            ByteBuffer buffer = stringConverter.toByteBuffer(input, stringLayer, cachedBuffer);
-            inputBuffer.set(buffer);
-        });
-        
-        return inputBuffer.get();
-    }
+        // Fetch the input and output layer descriptions from the model
 
-    /**
-     * Prepares a ByteBuffer that can be used for output from a model. If buffer caching is used
-     * then buffers that have been associated with each layer will be resued.
-     *
-     * @param outputLayer The interface to the layer layer that this buffer will be used with
-     * @return ByteBuffer ready for model output
-     */
+        IO.IOList inputList = getIO().getInputs();
+        IO.IOList outputList = getIO().getOutputs();
 
-    private ByteBuffer prepareOutputBuffer(@NonNull LayerInterface outputLayer) {
-        if (cacheBuffers) {
-            ByteBuffer cached = bufferCache.get(outputLayer);
-            cached.rewind();
-            return cached;
-        }
+        // Resolve the dynamic dimension of each dynamic input from its length
 
-        final AtomicReference<ByteBuffer> outputBuffer = new AtomicReference<>();
+        int[] dimensions = dynamicDimensions(inputs);
 
-        outputLayer.doCase((vectorLayer) -> {
-            ByteBuffer buffer = vectorConverter.createBackingBuffer(vectorLayer);
-            outputBuffer.set(buffer);
-        }, (pixelLayer) -> {
-            ByteBuffer buffer = bitmapConverter.createBackingBuffer(pixelLayer);
-            outputBuffer.set(buffer);
-        }, (stringLayer) -> {
+        // Check out an interpreter for the duration of inference
+
+        InterpreterPool pool = acquirePool();
+        PooledInterpreter pooled = pool.acquire();
+
+        ShapeCache.Entry entry = null;
+
+        try {
+
+            // Size the interpreter's inputs for the dimensions
+
+            entry = resizeDynamic(pooled, dimensions, metrics);
+
+            // Prepare input buffers
+
+            for (int i = 0; i < inputList.size(); i++){
+                LayerInterface inputLayer = inputList.get(i);
+                Object input = inputs.get(inputLayer.getName());
+
+                entry.inputBuffers[i] = prepareInputBuffer(input, inputLayer, entry.inputDescriptions[i], entry.inputBufferCache[i], metrics);
+            }
+
+            // Prepare output buffers, leaving out the outputs that are read from bound tensors
+
+            boolean bound = outputTensorBinding;
+
+            for (int i = 0; i < outputList.size(); i++){
+                if (bound && isBindable(outputList.get(i))) {
+                    entry.outputBuffers.remove(i);
+                } else {
+                    entry.outputBufferCache[i].rewind();
+                    entry.outputBuffers.put(i, entry.outputBufferCache[i]);
+                }
+            }
+
+            metrics.lap(InferenceMetrics.Stage.InputConversion);
+
+            // Run the model on the input buffers, store the output in the output buffers
+
+            pooled.interpreter.runForMultipleInputsOutputs(entry.inputBuffers, entry.outputBuffers);
+            recordInferenceDuration(pooled);
+            bindOutputTensors(entry.outputBuffers, bound, pooled);
+            metrics.lap(InferenceMetrics.Stage.Invoke);
+
+            // Convert output buffers to user land objects with the shapes of the outputs
+
+            Map<String, Object> results = captureOutputs(entry.outputBuffers, entry.outputDescriptions, metrics);
+            metrics.lap(InferenceMetrics.Stage.OutputCapture);
+
+            return results;
+        } finally {
+            if (entry != null) {
+                entry.clearInputBuffers();
+            }
+            pool.release(pooled);
+        }
+    }
+
+    /**
+     * Returns the interpreter pool of a loaded model
+     * @throws ModelException raised if the model was unloaded before inference could begin
+     */
+
+    private InterpreterPool acquirePool() throws ModelException {
+        InterpreterPool pool = interpreterPool;
+
+        if (pool == null) {
+            throw new ModelException("The model is not loaded");
+        }
+
+        return pool;
+    }
+
+    private void recordInferenceDuration(@NonNull PooledInterpreter pooled) {
+        Long duration = pooled.interpreter.getLastNativeInferenceDurationNanoseconds();
+
+        if (duration != null) {
+            lastInferenceDuration = duration;
+        }
+    }
+
+    /**
+     * Prepares a ByteBuffer that will be used for input to a model. If buffer caching is used
+     * then buffers that have been associated with each layer will be resued. A direct ByteBuffer
+     * input matching the layer is returned without being copied.
+     *
+     * @param input The input to convert to a byte buffer
+     * @param inputLayer The interface to the layer that this buffer will be used with
+     * @param pooled The interpreter whose buffers will be used
+     * @param metrics Records the bytes copied and whether a cached buffer was used
+     * @return ByteBuffer ready for input to a model
+     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private ByteBuffer prepareInputBuffer(@NonNull Object input, @NonNull LayerInterface inputLayer, @NonNull PooledInterpreter pooled, @NonNull InferenceMetrics metrics) throws IllegalArgumentException {
+        final ByteBuffer cachedBuffer = pooled.bufferCache != null ? pooled.bufferCache.get(inputLayer) : null;
+        return prepareInputBuffer(input, inputLayer, inputLayer.getLayerDescription(), cachedBuffer, metrics);
+    }
+
+    /**
+     * Prepares a ByteBuffer for input to a model from a description of the layer, which for a
+     * dynamic layer is resolved for the shape of the input.
+     *
+     * @param input The input to convert to a byte buffer
+     * @param inputLayer The interface to the layer that this buffer will be used with
+     * @param description The description of the layer to convert the input with
+     * @param cachedBuffer A buffer to convert the input into, or null to allocate one
+     * @param metrics Records the bytes copied and whether a cached buffer was used
+     * @return ByteBuffer ready for input to a model
+     * @throws IllegalArgumentException raised if the input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private ByteBuffer prepareInputBuffer(@NonNull Object input, @NonNull LayerInterface inputLayer, @NonNull LayerDescription description, @Nullable ByteBuffer cachedBuffer, @NonNull InferenceMetrics metrics) throws IllegalArgumentException {
+        final Converter converter = converterFor(inputLayer);
+
+        // A buffer already laid out as the interpreter expects is passed to it as is
+
+        if (input instanceof ByteBuffer && ByteBuffers.isZeroCopy((ByteBuffer) input, converter.byteLength(description))) {
+            return (ByteBuffer) input;
+        }
+
+        final ByteBuffer buffer = converter.toByteBuffer(input, description, cachedBuffer);
+
+        metrics.addCacheLookup(cachedBuffer != null);
+        metrics.addBytesCopied(buffer.capacity());
+
+        return buffer;
+    }
+
+    /**
+     * Prepares a ByteBuffer that can be used for output from a model. If buffer caching is used
+     * then buffers that have been associated with each layer will be resued.
+     *
+     * @param outputLayer The interface to the layer layer that this buffer will be used with
+     * @param pooled The interpreter whose buffers will be used
+     * @param metrics Records whether a cached buffer was used
+     * @return ByteBuffer ready for model output
+     */
+
+    private ByteBuffer prepareOutputBuffer(@NonNull LayerInterface outputLayer, @NonNull PooledInterpreter pooled, @NonNull InferenceMetrics metrics) {
+        metrics.addCacheLookup(pooled.bufferCache != null);
+
+        if (pooled.bufferCache != null) {
+            ByteBuffer cached = pooled.bufferCache.get(outputLayer);
+            cached.rewind();
+            return cached;
+        }
+
+        final AtomicReference<ByteBuffer> outputBuffer = new AtomicReference<>();
+
+        outputLayer.doCase((vectorLayer) -> {
+            ByteBuffer buffer = vectorConverter.createBackingBuffer(vectorLayer);
+            outputBuffer.set(buffer);
+        }, (pixelLayer) -> {
+            ByteBuffer buffer = bitmapConverter.createBackingBuffer(pixelLayer);
+            outputBuffer.set(buffer);
+        }, (stringLayer) -> {
             ByteBuffer buffer = stringConverter.createBackingBuffer(stringLayer);
             outputBuffer.set(buffer);
         });
@@ -504,13 +1054,459 @@ public class TFLiteModel extends Model {
         return outputBuffer.get();
     }
 
+    /**
+     * Prepares the output buffers the interpreter copies its outputs into, keyed by output index.
+     * If output tensors are bound, the outputs that can be read from the interpreter's tensors are
+     * left out of the buffers.
+     *
+     * @param bound true if outputs are read from the interpreter's tensors where possible
+     * @param pooled The interpreter whose buffers will be used
+     * @param metrics Records whether cached buffers were used
+     * @return The output buffers to run the interpreter with
+     */
+
+    private Map<Integer, Object> prepareOutputBuffers(boolean bound, @NonNull PooledInterpreter pooled, @NonNull InferenceMetrics metrics) {
+        IO.IOList outputList = getIO().getOutputs();
+
+        Map<Integer, Object> outputBuffers = pooled.outputBuffers != null
+                ? pooled.outputBuffers
+                : new HashMap<>(outputList.size());
+
+        for (int i = 0; i < outputList.size(); i++){
+            LayerInterface outputLayer = outputList.get(i);
+
+            if (bound && isBindable(outputLayer)) {
+                outputBuffers.remove(i);
+            } else {
+                outputBuffers.put(i, prepareOutputBuffer(outputLayer, pooled, metrics));
+            }
+        }
+
+        return outputBuffers;
+    }
+
+    /**
+     * Once the interpreter has run, adds a view on each bound output tensor to the output buffers
+     * so that outputs are captured from the interpreter's tensors without being copied first.
+     */
+
+    private void bindOutputTensors(@NonNull Map<Integer, Object> outputBuffers, boolean bound, @NonNull PooledInterpreter pooled) {
+        if (!bound) {
+            return;
+        }
+
+        IO.IOList outputList = getIO().getOutputs();
+
+        for (int i = 0; i < outputList.size(); i++){
+            if (isBindable(outputList.get(i))) {
+                outputBuffers.put(i, pooled.outputTensorBuffer(i));
+            }
+        }
+    }
+
+    /**
+     * String outputs are returned as views on their buffers, which must outlive the interpreter's
+     * tensors, so only vector and pixel buffer outputs are read from bound tensors.
+     */
+
+    private static boolean isBindable(@NonNull LayerInterface layer) {
+        return layer.getType() != LayerInterface.Type.String;
+    }
+
+    /**
+     * Resizes the interpreter's dynamic inputs and reallocates its tensors if the interpreter is not
+     * already sized for the dimensions, and returns the descriptions and buffers for them, creating
+     * and caching them if they are not in the interpreter's shape cache. Without a shape cache they
+     * are created for every run.
+     *
+     * @param pooled The interpreter to resize
+     * @param dimensions The size of the dynamic dimension of each dynamic input
+     * @param metrics Records whether cached buffers were used
+     * @return The descriptions and buffers for the dimensions
+     */
+
+    private ShapeCache.Entry resizeDynamic(@NonNull PooledInterpreter pooled, @NonNull int[] dimensions, @NonNull InferenceMetrics metrics) {
+        ShapeCache.Entry entry = pooled.shapeCache != null ? pooled.shapeCache.get(dimensions) : null;
+        metrics.addCacheLookup(entry != null);
+
+        LayerDescription[] inputDescriptions = entry != null
+                ? entry.inputDescriptions
+                : resolveInputDescriptions(dimensions);
+
+        if (!Arrays.equals(pooled.dynamicDimensions, dimensions)) {
+
+            // Unknown until every input has been resized, so that a failure is retried on the next run
+
+            pooled.dynamicDimensions = null;
+
+            IO.IOList inputList = getIO().getInputs();
+
+            for (int i = 0; i < inputList.size(); i++) {
+                LayerInterface inputLayer = inputList.get(i);
+
+                if (!isDynamic(inputLayer) && !inputLayer.isBatched()) {
+                    continue;
+                }
+
+                int[] shape = inputDescriptions[i].getTensorShape().clone();
+
+                if (inputLayer.isBatched()) {
+                    shape[0] = 1;
+                }
+
+                pooled.interpreter.resizeInput(i, shape);
+            }
+
+            pooled.interpreter.allocateTensors();
+            pooled.dynamicDimensions = dimensions;
+        }
+
+        if (entry == null) {
+            entry = createShapeCacheEntry(pooled, dimensions, inputDescriptions);
+
+            if (pooled.shapeCache != null) {
+                pooled.shapeCache.put(entry);
+            }
+        }
+
+        return entry;
+    }
+
+    /**
+     * Creates the descriptions and buffers for dynamic input dimensions once the interpreter has
+     * been sized for them. The description of a dynamic output is taken from the shape the
+     * interpreter gives its output tensor.
+     */
+
+    private ShapeCache.Entry createShapeCacheEntry(@NonNull PooledInterpreter pooled, @NonNull int[] dimensions, @NonNull LayerDescription[] inputDescriptions) {
+        IO.IOList inputList = getIO().getInputs();
+        IO.IOList outputList = getIO().getOutputs();
+
+        LayerDescription[] outputDescriptions = new LayerDescription[outputList.size()];
+        ByteBuffer[] inputBufferCache = new ByteBuffer[inputList.size()];
+        ByteBuffer[] outputBufferCache = new ByteBuffer[outputList.size()];
+
+        for (int i = 0; i < inputList.size(); i++) {
+            inputBufferCache[i] = converterFor(inputList.get(i)).createBackingBuffer(inputDescriptions[i]);
+        }
+
+        for (int i = 0; i < outputList.size(); i++) {
+            LayerInterface outputLayer = outputList.get(i);
+
+            if (isDynamic(outputLayer)) {
+                int[] shape = pooled.interpreter.getOutputTensor(i).shape().clone();
+
+                if (outputLayer.isBatched()) {
+                    shape[0] = -1;
+                }
+
+                outputDescriptions[i] = ((VectorLayerDescription) outputLayer.getLayerDescription()).withShape(shape);
+            } else {
+                outputDescriptions[i] = outputLayer.getLayerDescription();
+            }
+
+            outputBufferCache[i] = converterFor(outputLayer).createBackingBuffer(outputDescriptions[i]);
+        }
+
+        return new ShapeCache.Entry(dimensions, inputDescriptions, outputDescriptions, inputBufferCache, outputBufferCache);
+    }
+
+    /**
+     * Returns the description of each input, with the dynamic dimension of each dynamic input
+     * resolved to its size in `dimensions`.
+     */
+
+    private LayerDescription[] resolveInputDescriptions(@NonNull int[] dimensions) {
+        IO.IOList inputList = getIO().getInputs();
+        LayerDescription[] descriptions = new LayerDescription[inputList.size()];
+
+        for (int i = 0, j = 0; i < inputList.size(); i++) {
+            LayerInterface inputLayer = inputList.get(i);
+
+            if (isDynamic(inputLayer)) {
+                VectorLayerDescription description = (VectorLayerDescription) inputLayer.getLayerDescription();
+                int[] shape = description.getShape().clone();
+                shape[description.getDynamicDimension()] = dimensions[j++];
+
+                descriptions[i] = description.withShape(shape);
+            } else {
+                descriptions[i] = inputLayer.getLayerDescription();
+            }
+        }
+
+        return descriptions;
+    }
+
+    /**
+     * Returns the size of the dynamic dimension of each dynamic input, in input order, resolved
+     * from the number of values in each input.
+     *
+     * @throws IllegalArgumentException raised if an input does not fill a whole number of its
+     *                                  dynamic dimension's units
+     */
+
+    private int[] dynamicDimensions(@NonNull Map<String, Object> inputs) throws IllegalArgumentException {
+        IO.IOList inputList = getIO().getInputs();
+        int count = 0;
+
+        for (int i = 0; i < inputList.size(); i++) {
+            if (isDynamic(inputList.get(i))) {
+                count++;
+            }
+        }
+
+        int[] dimensions = new int[count];
+
+        for (int i = 0, j = 0; i < inputList.size(); i++) {
+            LayerInterface inputLayer = inputList.get(i);
+
+            if (!isDynamic(inputLayer)) {
+                continue;
+            }
+
+            VectorLayerDescription description = (VectorLayerDescription) inputLayer.getLayerDescription();
+            int[] shape = description.resolveShape(valueCount(inputs.get(inputLayer.getName()), description));
+
+            dimensions[j++] = shape[description.getDynamicDimension()];
+        }
+
+        return dimensions;
+    }
+
+    /**
+     * Returns the number of values in an input to a vector layer.
+     */
+
+    private int valueCount(@Nullable Object input, @NonNull VectorLayerDescription description) throws IllegalArgumentException {
+        if (input instanceof float[]) {
+            return ((float[]) input).length;
+        } else if (input instanceof byte[]) {
+            return ((byte[]) input).length;
+        } else if (input instanceof int[]) {
+            return ((int[]) input).length;
+        } else if (input instanceof long[]) {
+            return ((long[]) input).length;
+        } else if (input instanceof ByteBuffer) {
+            int bytesPerValue = vectorConverter.byteLength(description) / description.getLength();
+            return ((ByteBuffer) input).remaining() / bytesPerValue;
+        } else {
+            throw new IllegalArgumentException("Expected float[], byte[], int[], long[], or ByteBuffer as input to a dynamic layer");
+        }
+    }
+
+    /**
+     * @return true if any of the model's inputs has a dynamic dimension
+     */
+
+    private boolean hasDynamicInputs() {
+        for (LayerInterface layer : getIO().getInputs().all()) {
+            if (isDynamic(layer)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isDynamic(@NonNull LayerInterface layer) {
+        return layer.getType() == LayerInterface.Type.Vector && ((VectorLayerDescription) layer.getLayerDescription()).isDynamic();
+    }
+
+    /**
+     * Resizes the leading dimension of the interpreter's batched inputs and reallocates its tensors
+     * if the interpreter is not already sized for the batch.
+     *
+     * @param pooled The interpreter to resize
+     * @param batchSize The number of items in the batch
+     */
+
+    private void resizeBatch(@NonNull PooledInterpreter pooled, int batchSize) {
+        if (pooled.batchSize == batchSize) {
+            return;
+        }
+
+        // Unknown until every input has been resized, so that a failure is retried on the next run
+
+        pooled.batchSize = -1;
+
+        IO.IOList inputList = getIO().getInputs();
+
+        for (int i = 0; i < inputList.size(); i++) {
+            LayerInterface inputLayer = inputList.get(i);
+
+            if (!inputLayer.isBatched()) {
+                continue;
+            }
+
+            int[] shape = inputLayer.getTensorShape().clone();
+            shape[0] = batchSize;
+
+            pooled.interpreter.resizeInput(i, shape);
+        }
+
+        pooled.interpreter.allocateTensors();
+        pooled.batchSize = batchSize;
+    }
+
+    /**
+     * Grows the interpreter's batch buffers if they cannot hold the batch. Buffers are only ever
+     * grown so that repeated batches of varying size do not reallocate them.
+     */
+
+    private void prepareBatchBufferCache(@NonNull PooledInterpreter pooled, int batchSize) {
+        if (pooled.bufferCache == null || pooled.batchBufferCapacity >= batchSize) {
+            return;
+        }
+
+        Map<LayerInterface, ByteBuffer> batchBufferCache = new HashMap<>();
+
+        for (LayerInterface layer : getIO().getInputs().all()) {
+            batchBufferCache.put(layer, createBackingBuffer(layer, batchSize));
+        }
+        for (LayerInterface layer : getIO().getOutputs().all()) {
+            batchBufferCache.put(layer, createBackingBuffer(layer, batchSize));
+        }
+
+        pooled.batchBufferCache = batchBufferCache;
+        pooled.batchBufferCapacity = batchSize;
+    }
+
+    /**
+     * Returns a view on the interpreter's cached batch buffer for a layer that holds exactly
+     * `batchSize` items, or null if buffer caching is disabled.
+     */
+
+    @Nullable
+    private ByteBuffer cachedBatchBuffer(@NonNull LayerInterface layer, int batchSize, @NonNull PooledInterpreter pooled) {
+        if (pooled.batchBufferCache == null || pooled.batchBufferCapacity < batchSize) {
+            return null;
+        }
+
+        ByteBuffer buffer = pooled.batchBufferCache.get(layer);
+        int itemLength = buffer.capacity() / pooled.batchBufferCapacity;
+
+        return ByteBuffers.slice(buffer, 0, itemLength * batchSize);
+    }
+
+    /**
+     * Prepares a ByteBuffer holding a column of batched inputs.
+     *
+     * @param column The inputs to convert, one per item in the batch
+     * @param inputLayer The interface to the layer that this buffer will be used with
+     * @param pooled The interpreter whose buffers will be used
+     * @param metrics Records the bytes copied and whether a cached buffer was used
+     * @return ByteBuffer ready for input to a model
+     * @throws IllegalArgumentException raised if an input cannot be transformed to the format
+     *                                  expected by the model
+     */
+
+    private ByteBuffer prepareBatchInputBuffer(@NonNull Object[] column, @NonNull LayerInterface inputLayer, @NonNull PooledInterpreter pooled, @NonNull InferenceMetrics metrics) throws IllegalArgumentException {
+        final AtomicReference<ByteBuffer> inputBuffer = new AtomicReference<>();
+        final ByteBuffer cachedBuffer = cachedBatchBuffer(inputLayer, column.length, pooled);
+
+        inputLayer.doCase((vectorLayer) -> {
+            ByteBuffer buffer = vectorConverter.toByteBuffer(column, vectorLayer, cachedBuffer);
+            inputBuffer.set(buffer);
+        }, (pixelLayer) -> {
+            ByteBuffer buffer = bitmapConverter.toByteBuffer(column, pixelLayer, cachedBuffer);
+            inputBuffer.set(buffer);
+        }, (stringLayer) -> {
+            ByteBuffer buffer = stringConverter.toByteBuffer(column, stringLayer, cachedBuffer);
+            inputBuffer.set(buffer);
+        });
+
+        metrics.addCacheLookup(cachedBuffer != null);
+        metrics.addBytesCopied(inputBuffer.get().capacity());
+
+        return inputBuffer.get();
+    }
+
+    /**
+     * Prepares a ByteBuffer that can hold a batch of outputs from a model.
+     *
+     * @param outputLayer The interface to the layer layer that this buffer will be used with
+     * @param batchSize The number of items in the batch
+     * @param pooled The interpreter whose buffers will be used
+     * @param metrics Records whether a cached buffer was used
+     * @return ByteBuffer ready for model output
+     */
+
+    private ByteBuffer prepareBatchOutputBuffer(@NonNull LayerInterface outputLayer, int batchSize, @NonNull PooledInterpreter pooled, @NonNull InferenceMetrics metrics) {
+        ByteBuffer cached = cachedBatchBuffer(outputLayer, batchSize, pooled);
+        metrics.addCacheLookup(cached != null);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        return createBackingBuffer(outputLayer, batchSize);
+    }
+
+    /** Creates a buffer for a layer large enough to hold a batch of items */
+
+    private ByteBuffer createBackingBuffer(@NonNull LayerInterface layer, int batchSize) {
+        final AtomicReference<ByteBuffer> backingBuffer = new AtomicReference<>();
+
+        layer.doCase((vectorLayer) -> {
+            backingBuffer.set(vectorConverter.createBackingBuffer(vectorLayer, batchSize));
+        }, (pixelLayer) -> {
+            backingBuffer.set(bitmapConverter.createBackingBuffer(pixelLayer, batchSize));
+        }, (stringLayer) -> {
+            backingBuffer.set(stringConverter.createBackingBuffer(stringLayer, batchSize));
+        });
+
+        return backingBuffer.get();
+    }
+
+    /**
+     * Converts captured ByteBuffers from a batched model's output to a batch of user land objects
+     * @param outputs The indexed output buffers, each holding every item in the batch
+     * @param batchSize The number of items in the batch
+     * @param metrics Records the bytes copied
+     * @return A Batch whose items map keys to user land objects capturing the model's outputs
+     */
+
+    private Batch captureBatchedOutputs(@NonNull Map<Integer, Object> outputs, int batchSize, @NonNull InferenceMetrics metrics) {
+        IO.IOList outputList = getIO().getOutputs();
+        String[] keys = new String[outputList.size()];
+        Batch.Item[] items = new Batch.Item[batchSize];
+
+        for (int j = 0; j < batchSize; j++) {
+            items[j] = new Batch.Item();
+        }
+
+        for (int i = 0; i < outputList.size(); i++){
+            LayerInterface layer = outputList.get(i);
+            String name = layer.getName();
+            keys[i] = name;
+
+            ByteBuffer buffer = (ByteBuffer)outputs.get(i);
+            int itemLength = buffer.capacity() / batchSize;
+            metrics.addBytesCopied(buffer.capacity());
+
+            for (int j = 0; j < batchSize; j++) {
+                ByteBuffer slice = ByteBuffers.slice(buffer, j * itemLength, itemLength);
+                items[j].put(name, captureOutput(slice, layer));
+            }
+        }
+
+        Batch results = new Batch(keys);
+
+        for (Batch.Item item : items) {
+            results.add(item);
+        }
+
+        return results;
+    }
+
     /**
      * Converts captured ByteBuffers from a model's output to user land Objects
      * @param outputs The indexed output buffers
+     * @param metrics Records the bytes copied
      * @return A Map of keys to user land objects capturing the model's outputs
      */
 
-    private Map<String, Object> captureOutputs(@NonNull Map<Integer, Object> outputs) {
+    private Map<String, Object> captureOutputs(@NonNull Map<Integer, Object> outputs, @NonNull InferenceMetrics metrics) {
         IO.IOList outputList = getIO().getOutputs();
         Map<String, Object> outputMap = new HashMap<>(outputList.size());
 
@@ -520,6 +1516,7 @@ public class TFLiteModel extends Model {
 
             ByteBuffer buffer = (ByteBuffer)outputs.get(i);
             Object o = captureOutput(buffer, layer);
+            metrics.addBytesCopied(buffer.capacity());
 
             outputMap.put(name, o);
         }
@@ -527,6 +1524,39 @@ public class TFLiteModel extends Model {
         return outputMap;
     }
 
+    /**
+     * Converts captured ByteBuffers from a model's output to user land Objects using a description
+     * of each output, which for a dynamic output is resolved for the shape of the output
+     * @param outputs The indexed output buffers
+     * @param descriptions The indexed output descriptions
+     * @param metrics Records the bytes copied
+     * @return A Map of keys to user land objects capturing the model's outputs
+     */
+
+    private Map<String, Object> captureOutputs(@NonNull Map<Integer, Object> outputs, @NonNull LayerDescription[] descriptions, @NonNull InferenceMetrics metrics) {
+        IO.IOList outputList = getIO().getOutputs();
+        Map<String, Object> outputMap = new HashMap<>(outputList.size());
+
+        for (int i = 0; i < outputList.size(); i++){
+            LayerInterface layer = outputList.get(i);
+            LayerDescription description = descriptions[i];
+
+            ByteBuffer buffer = (ByteBuffer)outputs.get(i);
+            Object o = converterFor(layer).fromByteBuffer(buffer, description);
+            metrics.addBytesCopied(buffer.capacity());
+
+            // If the vector's output is labeled, return a Map of keys to values rather than raw values
+
+            if (description instanceof VectorLayerDescription && ((VectorLayerDescription) description).isLabeled() && o instanceof float[]) {
+                o = ((VectorLayerDescription) description).labeledValues((float[]) o);
+            }
+
+            outputMap.put(layer.getName(), o);
+        }
+
+        return outputMap;
+    }
+
     /**
      * Converts a single ByteBuffer to a user land object
      * @param buffer The buffer to capture and convert
@@ -565,35 +1595,56 @@ public class TFLiteModel extends Model {
         return output.get();
     }
 
+    /**
+     * Reads a single ByteBuffer into a caller supplied destination
+     * @param buffer The buffer to read
+     * @param layer The interface to the output
+     * @param destination A preallocated object in accordance with the layer description, usually
+     *                    one of float[], FloatBuffer, byte[], or a mutable Bitmap
+     * @param metrics Records the bytes copied
+     */
+
+    private void captureOutputInto(@NonNull ByteBuffer buffer, @NonNull LayerInterface layer, @NonNull Object destination, @NonNull InferenceMetrics metrics) {
+        converterFor(layer).fromByteBufferInto(buffer, layer.getLayerDescription(), destination);
+        metrics.addBytesCopied(buffer.capacity());
+    }
+
+    /**
+     * Returns the converter for a layer's type. Used on the inference hot path in place of
+     * `doCase`, whose capturing lambdas would be allocated on every call.
+     */
+
+    private Converter converterFor(@NonNull LayerInterface layer) {
+        switch (layer.getType()) {
+            case PixelBuffer:
+                return bitmapConverter;
+            case String:
+                return stringConverter;
+            default:
+                return vectorConverter;
+        }
+    }
+
     //endRegion
 
     //region Utilities
 
+    /** The native inference duration in nanoseconds of the most recently completed run on any interpreter */
+
     public long getLastInferenceDuration(){
-        return interpreter.getLastNativeInferenceDurationNanoseconds();
+        return lastInferenceDuration;
     }
 
+    /** Acquires the model file's shared memory mapping, which is released when the model unloads */
+
     private MappedByteBuffer loadModelFile() throws IOException {
 
         if (getBundle() instanceof AssetModelBundle) {
             AssetModelBundle bundle = (AssetModelBundle) getBundle();
-            AssetFileDescriptor fileDescriptor = bundle.getContext().getAssets().openFd(bundle.getModelFilename());
-            FileInputStream inputStream = new FileInputStream(fileDescriptor.getFileDescriptor());
-            FileChannel fileChannel = inputStream.getChannel();
-
-            long startOffset = fileDescriptor.getStartOffset();
-            long length = fileDescriptor.getDeclaredLength();
-
-            return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, length);
+            return MappedFiles.acquire(bundle.getContext().getAssets(), bundle.getModelFilename(), prefaultModelFile);
         } else if (getBundle() instanceof FileModelBundle) {
             FileModelBundle bundle = (FileModelBundle) getBundle();
-            FileInputStream inputStream = new FileInputStream(bundle.getModelFile());
-            FileChannel fileChannel = inputStream.getChannel();
-
-            long startOffset = 0;
-            long length = fileChannel.size();
-
-            return fileChannel.map(FileChannel.MapMode.READ_ONLY, startOffset, length);
+            return MappedFiles.acquire(bundle.getModelFile(), prefaultModelFile);
         } else {
             throw new FileNotFoundException();
         }